@@ -5,13 +5,21 @@ import ai.tutor.cab302exceptionalhandlers.model.*;
 import ai.tutor.cab302exceptionalhandlers.factories.ControllerFactory;
 import ai.tutor.cab302exceptionalhandlers.types.AuthType;
 import ai.tutor.cab302exceptionalhandlers.types.ChatSetupType;
+import ai.tutor.cab302exceptionalhandlers.Utils.AIUtils;
+import ai.tutor.cab302exceptionalhandlers.Utils.MarkdownRenderCache;
+import ai.tutor.cab302exceptionalhandlers.Utils.ResponseCache;
 import ai.tutor.cab302exceptionalhandlers.Utils.Utils;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Manages scene navigation and controller instantiation for the application.
@@ -19,6 +27,14 @@ import java.sql.SQLException;
  * Scene Manager is a singleton providing a centralized point
  * for switching between different views in the JavaFX application.
  * It uses a {@link ControllerFactory} to create controllers for each view.
+ * <p>
+ * The chat, quiz and user settings views are loaded once per user and kept with their
+ * controllers. Navigating back to one of them shows the kept scene and asks its controller
+ * to refresh its data, instead of parsing the FXML and building the controller again.
+ * The kept views are discarded when returning to the authentication views, or when a
+ * different user navigates. The time taken by each navigation is recorded per view,
+ * see {@link #getNavigationStats()}, and is only printed, with the startup time and
+ * cache hit rates, when {@link #setVerbose(boolean)} is enabled.
  *
  * <p>Usage Example:
  * <pre>
@@ -31,20 +47,55 @@ import java.sql.SQLException;
  */
 public class SceneManager {
     private static SceneManager instance;
+    private static boolean verbose = false;
     private Stage stage;
     private ControllerFactory controllerFactory;
 
+    private final Map<String, CachedView> viewCache = new HashMap<>();
+    private User cachedUser;
+    private final Map<String, NavigationStats> navigationStats = new LinkedHashMap<>();
 
     /**
      * Initializes the scene manager for the application.
      * <p>
      * A new instance of {@link SQLiteConnection} is created for database access, and given
      * to {@link ControllerFactory} to manage application controller initialization.
+     * Opening the connection migrates the schema and the factory builds the shared DAOs,
+     * both exactly once per process, and the AI response cache is installed on
+     * {@link AIUtils}; the time taken is logged at startup in verbose mode. Database calls
+     * made on the JavaFX Application Thread are flagged by the connection, as they freeze
+     * the UI while they run.
      *
      * @throws SQLException if a database connection error occurs.
      */
     private SceneManager() throws SQLException {
-        controllerFactory = new ControllerFactory(new SQLiteConnection());
+        long startTime = System.nanoTime();
+        SQLiteConnection db = new SQLiteConnection();
+        db.setBlockingThreadCheck(Platform::isFxApplicationThread);
+        controllerFactory = new ControllerFactory(db);
+        AIUtils.getInstance().setResponseCache(new ResponseCache(controllerFactory.getDAORegistry().getResponseCacheDAO()));
+        if (verbose) {
+            System.out.printf("Database and DAOs ready in %.1f ms%n", (System.nanoTime() - startTime) / 1_000_000.0);
+        }
+    }
+
+    /**
+     * Sets whether navigation timings, the startup time and cache hit rates are printed.
+     * <p>
+     * By default, this is false. Enable it before {@link #getInstance()} is first called
+     * to also print the startup time.
+     *
+     * @param verbose True to enable verbose output, false to disable.
+     */
+    public static void setVerbose(boolean verbose) {
+        SceneManager.verbose = verbose;
+    }
+
+    /**
+     * @return True if navigation timings, the startup time and cache hit rates are printed.
+     */
+    public static boolean isVerbose() {
+        return verbose;
     }
 
     /**
@@ -80,16 +131,43 @@ public class SceneManager {
      * @throws IOException if the authentication view cannot be loaded.
      */
     public void navigateToAuth(AuthType type) throws IllegalStateException, RuntimeException, SQLException, IOException {
+        long startTime = System.nanoTime();
+        evictViews();
+        logCaches();
+
         AuthController controller = controllerFactory.authController()
             .type(type)
             .build();
 
         String viewName = type.equals(AuthType.LOGIN) ? "login-view.fxml" : "sign-up-view.fxml";
         loadView(viewName, controller);
+        recordNavigation(viewName, startTime, false);
+    }
+
+    /**
+     * Logs the hit rates of the shared chat, user and markdown caches in verbose mode, once they have been used.
+     */
+    private void logCaches() {
+        if (!verbose) {
+            return;
+        }
+        DAORegistry daos = controllerFactory.getDAORegistry();
+        EntityCache<Integer, Chat> chats = daos.getChatDAO().getChatCache();
+        EntityCache<Integer, User> users = daos.getUserDAO().getIdCache();
+        if (chats.getHits() + chats.getMisses() + users.getHits() + users.getMisses() > 0) {
+            System.out.printf("Chat cache: %s%nUser cache: %s%n", chats, users);
+        }
+        MarkdownRenderCache<?> markdown = ChatController.getMarkdownRenderCache();
+        if (markdown.getHits() + markdown.getMisses() > 0) {
+            System.out.println("Markdown cache: " + markdown);
+        }
     }
 
     /**
      * Navigates to the main chat view.
+     * <p>
+     * A kept chat view is shown as is, as its chat list follows every change made through
+     * the chat DAO.
      *
      * @param user The currently authenticated {@link User}.
      * @throws IllegalStateException if the user is not set.
@@ -98,11 +176,20 @@ public class SceneManager {
      * @throws IOException if the chat view cannot be loaded.
      */
     public void navigateToChat(User user) throws IllegalStateException, RuntimeException, SQLException, IOException {
+        long startTime = System.nanoTime();
+        String viewName = "chat-view.fxml";
+        CachedView cachedView = getCachedView(viewName, user);
+        if (cachedView != null) {
+            showView(viewName, cachedView, startTime);
+            return;
+        }
+
         ChatController controller = controllerFactory.chatController()
             .currentUser(user)
             .build();
 
-        loadView("chat-view.fxml", controller);
+        viewCache.put(viewName, new CachedView(loadView(viewName, controller), controller));
+        recordNavigation(viewName, startTime, false);
     }
 
     /**
@@ -117,6 +204,7 @@ public class SceneManager {
      * @throws IOException if the chat setup view cannot be loaded.
      */
     public void navigateToChatSetup(User user, ChatSetupType type, Chat chat) throws IllegalStateException, RuntimeException, SQLException, IOException {
+        long startTime = System.nanoTime();
         ChatSetupController controller;
         if (chat == null) {
             controller = controllerFactory.chatSetupController()
@@ -132,10 +220,13 @@ public class SceneManager {
         }
 
         loadView("chat-setup-view.fxml", controller);
+        recordNavigation("chat-setup-view.fxml", startTime, false);
     }
 
     /**
      * Navigates to the user settings view.
+     * <p>
+     * A kept user settings view is reset with {@link UserSettingsController#refreshView()}.
      *
      * @param user The currently authenticated {@link User}.
      * @throws IllegalStateException if the user is not set.
@@ -144,15 +235,27 @@ public class SceneManager {
      * @throws IOException if the user settings view cannot be loaded.
      */
     public void navigateToUserSettings(User user) throws IllegalStateException, RuntimeException, SQLException, IOException {
+        long startTime = System.nanoTime();
+        String viewName = "user-settings-view.fxml";
+        CachedView cachedView = getCachedView(viewName, user);
+        if (cachedView != null) {
+            ((UserSettingsController) cachedView.controller).refreshView();
+            showView(viewName, cachedView, startTime);
+            return;
+        }
+
         UserSettingsController controller = controllerFactory.userSettingsController()
             .currentUser(user)
             .build();
 
-        loadView("user-settings-view.fxml", controller);
+        viewCache.put(viewName, new CachedView(loadView(viewName, controller), controller));
+        recordNavigation(viewName, startTime, false);
     }
 
     /**
      * Navigates to the quiz view.
+     * <p>
+     * A kept quiz view is given the new quiz with {@link QuizController#showQuiz(Quiz)}.
      *
      * @param quiz The {@link Quiz} to be displayed.
      * @param user The currently authenticated {@link User}.
@@ -162,12 +265,89 @@ public class SceneManager {
      * @throws IOException if the quiz view cannot be loaded.
      */
     public void navigateToQuiz(Quiz quiz, User user) throws IllegalStateException, RuntimeException, SQLException, IOException {
+        long startTime = System.nanoTime();
+        String viewName = "quiz-view.fxml";
+        CachedView cachedView = getCachedView(viewName, user);
+        if (cachedView != null) {
+            ((QuizController) cachedView.controller).showQuiz(quiz);
+            showView(viewName, cachedView, startTime);
+            return;
+        }
+
         QuizController controller = controllerFactory.quizController()
             .quiz(quiz)
             .currentUser(user)
             .build();
 
-        loadView("quiz-view.fxml", controller);
+        viewCache.put(viewName, new CachedView(loadView(viewName, controller), controller));
+        recordNavigation(viewName, startTime, false);
+    }
+
+    /**
+     * Discards every kept view and its controller.
+     * <p>
+     * Called when returning to the authentication views, so that nothing of the
+     * previous user stays in memory after logging out.
+     */
+    public void evictViews() {
+        viewCache.clear();
+        cachedUser = null;
+    }
+
+    /**
+     * Gets the navigation timings recorded for each view.
+     *
+     * @return An unmodifiable map of FXML file names to their {@link NavigationStats}.
+     */
+    public Map<String, NavigationStats> getNavigationStats() {
+        return Collections.unmodifiableMap(navigationStats);
+    }
+
+    /**
+     * Gets the kept view for the given user, discarding the kept views of any other user.
+     *
+     * @param fxmlFile The name of the FXML file of the view.
+     * @param user The user navigating to the view.
+     * @return The kept view, or null if it must be loaded.
+     * @throws IllegalStateException if the user is not set.
+     */
+    private CachedView getCachedView(String fxmlFile, User user) throws IllegalStateException {
+        if (user == null) {
+            throw new IllegalStateException("No user was authenticated");
+        }
+        if (cachedUser == null || cachedUser.getId() != user.getId()) {
+            evictViews();
+            cachedUser = user;
+            return null;
+        }
+        return viewCache.get(fxmlFile);
+    }
+
+    /**
+     * Displays a kept scene on the main stage.
+     *
+     * @param fxmlFile The name of the FXML file of the view.
+     * @param cachedView The kept view.
+     * @param startTime The {@link System#nanoTime()} at which the navigation started.
+     */
+    private void showView(String fxmlFile, CachedView cachedView, long startTime) {
+        stage.setScene(cachedView.scene);
+        recordNavigation(fxmlFile, startTime, true);
+    }
+
+    /**
+     * Records how long a navigation took, printing it in verbose mode.
+     *
+     * @param fxmlFile The name of the FXML file of the view.
+     * @param startTime The {@link System#nanoTime()} at which the navigation started.
+     * @param cached Whether a kept view was shown instead of loading the FXML.
+     */
+    private void recordNavigation(String fxmlFile, long startTime, boolean cached) {
+        long elapsedNanos = System.nanoTime() - startTime;
+        navigationStats.computeIfAbsent(fxmlFile, key -> new NavigationStats()).record(elapsedNanos, cached);
+        if (verbose) {
+            System.out.printf("Navigated to %s in %.1f ms (%s)%n", fxmlFile, elapsedNanos / 1_000_000.0, cached ? "cached" : "loaded");
+        }
     }
 
 
@@ -176,10 +356,11 @@ public class SceneManager {
      *
      * @param fxmlFile The name of the FXML file to load (e.g., "login-view.fxml").
      * @param controller The controller instance for the view.
+     * @return The displayed scene.
      * @throws IllegalStateException if the application stage was not initialized.
      * @throws IOException if the scene view cannot be loaded.
      */
-    private void loadView(String fxmlFile, Object controller) throws IllegalStateException, IOException {
+    private Scene loadView(String fxmlFile, Object controller) throws IllegalStateException, IOException {
         if (stage == null) {
             throw new IllegalStateException("The application was not initialized with a stage");
         }
@@ -188,5 +369,57 @@ public class SceneManager {
         fxmlLoader.setController(controller);
         Scene scene = new Scene(fxmlLoader.load());
         stage.setScene(scene);
+        return scene;
+    }
+
+    /**
+     * A loaded scene kept together with its controller.
+     */
+    private static final class CachedView {
+        private final Scene scene;
+        private final Object controller;
+
+        private CachedView(Scene scene, Object controller) {
+            this.scene = scene;
+            this.controller = controller;
+        }
+    }
+
+    /**
+     * Navigation timings of a single view, split into loaded and cached navigations.
+     */
+    public static final class NavigationStats {
+        private long loads = 0;
+        private long loadNanos = 0;
+        private long cachedNavigations = 0;
+        private long cachedNanos = 0;
+        private long lastNanos = 0;
+
+        private void record(long elapsedNanos, boolean cached) {
+            if (cached) {
+                cachedNavigations++;
+                cachedNanos += elapsedNanos;
+            } else {
+                loads++;
+                loadNanos += elapsedNanos;
+            }
+            lastNanos = elapsedNanos;
+        }
+
+        public long getLoads() { return loads; }
+
+        public long getCachedNavigations() { return cachedNavigations; }
+
+        public double getAverageLoadMillis() { return loads == 0 ? 0 : loadNanos / 1_000_000.0 / loads; }
+
+        public double getAverageCachedMillis() { return cachedNavigations == 0 ? 0 : cachedNanos / 1_000_000.0 / cachedNavigations; }
+
+        public double getLastMillis() { return lastNanos / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            return String.format("%d loads (%.1f ms avg), %d cached (%.1f ms avg)",
+                    loads, getAverageLoadMillis(), cachedNavigations, getAverageCachedMillis());
+        }
     }
 }
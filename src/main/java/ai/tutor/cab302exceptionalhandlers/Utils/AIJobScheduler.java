@@ -0,0 +1,480 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs AI generations on virtual threads with a limit on how many run at once.
+ * <p>
+ * Each chat has its own FIFO queue, and at most one job per chat runs at a time, so a
+ * chat's responses are generated in the order they were requested. Across chats, at
+ * most {@code maxInFlight} jobs run at once, and free slots are handed to the waiting
+ * chats in turn. This keeps several chats waiting on a response from overloading the
+ * model host.
+ * <p>
+ * A job can be cancelled while it is queued or running. Cancelling a running job
+ * interrupts its thread, which aborts the HTTP request to the model host. The slot is
+ * only released once the thread has stopped. A job that has started saving its result,
+ * see {@link #beginCommit()}, can no longer be cancelled.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * AIJobScheduler.AIJob&lt;Message&gt; job = AIJobScheduler.getInstance().submit(chatId, () -&gt; generate());
+ * job.getFuture().whenComplete((message, error) -&gt; ...);
+ * job.cancel();</pre>
+ *
+ * @author Justin.
+ */
+public class AIJobScheduler {
+    /** The default number of generations allowed to run at once. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+
+    private static AIJobScheduler instance;
+
+    private final int maxInFlight;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Integer, ArrayDeque<AIJob<?>>> queues = new HashMap<>();
+    private final ArrayDeque<Integer> readyChats = new ArrayDeque<>();
+    private final Map<Integer, AIJob<?>> runningJobs = new HashMap<>();
+    private boolean shutdown = false;
+
+    /* Metrics, guarded by this */
+    private int queued = 0;
+    private long submitted = 0;
+    private long succeeded = 0;
+    private long failed = 0;
+    private long cancelled = 0;
+    private long started = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+    private long finished = 0;
+    private long totalGenerationNanos = 0;
+    private long maxGenerationNanos = 0;
+
+    /**
+     * The state of an {@link AIJob}.
+     */
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    /**
+     * A generation submitted to an {@link AIJobScheduler}.
+     * <p>
+     * The result is delivered through {@link #getFuture()}, which completes on the job's
+     * thread. A cancelled job's future completes with a {@link CancellationException}.
+     *
+     * @param <T> The result type of the job.
+     */
+    public static final class AIJob<T> {
+        private final AIJobScheduler scheduler;
+        private final int chatId;
+        private final Callable<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long submittedNanos = System.nanoTime();
+        private long startedNanos;
+        private long finishedNanos;
+        private State state = State.QUEUED;
+        private Thread runner;
+        private boolean committing = false;
+
+        private AIJob(AIJobScheduler scheduler, int chatId, Callable<T> task) {
+            this.scheduler = scheduler;
+            this.chatId = chatId;
+            this.task = task;
+        }
+
+        public int getChatId() { return chatId; }
+
+        public CompletableFuture<T> getFuture() { return future; }
+
+        public State getState() {
+            synchronized (scheduler) {
+                return state;
+            }
+        }
+
+        /**
+         * @return True once the job has succeeded, failed or been cancelled.
+         */
+        public boolean isDone() {
+            State current = getState();
+            return current != State.QUEUED && current != State.RUNNING;
+        }
+
+        /**
+         * Cancels the job, removing it from the queue or interrupting it if it is running.
+         *
+         * @return True if the job was cancelled, false if it had already finished or is saving its result.
+         */
+        public boolean cancel() {
+            return scheduler.cancel(this);
+        }
+
+        /**
+         * @return The time spent queued in milliseconds, up to now if the job has not started.
+         */
+        public double getWaitMillis() {
+            synchronized (scheduler) {
+                long end = startedNanos != 0 ? startedNanos : (isDone() ? finishedNanos : System.nanoTime());
+                return (end - submittedNanos) / 1_000_000.0;
+            }
+        }
+
+        /**
+         * @return The time spent running in milliseconds, up to now if the job is running, or 0 if it never started.
+         */
+        public double getGenerationMillis() {
+            synchronized (scheduler) {
+                if (startedNanos == 0) {
+                    return 0;
+                }
+                long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+                return (end - startedNanos) / 1_000_000.0;
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the scheduler's queue depth, wait times and generation times.
+     */
+    public static final class Metrics {
+        private final int maxInFlight;
+        private final int inFlight;
+        private final int queued;
+        private final long submitted;
+        private final long succeeded;
+        private final long failed;
+        private final long cancelled;
+        private final long started;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long finished;
+        private final long totalGenerationNanos;
+        private final long maxGenerationNanos;
+
+        private Metrics(int maxInFlight, int inFlight, int queued, long submitted, long succeeded, long failed, long cancelled,
+                        long started, long totalWaitNanos, long maxWaitNanos,
+                        long finished, long totalGenerationNanos, long maxGenerationNanos) {
+            this.maxInFlight = maxInFlight;
+            this.inFlight = inFlight;
+            this.queued = queued;
+            this.submitted = submitted;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.started = started;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.finished = finished;
+            this.totalGenerationNanos = totalGenerationNanos;
+            this.maxGenerationNanos = maxGenerationNanos;
+        }
+
+        public int getMaxInFlight() { return maxInFlight; }
+
+        public int getInFlight() { return inFlight; }
+
+        public int getQueueDepth() { return queued; }
+
+        public long getSubmitted() { return submitted; }
+
+        public long getSucceeded() { return succeeded; }
+
+        public long getFailed() { return failed; }
+
+        public long getCancelled() { return cancelled; }
+
+        public double getAverageWaitMillis() { return averageMillis(totalWaitNanos, started); }
+
+        public double getMaxWaitMillis() { return maxWaitNanos / 1_000_000.0; }
+
+        public double getAverageGenerationMillis() { return averageMillis(totalGenerationNanos, finished); }
+
+        public double getMaxGenerationMillis() { return maxGenerationNanos / 1_000_000.0; }
+
+        private static double averageMillis(long totalNanos, long count) {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d/%d in flight, %d queued, %d succeeded, %d failed, %d cancelled, "
+                    + "wait avg %.0fms max %.0fms, generation avg %.0fms max %.0fms",
+                    inFlight, maxInFlight, queued, succeeded, failed, cancelled,
+                    getAverageWaitMillis(), getMaxWaitMillis(),
+                    getAverageGenerationMillis(), getMaxGenerationMillis()
+            );
+        }
+    }
+
+    /**
+     * Constructor of {@code AIJobScheduler}.
+     * @param maxInFlight The maximum number of jobs allowed to run at once.
+     * @throws IllegalArgumentException if {@code maxInFlight} is less than 1.
+     */
+    public AIJobScheduler(int maxInFlight) throws IllegalArgumentException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Invalid max in flight: must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Gets the shared instance of {@code AIJobScheduler}, allowing {@link #DEFAULT_MAX_IN_FLIGHT} jobs at once.
+     *
+     * @return The shared instance.
+     */
+    public static synchronized AIJobScheduler getInstance() {
+        if (instance == null) {
+            instance = new AIJobScheduler(DEFAULT_MAX_IN_FLIGHT);
+        }
+        return instance;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Queues a job behind any other jobs of the same chat.
+     *
+     * @param chatId The ID of the chat the job generates for.
+     * @param task The generation to run.
+     * @param <T> The result type of the job.
+     * @return The submitted {@link AIJob}.
+     * @throws IllegalStateException if the scheduler has been shut down.
+     */
+    public synchronized <T> AIJob<T> submit(int chatId, Callable<T> task) throws IllegalStateException {
+        if (shutdown) {
+            throw new IllegalStateException("AI job scheduler has been shut down");
+        }
+        AIJob<T> job = new AIJob<>(this, chatId, task);
+        ArrayDeque<AIJob<?>> queue = queues.computeIfAbsent(chatId, id -> new ArrayDeque<>());
+        queue.addLast(job);
+        if (queue.size() == 1 && !runningJobs.containsKey(chatId)) {
+            readyChats.addLast(chatId);
+        }
+        queued++;
+        submitted++;
+        dispatch();
+        return job;
+    }
+
+    /**
+     * Cancels every queued and running job of a chat.
+     *
+     * @param chatId The ID of the chat.
+     * @return The number of jobs cancelled.
+     */
+    public int cancelChat(int chatId) {
+        List<AIJob<?>> jobs = new ArrayList<>();
+        synchronized (this) {
+            /* Queued jobs first, so none is started when the running job stops */
+            ArrayDeque<AIJob<?>> queue = queues.get(chatId);
+            if (queue != null) {
+                jobs.addAll(queue);
+            }
+            AIJob<?> running = runningJobs.get(chatId);
+            if (running != null) {
+                jobs.add(running);
+            }
+        }
+
+        int count = 0;
+        for (AIJob<?> job : jobs) {
+            if (job.cancel()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Marks the job running on the calling thread as saving its result.
+     * <p>
+     * From then on the job can no longer be cancelled, so a result that is written to the
+     * database is also reported as succeeded. Threads not running a job are unaffected.
+     *
+     * @return False if the job was already cancelled, in which case it must not save anything.
+     */
+    public synchronized boolean beginCommit() {
+        for (AIJob<?> job : runningJobs.values()) {
+            if (job.runner == Thread.currentThread()) {
+                if (job.state != State.RUNNING) {
+                    return false;
+                }
+                job.committing = true;
+                /* Clear an interrupt that raced with this call, so the save is not aborted */
+                Thread.interrupted();
+                return true;
+            }
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * @param chatId The ID of the chat.
+     * @return True if the chat has a queued or running job.
+     */
+    public synchronized boolean hasPendingJobs(int chatId) {
+        return runningJobs.containsKey(chatId) || queues.containsKey(chatId);
+    }
+
+    /**
+     * @param chatId The ID of the chat.
+     * @return The number of jobs of the chat waiting to run.
+     */
+    public synchronized int getQueueDepth(int chatId) {
+        ArrayDeque<AIJob<?>> queue = queues.get(chatId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Returns a snapshot of the queue depth, wait times and generation times.
+     *
+     * @return the current {@link Metrics}
+     */
+    public synchronized Metrics getMetrics() {
+        return new Metrics(maxInFlight, runningJobs.size(), queued, submitted, succeeded, failed, cancelled,
+                started, totalWaitNanos, maxWaitNanos, finished, totalGenerationNanos, maxGenerationNanos);
+    }
+
+    /**
+     * Cancels every job and stops accepting new ones.
+     */
+    public void shutdown() {
+        List<Integer> chatIds;
+        synchronized (this) {
+            shutdown = true;
+            chatIds = new ArrayList<>(queues.keySet());
+            chatIds.addAll(runningJobs.keySet());
+        }
+        for (int chatId : chatIds) {
+            cancelChat(chatId);
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Starts the next job of each ready chat, in turn, while there are free slots.
+     */
+    private synchronized void dispatch() {
+        while (runningJobs.size() < maxInFlight && !readyChats.isEmpty()) {
+            int chatId = readyChats.pollFirst();
+            ArrayDeque<AIJob<?>> queue = queues.get(chatId);
+            AIJob<?> job = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(chatId);
+            }
+            queued--;
+
+            job.state = State.RUNNING;
+            job.startedNanos = System.nanoTime();
+            long waited = job.startedNanos - job.submittedNanos;
+            started++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+            runningJobs.put(chatId, job);
+            executor.execute(() -> run(job));
+        }
+    }
+
+    private <T> void run(AIJob<T> job) {
+        synchronized (this) {
+            if (job.state != State.RUNNING) {
+                finish(job);
+                return;
+            }
+            job.runner = Thread.currentThread();
+        }
+
+        T result = null;
+        Throwable error = null;
+        try {
+            result = job.task.call();
+        } catch (Throwable e) {
+            error = e;
+        }
+
+        boolean wasCancelled;
+        synchronized (this) {
+            job.runner = null;
+            wasCancelled = job.state == State.CANCELLED;
+            if (job.state == State.RUNNING) {
+                job.state = error == null ? State.SUCCEEDED : State.FAILED;
+                if (error == null) {
+                    succeeded++;
+                } else {
+                    failed++;
+                }
+            }
+            finish(job);
+        }
+        /* Clear any cancellation interrupt before the virtual thread ends */
+        Thread.interrupted();
+
+        /* A cancelled job may get here before cancel() completes its future */
+        if (wasCancelled) {
+            job.future.completeExceptionally(new CancellationException("AI job cancelled"));
+        } else if (error == null) {
+            job.future.complete(result);
+        } else {
+            job.future.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Releases a finished job's slot and queues the next job of its chat.
+     */
+    private synchronized void finish(AIJob<?> job) {
+        job.finishedNanos = System.nanoTime();
+        long generation = job.finishedNanos - job.startedNanos;
+        finished++;
+        totalGenerationNanos += generation;
+        maxGenerationNanos = Math.max(maxGenerationNanos, generation);
+
+        runningJobs.remove(job.chatId);
+        if (queues.containsKey(job.chatId)) {
+            readyChats.addLast(job.chatId);
+        }
+        dispatch();
+    }
+
+    private boolean cancel(AIJob<?> job) {
+        synchronized (this) {
+            if (job.state == State.QUEUED) {
+                ArrayDeque<AIJob<?>> queue = queues.get(job.chatId);
+                if (queue != null) {
+                    queue.remove(job);
+                    if (queue.isEmpty()) {
+                        queues.remove(job.chatId);
+                        readyChats.remove(job.chatId);
+                    }
+                }
+                queued--;
+                job.finishedNanos = System.nanoTime();
+            } else if (job.state == State.RUNNING) {
+                if (job.committing) {
+                    return false;
+                }
+                if (job.runner != null) {
+                    job.runner.interrupt();
+                }
+            } else {
+                return false;
+            }
+            job.state = State.CANCELLED;
+            cancelled++;
+        }
+        job.future.completeExceptionally(new CancellationException("AI job cancelled"));
+        return true;
+    }
+}
@@ -6,6 +6,7 @@ import ai.tutor.cab302exceptionalhandlers.model.Message;
 import io.github.ollama4j.OllamaAPI;
 import io.github.ollama4j.exceptions.OllamaBaseException;
 import io.github.ollama4j.models.chat.*;
+import io.github.ollama4j.models.generate.OllamaTokenHandler;
 import io.github.ollama4j.utils.Options;
 import io.github.ollama4j.utils.OptionsBuilder;
 
@@ -14,6 +15,8 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 import com.google.gson.Gson;
 
@@ -47,6 +50,21 @@ public class AIUtils {
     private final float temperature = 0.9f;
     private final int numPredict = -2;
     private final int numCtx = 40960;
+    private ContextBuilder contextBuilder = new ContextBuilder(8192);
+    // Installed once at startup, then read by the AI job threads
+    private volatile ResponseCache responseCache;
+
+    /* Streaming metrics */
+    private long lastTimeToFirstTokenMillis = -1;
+    private long timeToFirstTokenSamples = 0;
+    private long totalTimeToFirstTokenMillis = 0;
+
+    /* Quiz parsing metrics */
+    private long quizzesParsed = 0;
+    private long quizParseFailures = 0;
+    private long quizGenerationsAborted = 0;
+    private long totalQuizParseNanos = 0;
+    private long lastTimeToFirstQuestionMillis = -1;
 
     /**
      * The response format for the AI's responses.
@@ -248,34 +266,49 @@ public class AIUtils {
             }
 
             for (Question question : quiz.getQuestions()) {
-                if (question == null ||
-                    question.questionNumber < 1 ||
-                    question.getQuestionContent() == null || question.getQuestionContent().isEmpty() ||
-                    question.options == null || question.options.length == 0) {
+                if (!validateQuestion(question)) {
                     return false;
                 }
+            }
+        }
 
-                boolean hasCorrectOption = false;
-                for (Option option : question.options) {
-                    if (option == null ||
-                        option.optionLetter == null || option.optionLetter.isEmpty() ||
-                        option.optionText == null || option.optionText.isEmpty()) {
-                        return false;
-                    }
-
-                    hasCorrectOption |= option.isAnswer;
-                    if (hasCorrectOption) {
-                        break;
-                    }
-                }
+        return true;
+    }
 
-                if (!hasCorrectOption) {
-                    return false;
-                }
+    /**
+     * Validates a single question of an AI-generated quiz.
+     * <p>
+     * The question must have a valid question number, content, and at least one option,
+     * and one of its options must be marked as the correct answer. Used both by
+     * {@link #validateQuizResponse(ModelResponseFormat)} and by the {@link QuizStreamParser}
+     * to reject a question as soon as it has been generated.
+     *
+     * @param question The {@link Question} to validate.
+     * @return True if the question is valid, false otherwise.
+     */
+    public static boolean validateQuestion(Question question) {
+        if (question == null ||
+            question.questionNumber < 1 ||
+            question.getQuestionContent() == null || question.getQuestionContent().isEmpty() ||
+            question.options == null || question.options.length == 0) {
+            return false;
+        }
+
+        boolean hasCorrectOption = false;
+        for (Option option : question.options) {
+            if (option == null ||
+                option.optionLetter == null || option.optionLetter.isEmpty() ||
+                option.optionText == null || option.optionText.isEmpty()) {
+                return false;
+            }
+
+            hasCorrectOption |= option.isAnswer;
+            if (hasCorrectOption) {
+                break;
             }
         }
 
-        return true;
+        return hasCorrectOption;
     }
 
     /**
@@ -330,23 +363,34 @@ public class AIUtils {
     }
 
     /**
-     * Loads system_prompt.txt and quiz_system_prompt.txt from classpath to populate the prompts hashmap.
+     * @return True if diagnostics, such as cache hits and context sizes, are printed.
+     */
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * Loads system_prompt.txt, quiz_system_prompt.txt and summary_system_prompt.txt from classpath to populate the prompts hashmap.
      * <p>
-     * Both system prompts are stored locally in src/main/resources/ai/tutor/cab302exceptionalhandlers/prompts/
+     * All system prompts are stored locally in src/main/resources/ai/tutor/cab302exceptionalhandlers/prompts/
      * <p>
-     * These system prompts are used as the system prompt for AI's responses in tutor and quiz modes.
+     * These system prompts are used as the system prompt for AI's responses in tutor and quiz modes,
+     * and for summarising older messages of long chats.
      *
      * @throws IOException if there is an error reading the prompt files.
      */
     private void loadPrompts() throws IOException {
         String systemTutorPromptPath = "/ai/tutor/cab302exceptionalhandlers/prompts/system_prompt.txt";
         String systemQuizPromptPath = "/ai/tutor/cab302exceptionalhandlers/prompts/quiz_system_prompt.txt";
+        String systemSummaryPromptPath = "/ai/tutor/cab302exceptionalhandlers/prompts/summary_system_prompt.txt";
 
         String tutorPrompt = loadPromptFromFile(systemTutorPromptPath);
         String quizPrompt = loadPromptFromFile(systemQuizPromptPath);
+        String summaryPrompt = loadPromptFromFile(systemSummaryPromptPath);
 
         prompts.put("tutor", tutorPrompt);
         prompts.put("quiz", quizPrompt);
+        prompts.put("summary", summaryPrompt);
     }
 
     /**
@@ -377,56 +421,190 @@ public class AIUtils {
     }
 
     /**
-     * Calls /api/chat on the Ollama host generating an AI response based on chat history and configuration.
+     * Sets the maximum number of tokens sent to the model per request.
+     * <p>
+     * Smaller budgets reduce prompt processing time, at the cost of relying more on the
+     * rolling summary of older messages. See {@link ContextBuilder}.
+     *
+     * @param tokenBudget The token budget for the system prompt, summary and messages.
+     * @throws IllegalArgumentException if the budget is too small or exceeds the model context size.
+     */
+    public void setContextTokenBudget(int tokenBudget) throws IllegalArgumentException {
+        if (tokenBudget > numCtx) {
+            throw new IllegalArgumentException("Invalid token budget: cannot exceed the context size of " + numCtx);
+        }
+        this.contextBuilder = new ContextBuilder(tokenBudget);
+    }
+
+    public int getContextTokenBudget() {
+        return contextBuilder.getTokenBudget();
+    }
+
+    /**
+     * Sets the cache used to return stored responses for identical requests.
+     * <p>
+     * Responses are only cached once they have been processed without error and, for
+     * quizzes, pass {@link #validateQuizResponse(ModelResponseFormat)}. Installed once by
+     * {@code SceneManager} at startup, so the cache and its hit rate last for the whole process.
+     *
+     * @param responseCache The {@link ResponseCache} to use, or null to disable caching.
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Computes the {@link ResponseCache} fingerprint of a request.
+     * <p>
+     * The fingerprint covers the model name, the model options, the formatted system
+     * prompt, the rolling summary, and the role and content of every message sent.
+     *
+     * @param context The {@link ContextWindow} of messages to send.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @return The fingerprint of the request.
+     */
+    public String fingerprint(ContextWindow context, Chat chatConfig, boolean isQuizMode) {
+        List<Message> messages = context.getMessages();
+        String[] parts = new String[5 + messages.size() * 2];
+        parts[0] = modelName;
+        parts[1] = String.format("temperature=%s;numPredict=%d;numCtx=%d", temperature, numPredict, numCtx);
+        parts[2] = isQuizMode ? "quiz" : "tutor";
+        parts[3] = getSystemPrompt(chatConfig, isQuizMode);
+        parts[4] = context.hasSummary() ? context.getSummary() : null;
+        for (int i = 0; i < messages.size(); i++) {
+            parts[5 + i * 2] = messages.get(i).getFromUser() ? "user" : "assistant";
+            parts[6 + i * 2] = messages.get(i).getContent();
+        }
+        return ResponseCache.fingerprint(parts);
+    }
+
+    /**
+     * Formats the system prompt for a chat's configuration.
+     *
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @return The formatted system prompt.
+     */
+    public String getSystemPrompt(Chat chatConfig, boolean isQuizMode) {
+        String promptTemplate = isQuizMode ? prompts.get("quiz") : prompts.get("tutor");
+
+        return String.format(
+            promptTemplate,
+            chatConfig.getName(),
+            chatConfig.getResponseAttitude(),
+            chatConfig.getQuizDifficulty(),
+            chatConfig.getQuizLength(),
+            chatConfig.getEducationLevel(),
+            chatConfig.getStudyArea()
+        );
+    }
+
+    /**
+     * Selects the part of a chat's history to send within the context token budget.
+     * <p>
+     * Messages up to {@code lastSummarisedId} are represented by {@code summary} instead of
+     * being sent. If the remaining messages do not fit, the oldest are returned in
+     * {@link ContextWindow#getMessagesToSummarise()} to be folded into the summary with
+     * {@link #summariseMessages(String, List)}.
+     *
+     * @param history The full chat history, oldest first.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @param summary The current rolling summary of the chat, or null if there is none.
+     * @param lastSummarisedId The ID of the newest message in the summary, or 0 if there is none.
+     * @return The {@link ContextWindow} to send.
+     */
+    public ContextWindow buildContext(List<Message> history, Chat chatConfig, boolean isQuizMode, String summary, int lastSummarisedId) {
+        return contextBuilder.build(getSystemPrompt(chatConfig, isQuizMode), summary, lastSummarisedId, history);
+    }
+
+    /**
+     * Calls /api/chat on the Ollama host to fold messages into a chat's rolling summary.
+     *
+     * @param previousSummary The current summary, or null if there is none.
+     * @param messages The messages to add to the summary, oldest first.
+     * @return The updated summary, or null if it could not be generated.
+     */
+    public String summariseMessages(String previousSummary, List<Message> messages) {
+        StringBuilder transcript = new StringBuilder();
+        if (previousSummary != null && !previousSummary.isEmpty()) {
+            transcript.append("Previous summary:\n").append(previousSummary).append("\n\n");
+        }
+        transcript.append("New messages:\n");
+        for (Message msg : messages) {
+            transcript.append(msg.getFromUser() ? "Student: " : "Tutor: ").append(msg.getContent()).append("\n");
+        }
+
+        try {
+            OllamaChatRequest ollamaRequest;
+            synchronized (ollamaBuilder) {
+                ollamaBuilder.reset();
+                ollamaBuilder.withMessage(OllamaChatMessageRole.SYSTEM, prompts.get("summary"));
+                ollamaBuilder.withMessage(OllamaChatMessageRole.USER, transcript.toString());
+                ollamaBuilder.withOptions(new OptionsBuilder()
+                    .setTemperature(0.2f)
+                    .setNumCtx(this.numCtx)
+                    .build());
+                ollamaRequest = ollamaBuilder.build();
+            }
+
+            OllamaChatResult ollamaResult = ollamaAPI.chat(ollamaRequest);
+            String summary = ThinkTagFilter.strip(ollamaResult.getResponseModel().getMessage().getContent()).trim();
+            return summary.isEmpty() ? null : summary;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                /* Keep the interrupt so the generation that follows is cancelled too */
+                Thread.currentThread().interrupt();
+            }
+            System.err.println("Error summarising messages: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Builds the {@link OllamaChatRequest} for a chat's history and configuration.
      * <p>
      * The AI model is configured accordingly using {@link OptionsBuilder} with the
      * specified temperature, number of predictions, and context size.
      * These model parameters are highly dependant on which model is being used.
      * <p>
-     * After the model is generates a response, it's thinking tokens are formatted out,
-     * the response is further processed by either {@link #processQuizResponse(String)}
-     * or {@link #processChatResponse(String)} methods assuming the response is in
-     * JSON format, then the response is returned in a {@link ModelResponseFormat}.
-     * <p>
-     * If the model response fails, the default response is an error message.
-     * <p>
      * It is expected but not enforced that there should be a system prompt
      * for the AI to follow. The system prompt is constructed based on the
      * provided chat configuration and whether the response is for a quiz or general chat.
      * <p>
-     * System prompts are loaded via {@link #loadPrompts()} method.
-     * <p>
+     * System prompts are loaded via {@link #loadPrompts()} method. If the context has a
+     * rolling summary, it is sent as a second system message before the chat messages.
      *
-     * @param history The list of previous {@link Message} objects in the chat.
+     * @param context The {@link ContextWindow} of messages to send.
      * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
      * @param isQuizMode True if a quiz response is requested, false for a general chat response.
-     * @return A {@link ModelResponseFormat} containing the AI's response.
+     * @return The request to send to the Ollama host.
      */
-    public ModelResponseFormat generateResponse(List<Message> history, Chat chatConfig, boolean isQuizMode) {
-        try {
-            String promptTemplate = isQuizMode ? prompts.get("quiz") : prompts.get("tutor");
-
-            String systemPrompt = String.format(
-                promptTemplate,
-                chatConfig.getName(),
-                chatConfig.getResponseAttitude(),
-                chatConfig.getQuizDifficulty(),
-                chatConfig.getQuizLength(),
-                chatConfig.getEducationLevel(),
-                chatConfig.getStudyArea()
-            );
+    private OllamaChatRequest buildRequest(ContextWindow context, Chat chatConfig, boolean isQuizMode) {
+        String systemPrompt = getSystemPrompt(chatConfig, isQuizMode);
 
-            Options options = new OptionsBuilder()
-                .setTemperature(this.temperature)
-                .setNumPredict(this.numPredict)
-                .setNumCtx(this.numCtx)
-                .build();
+        Options options = new OptionsBuilder()
+            .setTemperature(this.temperature)
+            .setNumPredict(this.numPredict)
+            .setNumCtx(this.numCtx)
+            .build();
 
+        /* The builder is shared, so requests must be built one at a time */
+        synchronized (ollamaBuilder) {
             ollamaBuilder.reset();
             ollamaBuilder.withMessage(OllamaChatMessageRole.SYSTEM, systemPrompt);
             ollamaBuilder.withOptions(options);
+            if (context.hasSummary()) {
+                ollamaBuilder.withMessage(OllamaChatMessageRole.SYSTEM,
+                    "Summary of the earlier conversation:\n" + context.getSummary());
+            }
 
-            for (Message msg : history) {
+            for (Message msg : context.getMessages()) {
                 OllamaChatMessageRole role = msg.getFromUser() ? OllamaChatMessageRole.USER : OllamaChatMessageRole.ASSISTANT;
                 ollamaBuilder.withMessage(role, msg.getContent());
 
@@ -437,7 +615,76 @@ public class AIUtils {
                 }
             }
 
-            OllamaChatRequest ollamaRequest = ollamaBuilder.build();
+            return ollamaBuilder.build();
+        }
+    }
+
+    /**
+     * Calls /api/chat on the Ollama host generating an AI response based on chat history and configuration.
+     * <p>
+     * The whole history is sent, see {@link #generateResponse(ContextWindow, Chat, boolean)}
+     * to send a token-budgeted {@link ContextWindow} instead.
+     * <p>
+     * After the model is generates a response, it's thinking tokens are formatted out,
+     * the response is further processed by either {@link #processQuizResponse(String)}
+     * or {@link #processChatResponse(String)} methods assuming the response is in
+     * JSON format, then the response is returned in a {@link ModelResponseFormat}.
+     * <p>
+     * If the model response fails, the default response is an error message. If the calling
+     * thread is interrupted, the request to the Ollama host is aborted and a
+     * {@link CancellationException} is thrown instead, see {@link AIJobScheduler}.
+     * <p>
+     * This call blocks until the whole completion has been generated, see
+     * {@link #generateResponseStream(List, Chat, boolean, Consumer)} to receive the
+     * response as it is generated.
+     *
+     * @param history The list of previous {@link Message} objects in the chat.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @return A {@link ModelResponseFormat} containing the AI's response.
+     */
+    public ModelResponseFormat generateResponse(List<Message> history, Chat chatConfig, boolean isQuizMode) {
+        return generateResponse(ContextWindow.of(history), chatConfig, isQuizMode);
+    }
+
+    /**
+     * Calls /api/chat on the Ollama host generating an AI response for a {@link ContextWindow}.
+     * <p>
+     * Behaves like {@link #generateResponse(List, Chat, boolean)}, but only sends the
+     * messages and summary selected by {@link #buildContext(List, Chat, boolean, String, int)}.
+     *
+     * @param context The {@link ContextWindow} of messages to send.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @return A {@link ModelResponseFormat} containing the AI's response.
+     */
+    public ModelResponseFormat generateResponse(ContextWindow context, Chat chatConfig, boolean isQuizMode) {
+        return generateResponse(context, chatConfig, isQuizMode, true);
+    }
+
+    /**
+     * Calls /api/chat on the Ollama host generating an AI response for a {@link ContextWindow},
+     * optionally bypassing the {@link ResponseCache}.
+     * <p>
+     * When {@code useCache} is true and an identical request has been answered before, the
+     * stored response is returned without calling the model. When false, a fresh response
+     * is always generated, and replaces the stored one.
+     *
+     * @param context The {@link ContextWindow} of messages to send.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @param useCache False to always generate a fresh response.
+     * @return A {@link ModelResponseFormat} containing the AI's response.
+     */
+    public ModelResponseFormat generateResponse(ContextWindow context, Chat chatConfig, boolean isQuizMode, boolean useCache) {
+        String fingerprint = responseCache == null ? null : fingerprint(context, chatConfig, isQuizMode);
+        ModelResponseFormat cached = getCachedResponse(fingerprint, isQuizMode, useCache);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            OllamaChatRequest ollamaRequest = buildRequest(context, chatConfig, isQuizMode);
             OllamaChatResult ollamaResult = ollamaAPI.chat(ollamaRequest);
 
             if (ollamaResultIsNull(ollamaRequest)) {
@@ -452,27 +699,138 @@ public class AIUtils {
             }
 
             /* Format out the <thinking> tokens and everything between that */
-            String[] responseParts = response.split("<think>");
-            StringBuilder formattedResponse = new StringBuilder();
-            for (String part : responseParts) {
-                    if (part.contains("</think>")) {
-                    String[] subParts = part.split("</think>");
-                    formattedResponse.append(subParts[1]);
-                } else {
-                    formattedResponse.append(part);
-                }
+            // do NOT remove `\n` or it will mess up the AI response
+            response = ThinkTagFilter.strip(response);
+
+            return cacheResponse(fingerprint, response, processResponse(response, isQuizMode), isQuizMode);
+
+        } catch (CancellationException | InterruptedException e) {
+            throw cancelled(e);
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw cancelled(e);
             }
+            System.err.println("Error generating response: " + e.getMessage());
+            return new ModelResponseFormat(
+                true,
+                "Error: Unable to generate response from AI.",
+                null
+            );
+        }
+    }
 
-            // do NOT remove `\n` or it will mess up the AI response
-            response = formattedResponse.toString();
+    /**
+     * Calls /api/chat on the Ollama host and streams the AI response as it is generated.
+     * <p>
+     * Each chunk received from the model is passed through a {@link ThinkTagFilter}, so
+     * {@code onToken} only receives the visible text, and never anything inside
+     * {@code <think>...</think>}. The callback runs on the calling thread, so UI code
+     * must hand the token over to the JavaFX thread itself.
+     * <p>
+     * Once the stream completes, the full visible response is processed the same way as
+     * {@link #generateResponse(List, Chat, boolean)}. The time from sending the request to
+     * the first visible token is recorded, see {@link #getLastTimeToFirstTokenMillis()}.
+     *
+     * @param history The list of previous {@link Message} objects in the chat.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @param onToken Receives each piece of visible text as it arrives, may be null.
+     * @return A {@link ModelResponseFormat} containing the complete AI response.
+     */
+    public ModelResponseFormat generateResponseStream(List<Message> history, Chat chatConfig, boolean isQuizMode, Consumer<String> onToken) {
+        return generateResponseStream(ContextWindow.of(history), chatConfig, isQuizMode, onToken);
+    }
+
+    /**
+     * Calls /api/chat on the Ollama host and streams the AI response for a {@link ContextWindow}.
+     * <p>
+     * Behaves like {@link #generateResponseStream(List, Chat, boolean, Consumer)}, but only sends
+     * the messages and summary selected by {@link #buildContext(List, Chat, boolean, String, int)}.
+     *
+     * @param context The {@link ContextWindow} of messages to send.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @param onToken Receives each piece of visible text as it arrives, may be null.
+     * @return A {@link ModelResponseFormat} containing the complete AI response.
+     */
+    public ModelResponseFormat generateResponseStream(ContextWindow context, Chat chatConfig, boolean isQuizMode, Consumer<String> onToken) {
+        return generateResponseStream(context, chatConfig, isQuizMode, true, onToken);
+    }
+
+    /**
+     * Calls /api/chat on the Ollama host and streams the AI response for a {@link ContextWindow},
+     * optionally bypassing the {@link ResponseCache}.
+     * <p>
+     * On a cache hit the stored response is passed to {@code onToken} in one piece, and no
+     * time to first token is recorded. See {@link #generateResponse(ContextWindow, Chat, boolean, boolean)}.
+     *
+     * @param context The {@link ContextWindow} of messages to send.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @param useCache False to always generate a fresh response.
+     * @param onToken Receives each piece of visible text as it arrives, may be null.
+     * @return A {@link ModelResponseFormat} containing the complete AI response.
+     */
+    public ModelResponseFormat generateResponseStream(ContextWindow context, Chat chatConfig, boolean isQuizMode, boolean useCache, Consumer<String> onToken) {
+        return generateResponseStream(context, chatConfig, isQuizMode, useCache, onToken, null);
+    }
+
+    /**
+     * Calls /api/chat on the Ollama host and streams the AI response for a {@link ContextWindow},
+     * passing each quiz question on as soon as it has been generated.
+     * <p>
+     * In quiz mode the streamed text is fed to a {@link QuizStreamParser}, and each valid
+     * question is passed to {@code onQuestion} while the rest of the quiz is still being
+     * generated. If the quiz breaks the expected structure, the request is aborted straight
+     * away and an error response is returned. The parser's result is used as the quiz, so
+     * the response is not parsed a second time once the stream completes.
+     *
+     * @param context The {@link ContextWindow} of messages to send.
+     * @param chatConfig The {@link Chat} configuration (e.g., personality, quiz settings).
+     * @param isQuizMode True if a quiz response is requested, false for a general chat response.
+     * @param useCache False to always generate a fresh response.
+     * @param onToken Receives each piece of visible text as it arrives, may be null.
+     * @param onQuestion Receives each quiz question as soon as it is complete, may be null.
+     * @return A {@link ModelResponseFormat} containing the complete AI response.
+     */
+    public ModelResponseFormat generateResponseStream(ContextWindow context, Chat chatConfig, boolean isQuizMode, boolean useCache, Consumer<String> onToken, Consumer<Question> onQuestion) {
+        String fingerprint = responseCache == null ? null : fingerprint(context, chatConfig, isQuizMode);
+        ModelResponseFormat cached = getCachedResponse(fingerprint, isQuizMode, useCache);
+        if (cached != null) {
+            if (onToken != null) {
+                onToken.accept(cached.response);
+            }
+            if (onQuestion != null && isQuizMode && !cached.isError) {
+                cached.getQuizQuestions().forEach(onQuestion);
+            }
+            return cached;
+        }
 
-            if (isQuizMode) {
-                return processQuizResponse(response);
-            } else {
-                return processChatResponse(response);
+        QuizStreamParser quizParser = isQuizMode ? new QuizStreamParser(onQuestion) : null;
+        try {
+            OllamaChatRequest ollamaRequest = buildRequest(context, chatConfig, isQuizMode);
+            StreamCollector collector = new StreamCollector(onToken, quizParser);
+            ollamaAPI.chatStreaming(ollamaRequest, collector);
+
+            String response = collector.finish();
+            if (verbose) {
+                System.out.println(String.format(
+                    "AI Response (first token after %dms): \n---\n%s\n---", getLastTimeToFirstTokenMillis(), response
+                ));
             }
 
+            ModelResponseFormat processed = isQuizMode ? finishQuizResponse(quizParser, response, true) : processChatResponse(response);
+            return cacheResponse(fingerprint, response, processed, isQuizMode);
+
+        } catch (CancellationException | InterruptedException e) {
+            throw cancelled(e);
         } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw cancelled(e);
+            }
+            if (quizParser != null && quizParser.getViolation() != null) {
+                return finishQuizResponse(quizParser, null, true);
+            }
             System.err.println("Error generating response: " + e.getMessage());
             return new ModelResponseFormat(
                 true,
@@ -483,45 +841,235 @@ public class AIUtils {
     }
 
     /**
-     * Removes JSON code blocks and converts the response into a {@link ModelResponseFormat} for quiz responses.
+     * Collects streamed chunks, filtering out thinking spans and timing the first visible token.
      * <p>
-     * This method extracts the JSON content from the AI's response, it assumes
-     * the response is in a format that includes JSON code blocks (e.g., ```json ... ```).
-     * Using {@link gson}, the JSON content is parsed into a {@link ModelResponseFormat} object.
-     * If the response does not contain valid JSON or if an error occurs during parsing,
-     * this method returns an error message in {@link ModelResponseFormat}.
+     * In quiz mode the visible text is also fed to a {@link QuizStreamParser}, which throws
+     * from the handler, aborting the request, as soon as the quiz is malformed.
+     */
+    private class StreamCollector implements OllamaTokenHandler {
+        private final Consumer<String> onToken;
+        private final QuizStreamParser quizParser;
+        private final ThinkTagFilter filter = new ThinkTagFilter();
+        private final StringBuilder response = new StringBuilder();
+        private final long startNanos = System.nanoTime();
+        private boolean receivedToken = false;
+
+        private StreamCollector(Consumer<String> onToken, QuizStreamParser quizParser) {
+            this.onToken = onToken;
+            this.quizParser = quizParser;
+        }
+
+        @Override
+        public void accept(OllamaChatResponseModel chunk) {
+            /* Throwing from the handler closes the response stream, aborting the request */
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("AI response cancelled");
+            }
+            if (chunk == null || chunk.getMessage() == null) {
+                return;
+            }
+            emit(filter.accept(chunk.getMessage().getContent()));
+        }
+
+        private String finish() {
+            emit(filter.finish());
+            return response.toString();
+        }
+
+        private void emit(String token) {
+            if (token.isEmpty()) {
+                return;
+            }
+            if (!receivedToken) {
+                receivedToken = true;
+                recordTimeToFirstToken((System.nanoTime() - startNanos) / 1_000_000);
+            }
+            response.append(token);
+            if (onToken != null) {
+                onToken.accept(token);
+            }
+            if (quizParser != null) {
+                quizParser.accept(token);
+            }
+        }
+    }
+
+    /**
+     * Converts the interruption of a generation into a {@link CancellationException}, keeping the interrupt status set.
+     */
+    private CancellationException cancelled(Exception cause) {
+        Thread.currentThread().interrupt();
+        if (cause instanceof CancellationException) {
+            return (CancellationException) cause;
+        }
+        CancellationException cancellation = new CancellationException("AI response cancelled");
+        cancellation.initCause(cause);
+        return cancellation;
+    }
+
+    private synchronized void recordTimeToFirstToken(long millis) {
+        lastTimeToFirstTokenMillis = millis;
+        timeToFirstTokenSamples++;
+        totalTimeToFirstTokenMillis += millis;
+    }
+
+    /**
+     * @return The time to the first visible token of the last streamed response in milliseconds, or -1 if none.
+     */
+    public synchronized long getLastTimeToFirstTokenMillis() {
+        return lastTimeToFirstTokenMillis;
+    }
+
+    /**
+     * @return The average time to the first visible token across streamed responses in milliseconds.
+     */
+    public synchronized double getAverageTimeToFirstTokenMillis() {
+        return timeToFirstTokenSamples == 0 ? 0 : (double) totalTimeToFirstTokenMillis / timeToFirstTokenSamples;
+    }
+
+    private synchronized void recordQuizParse(QuizStreamParser parser, boolean streamed) {
+        quizzesParsed++;
+        totalQuizParseNanos += (long) (parser.getParseMillis() * 1_000_000);
+        if (parser.getViolation() != null) {
+            quizParseFailures++;
+            if (streamed && !parser.isComplete()) {
+                quizGenerationsAborted++;
+            }
+        }
+        if (streamed && parser.getTimeToFirstQuestionMillis() >= 0) {
+            lastTimeToFirstQuestionMillis = parser.getTimeToFirstQuestionMillis();
+        }
+    }
+
+    /**
+     * @return The number of quiz responses parsed, streamed or not.
+     */
+    public synchronized long getQuizzesParsed() {
+        return quizzesParsed;
+    }
+
+    /**
+     * @return The number of quiz responses rejected for breaking the expected structure.
+     */
+    public synchronized long getQuizParseFailures() {
+        return quizParseFailures;
+    }
+
+    /**
+     * @return The number of quiz generations aborted before the model finished them.
+     */
+    public synchronized long getQuizGenerationsAborted() {
+        return quizGenerationsAborted;
+    }
+
+    /**
+     * @return The average time spent parsing a quiz response in milliseconds.
+     */
+    public synchronized double getAverageQuizParseMillis() {
+        return quizzesParsed == 0 ? 0 : totalQuizParseNanos / 1_000_000.0 / quizzesParsed;
+    }
+
+    /**
+     * @return The time to the first valid question of the last streamed quiz in milliseconds, or -1 if none.
+     */
+    public synchronized long getLastTimeToFirstQuestionMillis() {
+        return lastTimeToFirstQuestionMillis;
+    }
+
+    /**
+     * Looks up and processes a cached response.
+     *
+     * @return The processed response, or null if caching is disabled or it was a miss.
+     */
+    private ModelResponseFormat getCachedResponse(String fingerprint, boolean isQuizMode, boolean useCache) {
+        if (fingerprint == null || !useCache) {
+            return null;
+        }
+        String response = responseCache.get(fingerprint);
+        if (response == null) {
+            return null;
+        }
+        if (verbose) {
+            System.out.println("AI Response served from cache (" + responseCache + ")");
+        }
+        return processResponse(response, isQuizMode);
+    }
+
+    /**
+     * Stores a raw response in the cache if it processed into a usable response.
+     *
+     * @return The processed response.
+     */
+    private ModelResponseFormat cacheResponse(String fingerprint, String response, ModelResponseFormat processed, boolean isQuizMode) {
+        boolean usable = !processed.isError && (!isQuizMode || validateQuizResponse(processed));
+        if (fingerprint != null && usable) {
+            responseCache.put(fingerprint, response);
+        }
+        return processed;
+    }
+
+    private ModelResponseFormat processResponse(String response, boolean isQuizMode) {
+        if (isQuizMode) {
+            return processQuizResponse(response);
+        } else {
+            return processChatResponse(response);
+        }
+    }
+
+    /**
+     * Converts a complete quiz response into a {@link ModelResponseFormat}.
+     * <p>
+     * The response is parsed by a {@link QuizStreamParser} in one piece, which skips any
+     * text or JSON code fence (e.g., ```json ... ```) around the quiz object and validates
+     * each question. If the response does not contain a valid quiz, this method returns an
+     * error message in {@link ModelResponseFormat}.
      *
      * @param response The AI's response string.
      * @return A {@link ModelResponseFormat} containing the quiz data or an error message.
      */
     private ModelResponseFormat processQuizResponse(String response) {
+        QuizStreamParser parser = new QuizStreamParser(null);
         try {
-            String jsonContent = response;
-            if (response.contains("```json")) {
-                jsonContent = response.substring(response.indexOf("```json") + 7);
-                jsonContent = jsonContent.substring(0, jsonContent.indexOf("```"));
-                jsonContent = jsonContent.trim();
-            } else if (response.contains("```")) {
-                jsonContent = response.substring(response.indexOf("```") + 3);
-                jsonContent = jsonContent.substring(0, jsonContent.indexOf("```"));
-                jsonContent = jsonContent.trim();
-            }
-
-            QuizFormat quizData = gson.fromJson(jsonContent, QuizFormat.class);
+            parser.accept(response);
+        } catch (IllegalArgumentException e) {
+            /* Reported by finishQuizResponse */
+        }
+        return finishQuizResponse(parser, response, false);
+    }
 
-            return new ModelResponseFormat(
-                false,
-                response,
-                new QuizFormat[] { quizData }
-            );
-        } catch (Exception e) {
-            System.err.println("Error parsing quiz response: " + e.getMessage());
+    /**
+     * Completes a quiz parsed by a {@link QuizStreamParser} and records its parsing metrics.
+     *
+     * @param parser The parser the response was fed to.
+     * @param response The AI's response string, or null if the generation was aborted.
+     * @param streamed True if the response was parsed while it was streamed.
+     * @return A {@link ModelResponseFormat} containing the quiz data or an error message.
+     */
+    private ModelResponseFormat finishQuizResponse(QuizStreamParser parser, String response, boolean streamed) {
+        try {
+            parser.finish();
+        } catch (IllegalArgumentException e) {
+            recordQuizParse(parser, streamed);
+            System.err.println("Error parsing quiz response" + (response == null ? " (generation aborted)" : "") + ": " + e.getMessage());
             return new ModelResponseFormat(
                 true,
                 "Error: Unable to parse quiz response from AI. " + e.getMessage(),
                 null
             );
         }
+
+        recordQuizParse(parser, streamed);
+        if (verbose) {
+            System.out.println(String.format(
+                "Quiz parsed in %.2fms, first question after %dms", parser.getParseMillis(), parser.getTimeToFirstQuestionMillis()
+            ));
+        }
+        QuizFormat quizData = new QuizFormat(parser.getQuizTitle(), parser.getQuestions().toArray(new Question[0]));
+        return new ModelResponseFormat(
+            false,
+            response,
+            new QuizFormat[] { quizData }
+        );
     }
 
     /**
@@ -0,0 +1,339 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Exports the transcript of a chat to a file, one page of messages at a time.
+ * <p>
+ * Messages are read with {@link IMessageDAO#getChatMessagesAfter(int, int, int)} and written
+ * straight to a buffered {@link FileChannel}, so only one page of messages, and the quiz
+ * of the message being written, is held in memory no matter how long the chat is. The
+ * export is written to a {@code .part} file next to the target, which replaces the target
+ * once the export is complete, so a failed or cancelled export never leaves a truncated file.
+ * <p>
+ * The export is meant to run off the JavaFX Application Thread. It reports its progress
+ * after every page, and stops with a {@link CancellationException} between pages once the
+ * exporting thread has been interrupted.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * ChatExporter exporter = new ChatExporter(messageDAO, quizDAO, attemptResultDAO);
+ * exporter.export(chat, ChatExporter.Format.MARKDOWN, path, (exported, total) -&gt; ...);</pre>
+ *
+ * @author Justin.
+ */
+public class ChatExporter {
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final IMessageDAO messageDAO;
+    private final IQuizDAO quizDAO;
+    private final IAttemptResultDAO attemptResultDAO;
+    private final int pageSize;
+
+    /**
+     * The file formats a chat can be exported to.
+     */
+    public enum Format {
+        /** The plain text transcript, one line per message. */
+        TEXT("Text Files", "txt"),
+        /** A readable transcript including each quiz and its attempts. */
+        MARKDOWN("Markdown Files", "md"),
+        /** One JSON object for the chat and one per message, including quiz trees and attempt results. */
+        NDJSON("NDJSON Files", "ndjson");
+
+        private final String description;
+        private final String extension;
+
+        Format(String description, String extension) {
+            this.description = description;
+            this.extension = extension;
+        }
+
+        public String getDescription() { return description; }
+
+        public String getExtension() { return extension; }
+
+        /**
+         * Gets the format of a file from its extension.
+         *
+         * @param fileName The name of the file.
+         * @return The format with the file's extension, or {@link #TEXT} if there is none.
+         */
+        public static Format fromFileName(String fileName) {
+            String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+            for (Format format : values()) {
+                if (lowerCaseName.endsWith("." + format.extension)) {
+                    return format;
+                }
+            }
+            return TEXT;
+        }
+
+        /**
+         * Gives a file name the extension of this format.
+         *
+         * @param fileName The name of the file.
+         * @return The file name unchanged if it already has this format's extension, with the
+         *         extension of another format replaced, or with the extension appended otherwise.
+         */
+        public String withExtension(String fileName) {
+            String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+            for (Format format : values()) {
+                if (lowerCaseName.endsWith("." + format.extension)) {
+                    if (format == this) {
+                        return fileName;
+                    }
+                    fileName = fileName.substring(0, fileName.length() - format.extension.length() - 1);
+                    break;
+                }
+            }
+            return fileName + "." + extension;
+        }
+    }
+
+    /**
+     * Receives the progress of an export after each page of messages.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int exported, int total);
+    }
+
+    /**
+     * Constructor of {@code ChatExporter} with the default page size.
+     * @param messageDAO The DAO to page through messages with.
+     * @param quizDAO The DAO to read the quiz of each quiz message with.
+     * @param attemptResultDAO The DAO to read the attempts of each quiz with.
+     * @throws IllegalArgumentException if a DAO is null.
+     */
+    public ChatExporter(IMessageDAO messageDAO, IQuizDAO quizDAO, IAttemptResultDAO attemptResultDAO) throws IllegalArgumentException {
+        this(messageDAO, quizDAO, attemptResultDAO, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructor of {@code ChatExporter}.
+     * @param messageDAO The DAO to page through messages with.
+     * @param quizDAO The DAO to read the quiz of each quiz message with.
+     * @param attemptResultDAO The DAO to read the attempts of each quiz with.
+     * @param pageSize The number of messages read at a time.
+     * @throws IllegalArgumentException if a DAO is null or the page size is not positive.
+     */
+    public ChatExporter(IMessageDAO messageDAO, IQuizDAO quizDAO, IAttemptResultDAO attemptResultDAO, int pageSize) throws IllegalArgumentException {
+        if (messageDAO == null || quizDAO == null || attemptResultDAO == null) {
+            throw new IllegalArgumentException("Invalid chat exporter DAOs: cannot be null");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Invalid page size: must be at least 1");
+        }
+        this.messageDAO = messageDAO;
+        this.quizDAO = quizDAO;
+        this.attemptResultDAO = attemptResultDAO;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Exports the transcript of a chat to a file.
+     *
+     * @param chat The chat to export.
+     * @param format The format to write the transcript in.
+     * @param path The file to write, replaced if it already exists.
+     * @param listener Receives the number of messages exported after each page, may be null.
+     * @return The number of messages exported.
+     * @throws IOException if the file cannot be written.
+     * @throws SQLException if the messages cannot be read.
+     * @throws CancellationException if the exporting thread was interrupted.
+     */
+    public int export(Chat chat, Format format, Path path, ProgressListener listener) throws IOException, SQLException, CancellationException {
+        Path partPath = path.resolveSibling(path.getFileName() + ".part");
+        try {
+            int exported = write(chat, format, partPath, listener);
+            Files.move(partPath, path, StandardCopyOption.REPLACE_EXISTING);
+            return exported;
+        } catch (ClosedByInterruptException | SQLException e) {
+            // Interrupting the thread closes the channel or aborts waiting for a connection
+            if (Thread.currentThread().isInterrupted()) {
+                throw cancelled();
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(partPath);
+        }
+    }
+
+    private int write(Chat chat, Format format, Path partPath, ProgressListener listener) throws IOException, SQLException, CancellationException {
+        checkCancelled();
+        int total = messageDAO.countChatMessages(chat.getId());
+        int exported = 0;
+
+        try (FileChannel channel = FileChannel.open(partPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writeHeader(writer, chat, format);
+
+            int afterId = 0;
+            List<Message> page;
+            do {
+                checkCancelled();
+                page = messageDAO.getChatMessagesAfter(chat.getId(), afterId, pageSize);
+                for (Message message : page) {
+                    writeMessage(writer, message, format);
+                    afterId = message.getId();
+                }
+                exported += page.size();
+                if (listener != null) {
+                    listener.onProgress(exported, Math.max(exported, total));
+                }
+            } while (page.size() == pageSize);
+        }
+        return exported;
+    }
+
+    private static void checkCancelled() throws CancellationException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw cancelled();
+        }
+    }
+
+    private static CancellationException cancelled() {
+        return new CancellationException("Chat export cancelled");
+    }
+
+    private void writeHeader(Writer writer, Chat chat, Format format) throws IOException {
+        switch (format) {
+            case TEXT -> writer.write("Chat: " + chat.getName() + "\n\n");
+            case MARKDOWN -> writer.write("# " + chat.getName() + "\n\n");
+            case NDJSON -> {
+                JsonObject chatObject = new JsonObject();
+                chatObject.addProperty("type", "chat");
+                chatObject.addProperty("name", chat.getName());
+                chatObject.addProperty("responseAttitude", chat.getResponseAttitude());
+                chatObject.addProperty("quizDifficulty", chat.getQuizDifficulty());
+                chatObject.addProperty("quizLength", chat.getQuizLength());
+                chatObject.addProperty("educationLevel", chat.getEducationLevel());
+                chatObject.addProperty("studyArea", chat.getStudyArea());
+                writer.write(gson.toJson(chatObject) + "\n");
+            }
+        }
+    }
+
+    private void writeMessage(Writer writer, Message message, Format format) throws IOException, SQLException {
+        String sender = message.getFromUser() ? "User" : "AI";
+        QuizTree quizTree = hasQuiz(message) ? quizDAO.getQuizTree(message.getId()) : null;
+
+        switch (format) {
+            case TEXT -> writer.write(sender + ": " + message.getContent()
+                    + " [Quiz: " + (message.getIsQuiz() ? "Yes" : "No") + "]\n");
+            case MARKDOWN -> {
+                writer.write("**" + sender + ":**\n\n");
+                if (quizTree == null) {
+                    writer.write(message.getContent() + "\n\n");
+                } else {
+                    writeMarkdownQuiz(writer, quizTree, attemptResultDAO.getAllQuizAttemptResults(message.getId()));
+                }
+            }
+            case NDJSON -> {
+                JsonObject messageObject = new JsonObject();
+                messageObject.addProperty("type", "message");
+                messageObject.addProperty("id", message.getId());
+                messageObject.addProperty("fromUser", message.getFromUser());
+                messageObject.addProperty("isQuiz", message.getIsQuiz());
+                messageObject.addProperty("content", message.getContent());
+                if (quizTree != null) {
+                    messageObject.add("quiz", toJson(quizTree));
+                    messageObject.add("attempts", toJson(attemptResultDAO.getAllQuizAttemptResults(message.getId())));
+                }
+                writer.write(gson.toJson(messageObject) + "\n");
+            }
+        }
+    }
+
+    private static boolean hasQuiz(Message message) {
+        return message.getIsQuiz() && !message.getFromUser();
+    }
+
+    private static void writeMarkdownQuiz(Writer writer, QuizTree quizTree, List<AttemptResult> attempts) throws IOException {
+        Quiz quiz = quizTree.getQuiz();
+        writer.write("### Quiz: " + quiz.getName() + " (" + quiz.getDifficulty() + ")\n\n");
+        for (QuizQuestion question : quizTree.getQuestions()) {
+            writer.write(question.getNumber() + ". " + question.getQuestion() + "\n");
+            for (AnswerOption option : quizTree.getAnswerOptions(question.getNumber())) {
+                writer.write("    - " + option.getOption() + ". " + option.getValue()
+                        + (option.getIsAnswer() ? " **(correct)**" : "") + "\n");
+            }
+        }
+        writer.write("\n");
+
+        for (AttemptResult attempt : attempts) {
+            writer.write(String.format("- Attempt %d: %d/%d in %ds\n",
+                    attempt.getAttempt(), attempt.getScore(), attempt.getQuestionCount(), attempt.getDurationMillis() / 1000));
+        }
+        if (!attempts.isEmpty()) {
+            writer.write("\n");
+        }
+    }
+
+    private static JsonObject toJson(QuizTree quizTree) {
+        JsonObject quizObject = new JsonObject();
+        quizObject.addProperty("name", quizTree.getQuiz().getName());
+        quizObject.addProperty("difficulty", quizTree.getQuiz().getDifficulty());
+
+        JsonArray questions = new JsonArray();
+        for (QuizQuestion question : quizTree.getQuestions()) {
+            JsonObject questionObject = new JsonObject();
+            questionObject.addProperty("number", question.getNumber());
+            questionObject.addProperty("question", question.getQuestion());
+
+            JsonArray options = new JsonArray();
+            for (AnswerOption option : quizTree.getAnswerOptions(question.getNumber())) {
+                JsonObject optionObject = new JsonObject();
+                optionObject.addProperty("option", option.getOption());
+                optionObject.addProperty("value", option.getValue());
+                optionObject.addProperty("isAnswer", option.getIsAnswer());
+                options.add(optionObject);
+            }
+            questionObject.add("options", options);
+            questions.add(questionObject);
+        }
+        quizObject.add("questions", questions);
+        return quizObject;
+    }
+
+    private static JsonArray toJson(List<AttemptResult> attempts) {
+        JsonArray attemptArray = new JsonArray();
+        for (AttemptResult attempt : attempts) {
+            JsonObject attemptObject = new JsonObject();
+            attemptObject.addProperty("attempt", attempt.getAttempt());
+            JsonArray questionResults = new JsonArray();
+            attempt.getQuestionResults().forEach(questionResults::add);
+            attemptObject.add("questionResults", questionResults);
+            attemptObject.addProperty("durationMillis", attempt.getDurationMillis());
+            attemptObject.addProperty("completedAt", attempt.getCompletedAt());
+            attemptArray.add(attemptObject);
+        }
+        return attemptArray;
+    }
+}
@@ -0,0 +1,118 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import ai.tutor.cab302exceptionalhandlers.model.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assembles the chat history sent to the AI within a token budget.
+ * <p>
+ * The system prompt, the rolling summary and the most recent messages must fit in the
+ * budget. Messages already folded into the summary are never sent. When the remaining
+ * messages no longer fit, the oldest are handed back to be summarised until the rest
+ * fill only {@link #COMPACT_RATIO} of the budget, so the summary is only regenerated
+ * every few turns rather than on every request.
+ * <p>
+ * The newest message is always sent, even if it alone exceeds the budget.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * ContextWindow window = new ContextBuilder(8192).build(systemPrompt, summary, lastSummarisedId, history);
+ * </pre>
+ *
+ * @author Justin.
+ */
+public class ContextBuilder {
+    /** Rough number of characters per token for English text. */
+    private static final int CHARS_PER_TOKEN = 4;
+    /** Tokens added per message for the role and message framing. */
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    /** Tokens set aside for the rolling summary. */
+    public static final int SUMMARY_RESERVE_TOKENS = 512;
+    /** Fraction of the message budget to fill after compacting older messages. */
+    public static final double COMPACT_RATIO = 0.5;
+
+    private final int tokenBudget;
+
+    /**
+     * Constructor of {@code ContextBuilder}.
+     * @param tokenBudget The maximum number of tokens to send per request.
+     * @throws IllegalArgumentException if the budget does not leave room for the summary.
+     */
+    public ContextBuilder(int tokenBudget) throws IllegalArgumentException {
+        if (tokenBudget <= SUMMARY_RESERVE_TOKENS) {
+            throw new IllegalArgumentException("Invalid token budget: must be greater than " + SUMMARY_RESERVE_TOKENS);
+        }
+        this.tokenBudget = tokenBudget;
+    }
+
+    public int getTokenBudget() { return tokenBudget; }
+
+    /**
+     * Estimates the number of tokens in a piece of text.
+     *
+     * @param text The text to estimate.
+     * @return The estimated token count.
+     */
+    public static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Estimates the number of tokens a message takes up in the prompt.
+     *
+     * @param message The message to estimate.
+     * @return The estimated token count.
+     */
+    public static int estimateTokens(Message message) {
+        return estimateTokens(message.getContent()) + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    /**
+     * Selects the messages to send for a request.
+     *
+     * @param systemPrompt The system prompt of the request.
+     * @param summary The current rolling summary, or null if there is none.
+     * @param lastSummarisedId The ID of the newest message in the summary, or 0 if there is none.
+     * @param history The full chat history, oldest first.
+     * @return The {@link ContextWindow} to send.
+     */
+    public ContextWindow build(String systemPrompt, String summary, int lastSummarisedId, List<Message> history) {
+        int systemTokens = estimateTokens(systemPrompt) + MESSAGE_OVERHEAD_TOKENS;
+        int messageBudget = Math.max(0, tokenBudget - systemTokens - SUMMARY_RESERVE_TOKENS);
+
+        List<Message> unsummarised = new ArrayList<>();
+        int unsummarisedTokens = 0;
+        int tokensDropped = 0;
+        int messagesDropped = 0;
+        for (Message message : history) {
+            int tokens = estimateTokens(message);
+            if (message.getId() > lastSummarisedId) {
+                unsummarised.add(message);
+                unsummarisedTokens += tokens;
+            } else {
+                tokensDropped += tokens;
+                messagesDropped++;
+            }
+        }
+
+        List<Message> toSummarise = new ArrayList<>();
+        if (unsummarisedTokens > messageBudget) {
+            int target = (int) (messageBudget * COMPACT_RATIO);
+            while (unsummarised.size() > 1 && unsummarisedTokens > target) {
+                Message oldest = unsummarised.remove(0);
+                int tokens = estimateTokens(oldest);
+                unsummarisedTokens -= tokens;
+                tokensDropped += tokens;
+                messagesDropped++;
+                toSummarise.add(oldest);
+            }
+        }
+
+        return new ContextWindow(unsummarised, summary, toSummarise, systemTokens, unsummarisedTokens, tokensDropped, messagesDropped);
+    }
+}
@@ -0,0 +1,95 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import ai.tutor.cab302exceptionalhandlers.model.Message;
+
+import java.util.List;
+
+/**
+ * The messages selected by a {@link ContextBuilder} to be sent to the AI for one request.
+ * <p>
+ * Holds the most recent messages that fit within the token budget, the rolling summary
+ * standing in for older messages, and the messages that still need to be folded into
+ * that summary. Token counts are estimates, see {@link ContextBuilder#estimateTokens(String)}.
+ *
+ * @author Justin.
+ */
+public class ContextWindow {
+    private final List<Message> messages;
+    private final String summary;
+    private final List<Message> messagesToSummarise;
+    private final int systemTokens;
+    private final int messageTokens;
+    private final int tokensDropped;
+    private final int messagesDropped;
+
+    /**
+     * Constructor of {@code ContextWindow}.
+     * @param messages The messages to send, oldest first.
+     * @param summary The summary of older messages, or null if there is none.
+     * @param messagesToSummarise The messages left out of this window that are not yet in the summary.
+     * @param systemTokens The estimated tokens of the system prompt.
+     * @param messageTokens The estimated tokens of {@code messages}.
+     * @param tokensDropped The estimated tokens of every message left out of this window.
+     * @param messagesDropped The number of messages left out of this window.
+     */
+    public ContextWindow(List<Message> messages, String summary, List<Message> messagesToSummarise,
+                         int systemTokens, int messageTokens, int tokensDropped, int messagesDropped) {
+        this.messages = List.copyOf(messages);
+        this.summary = summary;
+        this.messagesToSummarise = List.copyOf(messagesToSummarise);
+        this.systemTokens = systemTokens;
+        this.messageTokens = messageTokens;
+        this.tokensDropped = tokensDropped;
+        this.messagesDropped = messagesDropped;
+    }
+
+    /**
+     * Creates a window that sends the whole history without a budget.
+     *
+     * @param history The chat history, oldest first.
+     * @return A window containing every message.
+     */
+    public static ContextWindow of(List<Message> history) {
+        int tokens = 0;
+        for (Message message : history) {
+            tokens += ContextBuilder.estimateTokens(message);
+        }
+        return new ContextWindow(history, null, List.of(), 0, tokens, 0, 0);
+    }
+
+    /**
+     * Returns a copy of this window using an updated summary.
+     * <p>
+     * The messages waiting to be summarised are assumed to be part of the new summary.
+     *
+     * @param updatedSummary The new summary of the older messages.
+     * @return The updated window.
+     */
+    public ContextWindow withSummary(String updatedSummary) {
+        return new ContextWindow(messages, updatedSummary, List.of(), systemTokens, messageTokens, tokensDropped, messagesDropped);
+    }
+
+    public List<Message> getMessages() { return messages; }
+
+    public String getSummary() { return summary; }
+
+    public boolean hasSummary() { return summary != null && !summary.isEmpty(); }
+
+    public List<Message> getMessagesToSummarise() { return messagesToSummarise; }
+
+    public int getSummaryTokens() { return hasSummary() ? ContextBuilder.estimateTokens(summary) : 0; }
+
+    public int getTokensSent() { return systemTokens + getSummaryTokens() + messageTokens; }
+
+    public int getTokensDropped() { return tokensDropped; }
+
+    public int getMessagesDropped() { return messagesDropped; }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "sent ~%d tokens (%d messages, summary ~%d), dropped ~%d tokens (%d messages)",
+                getTokensSent(), messages.size(), getSummaryTokens(), tokensDropped, messagesDropped
+        );
+    }
+}
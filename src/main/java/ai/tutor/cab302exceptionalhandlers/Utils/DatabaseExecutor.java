@@ -0,0 +1,181 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs database queries off the JavaFX Application Thread.
+ * <p>
+ * Controllers {@link #submit(Query)} their DAO calls instead of making them directly, so
+ * slow SQLite I/O never freezes the UI. The query runs on one of a small pool of database
+ * threads, and the returned future is completed on the callback executor, which by default
+ * is the JavaFX Application Thread through {@link Platform#runLater(Runnable)}. Stages added
+ * to the future with the non-async methods, such as {@code thenAccept} or
+ * {@code whenComplete}, can therefore update the UI directly.
+ * <p>
+ * Besides the query times, the delay between a query finishing and its result reaching the
+ * callback executor is recorded. On the JavaFX thread this is the time the UI took to get
+ * round to the result, so it grows whenever the UI thread is blocked.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * DatabaseExecutor.getInstance().submit(() -&gt; chatDAO.getAllUserChats(userId))
+ *         .whenComplete((chats, error) -&gt; ...);</pre>
+ *
+ * @author Justin.
+ */
+public class DatabaseExecutor {
+    /** The default number of database threads, matching the default read pool size. */
+    public static final int DEFAULT_THREADS = 4;
+
+    private static DatabaseExecutor instance;
+
+    private final ExecutorService executor;
+    private final Executor callbackExecutor;
+
+    /* Metrics, guarded by this */
+    private long submitted = 0;
+    private long succeeded = 0;
+    private long failed = 0;
+    private long totalQueryNanos = 0;
+    private long maxQueryNanos = 0;
+    private long totalCallbackDelayNanos = 0;
+    private long maxCallbackDelayNanos = 0;
+
+    /**
+     * A database query run by a {@link DatabaseExecutor}.
+     *
+     * @param <T> The result type of the query.
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Constructor of {@code DatabaseExecutor}.
+     * @param threads The number of database threads.
+     * @param callbackExecutor The executor the returned futures are completed on.
+     * @throws IllegalArgumentException if the thread count is not positive or the callback executor is null.
+     */
+    public DatabaseExecutor(int threads, Executor callbackExecutor) throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid database thread count: must be greater than 0");
+        }
+        if (callbackExecutor == null) {
+            throw new IllegalArgumentException("Invalid callback executor: cannot be null");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = task -> {
+            Thread thread = new Thread(task, "database-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Gets the shared {@code DatabaseExecutor}, which completes its futures on the JavaFX Application Thread.
+     * @return The singleton instance.
+     */
+    public static synchronized DatabaseExecutor getInstance() {
+        if (instance == null) {
+            instance = new DatabaseExecutor(DEFAULT_THREADS, Platform::runLater);
+        }
+        return instance;
+    }
+
+    /**
+     * Runs a query on a database thread.
+     *
+     * @param query The DAO calls to run.
+     * @param <T> The result type of the query.
+     * @return A future completed on the callback executor with the result of the query,
+     *         or exceptionally with the exception it threw.
+     */
+    public <T> CompletableFuture<T> submit(Query<T> query) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        synchronized (this) {
+            submitted++;
+        }
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            T result = null;
+            Exception error = null;
+            try {
+                result = query.run();
+            } catch (Exception e) {
+                error = e;
+            }
+            long finished = System.nanoTime();
+            recordQuery(finished - start, error == null);
+
+            T value = result;
+            Exception cause = error;
+            callbackExecutor.execute(() -> {
+                recordCallbackDelay(System.nanoTime() - finished);
+                if (cause == null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(cause);
+                }
+            });
+        });
+        return future;
+    }
+
+    /**
+     * Stops the database threads once the submitted queries have run.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private synchronized void recordQuery(long queryNanos, boolean success) {
+        if (success) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+        totalQueryNanos += queryNanos;
+        maxQueryNanos = Math.max(maxQueryNanos, queryNanos);
+    }
+
+    private synchronized void recordCallbackDelay(long delayNanos) {
+        totalCallbackDelayNanos += delayNanos;
+        maxCallbackDelayNanos = Math.max(maxCallbackDelayNanos, delayNanos);
+    }
+
+    public synchronized long getSubmitted() { return submitted; }
+
+    public synchronized long getSucceeded() { return succeeded; }
+
+    public synchronized long getFailed() { return failed; }
+
+    public synchronized double getAverageQueryMillis() { return averageMillis(totalQueryNanos); }
+
+    public synchronized double getMaxQueryMillis() { return maxQueryNanos / 1_000_000.0; }
+
+    public synchronized double getAverageCallbackDelayMillis() { return averageMillis(totalCallbackDelayNanos); }
+
+    public synchronized double getMaxCallbackDelayMillis() { return maxCallbackDelayNanos / 1_000_000.0; }
+
+    private double averageMillis(long totalNanos) {
+        long finished = succeeded + failed;
+        return finished == 0 ? 0 : totalNanos / 1_000_000.0 / finished;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d queries (%d failed), query avg %.2fms max %.2fms, callback delay avg %.2fms max %.2fms",
+                submitted, failed, getAverageQueryMillis(), getMaxQueryMillis(),
+                getAverageCallbackDelayMillis(), getMaxCallbackDelayMillis());
+    }
+}
@@ -0,0 +1,162 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory LRU cache of rendered markdown, keyed by message ID and content hash.
+ * <p>
+ * Parsing a message's markdown and building its nodes is the slowest part of showing a
+ * chat, so the rendered result is kept and handed out again the next time the message is
+ * shown, even by another {@code ChatController}. A cached render is only reused while the
+ * markdown it was rendered from has the same hash, so an edited message is rendered again.
+ * <p>
+ * The memory held by a render grows with the length of its markdown, so besides the number
+ * of renders, the cache limits the total number of markdown characters they were rendered
+ * from. The least recently used renders are evicted once either limit is exceeded, and
+ * markdown longer than the character limit is rendered without being cached.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * MarkdownRenderCache&lt;MarkdownView&gt; cache = new MarkdownRenderCache&lt;&gt;(MarkdownView::new);
+ * MarkdownView view = cache.get(message.getId(), message.getContent());</pre>
+ *
+ * @author Justin.
+ * @param <T> The type of a rendered markdown document.
+ */
+public class MarkdownRenderCache<T> {
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+    public static final long DEFAULT_MAX_CHARACTERS = 1_000_000;
+
+    private final Function<String, T> renderer;
+    private final int maxEntries;
+    private final long maxCharacters;
+    private final LinkedHashMap<Integer, Render<T>> renders = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedCharacters = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * A cached render and the markdown it was rendered from.
+     */
+    private static final class Render<T> {
+        private final int contentHash;
+        private final int characters;
+        private final T rendered;
+
+        private Render(int contentHash, int characters, T rendered) {
+            this.contentHash = contentHash;
+            this.characters = characters;
+            this.rendered = rendered;
+        }
+    }
+
+    /**
+     * Constructor of {@code MarkdownRenderCache} with the default limits.
+     * @param renderer The function rendering markdown.
+     */
+    public MarkdownRenderCache(Function<String, T> renderer) {
+        this(renderer, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_CHARACTERS);
+    }
+
+    /**
+     * Constructor of {@code MarkdownRenderCache}.
+     * @param renderer The function rendering markdown.
+     * @param maxEntries The maximum number of renders to keep.
+     * @param maxCharacters The maximum total length of the markdown the kept renders were rendered from.
+     * @throws IllegalArgumentException if the renderer is null or a limit is not positive.
+     */
+    public MarkdownRenderCache(Function<String, T> renderer, int maxEntries, long maxCharacters) throws IllegalArgumentException {
+        if (renderer == null) {
+            throw new IllegalArgumentException("Invalid markdown renderer: cannot be null");
+        }
+        if (maxEntries < 1 || maxCharacters < 1) {
+            throw new IllegalArgumentException("Invalid markdown render cache limits: must be greater than 0");
+        }
+        this.renderer = renderer;
+        this.maxEntries = maxEntries;
+        this.maxCharacters = maxCharacters;
+    }
+
+    /**
+     * Gets the render of a message's markdown, rendering and caching it on a miss.
+     *
+     * @param messageId The ID of the message.
+     * @param markdown The markdown to render for the message.
+     * @return The cached render if the message's markdown is unchanged, otherwise a new render.
+     */
+    public synchronized T get(int messageId, String markdown) {
+        int contentHash = markdown.hashCode();
+        Render<T> render = renders.get(messageId);
+        if (render != null && render.contentHash == contentHash) {
+            hits++;
+            return render.rendered;
+        }
+
+        misses++;
+        T rendered = renderer.apply(markdown);
+        invalidate(messageId);
+        if (markdown.length() <= maxCharacters) {
+            renders.put(messageId, new Render<>(contentHash, markdown.length(), rendered));
+            cachedCharacters += markdown.length();
+            evictOverLimit();
+        }
+        return rendered;
+    }
+
+    /**
+     * Removes the render of a message.
+     * @param messageId The ID of the message.
+     */
+    public synchronized void invalidate(int messageId) {
+        Render<T> render = renders.remove(messageId);
+        if (render != null) {
+            cachedCharacters -= render.characters;
+        }
+    }
+
+    /**
+     * Removes every render.
+     */
+    public synchronized void clear() {
+        renders.clear();
+        cachedCharacters = 0;
+    }
+
+    private void evictOverLimit() {
+        Iterator<Map.Entry<Integer, Render<T>>> eldest = renders.entrySet().iterator();
+        while ((renders.size() > maxEntries || cachedCharacters > maxCharacters) && eldest.hasNext()) {
+            cachedCharacters -= eldest.next().getValue().characters;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized int size() { return renders.size(); }
+
+    public synchronized long getCachedCharacters() { return cachedCharacters; }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * @return The fraction of lookups that were hits, or 0 if there have been none.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d/%d renders (%d/%d characters), %d hits, %d misses (%.0f%% hit rate), %d evictions",
+                renders.size(), maxEntries, cachedCharacters, maxCharacters, hits, misses, getHitRate() * 100, evictions);
+    }
+}
@@ -0,0 +1,60 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import ai.tutor.cab302exceptionalhandlers.model.AnswerOption;
+import ai.tutor.cab302exceptionalhandlers.model.AttemptResult;
+import ai.tutor.cab302exceptionalhandlers.model.QuizQuestion;
+import ai.tutor.cab302exceptionalhandlers.model.QuizTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grades a quiz attempt against the correct answer options of the quiz.
+ * <p>
+ * A question is correct when the chosen option is marked as an answer by
+ * {@link AnswerOption#getIsAnswer()}. Unanswered questions are incorrect. Attempts are
+ * graded once on submission and the {@link AttemptResult} is stored, so past attempts
+ * never need grading again.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * AttemptResult result = QuizScorer.grade(quizTree, attempt, answers, durationMillis);
+ * System.out.println(result.getScore() + "/" + result.getQuestionCount());</pre>
+ *
+ * @author Justin.
+ */
+public final class QuizScorer {
+
+    private QuizScorer() {}
+
+    /**
+     * Grades an attempt at a quiz.
+     *
+     * @param quizTree The quiz with its questions and answer options.
+     * @param attempt The attempt number.
+     * @param answers The chosen option of each question, keyed by question number.
+     * @param durationMillis How long the attempt took in milliseconds.
+     * @return The {@link AttemptResult} of the attempt, completed now.
+     * @throws IllegalArgumentException if the attempt number or duration is invalid.
+     */
+    public static AttemptResult grade(QuizTree quizTree, int attempt, Map<Integer, String> answers, long durationMillis) throws IllegalArgumentException {
+        List<Boolean> questionResults = new ArrayList<>(quizTree.getQuestions().size());
+        for (QuizQuestion question : quizTree.getQuestions()) {
+            questionResults.add(isCorrect(quizTree.getAnswerOptions(question.getNumber()), answers.get(question.getNumber())));
+        }
+        return new AttemptResult(quizTree.getQuiz().getMessageId(), attempt, questionResults, durationMillis, System.currentTimeMillis());
+    }
+
+    private static boolean isCorrect(List<AnswerOption> options, String answer) {
+        if (answer == null) {
+            return false;
+        }
+        for (AnswerOption option : options) {
+            if (option.getOption().equals(answer)) {
+                return option.getIsAnswer();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,262 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.AIUtils.Question;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Incrementally parses a quiz generated by the AI while it is being streamed.
+ * <p>
+ * The response is fed in as it arrives with {@link #accept(String)}. The parser tracks the
+ * JSON structure of the quiz object, skipping any text or code fence before it, and each
+ * question is parsed and validated with {@link AIUtils#validateQuestion(Question)} as soon
+ * as its closing brace arrives. Valid questions are passed to the {@code onQuestion}
+ * callback straight away, so they can be shown before the rest of the quiz is generated.
+ * <p>
+ * As soon as the quiz breaks the expected structure, for example when {@code questions}
+ * is not an array or a question has no correct answer, {@link #accept(String)} throws.
+ * Throwing from the stream handler aborts the request, so a malformed quiz stops
+ * generating instead of running to completion first.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * QuizStreamParser parser = new QuizStreamParser(question -&gt; ...);
+ * parser.accept(chunk);   // for each streamed chunk
+ * parser.finish();
+ * List&lt;Question&gt; questions = parser.getQuestions();</pre>
+ *
+ * @author Justin.
+ */
+public class QuizStreamParser {
+    private static final Gson gson = new Gson();
+
+    private final Consumer<Question> onQuestion;
+    private final long startNanos = System.nanoTime();
+
+    /* Structure of the quiz read so far */
+    private final StringBuilder json = new StringBuilder();
+    private final Deque<Character> containers = new ArrayDeque<>();
+    private boolean started = false;
+    private boolean complete = false;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private int stringStart = -1;
+    private boolean expectingKey = false;
+    private boolean awaitingValue = false;
+    private String lastKey;
+    private boolean inQuestions = false;
+    private int questionStart = -1;
+
+    private String quizTitle;
+    private final List<Question> questions = new ArrayList<>();
+    private String violation;
+
+    /* Metrics */
+    private long parseNanos = 0;
+    private long timeToFirstQuestionMillis = -1;
+
+    /**
+     * Constructor of {@code QuizStreamParser}.
+     * @param onQuestion Receives each valid question as soon as it is complete, may be null.
+     */
+    public QuizStreamParser(Consumer<Question> onQuestion) {
+        this.onQuestion = onQuestion;
+    }
+
+    /**
+     * Parses the next piece of the response.
+     *
+     * @param chunk The text received from the AI.
+     * @throws IllegalArgumentException if the quiz violates the expected structure.
+     */
+    public void accept(String chunk) throws IllegalArgumentException {
+        if (violation != null) {
+            throw new IllegalArgumentException(violation);
+        }
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < chunk.length() && !complete; i++) {
+                consume(chunk.charAt(i));
+            }
+        } finally {
+            parseNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Checks that a complete quiz has been received once the response has ended.
+     *
+     * @throws IllegalArgumentException if the quiz is incomplete, has no title or has no questions.
+     */
+    public void finish() throws IllegalArgumentException {
+        if (violation != null) {
+            throw new IllegalArgumentException(violation);
+        }
+        if (!started) {
+            fail("no quiz object found");
+        } else if (!complete) {
+            fail("the response ended before the quiz was complete");
+        } else if (quizTitle == null || quizTitle.isEmpty()) {
+            fail("missing quiz title");
+        } else if (questions.isEmpty()) {
+            fail("no questions");
+        }
+    }
+
+    private void consume(char c) {
+        if (!started) {
+            if (c != '{') {
+                return;
+            }
+            started = true;
+        }
+        json.append(c);
+        int position = json.length() - 1;
+
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+                endString(position);
+            }
+            return;
+        }
+        if (Character.isWhitespace(c)) {
+            return;
+        }
+
+        int depth = containers.size();
+        if (depth == 1 && c == ':') {
+            awaitingValue = true;
+            return;
+        }
+        if (depth == 1 && awaitingValue) {
+            awaitingValue = false;
+            if ("questions".equals(lastKey) && c != '[') {
+                fail("questions must be an array");
+            } else if ("quizTitle".equals(lastKey) && c != '"') {
+                fail("quizTitle must be a string");
+            }
+        }
+        if (depth == 2 && inQuestions && c != '{' && c != ',' && c != ']') {
+            fail("question " + (questions.size() + 1) + " must be an object");
+        }
+
+        switch (c) {
+            case '"' -> {
+                inString = true;
+                stringStart = position;
+            }
+            case '{', '[' -> open(c, position);
+            case '}', ']' -> close(c, position);
+            case ',' -> {
+                if (depth == 1) {
+                    expectingKey = true;
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private void endString(int position) {
+        if (containers.size() != 1) {
+            return;
+        }
+        if (expectingKey) {
+            lastKey = json.substring(stringStart + 1, position);
+            expectingKey = false;
+        } else if ("quizTitle".equals(lastKey)) {
+            quizTitle = gson.fromJson(json.substring(stringStart, position + 1), String.class);
+        }
+    }
+
+    private void open(char c, int position) {
+        containers.push(c);
+        int depth = containers.size();
+        if (depth == 1) {
+            expectingKey = true;
+        } else if (depth == 2 && c == '[' && "questions".equals(lastKey)) {
+            inQuestions = true;
+        } else if (depth == 3 && inQuestions) {
+            questionStart = position;
+        }
+    }
+
+    private void close(char c, int position) {
+        Character opened = containers.poll();
+        if (opened == null || (opened == '{') != (c == '}')) {
+            fail("unexpected '" + c + "'");
+        }
+        int depth = containers.size();
+        if (depth == 2 && inQuestions && questionStart >= 0) {
+            completeQuestion(json.substring(questionStart, position + 1));
+            questionStart = -1;
+        } else if (depth == 1 && inQuestions) {
+            inQuestions = false;
+        } else if (depth == 0) {
+            complete = true;
+        }
+    }
+
+    private void completeQuestion(String questionJson) {
+        int number = questions.size() + 1;
+        Question question;
+        try {
+            question = gson.fromJson(questionJson, Question.class);
+        } catch (JsonParseException e) {
+            fail("question " + number + " is not valid JSON");
+            return;
+        }
+        if (!AIUtils.validateQuestion(question)) {
+            fail("question " + number + " needs a number, content, options and a correct answer");
+        }
+
+        questions.add(question);
+        if (timeToFirstQuestionMillis < 0) {
+            timeToFirstQuestionMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        }
+        if (onQuestion != null) {
+            onQuestion.accept(question);
+        }
+    }
+
+    private void fail(String reason) throws IllegalArgumentException {
+        violation = "Invalid quiz response: " + reason;
+        throw new IllegalArgumentException(violation);
+    }
+
+    public String getQuizTitle() { return quizTitle; }
+
+    public List<Question> getQuestions() { return Collections.unmodifiableList(questions); }
+
+    /**
+     * @return True once the quiz object has been closed.
+     */
+    public boolean isComplete() { return complete; }
+
+    /**
+     * @return The reason the quiz was rejected, or null if it has not been.
+     */
+    public String getViolation() { return violation; }
+
+    /**
+     * @return The time spent parsing, in milliseconds.
+     */
+    public double getParseMillis() { return parseNanos / 1_000_000.0; }
+
+    /**
+     * @return The time from creating the parser to the first valid question in milliseconds, or -1 if none.
+     */
+    public long getTimeToFirstQuestionMillis() { return timeToFirstQuestionMillis; }
+}
@@ -0,0 +1,177 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+import ai.tutor.cab302exceptionalhandlers.model.IResponseCacheDAO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed cache of raw AI responses, persisted through an {@link IResponseCacheDAO}.
+ * <p>
+ * Requests are identified by a SHA-256 {@link #fingerprint(String...)} of everything sent
+ * to the model, so an identical request returns the stored response instead of being
+ * generated again. Responses expire after a time to live, and the least recently used
+ * responses are evicted once the cache holds more than {@code maxEntries} responses or
+ * {@code maxBytes} bytes.
+ * <p>
+ * The cache never fails a request: database errors are logged and treated as a miss.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * ResponseCache cache = new ResponseCache(new ResponseCacheDAO(db));
+ * String key = ResponseCache.fingerprint(modelName, systemPrompt, message);
+ * String response = cache.get(key);</pre>
+ *
+ * @author Justin.
+ */
+public class ResponseCache {
+    public static final int DEFAULT_MAX_ENTRIES = 200;
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+    public static final long DEFAULT_TTL_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    private final IResponseCacheDAO responseCacheDAO;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Constructor of {@code ResponseCache} with the default limits.
+     * @param responseCacheDAO The DAO storing the responses.
+     */
+    public ResponseCache(IResponseCacheDAO responseCacheDAO) {
+        this(responseCacheDAO, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Constructor of {@code ResponseCache}.
+     * @param responseCacheDAO The DAO storing the responses.
+     * @param maxEntries The maximum number of responses to keep.
+     * @param maxBytes The maximum total size of the responses in bytes.
+     * @param ttlMillis How long a response is kept after it is stored, in milliseconds.
+     * @throws IllegalArgumentException if the DAO is null or a limit is not positive.
+     */
+    public ResponseCache(IResponseCacheDAO responseCacheDAO, int maxEntries, long maxBytes, long ttlMillis) throws IllegalArgumentException {
+        if (responseCacheDAO == null) {
+            throw new IllegalArgumentException("Invalid response cache DAO: cannot be null");
+        }
+        if (maxEntries < 1 || maxBytes < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Invalid response cache limits: must be greater than 0");
+        }
+        this.responseCacheDAO = responseCacheDAO;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Computes the fingerprint of a request from its parts.
+     * <p>
+     * Each part is length-prefixed before hashing, so moving text between parts always
+     * changes the fingerprint. A null part is distinct from an empty one.
+     *
+     * @param parts Everything that affects the response, in a fixed order.
+     * @return The hex encoded SHA-256 fingerprint.
+     */
+    public static String fingerprint(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                if (part == null) {
+                    digest.update("-1:".getBytes(StandardCharsets.UTF_8));
+                    continue;
+                }
+                byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                digest.update((bytes.length + ":").getBytes(StandardCharsets.UTF_8));
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Looks up the response for a fingerprint.
+     *
+     * @param fingerprint The fingerprint of the request.
+     * @return The cached response, or null on a miss.
+     */
+    public String get(String fingerprint) {
+        long now = System.currentTimeMillis();
+        String response = null;
+        try {
+            response = responseCacheDAO.getResponse(fingerprint, now - ttlMillis, now);
+        } catch (SQLException e) {
+            System.err.println("Error reading response cache: " + e.getMessage());
+        }
+
+        synchronized (this) {
+            if (response == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Stores the response for a fingerprint, then evicts responses beyond the cache limits.
+     *
+     * @param fingerprint The fingerprint of the request.
+     * @param response The raw response of the model.
+     */
+    public void put(String fingerprint, String response) {
+        if (response == null || response.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            responseCacheDAO.putResponse(fingerprint, response, now);
+            int removed = responseCacheDAO.evict(now - ttlMillis, maxEntries, maxBytes);
+            synchronized (this) {
+                evictions += removed;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error writing response cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes every cached response.
+     */
+    public void clear() {
+        try {
+            responseCacheDAO.clear();
+        } catch (SQLException e) {
+            System.err.println("Error clearing response cache: " + e.getMessage());
+        }
+    }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * @return The fraction of lookups that were hits, or 0 if there have been none.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d hits, %d misses (%.0f%% hit rate), %d evictions",
+                hits, misses, getHitRate() * 100, evictions);
+    }
+}
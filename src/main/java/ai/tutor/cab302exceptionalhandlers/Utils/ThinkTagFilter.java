@@ -0,0 +1,106 @@
+package ai.tutor.cab302exceptionalhandlers.Utils;
+
+/**
+ * Incrementally removes {@code <think>...</think>} spans from streamed model output.
+ * <p>
+ * Tokens are fed in as they arrive from the model and only the visible text is
+ * returned. A tag split across several tokens (e.g. {@code "<th"} then {@code "ink>"})
+ * is held back until it can be decided whether it is a tag or ordinary text.
+ * <p>
+ * Instances are stateful and must only be used for a single response.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * ThinkTagFilter filter = new ThinkTagFilter();
+ * String visible = filter.accept(token);
+ * ...
+ * String rest = filter.finish();</pre>
+ *
+ * @author Justin.
+ */
+public class ThinkTagFilter {
+    private static final String OPEN_TAG = "<think>";
+    private static final String CLOSE_TAG = "</think>";
+
+    private final StringBuilder pending = new StringBuilder();
+    private boolean thinking = false;
+
+    /**
+     * Removes every {@code <think>...</think>} span from a complete response.
+     *
+     * @param response The full model response.
+     * @return The response without thinking spans.
+     */
+    public static String strip(String response) {
+        ThinkTagFilter filter = new ThinkTagFilter();
+        return filter.accept(response) + filter.finish();
+    }
+
+    /**
+     * Feeds the next token of the response through the filter.
+     *
+     * @param token The raw token received from the model.
+     * @return The visible text that can be shown now, possibly empty.
+     */
+    public String accept(String token) {
+        if (token == null || token.isEmpty()) {
+            return "";
+        }
+        pending.append(token);
+
+        StringBuilder visible = new StringBuilder();
+        while (!pending.isEmpty()) {
+            String tag = thinking ? CLOSE_TAG : OPEN_TAG;
+            int tagIndex = pending.indexOf(tag);
+
+            if (tagIndex >= 0) {
+                if (!thinking) {
+                    visible.append(pending, 0, tagIndex);
+                }
+                pending.delete(0, tagIndex + tag.length());
+                thinking = !thinking;
+                continue;
+            }
+
+            // Hold back a trailing partial tag until the next token decides it
+            int keep = partialTagLength(tag);
+            int emit = pending.length() - keep;
+            if (!thinking) {
+                visible.append(pending, 0, emit);
+            }
+            pending.delete(0, emit);
+            break;
+        }
+        return visible.toString();
+    }
+
+    /**
+     * Flushes any held back text once the response is complete.
+     * <p>
+     * An unterminated {@code <think>} span is discarded.
+     *
+     * @return The remaining visible text, possibly empty.
+     */
+    public String finish() {
+        String rest = thinking ? "" : pending.toString();
+        pending.setLength(0);
+        return rest;
+    }
+
+    /**
+     * @return True if the filter is currently inside a thinking span.
+     */
+    public boolean isThinking() {
+        return thinking;
+    }
+
+    private int partialTagLength(String tag) {
+        int max = Math.min(tag.length() - 1, pending.length());
+        for (int length = max; length > 0; length--) {
+            if (pending.substring(pending.length() - length).equals(tag.substring(0, length))) {
+                return length;
+            }
+        }
+        return 0;
+    }
+}
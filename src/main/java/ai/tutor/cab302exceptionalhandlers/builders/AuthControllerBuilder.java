@@ -3,7 +3,7 @@ package ai.tutor.cab302exceptionalhandlers.builders;
 import ai.tutor.cab302exceptionalhandlers.controller.AuthController;
 import ai.tutor.cab302exceptionalhandlers.controller.LoginController;
 import ai.tutor.cab302exceptionalhandlers.controller.SignUpController;
-import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 import ai.tutor.cab302exceptionalhandlers.types.AuthType;
 
 import java.sql.SQLException;
@@ -32,11 +32,11 @@ public class AuthControllerBuilder extends ControllerBuilder<AuthController> {
     /**
      * Constructs an {@code AuthControllerBuilder}.
      *
-     * @param db The {@link SQLiteConnection} to be used for database operations.
+     * @param daos The {@link DAORegistry} of shared DAOs for database operations.
      * @see ai.tutor.cab302exceptionalhandlers.builders.ControllerBuilder
      */
-    public AuthControllerBuilder(SQLiteConnection db) {
-        super(db);
+    public AuthControllerBuilder(DAORegistry daos) {
+        super(daos);
     }
 
     /**
@@ -78,7 +78,7 @@ public class AuthControllerBuilder extends ControllerBuilder<AuthController> {
      * @throws SQLException if a database access error occurs.
      */
     public LoginController buildLogin() throws RuntimeException, SQLException {
-        return new LoginController(db);
+        return new LoginController(daos);
     }
 
     /**
@@ -89,6 +89,6 @@ public class AuthControllerBuilder extends ControllerBuilder<AuthController> {
      * @throws SQLException if a database access error occurs.
      */
     public SignUpController buildSignUp() throws RuntimeException, SQLException {
-        return new SignUpController(db);
+        return new SignUpController(daos);
     }
 }
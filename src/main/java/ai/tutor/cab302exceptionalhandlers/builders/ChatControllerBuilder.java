@@ -1,7 +1,7 @@
 package ai.tutor.cab302exceptionalhandlers.builders;
 
 import ai.tutor.cab302exceptionalhandlers.controller.ChatController;
-import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 import ai.tutor.cab302exceptionalhandlers.model.User;
 
 import java.sql.SQLException;
@@ -29,10 +29,10 @@ public class ChatControllerBuilder extends ControllerBuilder<ChatController> {
     /**
      * Constructs a {@code ChatControllerBuilder}.
      *
-     * @param db The {@link SQLiteConnection} to be used for database operations.
+     * @param daos The {@link DAORegistry} of shared DAOs for database operations.
      */
-    public ChatControllerBuilder(SQLiteConnection db) {
-        super(db);
+    public ChatControllerBuilder(DAORegistry daos) {
+        super(daos);
     }
 
     /**
@@ -56,6 +56,6 @@ public class ChatControllerBuilder extends ControllerBuilder<ChatController> {
      */
     @Override
     public ChatController build() throws IllegalStateException, RuntimeException, SQLException {
-        return new ChatController(db, authenticatedUser);
+        return new ChatController(daos, authenticatedUser);
     }
 }
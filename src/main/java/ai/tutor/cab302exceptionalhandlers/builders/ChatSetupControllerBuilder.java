@@ -1,6 +1,6 @@
 package ai.tutor.cab302exceptionalhandlers.builders;
 
-import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 import ai.tutor.cab302exceptionalhandlers.model.User;
 import ai.tutor.cab302exceptionalhandlers.types.ChatSetupType;
 import ai.tutor.cab302exceptionalhandlers.controller.ChatCreateController;
@@ -46,10 +46,10 @@ public class ChatSetupControllerBuilder extends ControllerBuilder<ChatSetupContr
     /**
      * Constructs a {@code ChatSetupControllerBuilder}.
      *
-     * @param db The {@link SQLiteConnection} to be used for database operations.
+     * @param daos The {@link DAORegistry} of shared DAOs for database operations.
      */
-    public ChatSetupControllerBuilder(SQLiteConnection db) {
-        super(db);
+    public ChatSetupControllerBuilder(DAORegistry daos) {
+        super(daos);
     }
 
     /**
@@ -122,7 +122,7 @@ public class ChatSetupControllerBuilder extends ControllerBuilder<ChatSetupContr
         if (currentUser == null) {
             throw new IllegalStateException("Current user must be set");
         }
-        return new ChatCreateController(db, currentUser);
+        return new ChatCreateController(daos, currentUser);
     }
 
     /**
@@ -135,6 +135,6 @@ public class ChatSetupControllerBuilder extends ControllerBuilder<ChatSetupContr
      * @throws SQLException if a database access error occurs during controller construction.
      */
     public ChatUpdateController buildUpdate() throws IllegalStateException, RuntimeException, SQLException {
-        return new ChatUpdateController(db, currentUser, currentChat);
+        return new ChatUpdateController(daos, currentUser, currentChat);
     }
 }
@@ -1,27 +1,27 @@
 package ai.tutor.cab302exceptionalhandlers.builders;
 
-import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 
 /**
  * Abstract base class for all controller builders.
  * <p>
  * This class provides a common structure for controller factories to dynamically
- * create their respective controllers, ensuring each builder has access to a
- * {@link SQLiteConnection}.
+ * create their respective controllers, ensuring each builder has access to the
+ * shared DAOs of a {@link DAORegistry}.
  *
  * @author Justin.
  * @param <T> The type of controller to be built.
  */
 public abstract class ControllerBuilder<T> {
-    protected final SQLiteConnection db;
+    protected final DAORegistry daos;
 
     /**
-     * Constructs a {@code ControllerBuilder} with the given database connection.
+     * Constructs a {@code ControllerBuilder} with the given shared DAOs.
      *
-     * @param db The {@link SQLiteConnection} to be used by the builder and the resulting controller.
+     * @param daos The {@link DAORegistry} to be used by the builder and the resulting controller.
      */
-    public ControllerBuilder(SQLiteConnection db) {
-        this.db = db;
+    public ControllerBuilder(DAORegistry daos) {
+        this.daos = daos;
     }
 
     /**
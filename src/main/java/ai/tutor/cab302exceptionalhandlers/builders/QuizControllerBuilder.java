@@ -1,6 +1,6 @@
 package ai.tutor.cab302exceptionalhandlers.builders;
 
-import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 import ai.tutor.cab302exceptionalhandlers.model.User;
 import ai.tutor.cab302exceptionalhandlers.controller.QuizController;
 import ai.tutor.cab302exceptionalhandlers.model.Quiz;
@@ -32,10 +32,10 @@ public class QuizControllerBuilder extends ControllerBuilder<QuizController> {
     /**
      * Constructs a {@code QuizControllerBuilder}.
      *
-     * @param db The {@link SQLiteConnection} to be used for database operations.
+     * @param daos The {@link DAORegistry} of shared DAOs for database operations.
      */
-    public QuizControllerBuilder(SQLiteConnection db) {
-        super(db);
+    public QuizControllerBuilder(DAORegistry daos) {
+        super(daos);
     }
 
     /**
@@ -76,6 +76,6 @@ public class QuizControllerBuilder extends ControllerBuilder<QuizController> {
         if (currentUser == null) {
             throw new IllegalStateException("Current user must be set");
         }
-        return new QuizController(db, chosenQuiz, currentUser);
+        return new QuizController(daos, chosenQuiz, currentUser);
     }
 }
@@ -1,7 +1,7 @@
 package ai.tutor.cab302exceptionalhandlers.builders;
 
 import ai.tutor.cab302exceptionalhandlers.controller.UserSettingsController;
-import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 import ai.tutor.cab302exceptionalhandlers.model.User;
 
 import java.sql.SQLException;
@@ -29,10 +29,10 @@ public class UserSettingsControllerBuilder extends ControllerBuilder<UserSetting
     /**
      * Constructs a {@code UserSettingsControllerBuilder}.
      *
-     * @param db The {@link SQLiteConnection} to be used for database operations.
+     * @param daos The {@link DAORegistry} of shared DAOs for database operations.
      */
-    public UserSettingsControllerBuilder(SQLiteConnection db) {
-        super(db);
+    public UserSettingsControllerBuilder(DAORegistry daos) {
+        super(daos);
     }
 
     /**
@@ -56,6 +56,6 @@ public class UserSettingsControllerBuilder extends ControllerBuilder<UserSetting
      */
     @Override
     public UserSettingsController build() throws IllegalStateException, RuntimeException, SQLException {
-        return new UserSettingsController(db, currentUser);
+        return new UserSettingsController(daos, currentUser);
     }
 }
@@ -32,7 +32,7 @@ import java.sql.SQLException;
 
 public abstract class AuthController {
     protected final SQLiteConnection db;
-    protected final UserDAO userDAO;
+    protected final IUserDAO userDAO;
 
     protected boolean usernameEmpty = true;
     protected boolean passwordEmpty = true;
@@ -68,8 +68,21 @@ public abstract class AuthController {
 
 
     public AuthController(SQLiteConnection db) throws SQLException, RuntimeException {
-        this.db = db;
-        this.userDAO = new UserDAO(db);
+        this(new DAORegistry(db));
+    }
+
+    /**
+     * Constructs an AuthController with shared DAOs.
+     * <p>
+     * Takes the {@link #db} connection and {@link UserDAO} from the given
+     * {@link DAORegistry}, instead of creating them.
+     * </p>
+     * @param daos The shared DAOs of the SQLite database connection
+     */
+
+    public AuthController(DAORegistry daos) {
+        this.db = daos.getConnection();
+        this.userDAO = daos.getUserDAO();
     }
 
 
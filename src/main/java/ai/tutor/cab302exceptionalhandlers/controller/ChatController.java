@@ -1,8 +1,12 @@
 package ai.tutor.cab302exceptionalhandlers.controller;
 
 import ai.tutor.cab302exceptionalhandlers.SceneManager;
+import ai.tutor.cab302exceptionalhandlers.Utils.AIJobScheduler;
 import ai.tutor.cab302exceptionalhandlers.Utils.AIUtils;
 import ai.tutor.cab302exceptionalhandlers.Utils.AIUtils.*;
+import ai.tutor.cab302exceptionalhandlers.Utils.ContextWindow;
+import ai.tutor.cab302exceptionalhandlers.Utils.DatabaseExecutor;
+import ai.tutor.cab302exceptionalhandlers.Utils.MarkdownRenderCache;
 import ai.tutor.cab302exceptionalhandlers.Utils.Utils;
 import ai.tutor.cab302exceptionalhandlers.model.*;
 import ai.tutor.cab302exceptionalhandlers.types.AuthType;
@@ -10,18 +14,26 @@ import ai.tutor.cab302exceptionalhandlers.types.ChatSetupType;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
@@ -30,11 +42,12 @@ import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
 import javafx.stage.Stage;
 import javafx.application.Platform;
-import javafx.beans.value.ChangeListener;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.scene.paint.Color;
-import javafx.concurrent.Task;
 import javafx.util.Duration;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.ScrollEvent;
 
 import one.jpro.platform.mdfx.MarkdownView;
 
@@ -74,31 +87,94 @@ public class ChatController {
     @FXML private VBox greetingContainer;
     @FXML private Button chatSettingsButton;
     @FXML private Button userDetailsButton;
-    @FXML private ScrollPane chatScrollPane;
-    @FXML private VBox chatMessagesVBox;
+    @FXML private ListView<TranscriptEntry> chatMessagesListView;
     @FXML private Button sendMessage;
     @FXML private HBox messageContainer;
+    @FXML private TextField chatSearchField;
+    @FXML private ListView<SearchResult> searchResultsListView;
+
+    private static final int MESSAGE_PAGE_SIZE = 30;
+    private static final int SEARCH_RESULT_LIMIT = 30;
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+    // Shared by every ChatController, so reopening a chat after logging back in is also served from memory
+    private static final MarkdownRenderCache<MarkdownView> markdownRenderCache = new MarkdownRenderCache<>(MarkdownView::new);
 
     private final SQLiteConnection db;
     private final User currentUser;
-    private final UserDAO userDAO;
-    private final ChatDAO chatDAO;
+    private final IUserDAO userDAO;
+    private final IChatDAO chatDAO;
     private final MessageDAO messageDAO;
     private final QuizDAO quizDAO;
     private final QuizQuestionDAO quizQuestionDAO;
     private final AnswerOptionDAO answerOptionDAO;
+    private final ChatSummaryDAO chatSummaryDAO;
+    private final MessageSearchDAO messageSearchDAO;
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    // The chats shown in chatsListView by ID, and the listener keeping them up to date, which the DAO only weakly references
+    private final Map<Integer, Chat> listedChats = new HashMap<>();
+    private final ChatChangeListener chatListUpdater = new ChatListUpdater();
+    private boolean movingChat;
     private boolean isQuiz;
-    private boolean isThinking;
-    private int thinkingChatId;
+    private final Map<Integer, PendingResponse> pendingResponses = new HashMap<>();
+    private int oldestLoadedMessageId = Integer.MAX_VALUE;
+    private boolean hasOlderMessages;
+    private boolean loadingOlderMessages;
     private final AIUtils aiUtils;
+    private final AIJobScheduler aiJobScheduler;
+    private final DatabaseExecutor databaseExecutor;
+
+    /**
+     * An AI response that is queued or being generated for a chat.
+     * <p>
+     * The streamed tokens are written from the job's thread, everything else is only
+     * accessed on the JavaFX thread.
+     * </p>
+     */
+
+    private static class PendingResponse {
+        private final int chatId;
+        private AIJobScheduler.AIJob<Message> job;
+        private TranscriptEntry entry;
+        private MarkdownView streamingView;
+        private final StringProperty streamingText = new SimpleStringProperty("");
+        private final StringBuilder streamedTokens = new StringBuilder();
+        private boolean tokenFlushQueued;
+        private final StringProperty quizProgress = new SimpleStringProperty("");
+        private int questionsReady;
+
+        private PendingResponse(int chatId) {
+            this.chatId = chatId;
+        }
+    }
+
+    /**
+     * A row of the chat transcript shown in {@link #chatMessagesListView}.
+     * <p>
+     * Holds either a saved message or the response still being generated for the chat.
+     * </p>
+     */
+
+    private static class TranscriptEntry {
+        private final Message message;
+        private final PendingResponse pending;
+
+        private TranscriptEntry(Message message) {
+            this.message = message;
+            this.pending = null;
+        }
+
+        private TranscriptEntry(PendingResponse pending) {
+            this.message = null;
+            this.pending = pending;
+        }
+    }
 
     /**
      * Constructs a ChatController with a database connection and authenticated user.
      * <p>
      * Initializes the {@link #db} connection, sets the {@link #currentUser}, and creates
      * instances of {@link UserDAO}, {@link ChatDAO}, {@link MessageDAO}, {@link QuizDAO},
-     * {@link QuizQuestionDAO}, and {@link AnswerOptionDAO}. Throws an exception if the
-     * user is null.
+     * {@link QuizQuestionDAO}, {@link AnswerOptionDAO}, and {@link ChatSummaryDAO}. Throws an exception if the user is null.
      * </p>
      * @param db The SQLite database connection
      * @param authenticatedUser The currently authenticated user
@@ -108,22 +184,40 @@ public class ChatController {
      */
 
     public ChatController(SQLiteConnection db, User authenticatedUser) throws IllegalStateException, RuntimeException, SQLException {
+        this(new DAORegistry(db), authenticatedUser);
+    }
+
+    /**
+     * Constructs a ChatController with shared DAOs and an authenticated user.
+     * <p>
+     * Takes the {@link #db} connection and every DAO from the given {@link DAORegistry},
+     * instead of creating them. Throws an exception if the user is null.
+     * </p>
+     * @param daos The shared DAOs of the SQLite database connection
+     * @param authenticatedUser The currently authenticated user
+     * @throws IllegalStateException If the user is null
+     */
+
+    public ChatController(DAORegistry daos, User authenticatedUser) throws IllegalStateException {
         if (authenticatedUser == null) {
             throw new IllegalStateException("No user was authenticated");
         }
 
-        this.db = db;
+        this.db = daos.getConnection();
         this.currentUser = authenticatedUser;
-        this.userDAO = new UserDAO(db);
-        this.chatDAO = new ChatDAO(db);
-        this.messageDAO = new MessageDAO(db);
-        this.quizDAO = new QuizDAO(db);
-        this.quizQuestionDAO = new QuizQuestionDAO(db);
-        this.answerOptionDAO = new AnswerOptionDAO(db);
+        this.userDAO = daos.getUserDAO();
+        this.chatDAO = daos.getChatDAO();
+        this.messageDAO = daos.getMessageDAO();
+        this.quizDAO = daos.getQuizDAO();
+        this.quizQuestionDAO = daos.getQuizQuestionDAO();
+        this.answerOptionDAO = daos.getAnswerOptionDAO();
+        this.chatSummaryDAO = daos.getChatSummaryDAO();
+        this.messageSearchDAO = daos.getMessageSearchDAO();
+        daos.getChatDAO().addChangeListener(chatListUpdater);
         this.isQuiz = false;
-        this.isThinking = false;
-        this.thinkingChatId = -1;
         this.aiUtils = AIUtils.getInstance();
+        this.aiJobScheduler = AIJobScheduler.getInstance();
+        this.databaseExecutor = DatabaseExecutor.getInstance();
     }
 
     /**
@@ -131,7 +225,8 @@ public class ChatController {
      * <p>
      * Sets up chat selection listener ({@link #setupChatSelectionListener()}), chat
      * list view ({@link #setupChatListView()}), refreshes the chat list
-     * ({@link #refreshChatListView()}), and configures buttons for editing chat names
+     * ({@link #refreshChatListView()}), searching chats ({@link #setupChatSearch()}), the message list ({@link #setupMessageList()}), loads older
+     * messages on scroll ({@link #setupMessagePaging()}), and configures buttons for editing chat names
      * ({@link #setupEditChatNameButton()}), activating edits ({@link #setupActivateEdit()}),
      * sending messages ({@link #setupMessageSendActions()}), expanding the message input
      * ({@link #setupExpandingMessageInput()}), creating chats ({@link #setupCreateChatButton()}),
@@ -145,8 +240,11 @@ public class ChatController {
     @FXML
     public void initialize() {
         setupChatSelectionListener();
+        setupMessageList();
+        setupMessagePaging();
         setupChatListView();
         refreshChatListView();
+        setupChatSearch();
         setupEditChatNameButton();
         setupActivateEdit();
         setupMessageSendActions();
@@ -170,8 +268,9 @@ public class ChatController {
      * Configures the chat list view with custom cells for chat selection and deletion.
      * <p>
      * Sets up a custom {@link ListCell} for {@link #chatsListView} with a select button
-     * and a delete button featuring a delete icon. Handles chat selection and deletion
-     * with confirmation, updating the view via {@link #refreshChatListView()}.
+     * showing the chat name and a preview of its latest message, and a delete button
+     * featuring a delete icon. Handles chat selection and deletion
+     * with confirmation. The deleted chat is removed from the view by {@link ChatListUpdater}.
      * </p>
      */
 
@@ -180,10 +279,15 @@ public class ChatController {
             private final ImageView deleteIcon = new ImageView();
             private final Button deleteChatButton = new Button();
             private final Button selectChat = new Button();
+            private final Label chatNameLabel = new Label();
+            private final Label chatPreviewLabel = new Label();
 
             private final HBox container = new HBox(selectChat, deleteChatButton);
             {
-                setChatListVisibility();
+                chatNameLabel.getStyleClass().add("chat-selector-name");
+                chatPreviewLabel.getStyleClass().add("chat-selector-preview");
+                selectChat.setGraphic(new VBox(chatNameLabel, chatPreviewLabel));
+
                 selectChat.setOnAction(event -> {
                     Chat chat = getItem();
                     if (chat != null) {
@@ -213,12 +317,16 @@ public class ChatController {
                     if (chat != null) {
                         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "Are you sure you want to delete this chat?");
                         if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK){
-                            try {
+                            aiJobScheduler.cancelChat(chat.getId());
+                            // The chat list is updated by chatListUpdater once the chat is deleted
+                            databaseExecutor.submit(() -> {
                                 chatDAO.deleteChat(chat);
-                                refreshChatListView();
-                            } catch (SQLException e) {
-                                Utils.showErrorAlert("Failed to delete chat" + e.getMessage());
-                            }
+                                return chat;
+                            }).whenComplete((deleted, error) -> {
+                                if (error != null) {
+                                    Utils.showErrorAlert("Failed to delete chat: " + error.getMessage());
+                                }
+                            });
                         }
                     }
                 });
@@ -235,7 +343,8 @@ public class ChatController {
                     selectChat.getStyleClass().add("chat-selector");
                     container.getStyleClass().add("chat-selector-container");
 
-                    selectChat.setText(chat.getName());
+                    chatNameLabel.setText(chat.getName());
+                    chatPreviewLabel.setText(chat.getLastMessagePreview() != null ? chat.getLastMessagePreview() : "No messages yet");
                     selectChat.setAlignment(Pos.CENTER_LEFT);
                     setGraphic(container);
                 }
@@ -246,12 +355,17 @@ public class ChatController {
     /**
      * Toggles the visibility of the chat list and no-chats field based on available chats.
      * <p>
-     * Shows {@link #chatsListView} if chats exist, otherwise shows {@link #noChatsField}.
+     * Shows {@link #chatsListView} if it lists any chats, otherwise shows {@link #noChatsField}.
+     * Both are hidden while {@link #searchResultsListView} shows search results.
      * </p>
      */
 
     private void setChatListVisibility (){
-        if (getUserChats().isEmpty()){
+        if (searchResultsListView.isVisible()) {
+            chatsListView.setVisible(false);
+            noChatsField.setVisible(false);
+        }
+        else if (chatsListView.getItems().isEmpty()){
             chatsListView.setVisible(false);
             noChatsField.setVisible(true);
             noChatsField.setAlignment(Pos.TOP_CENTER);
@@ -296,73 +410,483 @@ public class ChatController {
         }
     }
 
+    /**
+     * Sets up searching the messages of every chat from the sidebar.
+     * <p>
+     * Searches once typing in {@link #chatSearchField} pauses for {@link #SEARCH_DELAY},
+     * and shows the results in {@link #searchResultsListView} in place of the chat list.
+     * Clearing the field, or pressing escape, shows the chat list again.
+     * </p>
+     */
+
+    private void setupChatSearch() {
+        searchResultsListView.setCellFactory(listView -> new SearchResultCell());
+        searchResultsListView.setPlaceholder(new Label("No messages found"));
+        searchDelay.setOnFinished(event -> searchChats(chatSearchField.getText()));
+        chatSearchField.textProperty().addListener((obs, oldQuery, newQuery) -> {
+            if (newQuery == null || newQuery.isBlank()) {
+                searchDelay.stop();
+                showSearchResults(false);
+            } else {
+                searchDelay.playFromStart();
+            }
+        });
+        chatSearchField.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ESCAPE) {
+                chatSearchField.clear();
+            }
+        });
+    }
+
+    /**
+     * Searches the current user's chats on the {@link DatabaseExecutor}.
+     * <p>
+     * The results are dropped if the query has changed by the time they are loaded, as
+     * a search for the new query is already pending.
+     * </p>
+     * @param query The words to search for
+     */
+
+    private void searchChats(String query) {
+        int userId = currentUser.getId();
+        databaseExecutor.submit(() -> messageSearchDAO.search(userId, query, SEARCH_RESULT_LIMIT))
+                .whenComplete((results, error) -> {
+                    if (!query.equals(chatSearchField.getText())) {
+                        return;
+                    }
+                    if (error != null) {
+                        Utils.showErrorAlert("Failed to search chats: " + error.getMessage());
+                        return;
+                    }
+                    searchResultsListView.getItems().setAll(results);
+                    searchResultsListView.scrollTo(0);
+                    showSearchResults(true);
+                });
+    }
+
+    /**
+     * Shows either the search results or the chat list in the sidebar.
+     * @param visible Whether to show the search results
+     */
+
+    private void showSearchResults(boolean visible) {
+        searchResultsListView.setVisible(visible);
+        if (!visible) {
+            searchResultsListView.getItems().clear();
+        }
+        setChatListVisibility();
+    }
+
+    /**
+     * Opens the chat of a search result and closes the search.
+     * @param result The search result that was clicked
+     */
+
+    private void openSearchResult(SearchResult result) {
+        chatSearchField.clear();
+        Chat chat = listedChats.get(result.getChatId());
+        if (chat != null) {
+            chatsListView.getSelectionModel().select(chat);
+            chatsListView.scrollTo(chat);
+            toggleGreetingVisibility();
+        }
+    }
+
+    /**
+     * A cell of {@link #searchResultsListView} showing the chat and snippet of a {@link SearchResult}.
+     * <p>
+     * The words that matched the search are shown in bold.
+     * </p>
+     */
+
+    private class SearchResultCell extends ListCell<SearchResult> {
+        private final Label chatNameLabel = new Label();
+        private final TextFlow snippetFlow = new TextFlow();
+        private final VBox container = new VBox(2, chatNameLabel, snippetFlow);
+
+        private SearchResultCell() {
+            container.getStyleClass().add("search-result");
+            chatNameLabel.getStyleClass().add("search-result-chat");
+            container.maxWidthProperty().bind(searchResultsListView.widthProperty().subtract(30));
+            setStyle("-fx-background-color: #535353;");
+            setOnMouseClicked(event -> {
+                if (getItem() != null) {
+                    openSearchResult(getItem());
+                }
+            });
+        }
+
+        @Override
+        protected void updateItem(SearchResult result, boolean empty) {
+            super.updateItem(result, empty);
+            if (empty || result == null) {
+                setGraphic(null);
+                return;
+            }
+            chatNameLabel.setText(result.isQuizQuestion()
+                    ? result.getChatName() + " - Quiz question " + result.getQuestionNumber()
+                    : result.getChatName());
+
+            // Split the snippet on its match markers, every second part being a matched word
+            snippetFlow.getChildren().clear();
+            String[] parts = result.getSnippet().split(MessageSearchDAO.MATCH_START + "|" + MessageSearchDAO.MATCH_END, -1);
+            for (int i = 0; i < parts.length; i++) {
+                Text part = new Text(parts[i]);
+                if (i % 2 == 1) {
+                    part.getStyleClass().add("search-result-match");
+                }
+                snippetFlow.getChildren().add(part);
+            }
+            setGraphic(container);
+        }
+    }
+
     /**
      * Refreshes the chat list view to display updated chats.
      * <p>
-     * Clears and repopulates {@link #chatsListView} with chats from {@link #chatDAO},
-     * preserving the selected chat if it exists.
+     * Loads the chats from {@link #chatDAO} on the {@link DatabaseExecutor}, then clears and
+     * repopulates {@link #chatsListView}, preserving the selected chat if it exists. Only
+     * needed when the view is first shown or the chats were changed outside the DAO, as
+     * {@link ChatListUpdater} applies every other change to the list as it happens.
      * </p>
      */
 
     public void refreshChatListView () {
-        try {
-            Chat selectedChat = getSelectedChat();
-            Integer selectedChatId = (selectedChat != null) ? selectedChat.getId() : null;
-
-            setChatListVisibility();
-            chatsListView.getItems().clear();
-            chatsListView.getItems().addAll(chatDAO.getAllUserChats(currentUser.getId()));
-            List<Chat> updatedChats = chatsListView.getItems();
-
-            // Reselect the current chat
-            if (selectedChatId != null) {
-                for (Chat chat : updatedChats) {
-                    if (chat.getId() == selectedChatId) {
-                        chatsListView.getSelectionModel().select(chat);
-                        break;
-                    }
+        int userId = currentUser.getId();
+        databaseExecutor.submit(() -> chatDAO.getAllUserChats(userId)).whenComplete((chats, error) -> {
+            if (error != null) {
+                Utils.showErrorAlert("Failed to load chats: " + error.getMessage());
+                return;
+            }
+            showChats(chats);
+        });
+    }
+
+    /**
+     * Repopulates the chat list view with loaded chats.
+     * <p>
+     * Reselects the chat that was selected before, if it still exists.
+     * </p>
+     * @param chats The chats of the current user
+     */
+
+    private void showChats(List<Chat> chats) {
+        Chat selectedChat = getSelectedChat();
+        Integer selectedChatId = (selectedChat != null) ? selectedChat.getId() : null;
+
+        chatsListView.getItems().setAll(chats);
+        listedChats.clear();
+        for (Chat chat : chats) {
+            listedChats.put(chat.getId(), chat);
+        }
+        setChatListVisibility();
+
+        // Reselect the current chat
+        Chat reselectedChat = (selectedChatId != null) ? listedChats.get(selectedChatId) : null;
+        if (reselectedChat != null) {
+            chatsListView.getSelectionModel().select(reselectedChat);
+        } else {
+            toggleGreetingVisibility();
+        }
+    }
+
+    /**
+     * Applies the chats created, updated and deleted through the {@link CachedChatDAO} to
+     * {@link #chatsListView} one at a time.
+     * <p>
+     * Only the changed entry of the list is touched, so the selection and scroll position
+     * are kept and the chats are not read again. The list is ordered by recent activity like
+     * {@link IChatDAO#getAllUserChats(int)}, so created chats and chats with a new message
+     * are moved to the top. Changes made off the JavaFX thread, such as by an import or an
+     * AI response, are applied on it.
+     * </p>
+     */
+
+    private class ChatListUpdater implements ChatChangeListener {
+        @Override
+        public void chatCreated(Chat chat) {
+            runOnFxThread(() -> {
+                if (chat.getUserId() != currentUser.getId() || listedChats.containsKey(chat.getId())) {
+                    return;
+                }
+                listedChats.put(chat.getId(), chat);
+                chatsListView.getItems().add(0, chat);
+                setChatListVisibility();
+            });
+        }
+
+        @Override
+        public void chatUpdated(Chat chat) {
+            runOnFxThread(() -> {
+                Chat listedChat = listedChats.get(chat.getId());
+                if (listedChat == null) {
+                    return;
+                }
+                // Update the listed chat in place, so it stays selected, and redraw the visible cells
+                listedChat.setName(chat.getName());
+                listedChat.setResponseAttitude(chat.getResponseAttitude());
+                listedChat.setQuizDifficulty(chat.getQuizDifficulty());
+                listedChat.setQuizLength(chat.getQuizLength());
+                listedChat.setEducationLevel(chat.getEducationLevel());
+                listedChat.setStudyArea(chat.getStudyArea());
+                boolean active = chat.getLastMessageAt() > listedChat.getLastMessageAt();
+                listedChat.setLastMessageAt(chat.getLastMessageAt());
+                listedChat.setMessageCount(chat.getMessageCount());
+                listedChat.setQuizCount(chat.getQuizCount());
+                listedChat.setLastMessagePreview(chat.getLastMessagePreview());
+                if (active) {
+                    moveToTop(listedChat);
+                }
+                chatsListView.refresh();
+                if (listedChat == getSelectedChat() && !chatNameField.isEditable()) {
+                    chatNameField.setText(listedChat.getName());
+                }
+            });
+        }
+
+        @Override
+        public void chatDeleted(Chat chat) {
+            runOnFxThread(() -> {
+                Chat listedChat = listedChats.remove(chat.getId());
+                if (listedChat == null) {
+                    return;
+                }
+                // Clear the selection first, as the list would otherwise select the chat above
+                boolean selected = listedChat == getSelectedChat();
+                if (selected) {
+                    chatsListView.getSelectionModel().clearSelection();
+                }
+                chatsListView.getItems().remove(listedChat);
+                setChatListVisibility();
+                if (selected) {
+                    toggleGreetingVisibility();
+                }
+            });
+        }
+
+        @Override
+        public void chatsInvalidated() {
+            runOnFxThread(ChatController.this::refreshChatListView);
+        }
+
+        private void moveToTop(Chat listedChat) {
+            List<Chat> chats = chatsListView.getItems();
+            // The active chat is usually the one already on top, so only search the list otherwise
+            if (chats.isEmpty() || chats.get(0) == listedChat) {
+                return;
+            }
+            int index = chats.indexOf(listedChat);
+            if (index < 0) {
+                return;
+            }
+            // Removing the selected chat would select another, so its messages must not be reloaded meanwhile
+            boolean selected = listedChat == getSelectedChat();
+            movingChat = true;
+            try {
+                chats.remove(index);
+                chats.add(0, listedChat);
+                if (selected) {
+                    chatsListView.getSelectionModel().select(listedChat);
                 }
+            } finally {
+                movingChat = false;
+            }
+        }
+
+        private void runOnFxThread(Runnable update) {
+            // Chats written before the view was loaded are read by its first refresh
+            if (chatsListView == null) {
+                return;
+            }
+            if (Platform.isFxApplicationThread()) {
+                update.run();
             } else {
-                toggleGreetingVisibility();
+                Platform.runLater(update);
             }
-        } catch (SQLException e) {
-            Utils.showErrorAlert("Failed to load chats: " + e.getMessage());
         }
     }
 
     /**
      * Refreshes the message list for the selected chat.
      * <p>
-     * Retrieves messages from {@link #messageDAO}, clears {@link #chatMessagesVBox},
-     * and adds message nodes. Adds a thinking node if the AI is processing for this chat.
+     * Retrieves the most recent page of messages from {@link #messageDAO} on the
+     * {@link DatabaseExecutor}, then replaces the entries of {@link #chatMessagesListView},
+     * unless another chat has been selected in the meantime. Older messages are loaded on
+     * demand by {@link #loadOlderMessages()}. Adds the pending response entry if the AI
+     * is queued or generating for this chat, and only allows sending if it is not.
      * </p>
      * @param selectedChat The currently selected chat
      */
 
     private void refreshMessageList(Chat selectedChat) {
-        try {
-            List<Message> messages = messageDAO.getAllChatMessages(selectedChat.getId());
-            chatMessagesVBox.getChildren().clear();
+        int chatId = selectedChat.getId();
+        databaseExecutor.submit(() -> messageDAO.getChatMessagesBefore(chatId, Integer.MAX_VALUE, MESSAGE_PAGE_SIZE))
+                .whenComplete((messages, error) -> {
+                    if (!isSelectedChat(chatId)) {
+                        return;
+                    }
+                    if (error != null) {
+                        Utils.showErrorAlert("Failed to load messages: " + error.getMessage());
+                        return;
+                    }
+                    showMessages(chatId, messages);
+                });
+    }
 
-            for (Message message : messages) {
-                Node messageNode = createMessageNode(message);
-                chatMessagesVBox.getChildren().add(messageNode);
-            }
+    /**
+     * Replaces the displayed messages with the most recent page of a chat.
+     * @param chatId The ID of the selected chat
+     * @param messages The most recent page of messages, oldest first
+     */
+
+    private void showMessages(int chatId, List<Message> messages) {
+        oldestLoadedMessageId = Integer.MAX_VALUE;
+        updateMessagePaging(messages);
+
+        List<TranscriptEntry> entries = new ArrayList<>();
+        for (Message message : messages) {
+            entries.add(new TranscriptEntry(message));
+        }
 
-            // Re-add the thinking node if a task is still running for this chat
-            if (isThinking && thinkingChatId == selectedChat.getId()) {
-                Node thinkingNode = createThinkingNode();
-                chatMessagesVBox.getChildren().add(thinkingNode);
+        // Re-add the thinking or streaming entry if a job is still pending for this chat
+        PendingResponse pending = pendingResponses.get(chatId);
+        if (pending != null) {
+            pending.entry = new TranscriptEntry(pending);
+            entries.add(pending.entry);
+        }
+        chatMessagesListView.getItems().setAll(entries);
+
+        messageInputField.setDisable(pending != null);
+        sendMessage.setDisable(pending != null);
+        scrollToLatestMessage();
+    }
+
+    /**
+     * Scrolls {@link #chatMessagesListView} to its last entry.
+     */
+
+    private void scrollToLatestMessage() {
+        int lastIndex = chatMessagesListView.getItems().size() - 1;
+        if (lastIndex >= 0) {
+            chatMessagesListView.scrollTo(lastIndex);
+        }
+    }
+
+    /**
+     * Checks whether a chat is still the selected chat.
+     * @param chatId The ID of the chat
+     * @return True if the chat is selected
+     */
+
+    private boolean isSelectedChat(int chatId) {
+        Chat selectedChat = getSelectedChat();
+        return selectedChat != null && selectedChat.getId() == chatId;
+    }
+
+    /**
+     * Configures {@link #chatMessagesListView} to render the transcript with {@link MessageCell}s.
+     * <p>
+     * The list view only creates cells for the entries in view and reuses them while
+     * scrolling, so long chats do not keep a node tree for every message in the scene graph.
+     * </p>
+     */
+
+    private void setupMessageList() {
+        chatMessagesListView.setCellFactory(listView -> new MessageCell());
+        // A new chat has no messages yet, which should look the same as before rather than show a placeholder
+        chatMessagesListView.setPlaceholder(new Region());
+    }
+
+    /**
+     * Sets up loading of older messages when {@link #chatMessagesListView} is scrolled to the top.
+     * <p>
+     * The scroll position is read from the list view's {@link VirtualFlow} once its skin
+     * has been created.
+     * </p>
+     */
+
+    private void setupMessagePaging() {
+        chatMessagesListView.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            VirtualFlow<?> flow = (VirtualFlow<?>) chatMessagesListView.lookup(".virtual-flow");
+            if (flow == null) {
+                return;
             }
+            flow.positionProperty().addListener((positionObs, oldValue, newValue) -> {
+                if (newValue.doubleValue() <= 0 && oldValue.doubleValue() > newValue.doubleValue()) {
+                    loadOlderMessages();
+                }
+            });
+            // Content shorter than the viewport cannot scroll, so also react to scrolling up at the top
+            chatMessagesListView.addEventFilter(ScrollEvent.SCROLL, event -> {
+                if (event.getDeltaY() > 0 && flow.getPosition() <= 0) {
+                    loadOlderMessages();
+                }
+            });
+        });
+    }
+
+    /**
+     * Loads the page of messages before the oldest message currently displayed.
+     * <p>
+     * The new messages are inserted at the top of {@link #chatMessagesListView}, and the
+     * list is scrolled so the messages the user was reading stay in place.
+     * </p>
+     */
+
+    private void loadOlderMessages() {
+        Chat selectedChat = getSelectedChat();
+        if (selectedChat == null || !hasOlderMessages || loadingOlderMessages) {
+            return;
+        }
+
+        loadingOlderMessages = true;
+        int chatId = selectedChat.getId();
+        int beforeMessageId = oldestLoadedMessageId;
+        databaseExecutor.submit(() -> messageDAO.getChatMessagesBefore(chatId, beforeMessageId, MESSAGE_PAGE_SIZE))
+                .whenComplete((messages, error) -> {
+                    loadingOlderMessages = false;
+                    if (!isSelectedChat(chatId) || oldestLoadedMessageId != beforeMessageId) {
+                        return;
+                    }
+                    if (error != null) {
+                        Utils.showErrorAlert("Failed to load older messages: " + error.getMessage());
+                        return;
+                    }
+                    showOlderMessages(messages);
+                });
+    }
+
+    /**
+     * Inserts a page of older messages above the displayed messages.
+     * @param messages The page of messages before the oldest displayed message, oldest first
+     */
+
+    private void showOlderMessages(List<Message> messages) {
+        updateMessagePaging(messages);
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<TranscriptEntry> entries = new ArrayList<>();
+        for (Message message : messages) {
+            entries.add(new TranscriptEntry(message));
+        }
+        chatMessagesListView.getItems().addAll(0, entries);
+
+        // Keep the previously top-most message in view
+        chatMessagesListView.scrollTo(entries.size());
+    }
 
-            messageInputField.setDisable(isThinking);
-            sendMessage.setDisable(isThinking);
+    /**
+     * Records the oldest loaded message and whether there may be older messages to load.
+     * @param messages The page of messages that was just loaded, oldest first
+     */
 
-            // Scroll to bottom after all messages are added
-            Platform.runLater(() -> chatScrollPane.setVvalue(1.0));
-        } catch (SQLException e) {
-            Utils.showErrorAlert("Failed to load messages: " + e.getMessage());
+    private void updateMessagePaging(List<Message> messages) {
+        if (!messages.isEmpty()) {
+            oldestLoadedMessageId = messages.get(0).getId();
         }
+        hasOlderMessages = messages.size() == MESSAGE_PAGE_SIZE;
     }
 
     /**
@@ -376,54 +900,183 @@ public class ChatController {
     private void setupChatSelectionListener() {
         chatsListView.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
         chatsListView.getSelectionModel().selectedItemProperty().addListener((obs, oldChat, newChat) -> {
+            if (movingChat) {
+                return;
+            }
             if (newChat != null) {
                 chatNameField.setText(newChat.getName());
                 refreshMessageList(newChat);
             } else {
                 chatNameField.setText("");
-                chatMessagesVBox.getChildren().clear();
+                chatMessagesListView.getItems().clear();
+                hasOlderMessages = false;
             }
         });
     }
 
     /**
-     * Creates a UI node for a given message.
+     * A reusable cell of {@link #chatMessagesListView} displaying one {@link TranscriptEntry}.
      * <p>
-     * Constructs a {@link Label} or {@link MarkdownView} for the message content,
-     * wrapped in {@link HBox} and {@link VBox}, with styling based on whether the
-     * message is from the user, AI, or a quiz.
+     * The containers, buttons and thinking animation are created once per cell and
+     * restyled for each entry the cell is given, so scrolling through a long chat does
+     * not build a new node tree per message. Saved messages are rendered with the
+     * {@link MarkdownView} cached for them by {@link #getMarkdownView(Message, String)}.
      * </p>
-     * @param message The message to display
-     * @return The UI node representing the message
      */
 
-    private Node createMessageNode(Message message) {
-        Label messageLabel = new Label(message.getContent());
-        messageLabel.setWrapText(true);
-        messageLabel.setMaxWidth(450);
-        messageLabel.setTextFill(Color.BLACK);
+    private class MessageCell extends ListCell<TranscriptEntry> {
+        private final VBox verticalContainer = new VBox();
+        private final HBox horizontalContainer = new HBox(verticalContainer);
+        private final HBox wrapper = new HBox(horizontalContainer);
+        private final Button takeQuizButton = new Button("Take Quiz");
+        private final Button cancelButton = new Button("Stop");
+        private final Label thinkingLabel = new Label("Thinking...");
+        private final Label quizProgressLabel = new Label();
+        private final Timeline thinkingAnimation = new Timeline(
+                new KeyFrame(Duration.seconds(0.0), e -> thinkingLabel.setText("Thinking")),
+                new KeyFrame(Duration.seconds(0.5), e -> thinkingLabel.setText("Thinking.")),
+                new KeyFrame(Duration.seconds(1.0), e -> thinkingLabel.setText("Thinking..")),
+                new KeyFrame(Duration.seconds(1.5), e -> thinkingLabel.setText("Thinking...")),
+                new KeyFrame(Duration.seconds(2), e -> thinkingLabel.setText("Thinking"))
+        );
+
+        private MessageCell() {
+            verticalContainer.setAlignment(Pos.CENTER);
+            wrapper.setFillHeight(false);
+            HBox.setMargin(horizontalContainer, new Insets(7, 0, 0, 7));
+
+            takeQuizButton.getStyleClass().add("takeQuizButton");
+            VBox.setMargin(takeQuizButton, new Insets(6, 0, 0, 0));
+            takeQuizButton.setOnAction(event -> {
+                TranscriptEntry entry = getItem();
+                if (entry == null || entry.message == null) {
+                    return;
+                }
+                handleTakeQuiz(event, entry.message);
+            });
+
+            cancelButton.getStyleClass().add("cancel-response-button");
+            cancelButton.setTooltip(new Tooltip("Stop generating"));
+            HBox.setMargin(cancelButton, new Insets(7, 0, 0, 7));
+            cancelButton.setOnAction(event -> {
+                TranscriptEntry entry = getItem();
+                if (entry != null && entry.pending != null && entry.pending.job != null) {
+                    entry.pending.job.cancel();
+                }
+            });
 
-        MarkdownView mdView = new MarkdownView();
-        mdView.mdStringProperty().bind(messageLabel.textProperty());
+            thinkingLabel.setWrapText(true);
+            thinkingLabel.setMaxWidth(450);
+            thinkingLabel.setTextFill(Color.BLACK);
+            thinkingAnimation.setCycleCount(Timeline.INDEFINITE);
 
-        VBox verticalContainer = new VBox(mdView);
-        verticalContainer.setAlignment(Pos.CENTER);
+            quizProgressLabel.setTextFill(Color.GRAY);
+            quizProgressLabel.managedProperty().bind(quizProgressLabel.textProperty().isNotEmpty());
+            quizProgressLabel.visibleProperty().bind(quizProgressLabel.managedProperty());
 
-        HBox horizontalContainer = new HBox(verticalContainer);
+            // Wrap long messages to the width of the list instead of scrolling sideways
+            setPrefWidth(0);
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
 
-        HBox wrapper = new HBox(horizontalContainer);
-        wrapper.setFillHeight(false);
+        @Override
+        protected void updateItem(TranscriptEntry entry, boolean empty) {
+            super.updateItem(entry, empty);
+            thinkingAnimation.stop();
+            quizProgressLabel.textProperty().unbind();
+            verticalContainer.getChildren().clear();
+            wrapper.getChildren().setAll(horizontalContainer);
+            horizontalContainer.getStyleClass().removeAll("user-message", "ai-message", "thinking-message");
+
+            if (empty || entry == null) {
+                setGraphic(null);
+                return;
+            }
 
-        if (message.getFromUser()) {
-            addUserMessage(wrapper, horizontalContainer);
-        } else if (!message.getFromUser() && message.getIsQuiz()) {
-            addQuizMessage(wrapper, horizontalContainer, messageLabel, message, verticalContainer);
-        } else {
-            addAIMessage(wrapper, horizontalContainer);
+            if (entry.pending != null) {
+                showPendingResponse(entry.pending);
+            } else if (entry.message.getFromUser()) {
+                verticalContainer.getChildren().add(getMarkdownView(entry.message, entry.message.getContent()));
+                addUserMessage(wrapper, horizontalContainer);
+            } else if (entry.message.getIsQuiz()) {
+                verticalContainer.getChildren().addAll(
+                        getMarkdownView(entry.message, "Here is the quiz you asked for: "), takeQuizButton);
+                addAIMessage(wrapper, horizontalContainer);
+            } else {
+                verticalContainer.getChildren().add(getMarkdownView(entry.message, entry.message.getContent()));
+                addAIMessage(wrapper, horizontalContainer);
+            }
+            setGraphic(wrapper);
         }
 
-        HBox.setMargin(horizontalContainer, new Insets(7, 0, 0, 7));
-        return wrapper;
+        /**
+         * Shows the thinking animation until the first visible token of the response has
+         * arrived, and the streamed response with a cancel button afterwards. A quiz is
+         * not streamed, so the number of its questions generated so far is shown instead.
+         * @param pending The pending response
+         */
+
+        private void showPendingResponse(PendingResponse pending) {
+            wrapper.getChildren().add(cancelButton);
+            if (pending.streamingText.get().isEmpty()) {
+                quizProgressLabel.textProperty().bind(pending.quizProgress);
+                verticalContainer.getChildren().addAll(thinkingLabel, quizProgressLabel);
+                thinkingAnimation.play();
+                wrapper.setAlignment(Pos.CENTER_LEFT);
+                horizontalContainer.getStyleClass().add("thinking-message");
+                horizontalContainer.setAlignment(Pos.CENTER_LEFT);
+            } else {
+                verticalContainer.getChildren().add(getStreamingView(pending));
+                addAIMessage(wrapper, horizontalContainer);
+            }
+        }
+    }
+
+    /**
+     * Gets the rendered markdown of a saved message.
+     * <p>
+     * The {@link MarkdownView} rendered for a message is kept in the shared
+     * {@link MarkdownRenderCache}, so scrolling back to it or reselecting its chat does not
+     * parse and build its markdown again. A cached view still shown by another cell cannot
+     * be shared, so a separate view is rendered for the second cell.
+     * </p>
+     * @param message The message to display
+     * @param markdown The markdown to render for the message
+     * @return The view rendering the markdown
+     */
+
+    private MarkdownView getMarkdownView(Message message, String markdown) {
+        MarkdownView mdView = markdownRenderCache.get(message.getId(), markdown);
+        return mdView.getParent() == null ? mdView : new MarkdownView(markdown);
+    }
+
+    /**
+     * Gets the cache of rendered message markdown shared by every {@code ChatController}.
+     * @return The markdown render cache
+     */
+
+    public static MarkdownRenderCache<MarkdownView> getMarkdownRenderCache() {
+        return markdownRenderCache;
+    }
+
+    /**
+     * Gets the view displaying the partial AI response while it is streamed.
+     * <p>
+     * The view is bound to the pending response's streamed text, so it updates as new
+     * tokens arrive.
+     * </p>
+     * @param pending The pending response
+     * @return The view rendering the streamed response
+     */
+
+    private MarkdownView getStreamingView(PendingResponse pending) {
+        if (pending.streamingView == null) {
+            pending.streamingView = new MarkdownView();
+            pending.streamingView.mdStringProperty().bind(pending.streamingText);
+        } else if (pending.streamingView.getParent() != null) {
+            return new MarkdownView(pending.streamingText.get());
+        }
+        return pending.streamingView;
     }
 
     /**
@@ -457,135 +1110,124 @@ public class ChatController {
     }
 
     /**
-     * Styles a message node as a quiz message with a "Take Quiz" button.
+     * Queues a streamed token to be shown in the pending response entry.
      * <p>
-     * Aligns the {@link HBox} to the left, adds the "ai-message" CSS class, and includes
-     * a button to navigate to the quiz screen.
+     * Called from the AI job's thread. Tokens are buffered and handed to the JavaFX
+     * thread in batches, so a fast model does not flood it with one update per token.
      * </p>
-     * @param wrapper The outer {@link HBox} wrapper
-     * @param horizontalContainer The inner {@link HBox} containing the message
-     * @param messageLabel The label for the message content
-     * @param message The message object
-     * @param verticalContainer The vertical container for additional elements
+     * @param pending The pending response the token belongs to
+     * @param token The visible text received from the AI
      */
 
-    private void addQuizMessage(HBox wrapper, HBox horizontalContainer, Label messageLabel, Message message, VBox verticalContainer) {
-        wrapper.setAlignment(Pos.CENTER_LEFT);
-        horizontalContainer.getStyleClass().add("ai-message");
-        horizontalContainer.setAlignment(Pos.CENTER_LEFT);
-
-        messageLabel.setText("Here is the quiz you asked for: ");
-        Button takeQuizButton = new Button("Take Quiz");
-        takeQuizButton.getStyleClass().add("takeQuizButton");
-        VBox.setMargin(takeQuizButton, new Insets(6, 0, 0, 0));
-        takeQuizButton.setOnAction(event -> {
-            try {
-                handleTakeQuiz(event, message);
-            } catch (Exception e ) {
-                Utils.showErrorAlert("Error Loading Quiz: " + e);
+    private void appendStreamedToken(PendingResponse pending, String token) {
+        synchronized (pending.streamedTokens) {
+            pending.streamedTokens.append(token);
+            if (pending.tokenFlushQueued) {
+                return;
             }
-        });
-        verticalContainer.getChildren().add(takeQuizButton);
+            pending.tokenFlushQueued = true;
+        }
+        Platform.runLater(() -> flushStreamedTokens(pending));
     }
 
     /**
-     * Adds a message node to the chat messages container.
-     * <p>
-     * Creates and adds a message node to {@link #chatMessagesVBox}, with auto-scrolling
-     * functionality when the height changes.
-     * </p>
-     * @param message The message to add
+     * Shows the tokens streamed so far, replacing the pending response's entry when the
+     * first token arrives so its cell swaps the thinking animation for the streamed text.
+     * @param pending The pending response to update
      */
 
-    private void addMessage(Message message) {
-        if (chatMessagesVBox == null || chatScrollPane == null) {
-            /* This gets covered during unit tests so just skip */
+    private void flushStreamedTokens(PendingResponse pending) {
+        String text;
+        synchronized (pending.streamedTokens) {
+            text = pending.streamedTokens.toString();
+            pending.tokenFlushQueued = false;
+        }
+        if (pendingResponses.get(pending.chatId) != pending) {
             return;
         }
 
-        Node messageNode = createMessageNode(message);
-        chatMessagesVBox.getChildren().add(messageNode);
-
-        // listener so that scrollpae auto-scrolls
-        ChangeListener<Number> heightListener = new ChangeListener<Number>() {
-            @Override
-            public void changed(javafx.beans.value.ObservableValue<? extends Number> obs, Number oldHeight, Number newHeight) {
-                if (newHeight.doubleValue() > oldHeight.doubleValue()) {
-                    chatScrollPane.setVvalue(1.0);
-                    chatMessagesVBox.heightProperty().removeListener(this);
-                }
-            }
-        };
+        boolean firstToken = pending.streamingText.get().isEmpty();
+        pending.streamingText.set(text);
 
-        chatMessagesVBox.heightProperty().addListener(heightListener);
-
-        Platform.runLater(() -> {
-            chatScrollPane.setVvalue(1.0);
-            chatMessagesVBox.heightProperty().removeListener(heightListener);
-        });
+        int index = pending.entry == null ? -1 : chatMessagesListView.getItems().lastIndexOf(pending.entry);
+        if (firstToken && index >= 0) {
+            pending.entry = new TranscriptEntry(pending);
+            chatMessagesListView.getItems().set(index, pending.entry);
+        }
+        if (index >= 0) {
+            scrollToLatestMessage();
+        }
     }
 
     /**
-     * Creates a UI node indicating the AI is thinking.
-     * <p>
-     * Returns a {@link HBox} with a label and an animated "Thinking..." text.
-     * </p>
-     * @return The UI node representing the thinking state
+     * Removes a pending response and its entry, allowing messages to be sent to its chat again.
+     * @param pending The pending response to clear
      */
 
-    private Node createThinkingNode() {
-        Label thinkingLabel = new Label("Thinking...");
-        thinkingLabel.setWrapText(true);
-        thinkingLabel.setMaxWidth(450);
-        thinkingLabel.setTextFill(Color.BLACK);
-
-        Timeline thinkingAnimation = new Timeline(
-                new KeyFrame(Duration.seconds(0.0), e -> thinkingLabel.setText("Thinking")),
-                new KeyFrame(Duration.seconds(0.5), e -> thinkingLabel.setText("Thinking.")),
-                new KeyFrame(Duration.seconds(1.0), e -> thinkingLabel.setText("Thinking..")),
-                new KeyFrame(Duration.seconds(1.5), e -> thinkingLabel.setText("Thinking...")),
-                new KeyFrame(Duration.seconds(2), e -> thinkingLabel.setText("Thinking"))
-
-        );
-        thinkingAnimation.setCycleCount(Timeline.INDEFINITE);
-        thinkingAnimation.play();
+    private void clearPendingResponse(PendingResponse pending) {
+        if (pending.entry != null) {
+            chatMessagesListView.getItems().remove(pending.entry);
+            pending.entry = null;
+        }
+        pendingResponses.remove(pending.chatId, pending);
 
-        VBox verticalContainer = new VBox(thinkingLabel);
-        verticalContainer.setAlignment(Pos.CENTER);
+        Chat selectedChat = getSelectedChat();
+        if (selectedChat != null && selectedChat.getId() == pending.chatId) {
+            messageInputField.setDisable(false);
+            sendMessage.setDisable(false);
+        }
+    }
 
-        HBox horizontalContainer = new HBox(verticalContainer);
-        horizontalContainer.getStyleClass().add("thinking-message");
-        horizontalContainer.setAlignment(Pos.CENTER_LEFT);
+    /**
+     * Adds a message to the end of {@link #chatMessagesListView} and scrolls to it.
+     * @param message The message to add
+     */
 
-        HBox wrapper = new HBox(horizontalContainer);
-        wrapper.setAlignment(Pos.CENTER_LEFT);
-        wrapper.setFillHeight(false);
+    private void addMessage(Message message) {
+        if (chatMessagesListView == null) {
+            /* This gets covered during unit tests so just skip */
+            return;
+        }
 
-        HBox.setMargin(horizontalContainer, new Insets(7, 0, 0, 7));
-        return wrapper;
+        chatMessagesListView.getItems().add(new TranscriptEntry(message));
+        scrollToLatestMessage();
     }
 
     /**
      * Handles the action to take a quiz from a message.
      * <p>
-     * Retrieves the quiz from {@link #quizDAO} and navigates to the quiz screen
-     * using {@link SceneManager}.
+     * Retrieves the quiz from {@link #quizDAO} on the {@link DatabaseExecutor}, then
+     * navigates to the quiz screen using {@link SceneManager}. Shows an error if the
+     * quiz cannot be retrieved or the quiz screen cannot be loaded.
      * </p>
      * @param actionEvent The action event triggering the quiz
      * @param message The message containing the quiz
-     * @throws Exception If navigation or quiz retrieval fails
      */
 
-    private void handleTakeQuiz(ActionEvent actionEvent, Message message) throws Exception {
-        Quiz currentQuiz = quizDAO.getQuiz(message.getId());
-        SceneManager.getInstance().navigateToQuiz(currentQuiz, currentUser);
+    private void handleTakeQuiz(ActionEvent actionEvent, Message message) {
+        databaseExecutor.submit(() -> quizDAO.getQuiz(message.getId())).whenComplete((quiz, error) -> {
+            if (error != null) {
+                Utils.showErrorAlert("Error Loading Quiz: " + error.getMessage());
+                return;
+            }
+            try {
+                SceneManager.getInstance().navigateToQuiz(quiz, currentUser);
+            } catch (Exception e) {
+                Utils.showErrorAlert("Error Loading Quiz: " + e);
+            }
+        });
     }
 
     /**
      * Sends a message and retrieves an AI response.
      * <p>
-     * Validates AI availability, chat selection, and message content, creates a user
-     * message, and triggers an asynchronous task to generate an AI response.
+     * Validates AI availability, chat selection, and message content, saves the user
+     * message on the {@link DatabaseExecutor}, and then submits a job to the
+     * {@link AIJobScheduler} to generate an AI response ({@link #requestAIResponse(Message)}).
+     * The job waits in the chat's queue if too many responses are already being generated.
+     * Chat responses are streamed into a live message node as they are generated, while
+     * quiz responses show the thinking node until the quiz is complete. Other chats can
+     * be used while a response is pending.
      * </p>
      */
 
@@ -609,49 +1251,97 @@ public class ChatController {
                 Utils.showErrorAlert("Message cannot be empty");
                 return;
             }
-            try {
-                Message userMessage = createNewChatMessage(selectedChat.getId(), content, true, isQuiz);
-                messageInputField.clear();
-                addMessage(userMessage);
-
+            int chatId = selectedChat.getId();
+            boolean quizMessage = isQuiz;
+            messageInputField.clear();
             messageInputField.setDisable(true);
             sendMessage.setDisable(true);
 
-            isThinking = true;
-            thinkingChatId = selectedChat.getId();
-            Node thinkingNode = createThinkingNode();
-            chatMessagesVBox.getChildren().add(thinkingNode);
-            messageInputField.setDisable(true);
+            databaseExecutor.submit(() -> createNewChatMessage(chatId, content, true, quizMessage))
+                    .whenComplete((userMessage, error) -> {
+                        if (error != null) {
+                            if (isSelectedChat(chatId)) {
+                                messageInputField.setText(content);
+                                messageInputField.setDisable(false);
+                                sendMessage.setDisable(false);
+                            }
+                            Utils.showErrorAlert("Failed to send message: " + error.getMessage());
+                            return;
+                        }
+                        requestAIResponse(userMessage);
+                    });
+    }
 
-            Task<Message> aiResponseTask = new Task<Message>() {
-                @Override
-                protected Message call() throws Exception {
-                    return generateAIResponse(userMessage);
-                }
-            };
-
-            aiResponseTask.setOnSucceeded(e -> {
-                Message aiResponse = aiResponseTask.getValue();
-                chatMessagesVBox.getChildren().removeLast();
-                addMessage(aiResponse);
-                isThinking = false;
-                thinkingChatId = -1;
-                messageInputField.setDisable(false);
-                sendMessage.setDisable(false);
-            });
+    /**
+     * Shows a saved user message and submits the job generating the AI's response to it.
+     * <p>
+     * The message and the pending response are only added to {@link #chatMessagesListView} if the
+     * message's chat is still selected; otherwise they are shown when the chat is reselected.
+     * </p>
+     * @param userMessage The user's message, already saved to the database
+     */
 
-            aiResponseTask.setOnFailed(e -> {
-                Utils.showErrorAlert("Failed to generate AI response: " + aiResponseTask.getException().getMessage());
-                chatMessagesVBox.getChildren().removeLast();
-                isThinking = false;
-                thinkingChatId = -1;
-                messageInputField.setDisable(false);
-                sendMessage.setDisable(false);
-            });
+    private void requestAIResponse(Message userMessage) {
+        PendingResponse pending = new PendingResponse(userMessage.getChatId());
+        pendingResponses.put(pending.chatId, pending);
+        if (isSelectedChat(pending.chatId)) {
+            addMessage(userMessage);
+            pending.entry = new TranscriptEntry(pending);
+            chatMessagesListView.getItems().add(pending.entry);
+            scrollToLatestMessage();
+        }
+
+        Consumer<String> onToken = userMessage.getIsQuiz() ? null : token -> appendStreamedToken(pending, token);
+        Consumer<Question> onQuestion = userMessage.getIsQuiz() ? question -> showQuizProgress(pending) : null;
+        /* Asking for a quiz again should give new questions, so quizzes are never served from the cache */
+        boolean useCache = !userMessage.getIsQuiz();
+        pending.job = aiJobScheduler.submit(pending.chatId, () -> generateAIResponse(userMessage, useCache, onToken, onQuestion));
+        pending.job.getFuture().whenComplete((aiResponse, error) ->
+                Platform.runLater(() -> handleAIResponse(pending, aiResponse, error)));
+    }
 
-            new Thread(aiResponseTask).start();
-        } catch (SQLException e) {
-                Utils.showErrorAlert("Failed to send message: " + e.getMessage());
+    /**
+     * Shows how many questions of a quiz have been generated so far.
+     * <p>
+     * Called on the AI job's thread each time the quiz parser completes a question, so
+     * the user sees the quiz taking shape while the rest of it is still being generated.
+     * </p>
+     * @param pending The pending quiz response
+     */
+
+    private void showQuizProgress(PendingResponse pending) {
+        int questionsReady = ++pending.questionsReady;
+        Platform.runLater(() -> pending.quizProgress.set(
+                questionsReady + (questionsReady == 1 ? " question ready" : " questions ready")));
+    }
+
+    /**
+     * Shows the result of a finished AI job.
+     * <p>
+     * Clears the pending response, then adds the AI's message if its chat is still
+     * selected, or shows an error if the job failed. Cancelled jobs are cleared silently.
+     * </p>
+     * @param pending The pending response the job belonged to
+     * @param aiResponse The AI's response, or null if the job did not succeed
+     * @param error The reason the job did not succeed, or null if it did
+     */
+
+    private void handleAIResponse(PendingResponse pending, Message aiResponse, Throwable error) {
+        clearPendingResponse(pending);
+        if (aiUtils.isVerbose()) {
+            System.out.println("AI jobs: " + aiJobScheduler.getMetrics());
+        }
+
+        if (error instanceof CancellationException) {
+            return;
+        } else if (error != null) {
+            Utils.showErrorAlert("Failed to generate AI response: " + error.getMessage());
+            return;
+        }
+
+        Chat currentChat = getSelectedChat();
+        if (currentChat != null && currentChat.getId() == aiResponse.getChatId()) {
+            addMessage(aiResponse);
         }
     }
 
@@ -751,29 +1441,37 @@ public class ChatController {
     /**
      * Handles the action to edit a chat name.
      * <p>
-     * Updates the chat name using {@link #updateChatName(int, String)} and refreshes
-     * the chat list view.
+     * Updates the chat name using {@link #updateChatName(int, String)} on the
+     * {@link DatabaseExecutor}, which renames the chat in the chat list view through
+     * {@link ChatListUpdater}. The name field is only locked again once the name is saved.
      * </p>
      */
 
     private void editChatNameAction() {
-        try {
-            Chat selectedChat = getSelectedChat();
-            String newName = chatNameField.getText();
-            if (selectedChat == null) {
-                Utils.showErrorAlert("No chat selected");
+        Chat selectedChat = getSelectedChat();
+        String newName = chatNameField.getText();
+        if (selectedChat == null) {
+            Utils.showErrorAlert("No chat selected");
+            return;
+        }
+
+        int chatId = selectedChat.getId();
+        databaseExecutor.submit(() -> {
+            updateChatName(chatId, newName); // Let updateChatName handle validation
+            return getChat(chatId);
+        }).whenComplete((renamedChat, error) -> {
+            if (error != null) {
+                Utils.showErrorAlert("Failed to update chat name " + error.getMessage());
                 return;
             }
-            updateChatName(selectedChat.getId(), newName); // Let updateChatName handle validation
-            chatNameField.setText(selectedChat.getName());
+            if (isSelectedChat(chatId)) {
+                chatNameField.setText(renamedChat.getName());
+            }
             chatNameField.setOpacity(1);
             editChatName.setVisible(true);
             chatNameField.setEditable(false);
             confirmEditChatName.setVisible(false);
-            refreshChatListView();
-        } catch (Exception e) {
-            Utils.showErrorAlert("Failed to update chat name " + e.getMessage());
-        }
+        });
     }
 
     /**
@@ -1150,7 +1848,7 @@ public class ChatController {
     /**
      * Generates an AI response to a user message.
      * <p>
-     * Validates the message is from a user, generates a response using {@link #generateAIResponse(Message)},
+     * Validates the message is from a user, generates a response using {@link #generateAIResponse(Message, boolean)},
      * and returns the AI’s {@link Message}.
      * </p>
      * @param userMessage The user’s message
@@ -1167,44 +1865,143 @@ public class ChatController {
 
         validateChatExistsForCurrentUser(userMessage.getChatId());
 
-        Message aiResponse = generateAIResponse(userMessage);
+        Message aiResponse = generateAIResponse(userMessage, true);
         return aiResponse;
     }
 
+    /**
+     * Generates a fresh AI response to a user message.
+     * <p>
+     * Works like {@link #generateChatMessageResponse(Message)}, except that the response is
+     * always generated by the model and never served from the response cache, for when
+     * the user wants a different response to the same chat.
+     * </p>
+     * @param userMessage The user’s message
+     * @return The AI’s response {@link Message}
+     * @throws IllegalArgumentException If the message is not from a user
+     * @throws NoSuchElementException If the chat does not exist
+     * @throws SQLException If database operations fail
+     */
+
+    public Message generateFreshChatMessageResponse(Message userMessage) throws IllegalArgumentException, NoSuchElementException, SQLException {
+        if (!userMessage.getFromUser()) {
+            throw new IllegalArgumentException("Message must be from user");
+        }
+
+        validateChatExistsForCurrentUser(userMessage.getChatId());
+
+        return generateAIResponse(userMessage, false);
+    }
+
     /**
      * Generates an AI response based on chat history and configuration.
      * <p>
-     * Preprocesses the chat, generates a response using {@link AIUtils#generateResponse(List, Chat, boolean)},
-     * saves the response to the database, and creates a quiz if applicable.
+     * Generates the response without streaming, see {@link #generateAIResponse(Message, boolean, Consumer, Consumer)}.
      * </p>
      * @param userMessage The user’s message
+     * @param useCache False to always generate a fresh response
      * @return The AI’s response {@link Message}
      * @throws NoSuchElementException If the chat does not exist
      * @throws SQLException If database operations fail
      */
 
-    private Message generateAIResponse(Message userMessage) throws NoSuchElementException, SQLException {
+    private Message generateAIResponse(Message userMessage, boolean useCache) throws NoSuchElementException, SQLException {
+        return generateAIResponse(userMessage, useCache, null, null);
+    }
+
+    /**
+     * Generates an AI response, streaming the visible text as it is generated.
+     * <p>
+     * Preprocesses the chat into a token-budgeted context with {@link #buildContextWindow(Chat, boolean)}
+     * and streams a response using {@link AIUtils#generateResponseStream(ContextWindow, Chat, boolean, boolean, Consumer, Consumer)}.
+     * The response is only saved to the database, and a quiz created if applicable, once the stream
+     * has completed and only if the job was not cancelled. A quiz is validated before anything is
+     * written, and the message and its quiz are saved in a single transaction, so a quiz message
+     * is never left without its quiz. Once saving starts the job can no
+     * longer be cancelled, see {@link AIJobScheduler#beginCommit()}, so a saved response is
+     * always reported as completed. Quiz questions are passed to
+     * {@code onQuestion} as they are generated, but are saved with the rest of the quiz, as a
+     * quiz is keyed by the AI message it belongs to.
+     * </p>
+     * @param userMessage The user’s message
+     * @param useCache False to always generate a fresh response, rather than serve an identical earlier request from the cache
+     * @param onToken Receives each piece of visible text as it arrives, may be null
+     * @param onQuestion Receives each quiz question as soon as it is complete, may be null
+     * @return The AI’s response {@link Message}
+     * @throws NoSuchElementException If the chat does not exist
+     * @throws CancellationException If the job was cancelled
+     * @throws SQLException If database operations fail
+     */
+
+    private Message generateAIResponse(Message userMessage, boolean useCache, Consumer<String> onToken, Consumer<Question> onQuestion) throws NoSuchElementException, CancellationException, SQLException {
         /* Preprocess Chat */
         boolean isQuiz = userMessage.getIsQuiz();
         int chatID = userMessage.getChatId();
         Chat chatConfig = getChat(userMessage.getChatId());
-        List<Message> chatHistory = getChatMessages(userMessage.getChatId());
+        ContextWindow context = buildContextWindow(chatConfig, isQuiz);
 
         /* Generation */
-        ModelResponseFormat aiMessageContent = aiUtils.generateResponse(chatHistory, chatConfig, isQuiz);
+        ModelResponseFormat aiMessageContent = aiUtils.generateResponseStream(context, chatConfig, isQuiz, useCache, onToken, onQuestion);
+        if (isQuiz) {
+            validateQuizContent(aiMessageContent);
+        }
+        if (!aiJobScheduler.beginCommit()) {
+            throw new CancellationException("AI response cancelled");
+        }
         Message aiResponse = new Message(chatID, aiMessageContent.response, false, isQuiz);
 
-        /* Automatically add message to database */
-        messageDAO.createMessage(aiResponse);
-
-        if (aiResponse.getIsQuiz()) {
-            createNewQuiz(aiMessageContent, aiResponse);
-        }
+        /* Automatically add message to database, together with its quiz */
+        db.transaction(() -> {
+            messageDAO.createMessage(aiResponse);
+            if (aiResponse.getIsQuiz()) {
+                createNewQuiz(aiMessageContent, aiResponse);
+            }
+        });
 
         return aiResponse;
     }
 
 
+    /**
+     * Selects the chat history to send to the AI within the context token budget.
+     * <p>
+     * Older messages are replaced by the chat's rolling summary from {@link #chatSummaryDAO},
+     * so only the messages after it are read from {@link #messageDAO}, however long the chat
+     * is. When the remaining history outgrows the budget, the oldest messages are folded into
+     * the summary using {@link AIUtils#summariseMessages(String, List)} and the updated
+     * summary is saved. If summarising fails, those messages are dropped for this request
+     * and summarised on the next one. The tokens sent and dropped are logged per request
+     * in verbose mode.
+     * </p>
+     * @param chatConfig The chat being responded to
+     * @param isQuiz Whether a quiz response is requested
+     * @return The {@link ContextWindow} to send
+     * @throws SQLException If database operations fail
+     */
+
+    private ContextWindow buildContextWindow(Chat chatConfig, boolean isQuiz) throws SQLException {
+        ChatSummary chatSummary = chatSummaryDAO.getChatSummary(chatConfig.getId());
+        String summary = chatSummary == null ? null : chatSummary.getSummary();
+        int lastSummarisedId = chatSummary == null ? 0 : chatSummary.getLastMessageId();
+        List<Message> chatHistory = messageDAO.getChatMessagesAfter(chatConfig.getId(), lastSummarisedId, Integer.MAX_VALUE);
+
+        ContextWindow context = aiUtils.buildContext(chatHistory, chatConfig, isQuiz, summary, lastSummarisedId);
+        List<Message> messagesToSummarise = context.getMessagesToSummarise();
+        if (!messagesToSummarise.isEmpty()) {
+            String updatedSummary = aiUtils.summariseMessages(summary, messagesToSummarise);
+            if (updatedSummary != null) {
+                int lastMessageId = messagesToSummarise.get(messagesToSummarise.size() - 1).getId();
+                chatSummaryDAO.saveChatSummary(new ChatSummary(chatConfig.getId(), updatedSummary, lastMessageId));
+                context = context.withSummary(updatedSummary);
+            }
+        }
+
+        if (aiUtils.isVerbose()) {
+            System.out.println("Chat " + chatConfig.getId() + " context: " + context);
+        }
+        return context;
+    }
+
     /**
      * Retrieves all messages for a specific chat.
      * <p>
@@ -1221,22 +2018,44 @@ public class ChatController {
         return messageDAO.getAllChatMessages(chatId);
     }
 
+    /**
+     * Retrieves a page of messages for a specific chat sent before a given message.
+     * <p>
+     * Validates the chat exists and fetches the page using {@link #messageDAO}.
+     * </p>
+     * @param chatId The ID of the chat
+     * @param beforeId Only messages with an ID lower than this are returned
+     * @param limit The maximum number of messages to return
+     * @return A list of at most {@code limit} messages, ordered from oldest to newest
+     * @throws IllegalArgumentException If the limit is less than 1
+     * @throws NoSuchElementException If the chat does not exist
+     * @throws SQLException If database operations fail
+     */
+
+    public List<Message> getChatMessagesBefore(int chatId, int beforeId, int limit) throws IllegalArgumentException, NoSuchElementException, SQLException {
+        validateChatExistsForCurrentUser(chatId);
+        return messageDAO.getChatMessagesBefore(chatId, beforeId, limit);
+    }
+
 
     /**
      * Creates a new quiz from an AI response message.
      * <p>
-     * Validates the response and creates a {@link Quiz} with associated
-     * {@link QuizQuestion} and {@link AnswerOption} objects.
+     * Validates the response and builds a {@link Quiz} with associated
+     * {@link QuizQuestion} and {@link AnswerOption} objects, numbering the questions
+     * in the order they were parsed. The whole quiz is saved in a single transaction
+     * using {@link IQuizDAO#createQuizTree(QuizTree)}.
      * </p>
      * @param response The AI response format
      * @param responseMessage The response message
      * @return The newly created {@link Quiz}
      * @throws IllegalArgumentException If the message is null, not a quiz message, from a user, or invalid
+     * @throws IllegalStateException If a question has the same answer option twice
      * @throws NoSuchElementException If the chat does not exist
      * @throws SQLException If database operations fail
      */
 
-    public Quiz createNewQuiz(ModelResponseFormat response, Message responseMessage) throws IllegalArgumentException, NoSuchElementException, SQLException {
+    public Quiz createNewQuiz(ModelResponseFormat response, Message responseMessage) throws IllegalArgumentException, IllegalStateException, NoSuchElementException, SQLException {
         if (responseMessage == null) {
             throw new IllegalArgumentException("Quiz must be for a message");
         }
@@ -1246,28 +2065,59 @@ public class ChatController {
         if (responseMessage.getFromUser()){
             throw new IllegalArgumentException("Quiz cannot be for a user message");
         }
-        if (!AIUtils.validateQuizResponse(response) || response.getQuizTitle() == null) {
-            throw new IllegalArgumentException("Invalid quiz content");
-        }
+        validateQuizContent(response);
 
         String quizName = response.getQuizTitle();
         Chat currentChat = getChat(responseMessage.getChatId());
         Quiz newQuiz = new Quiz(responseMessage.getId(), quizName, currentChat.getQuizDifficulty());
-        quizDAO.createQuiz(newQuiz);
 
+        List<QuizQuestion> questions = new ArrayList<>();
+        Map<Integer, List<AnswerOption>> answerOptions = new HashMap<>();
         for (Question questionFormat : response.getQuizQuestions()) {
-            QuizQuestion question = createNewQuizQuestion(questionFormat.getQuestionContent(), newQuiz);
+            QuizQuestion question = buildQuizQuestion(questionFormat.getQuestionContent(), newQuiz, questions.size() + 1);
+            List<AnswerOption> options = new ArrayList<>();
             for (Option answerOptionFormat : questionFormat.getOptions()) {
-                createNewQuestionAnswerOption(answerOptionFormat, question);
+                options.add(buildAnswerOption(answerOptionFormat, question));
             }
+            questions.add(question);
+            answerOptions.put(question.getNumber(), options);
         }
+
+        quizDAO.createQuizTree(new QuizTree(newQuiz, questions, answerOptions));
         return newQuiz;
     }
 
+    /**
+     * Validates the quiz of an AI response before it is saved.
+     * <p>
+     * Checks the response with {@link AIUtils#validateQuizResponse(ModelResponseFormat)}, and
+     * that it has a title and no question has the same answer option twice.
+     * </p>
+     * @param response The AI response format
+     * @throws IllegalArgumentException If the quiz content is invalid
+     * @throws IllegalStateException If a question has the same answer option twice
+     */
+
+    private void validateQuizContent(ModelResponseFormat response) throws IllegalArgumentException, IllegalStateException {
+        if (!AIUtils.validateQuizResponse(response) || response.getQuizTitle() == null) {
+            throw new IllegalArgumentException("Invalid quiz content");
+        }
+
+        for (Question questionFormat : response.getQuizQuestions()) {
+            Set<String> optionLetters = new HashSet<>();
+            for (Option answerOptionFormat : questionFormat.getOptions()) {
+                if (!optionLetters.add(answerOptionFormat.getOptionLetter())) {
+                    throw new IllegalStateException("Answer option already exists");
+                }
+            }
+        }
+    }
+
     /**
      * Creates a new quiz question for a given quiz.
      * <p>
-     * Validates the quiz and question content, creating a {@link QuizQuestion} object.
+     * Validates the quiz and question content, creating a {@link QuizQuestion} object
+     * numbered after the existing questions of the quiz.
      * </p>
      * @param questionContent The content of the question
      * @param quiz The quiz to associate with the question
@@ -1281,15 +2131,8 @@ public class ChatController {
             throw new IllegalArgumentException("Question must be for a quiz");
         }
 
-        if (Utils.validateNullOrEmpty(questionContent)) {
-            throw new IllegalArgumentException("Question content cannot be empty");
-        }
-
-        // TODO: Depending on AI response quizContent extract number from questionContent or assign dynamically
         int questionsCreated = quizQuestionDAO.getAllQuizQuestions(quiz.getMessageId()).size();
-        int questionNumber = questionsCreated + 1;
-
-        QuizQuestion question = new QuizQuestion(quiz.getMessageId(), questionNumber, questionContent);
+        QuizQuestion question = buildQuizQuestion(questionContent, quiz, questionsCreated + 1);
         quizQuestionDAO.createQuizQuestion(question);
 
         return question;
@@ -1308,7 +2151,48 @@ public class ChatController {
      * @throws SQLException If database operations fail
      */
 
-    public AnswerOption createNewQuestionAnswerOption(Option option, QuizQuestion quizQuestion) throws IllegalStateException, IllegalStateException, IllegalArgumentException, SQLException{
+    public AnswerOption createNewQuestionAnswerOption(Option option, QuizQuestion quizQuestion) throws IllegalStateException, IllegalArgumentException, SQLException{
+        AnswerOption answerOption = buildAnswerOption(option, quizQuestion);
+
+        if (answerOptionDAO.getQuestionAnswerOption(quizQuestion.getMessageId(), quizQuestion.getNumber(), answerOption.getOption()) != null) {
+            throw new IllegalStateException("Answer option already exists");
+        }
+
+        answerOptionDAO.createAnswerOption(answerOption);
+
+        return answerOption;
+    }
+
+    /**
+     * Validates the question content and builds an unsaved {@link QuizQuestion}.
+     * @param questionContent The content of the question
+     * @param quiz The quiz to associate with the question
+     * @param questionNumber The number of the question within the quiz
+     * @return The {@link QuizQuestion}
+     * @throws IllegalArgumentException If the quiz is null or question content is empty
+     */
+
+    private QuizQuestion buildQuizQuestion(String questionContent, Quiz quiz, int questionNumber) throws IllegalArgumentException {
+        if (quiz == null) {
+            throw new IllegalArgumentException("Question must be for a quiz");
+        }
+
+        if (Utils.validateNullOrEmpty(questionContent)) {
+            throw new IllegalArgumentException("Question content cannot be empty");
+        }
+
+        return new QuizQuestion(quiz.getMessageId(), questionNumber, questionContent);
+    }
+
+    /**
+     * Validates the option details and builds an unsaved {@link AnswerOption}.
+     * @param option The option details
+     * @param quizQuestion The question to associate with the option
+     * @return The {@link AnswerOption}
+     * @throws IllegalArgumentException If the question is null, option letter or text is empty
+     */
+
+    private AnswerOption buildAnswerOption(Option option, QuizQuestion quizQuestion) throws IllegalArgumentException {
         if (quizQuestion == null) {
             throw new IllegalArgumentException("Answer option must be for a quiz question");
         }
@@ -1321,18 +2205,7 @@ public class ChatController {
             throw new IllegalArgumentException("Answer option text cannot be empty");
         }
 
-        String optionLetter = option.getOptionLetter();
-        String optionValue = option.getOptionText();
-        boolean isAnswer = option.isAnswer();
-
-        if (answerOptionDAO.getQuestionAnswerOption(quizQuestion.getMessageId(), quizQuestion.getNumber(), optionLetter) != null) {
-            throw new IllegalStateException("Answer option already exists");
-        }
-
-        AnswerOption answerOption = new AnswerOption(quizQuestion.getMessageId(), quizQuestion.getNumber(), optionLetter, optionValue, isAnswer);
-        answerOptionDAO.createAnswerOption(answerOption);
-
-        return answerOption;
+        return new AnswerOption(quizQuestion.getMessageId(), quizQuestion.getNumber(), option.getOptionLetter(), option.getOptionText(), option.isAnswer());
     }
 
     /**
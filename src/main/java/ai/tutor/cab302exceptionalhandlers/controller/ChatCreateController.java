@@ -41,6 +41,21 @@ public class ChatCreateController extends ChatSetupController {
         super(db, currentUser);
     }
 
+    /**
+     * Constructs a ChatCreateController with shared DAOs and an authenticated user.
+     * <p>
+     * Calls the superclass constructor to take the database connection and DAO objects
+     * from the given {@link DAORegistry}.
+     * </p>
+     * @param daos The shared DAOs of the SQLite database connection
+     * @param currentUser The currently authenticated user
+     * @throws IllegalStateException If the user is null
+     */
+
+    public ChatCreateController(DAORegistry daos, User currentUser) throws IllegalStateException {
+        super(daos, currentUser);
+    }
+
 
     /*
      * =======================
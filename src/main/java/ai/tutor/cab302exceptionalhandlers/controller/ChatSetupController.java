@@ -1,8 +1,11 @@
 package ai.tutor.cab302exceptionalhandlers.controller;
 
+import ai.tutor.cab302exceptionalhandlers.Utils.ChatExporter;
+import ai.tutor.cab302exceptionalhandlers.Utils.DatabaseExecutor;
 import ai.tutor.cab302exceptionalhandlers.Utils.Utils;
 import ai.tutor.cab302exceptionalhandlers.model.*;
 import ai.tutor.cab302exceptionalhandlers.SceneManager;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.Pane;
@@ -10,10 +13,12 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.SQLException;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 /**
  * Abstract base class for managing the chat setup screen in the AI tutor application.
@@ -37,6 +42,8 @@ public abstract class ChatSetupController {
     @FXML protected ComboBox<String> quizDifficulty;
     @FXML protected Slider quizLength;
     @FXML protected Button downloadButton;
+    @FXML protected ProgressIndicator downloadProgress;
+    @FXML protected Button cancelDownloadButton;
     @FXML protected TextField chatNameInput;
     @FXML protected TextField chatTopic;
     @FXML protected Button startChatButton;
@@ -47,9 +54,16 @@ public abstract class ChatSetupController {
     protected final SQLiteConnection db;
     protected final User currentUser;
 
-    protected final UserDAO userDAO;
-    protected final ChatDAO chatDAO;
+    protected final IUserDAO userDAO;
+    protected final IChatDAO chatDAO;
     protected final MessageDAO messageDAO;
+    protected final ChatExporter chatExporter;
+    private final DatabaseExecutor databaseExecutor;
+
+    /* The thread running the current export, guarded by exportLock */
+    private final Object exportLock = new Object();
+    private Thread exportThread;
+    private boolean exportCancelled;
 
     /**
      * Constructs a ChatSetupController with a database connection and authenticated user.
@@ -66,16 +80,34 @@ public abstract class ChatSetupController {
      */
 
     public ChatSetupController(SQLiteConnection db, User authenticatedUser) throws IllegalStateException, RuntimeException, SQLException {
+        this(new DAORegistry(db), authenticatedUser);
+    }
+
+    /**
+     * Constructs a ChatSetupController with shared DAOs and an authenticated user.
+     * <p>
+     * Takes the {@link #db} connection, {@link UserDAO}, {@link ChatDAO}, and
+     * {@link MessageDAO} from the given {@link DAORegistry}, instead of creating them.
+     * Throws an exception if the user is null.
+     * </p>
+     * @param daos The shared DAOs of the SQLite database connection
+     * @param authenticatedUser The currently authenticated user
+     * @throws IllegalStateException If the user is null
+     */
+
+    public ChatSetupController(DAORegistry daos, User authenticatedUser) throws IllegalStateException {
         if (authenticatedUser == null) {
             throw new IllegalStateException("No user was authenticated");
         }
 
-        this.db = db;
+        this.db = daos.getConnection();
         this.currentUser = authenticatedUser;
 
-        this.userDAO = new UserDAO(db);
-        this.chatDAO = new ChatDAO(db);
-        this.messageDAO = new MessageDAO(db);
+        this.userDAO = daos.getUserDAO();
+        this.chatDAO = daos.getChatDAO();
+        this.messageDAO = daos.getMessageDAO();
+        this.chatExporter = new ChatExporter(messageDAO, daos.getQuizDAO(), daos.getAttemptResultDAO());
+        this.databaseExecutor = DatabaseExecutor.getInstance();
     }
 
     /*
@@ -148,67 +180,144 @@ public abstract class ChatSetupController {
     }
 
     /**
-     * Initiates the download of chat messages for the current chat as a text file.
+     * Initiates the download of chat messages for the current chat.
      * <p>
-     * Checks if a chat is selected using {@link #getCurrentChat()}, retrieves all messages for the
-     * chat using {@link MessageDAO}, formats them into a text file, and prompts the user to save
-     * it using a {@link FileChooser}. Displays alerts for no chat selected, no messages, or
-     * successful/failed operations. Subclasses are responsible for providing the chat context.
+     * Checks if a chat is selected using {@link #getCurrentChat()} and counts its messages on the
+     * {@link DatabaseExecutor}, then prompts the user to save them using a {@link FileChooser}.
+     * The transcript is written as plain text, Markdown or NDJSON, depending on the selected file
+     * type, by {@link #exportChat(Chat, ChatExporter.Format, File)}. The file is given the extension
+     * of the selected type if it does not already have it. Displays alerts for no chat
+     * selected or no messages. Subclasses are responsible for providing the chat context.
      * </p>
      */
 
     @FXML
     protected void downloadChat() {
-        try {
-            // Check if a chat is available (subclasses should set this context)
-            if (getCurrentChat() == null) {
-                showAlert(Alert.AlertType.INFORMATION, "No Chat Selected", "Cannot download messages for a chat that doesn't exist.");
+        Chat chat = getCurrentChat();
+        if (chat == null) {
+            showAlert(Alert.AlertType.INFORMATION, "No Chat Selected", "Cannot download messages for a chat that doesn't exist.");
+            return;
+        }
+
+        databaseExecutor.submit(() -> messageDAO.countChatMessages(chat.getId())).whenComplete((messageCount, error) -> {
+            if (error != null) {
+                showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to retrieve messages: " + unwrap(error).getMessage());
                 return;
             }
-
-            // Get messages for the current chat
-            List<Message> messages = messageDAO.getAllChatMessages(getCurrentChat().getId());
-
-            if (messages.isEmpty()) {
+            if (messageCount == 0) {
                 showAlert(Alert.AlertType.INFORMATION, "No Messages", "This chat has no messages to download.");
                 return;
             }
 
-            // Create file content
-            StringBuilder fileContent = new StringBuilder();
-            fileContent.append("Chat: ").append(getCurrentChat().getName()).append("\n\n");
-            for (Message message : messages) {
-                String sender = message.getFromUser() ? "User" : "AI";
-                fileContent.append(sender)
-                        .append(": ")
-                        .append(message.getContent())
-                        .append(" [Quiz: ")
-                        .append(message.getIsQuiz() ? "Yes" : "No")
-                        .append("]\n");
-            }
-
             // Open file chooser
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Save Chat Messages");
-            fileChooser.setInitialFileName("chat_" + getCurrentChat().getName().replaceAll("[^a-zA-Z0-9]", "_") + "_messages.txt");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+            fileChooser.setInitialFileName("chat_" + chat.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_messages");
+            Map<FileChooser.ExtensionFilter, ChatExporter.Format> formats = new HashMap<>();
+            for (ChatExporter.Format format : ChatExporter.Format.values()) {
+                FileChooser.ExtensionFilter filter = new FileChooser.ExtensionFilter(format.getDescription(), "*." + format.getExtension());
+                fileChooser.getExtensionFilters().add(filter);
+                formats.put(filter, format);
+            }
             File file = fileChooser.showSaveDialog(downloadButton.getScene().getWindow());
 
             if (file != null) {
-                // Write to file
-                try (FileWriter writer = new FileWriter(file)) {
-                    writer.write(fileContent.toString());
+                ChatExporter.Format format = formats.get(fileChooser.getSelectedExtensionFilter());
+                if (format == null) {
+                    format = ChatExporter.Format.fromFileName(file.getName());
+                }
+                exportChat(chat, format, new File(file.getParentFile(), format.withExtension(file.getName())));
+            }
+        });
+    }
+
+    /**
+     * Exports a chat to a file in the background.
+     * <p>
+     * The transcript is paged through and written by {@link ChatExporter} on the
+     * {@link DatabaseExecutor}, so exporting a long chat does not freeze the UI or load the
+     * whole chat into memory. While the export runs, {@link #downloadButton} is disabled,
+     * {@link #downloadProgress} shows the fraction of messages written so far and
+     * {@link #cancelDownloadButton} stops the export, see {@link #cancelDownload()}.
+     * </p>
+     * @param chat The chat to export
+     * @param format The format to write the transcript in
+     * @param file The file to write
+     */
+
+    private void exportChat(Chat chat, ChatExporter.Format format, File file) {
+        setDownloading(true);
+        synchronized (exportLock) {
+            exportCancelled = false;
+        }
+        databaseExecutor.submit(() -> {
+            synchronized (exportLock) {
+                if (exportCancelled) {
+                    throw new CancellationException("Chat export cancelled");
+                }
+                exportThread = Thread.currentThread();
+            }
+            try {
+                return chatExporter.export(chat, format, file.toPath(), (exported, total) ->
+                        Platform.runLater(() -> downloadProgress.setProgress((double) exported / total))
+                );
+            } finally {
+                synchronized (exportLock) {
+                    exportThread = null;
                 }
+                // Clear a cancellation that arrived too late, so it does not reach the next query on this thread
+                Thread.interrupted();
+            }
+        }).whenComplete((exported, error) -> {
+            setDownloading(false);
+            if (error == null) {
                 showAlert(Alert.AlertType.INFORMATION, "Success", "Chat messages downloaded successfully!");
+                return;
             }
 
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to retrieve messages: " + e.getMessage());
-        } catch (IOException e) {
-            showAlert(Alert.AlertType.ERROR, "File Error", "Failed to save file: " + e.getMessage());
+            Throwable cause = unwrap(error);
+            if (cause instanceof SQLException) {
+                showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to retrieve messages: " + cause.getMessage());
+            } else if (cause instanceof IOException) {
+                showAlert(Alert.AlertType.ERROR, "File Error", "Failed to save file: " + cause.getMessage());
+            } else if (!(cause instanceof CancellationException)) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to download chat: " + cause);
+            }
+        });
+    }
+
+    /**
+     * Cancels the export started by {@link #exportChat(Chat, ChatExporter.Format, File)}.
+     * <p>
+     * Interrupts the database thread running the export, which {@link ChatExporter} stops at
+     * between pages without replacing the target file. An export still waiting for a database
+     * thread is cancelled before it starts.
+     * </p>
+     */
+
+    @FXML
+    protected void cancelDownload() {
+        synchronized (exportLock) {
+            exportCancelled = true;
+            if (exportThread != null) {
+                exportThread.interrupt();
+            }
         }
     }
 
+    private void setDownloading(boolean downloading) {
+        downloadButton.setDisable(downloading);
+        cancelDownloadButton.setManaged(downloading);
+        cancelDownloadButton.setVisible(downloading);
+        downloadProgress.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        downloadProgress.setManaged(downloading);
+        downloadProgress.setVisible(downloading);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
     /**
      * Abstract method to get the current chat context.
      * <p>
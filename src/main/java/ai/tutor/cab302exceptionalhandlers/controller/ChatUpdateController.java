@@ -5,25 +5,19 @@ import ai.tutor.cab302exceptionalhandlers.model.*;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.Pane;
-import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.sql.SQLException;
-import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
  * Controller for updating existing chats in the AI tutor application.
  * <p>
  * Extends {@link ChatSetupController} to provide functionality for updating an existing
- * chat’s details (e.g., chat name, response attitude, quiz difficulty) and downloading
- * chat messages as a text file. Implements the abstract method
- * {@link #setupConfirmChatButton()} to handle chat updates and navigation back to the
- * chat screen. Interacts with the database via {@link ChatDAO} and {@link MessageDAO}
- * for updating chats and retrieving messages, respectively.
+ * chat’s details (e.g., chat name, response attitude, quiz difficulty) and enables
+ * downloading its messages with {@link ChatSetupController#downloadChat()}. Implements the
+ * abstract method {@link #setupConfirmChatButton()} to handle chat updates and navigation
+ * back to the chat screen. Interacts with the database via {@link ChatDAO} for updating chats.
  * </p>
  * @see ChatSetupController
  * @see ChatDAO
@@ -58,6 +52,23 @@ public class ChatUpdateController extends ChatSetupController {
         this.currentChat = currentChat;
     }
 
+    /**
+     * Constructs a ChatUpdateController with shared DAOs, an authenticated user, and the chat to update.
+     * <p>
+     * Calls the superclass constructor to take the database connection and DAO objects
+     * from the given {@link DAORegistry}. Sets the {@link #currentChat} to be updated.
+     * </p>
+     * @param daos The shared DAOs of the SQLite database connection
+     * @param currentUser The currently authenticated user
+     * @param currentChat The chat to be updated
+     * @throws IllegalStateException If the user is null
+     */
+
+    public ChatUpdateController(DAORegistry daos, User currentUser, Chat currentChat) throws IllegalStateException {
+        super(daos, currentUser);
+        this.currentChat = currentChat;
+    }
+
 
     /*
      * =======================
@@ -143,64 +154,6 @@ public class ChatUpdateController extends ChatSetupController {
     }
 
 
-    /**
-     * Initiates the download of chat messages for the current chat as a text file.
-     * <p>
-     * Checks if a chat is selected using {@link #getCurrentChat()}, retrieves all messages for the
-     * chat using {@link MessageDAO}, formats them into a text file, and prompts the user to save
-     * it using a {@link FileChooser}. Displays alerts for no chat selected, no messages, or
-     * successful/failed operations. Subclasses are responsible for providing the chat context.
-     * </p>
-     */
-
-    @Override
-    @FXML
-    protected void downloadChat() {
-        try {
-            // Get messages for the current chat
-            List<Message> messages = messageDAO.getAllChatMessages(currentChat.getId());
-
-            if (messages.isEmpty()) {
-                Utils.showInfoAlert("This chat has no messages to download."); // Header: No Messages
-                return;
-            }
-
-            // Create file content
-            StringBuilder fileContent = new StringBuilder();
-            fileContent.append("Chat: ").append(currentChat.getName()).append("\n\n");
-            for (Message message : messages) {
-                String sender = message.getFromUser() ? "User" : "AI";
-                fileContent.append(sender)
-                        .append(": ")
-                        .append(message.getContent())
-                        .append(" [Quiz: ")
-                        .append(message.getIsQuiz() ? "Yes" : "No")
-                        .append("]\n");
-            }
-
-            // Open file chooser
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Save Chat Messages");
-            fileChooser.setInitialFileName("chat_" + currentChat.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_messages.txt");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
-            File file = fileChooser.showSaveDialog(downloadButton.getScene().getWindow());
-
-            if (file != null) {
-                // Write to file
-                try (FileWriter writer = new FileWriter(file)) {
-                    writer.write(fileContent.toString());
-                }
-                Utils.showInfoAlert("Chat messages downloaded successfully!"); // Header: Success
-            }
-
-        } catch (SQLException e) {
-            Utils.showErrorAlert( "Failed to retrieve messages: " + e.getMessage()); // Header: Database Error
-        } catch (IOException e) {
-            Utils.showErrorAlert("Failed to save file: " + e.getMessage()); // Header: File Error
-        }
-    }
-
-
     /*
      * =====================
      *    CRUD Operations
@@ -25,6 +25,10 @@ public class LoginController extends AuthController {
         super(db);
     }
 
+    public LoginController(DAORegistry daos) {
+        super(daos);
+    }
+
 
     /*
      * =========================
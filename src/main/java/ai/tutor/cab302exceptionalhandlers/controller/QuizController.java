@@ -1,10 +1,11 @@
 package ai.tutor.cab302exceptionalhandlers.controller;
 
+import ai.tutor.cab302exceptionalhandlers.Utils.DatabaseExecutor;
+import ai.tutor.cab302exceptionalhandlers.Utils.QuizScorer;
 import ai.tutor.cab302exceptionalhandlers.Utils.Utils;
 import ai.tutor.cab302exceptionalhandlers.model.*;
 import ai.tutor.cab302exceptionalhandlers.SceneManager;
 
-import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -42,16 +43,19 @@ public class QuizController {
 
     private SQLiteConnection db;
     private Quiz currentQuiz;
-    private UserDAO userDAO;
+    private IUserDAO userDAO;
     private User currentUser;
-    private ChatDAO chatDAO;
+    private IChatDAO chatDAO;
     private MessageDAO messageDAO;
     private QuizDAO quizDAO;
     private QuizQuestionDAO quizQuestionDAO;
     private AnswerOptionDAO answerOptionDAO;
     private UserAnswerDAO userAnswerDAO;
+    private AttemptResultDAO attemptResultDAO;
+    private final DatabaseExecutor databaseExecutor;
     //Extra added for quiz functionality
     private int questionNumber;
+    private QuizTree quizTree;
     private List<QuizQuestion> quizQuestions = new ArrayList<>();
     //For question answers
     private final Map<Integer, List<AnswerOption>> answerOptions = new HashMap<>();
@@ -59,10 +63,43 @@ public class QuizController {
     private final Map<Integer, String> questionAnswers = new HashMap<>();
     private boolean quizCompleted;
     private int currentAttempt;
+    private long attemptStartedAt;
+    // Graded result of the attempt being shown, set once it is completed
+    private AttemptResult attemptResult;
 
     // Dynamic loading
     private List<HBox> dynamicHBoxCollection = new ArrayList<>(); // Save reference so they can be removed
 
+    /**
+     * The questions and attempts of a quiz, loaded together on the {@link DatabaseExecutor}.
+     */
+
+    private static final class QuizData {
+        private final QuizTree quizTree;
+        private final List<Integer> attempts;
+        private final int latestAttempt;
+
+        private QuizData(QuizTree quizTree, List<Integer> attempts, int latestAttempt) {
+            this.quizTree = quizTree;
+            this.attempts = attempts;
+            this.latestAttempt = latestAttempt;
+        }
+    }
+
+    /**
+     * The answers and graded result of an attempt, loaded together on the {@link DatabaseExecutor}.
+     */
+
+    private static final class AttemptData {
+        private final List<UserAnswer> userAnswers;
+        private final AttemptResult attemptResult;
+
+        private AttemptData(List<UserAnswer> userAnswers, AttemptResult attemptResult) {
+            this.userAnswers = userAnswers;
+            this.attemptResult = attemptResult;
+        }
+    }
+
     /**
      * Constructs a new QuizController with the specified database connection, quiz, and user.
      * <p>
@@ -78,6 +115,23 @@ public class QuizController {
      */
 
     public QuizController(SQLiteConnection db, Quiz chosenQuiz, User currentUser) throws IllegalStateException, RuntimeException, SQLException {
+        this(new DAORegistry(db), chosenQuiz, currentUser);
+    }
+
+    /**
+     * Constructs a new QuizController with shared DAOs, the specified quiz, and user.
+     * <p>
+     * Takes the database connection and every DAO from the given {@link DAORegistry},
+     * instead of creating them. Throws exceptions if the user or quiz is null or if
+     * database operations fail.
+     * </p>
+     * @param daos The shared DAOs of the SQLite database connection
+     * @param chosenQuiz The quiz to be taken
+     * @param currentUser The authenticated user taking the quiz
+     * @throws IllegalStateException If the user or quiz is null
+     */
+
+    public QuizController(DAORegistry daos, Quiz chosenQuiz, User currentUser) throws IllegalStateException {
         if (currentUser == null) {
             throw new IllegalStateException("No user was authenticated");
         }
@@ -85,38 +139,108 @@ public class QuizController {
             throw new IllegalStateException("No quiz was chosen");
         }
 
-        this.db = db;
+        this.db = daos.getConnection();
         this.currentQuiz = chosenQuiz;
-        this.userDAO = new UserDAO(db);
-        this.chatDAO = new ChatDAO(db);
-        this.messageDAO = new MessageDAO(db);
-        this.quizDAO = new QuizDAO(db);
-        this.quizQuestionDAO = new QuizQuestionDAO(db);
-        this.answerOptionDAO = new AnswerOptionDAO(db);
-        this.userAnswerDAO = new UserAnswerDAO(db);
+        this.userDAO = daos.getUserDAO();
+        this.chatDAO = daos.getChatDAO();
+        this.messageDAO = daos.getMessageDAO();
+        this.quizDAO = daos.getQuizDAO();
+        this.quizQuestionDAO = daos.getQuizQuestionDAO();
+        this.answerOptionDAO = daos.getAnswerOptionDAO();
+        this.userAnswerDAO = daos.getUserAnswerDAO();
+        this.attemptResultDAO = daos.getAttemptResultDAO();
         this.currentUser = currentUser;
+        this.databaseExecutor = DatabaseExecutor.getInstance();
 
         quizCompleted = false;
-        calculateCurrentAttempt();
+        attemptStartedAt = System.currentTimeMillis();
     }
 
     /**
      * Initializes the quiz interface components.
      * <p>
-     * Sets up the quiz name, loads questions, configures the question list view, return button,
-     * submit button, and attempts dropdown. Displays the first question by default.
+     * Configures the question list view, return button, submit button, and attempts dropdown,
+     * then loads the chosen quiz with {@link #loadQuiz()}.
      * </p>
      */
 
     @FXML
     public void initialize() {
-        setQuizNameField();
-        setupQuestions();
         setupQuizListView();
         setupReturnButton();
         setupSubmitButton();
         setupAttemptsDropdown();
-        displayQuestion(1);
+        loadQuiz();
+    }
+
+    /**
+     * Shows a different quiz in the already loaded quiz interface.
+     * <p>
+     * Used when the quiz view is reused instead of being loaded again. Clears the state of
+     * the previous quiz, starts a new attempt and loads the chosen quiz with {@link #loadQuiz()}.
+     * </p>
+     * @param chosenQuiz The quiz to be taken
+     * @throws IllegalStateException If the quiz is null
+     */
+
+    public void showQuiz(Quiz chosenQuiz) throws IllegalStateException {
+        if (chosenQuiz == null) {
+            throw new IllegalStateException("No quiz was chosen");
+        }
+
+        currentQuiz = chosenQuiz;
+        quizTree = null;
+        quizQuestions = new ArrayList<>();
+        answerOptions.clear();
+        questionAnswers.clear();
+        quizCompleted = false;
+        attemptResult = null;
+        questionNumber = 0;
+        attemptStartedAt = System.currentTimeMillis();
+
+        questionListView.getSelectionModel().clearSelection();
+        loadQuiz();
+    }
+
+    /**
+     * Loads the current quiz into the quiz interface.
+     * <p>
+     * Sets up the quiz name, then loads the questions and attempt numbers on the
+     * {@link DatabaseExecutor}. Once loaded, starts the attempt after the latest one,
+     * fills the question list view, populates the attempts dropdown, and displays the
+     * first question. The submit button stays disabled until the questions are loaded.
+     * </p>
+     */
+
+    private void loadQuiz() {
+        setQuizNameField();
+        submitQuizButton.setDisable(true);
+
+        Quiz quiz = currentQuiz;
+        int messageId = quiz.getMessageId();
+        databaseExecutor.submit(() -> new QuizData(
+                        quizDAO.getQuizTree(messageId),
+                        userAnswerDAO.getQuizAttemptNumbers(messageId),
+                        userAnswerDAO.getLatestQuestionAttempt(messageId, 1)))
+                .whenComplete((quizData, error) -> {
+                    if (currentQuiz != quiz) {
+                        return; // Another quiz is shown by now
+                    }
+                    if (error != null) {
+                        Utils.showErrorAlert("Failed to load quiz questions: " + error.getMessage());
+                        return;
+                    }
+
+                    //Current attempt is 1 attempt after the latest attempt
+                    currentAttempt = quizData.latestAttempt + 1;
+                    setupQuestions(quizData.quizTree);
+                    questionListView.getItems().setAll(quizQuestions);
+                    populateAttemptsDropdown(quizData.attempts);
+                    if (!quizQuestions.isEmpty()) {
+                        submitQuizButton.setDisable(false);
+                        displayQuestion(1);
+                    }
+                });
     }
 
     /**
@@ -153,28 +277,23 @@ public class QuizController {
     /**
      * Loads all quiz questions and their answer options into memory.
      * <p>
-     * Retrieves questions for the current quiz using {@link QuizQuestionDAO} and their corresponding
-     * answer options using {@link AnswerOptionDAO}. Displays an error if no questions are found or
-     * if a database error occurs.
+     * Takes the questions of the current quiz and their corresponding answer options from the
+     * tree loaded in a single query by {@link QuizDAO#getQuizTree(int)}. Displays an error if no
+     * questions are found.
      * </p>
-     * @throws SQLException If database operations fail
+     * @param loadedTree The questions and answer options of the current quiz, or null if it has none
      */
 
-    private void setupQuestions(){
-        try {
-            quizQuestions = quizQuestionDAO.getAllQuizQuestions(currentQuiz.getMessageId());
-            if (quizQuestions == null || quizQuestions.isEmpty()) {
-                Utils.showErrorAlert("No questions found for the selected quiz.");
-                return;
-            }
-            for (QuizQuestion question : quizQuestions) {
-                int qNumber = question.getNumber();
-                List<AnswerOption> options = answerOptionDAO.getAllQuestionAnswerOptions(
-                        currentQuiz.getMessageId(), qNumber);
-                answerOptions.put(qNumber, options); // Store options directly
-            }
-        } catch (SQLException e) {
-            Utils.showErrorAlert("Failed to load quiz questions: " + e.getMessage());
+    private void setupQuestions(QuizTree loadedTree){
+        quizTree = loadedTree;
+        if (quizTree == null || quizTree.getQuestions().isEmpty()) {
+            Utils.showErrorAlert("No questions found for the selected quiz.");
+            return;
+        }
+        quizQuestions = new ArrayList<>(quizTree.getQuestions());
+        for (QuizQuestion question : quizQuestions) {
+            int qNumber = question.getNumber();
+            answerOptions.put(qNumber, new ArrayList<>(quizTree.getAnswerOptions(qNumber)));
         }
     }
 
@@ -187,7 +306,6 @@ public class QuizController {
      */
 
     private void setupQuizListView() {
-        questionListView.getItems().setAll(quizQuestions);
         questionListView.setCellFactory(listView -> new ListCell<QuizQuestion>() {
             private final Button selectQuestion = new Button();
             private final ToggleButton toggleAnswered = new ToggleButton();
@@ -252,7 +370,7 @@ public class QuizController {
      * Checks and styles a question cell based on the user’s answer correctness.
      * <p>
      * Updates the style of the question container to indicate whether the user’s answer was correct
-     * or incorrect based on the correct answer option.
+     * or incorrect, using the graded {@link AttemptResult} of the attempt being shown.
      * </p>
      * @param cell The ListCell containing the question
      * @param container The HBox containing the question UI elements
@@ -265,27 +383,8 @@ public class QuizController {
             return;
         }
 
-        String userAnswer = questionAnswers.get(questionIndex);
-        List<AnswerOption> options = answerOptions.get(questionIndex);
-
-        // Clear all styles to prevent reuse
-        container.getStyleClass().clear();
-        container.getStyleClass().add("question-container");
-
-        List<String> correctOptions = new ArrayList<>();
-        if (userAnswer != null && options != null) {
-            for (AnswerOption option : options) {
-                if (option.getIsAnswer()) {
-                    correctOptions.add(option.getOption());
-                }
-            }
-            if (!correctOptions.isEmpty()) {
-                if (correctOptions.contains(userAnswer)) {
-                    container.getStyleClass().setAll("correct-question");
-                } else {
-                    container.getStyleClass().setAll("incorrect-question");
-                }
-            }
+        if (attemptResult != null && attemptResult.isCorrect(questionIndex)) {
+            container.getStyleClass().setAll("correct-question");
         } else {
             container.getStyleClass().setAll("incorrect-question");
         }
@@ -455,45 +554,62 @@ public class QuizController {
     /**
      * Submits the user’s answers for the current quiz attempt.
      * <p>
-     * Saves the answers to the database using {@link UserAnswerDAO} and updates the UI to
-     * reflect completion.
+     * Grades the attempt with {@link QuizScorer} and shows it as completed straight away.
+     * The answers and the {@link AttemptResult} are then saved together in one transaction
+     * on the {@link DatabaseExecutor}, so the UI does not wait on the database. If saving fails,
+     * nothing is saved and the attempt can be submitted again.
      * </p>
      */
 
     private void submitAnswers () {
         int messageId = currentQuiz.getMessageId();
+        int attempt = currentAttempt;
+        Map<Integer, String> answers = new HashMap<>(questionAnswers);
+        AttemptResult result = QuizScorer.grade(quizTree, attempt, answers, System.currentTimeMillis() - attemptStartedAt);
+        attemptResult = result;
         quizCompleted = true;
-        try {
-            saveAnswers(messageId, currentAttempt, questionAnswers, userAnswerDAO);
-            Platform.runLater(() -> questionListView.refresh());
-        } catch (Exception e) {
-            Utils.showErrorAlert("Failed to submit answers: " + e.getMessage());
-        }
+        databaseExecutor.submit(() -> {
+            db.transaction(() -> {
+                saveAnswers(messageId, attempt, answers, userAnswerDAO);
+                attemptResultDAO.createAttemptResult(result);
+            });
+            return result;
+        }).whenComplete((saved, error) -> {
+            if (error == null) {
+                questionListView.refresh();
+                return;
+            }
+            // The view may be showing another quiz by now
+            if (currentQuiz.getMessageId() == messageId && currentAttempt == attempt) {
+                attemptResult = null;
+                quizCompleted = false;
+                submitQuizButton.setDisable(false);
+                displayQuestion(1);
+            }
+            Utils.showErrorAlert("Failed to submit answers: " + error.getMessage());
+        });
     }
 
     /**
      * Saves user answers to the database.
      * <p>
-     * Creates and persists a {@link UserAnswer} record for each user-selected answer.
+     * Creates a {@link UserAnswer} record for each user-selected answer and persists them
+     * together in a single transaction, so either every answer is saved or none are.
      * </p>
      * @param messageId The message ID of the quiz
      * @param attempt The attempt number
      * @param answers The map of question numbers to answers
-     * @param dao The UserAnswerDAO for database operations
+     * @param dao The DAO for database operations
+     * @throws IllegalArgumentException If an answer is invalid
+     * @throws SQLException If database operations fail
      */
 
-    public void saveAnswers(int messageId, int attempt, Map<Integer, String > answers, UserAnswerDAO dao) {
-        for (Map.Entry<Integer, String> entry : answers.entrySet()) {
-            int questionNumber = entry.getKey();
-            String answerOption = entry.getValue();
-            try {
-                UserAnswer newAnswer = new UserAnswer(messageId, attempt, questionNumber, answerOption);
-                dao.createUserAnswer(newAnswer);
-
-            } catch (SQLException e) {
-                Utils.showErrorAlert("Failed to save answers: " + e.getMessage());
-            }
+    public void saveAnswers(int messageId, int attempt, Map<Integer, String > answers, IUserAnswerDAO dao) throws IllegalArgumentException, SQLException {
+        List<UserAnswer> userAnswers = new ArrayList<>();
+        for (Map.Entry<Integer, String> entry : new TreeMap<>(answers).entrySet()) {
+            userAnswers.add(new UserAnswer(messageId, attempt, entry.getKey(), entry.getValue()));
         }
+        dao.createUserAnswers(userAnswers);
     }
 
     /**
@@ -514,40 +630,47 @@ public class QuizController {
     }
 
     /**
-     * Sets up the attempts dropdown with available attempt numbers.
+     * Populates the attempts dropdown with available attempt numbers.
      * <p>
-     * Populates the dropdown with past and current attempt numbers, selects the current attempt,
-     * and adds a listener to load answers for the selected attempt.
+     * Adds past and current attempt numbers to the dropdown and selects the current attempt.
      * </p>
+     * @param pastAttempts The attempt numbers already submitted, in ascending order
      */
 
-    private void setupAttemptsDropdown() {
+    private void populateAttemptsDropdown(List<Integer> pastAttempts) {
         if (attemptsDropdown != null) {
             attemptsDropdown.getItems().clear();
-            List<Integer> attempts = getAllAttempts();
-
-            if (attempts.isEmpty()) {
+            for (Integer attempt : pastAttempts) {
+                attemptsDropdown.getItems().add("Attempt " + attempt);
+            }
+            // Add the current attempt if not already present
+            if (!pastAttempts.contains(currentAttempt)) {
                 attemptsDropdown.getItems().add("Attempt " + currentAttempt);
-            } else {
-                for (Integer attempt : attempts) {
-                    attemptsDropdown.getItems().add("Attempt " + attempt);
-                }
             }
             // Select the current attempt
             attemptsDropdown.getSelectionModel().select("Attempt " + currentAttempt);
+        }
+    }
+
+    /**
+     * Sets up the attempts dropdown listener.
+     * <p>
+     * Adds a listener to load answers for the selected attempt.
+     * </p>
+     */
 
+    private void setupAttemptsDropdown() {
+        if (attemptsDropdown != null) {
             // Add listener for selection changes
             attemptsDropdown.getSelectionModel().selectedItemProperty().addListener((obs, oldValue, newValue) -> {
                 if (newValue != null) {
                     int selectedAttempt = Integer.parseInt(((String) newValue).replace("Attempt ", ""));
                     if (selectedAttempt != currentAttempt) {
                         currentAttempt = selectedAttempt;
-                        // Optionally: Load answers for this attempt and update UI
+                        // Load answers for this attempt and update UI
                         loadAttemptAnswers(selectedAttempt);
-                    }
-                    if (currentAttempt == attemptsDropdown.getItems().size() && !quizCompleted){
-                        // Re-enable submit button for current attempt
-                        submitQuizButton.setDisable(false);
+                    } else {
+                        enableSubmitForLatestAttempt();
                     }
                 }
             });
@@ -557,76 +680,67 @@ public class QuizController {
     /**
      * Loads user answers for a specific attempt.
      * <p>
-     * Clears current answers, retrieves answers for the specified attempt from the database,
-     * and updates the UI accordingly.
+     * Retrieves answers and the graded result for the specified attempt on the
+     * {@link DatabaseExecutor}, then replaces the current answers and updates the UI
+     * accordingly, unless another attempt has been selected in the meantime.
      * </p>
      * @param attempt The attempt number to load
      */
 
     private void loadAttemptAnswers(int attempt) {
-        try {
-            questionAnswers.clear(); // Clear current answers
-            List<UserAnswer> userAnswers = userAnswerDAO.getAllUserQuizAnswers(currentQuiz.getMessageId(), attempt);
-            for (UserAnswer answer : userAnswers) {
-                questionAnswers.put(answer.getQuestionNumber(), answer.getAnswerOption());
-            }
-            quizCompleted = !userAnswers.isEmpty(); // Set quizCompleted based on whether answers exist
-            questionListView.refresh();
-            displayQuestion(1); // Display first question
-        } catch (SQLException e) {
-            Utils.showErrorAlert("Failed to load answers for attempt " + attempt + ": " + e.getMessage());
-        }
+        Quiz quiz = currentQuiz;
+        int messageId = quiz.getMessageId();
+        databaseExecutor.submit(() -> new AttemptData(
+                        userAnswerDAO.getAllUserQuizAnswers(messageId, attempt),
+                        attemptResultDAO.getAttemptResult(messageId, attempt)))
+                .whenComplete((attemptData, error) -> {
+                    if (currentQuiz != quiz || currentAttempt != attempt) {
+                        return;
+                    }
+                    if (error != null) {
+                        Utils.showErrorAlert("Failed to load answers for attempt " + attempt + ": " + error.getMessage());
+                        return;
+                    }
+
+                    questionAnswers.clear(); // Clear current answers
+                    for (UserAnswer answer : attemptData.userAnswers) {
+                        questionAnswers.put(answer.getQuestionNumber(), answer.getAnswerOption());
+                    }
+                    quizCompleted = !attemptData.userAnswers.isEmpty(); // Set quizCompleted based on whether answers exist
+                    attemptResult = attemptData.attemptResult;
+                    if (attemptResult == null && quizCompleted && quizTree != null) {
+                        // Attempts submitted before results were stored are graded for display only
+                        attemptResult = QuizScorer.grade(quizTree, attempt, questionAnswers, 0);
+                    }
+                    questionListView.refresh();
+                    displayQuestion(1); // Display first question
+                    enableSubmitForLatestAttempt();
+                });
     }
 
     /**
-     * Retrieves all unique attempt numbers for the current quiz.
-     * <p>
-     * Queries the database for past attempts and includes the current attempt if not already present.
-     * </p>
-     * @return A sorted list of attempt numbers, or null if a database error occurs
+     * Re-enables the submit button if the latest attempt is shown and has not been submitted.
      */
 
-    private List<Integer> getAllAttempts() {
-        List<Integer> attempts = new ArrayList<>();
-        try {
-            List<UserAnswer> pastQuizzes = userAnswerDAO.getAllUserQuizAttempts(currentQuiz.getMessageId());
-            Set<Integer> pastAttemptNumbers = new HashSet<>();
-            // Loop through past attempts and add to set to get unique attempts only
-            for (UserAnswer answer : pastQuizzes) {
-                pastAttemptNumbers.add(answer.getAttempt());
-            }
-            // Convert to list and sort
-            attempts.addAll(pastAttemptNumbers);
-            Collections.sort(attempts);
-            // Add the current attempt if not already present
-            if (!attempts.contains(currentAttempt)) {
-                attempts.add(currentAttempt);
-            }
-            return attempts;
-        } catch (SQLException e) {
-            Utils.showErrorAlert("Failed to retrieve quiz attempts for User");
-            return null;
+    private void enableSubmitForLatestAttempt() {
+        if (currentAttempt == attemptsDropdown.getItems().size() && !quizCompleted) {
+            submitQuizButton.setDisable(false);
         }
     }
 
     /**
      * Calculates the current attempt number for the quiz.
      * <p>
-     * Determines the highest previous attempt from the database and increments it by one.
+     * Determines the highest previous attempt at question 1 from the database and increments it by one.
      * </p>
      * @return The calculated current attempt number, or -1 if a database error occurs
-     * @throws SQLException If database operations fail
      */
 
     private int calculateCurrentAttempt() {
         try {
             //Question number is 1, as all quizzes will have an answer for question 1, even if the answer is null
-            //Creates the list using messageID, as that is the quiz identifier
-            List<UserAnswer> pastQuizes = userAnswerDAO.getAllUserQuestionAttempts(currentQuiz.getMessageId(), 1);
-            //Finds the highest previous attempt
-            int latestAttempt = pastQuizes.size();
-            //current attempt is 1 attempt after latest attempt
-            currentAttempt = latestAttempt + 1;
+            //Current attempt is 1 attempt after the latest attempt
+            currentAttempt = userAnswerDAO.getLatestQuestionAttempt(currentQuiz.getMessageId(), 1) + 1;
             return currentAttempt;
         } catch (SQLException e) {
             Utils.showErrorAlert("Failed to calculate current attempt: " + e.getMessage());
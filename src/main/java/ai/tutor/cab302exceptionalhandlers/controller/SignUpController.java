@@ -1,6 +1,7 @@
 package ai.tutor.cab302exceptionalhandlers.controller;
 
 import ai.tutor.cab302exceptionalhandlers.Utils.Utils;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
 import ai.tutor.cab302exceptionalhandlers.model.User;
 import javafx.fxml.FXML;
@@ -32,6 +33,10 @@ public class SignUpController extends AuthController {
         super(db);
     }
 
+    public SignUpController(DAORegistry daos) {
+        super(daos);
+    }
+
 
     /*
      * =========================
@@ -27,7 +27,7 @@ import java.util.Optional;
 
 public class UserSettingsController {
     private SQLiteConnection db;
-    private UserDAO userDAO;
+    private IUserDAO userDAO;
     private User currentUser;
 
     private boolean usernameChanged = false;
@@ -66,12 +66,28 @@ public class UserSettingsController {
      */
 
     public UserSettingsController(SQLiteConnection connection, User authenticatedUser) throws IllegalStateException, RuntimeException, SQLException {
+        this(new DAORegistry(connection), authenticatedUser);
+    }
+
+    /**
+     * Constructs a UserSettingsController with shared DAOs and a user.
+     * <p>
+     * Takes the {@link #db} connection and {@link UserDAO} from the given
+     * {@link DAORegistry}, instead of creating them. Throws an exception if the
+     * provided user is null.
+     * </p>
+     * @param daos The shared DAOs of the SQLite database connection
+     * @param authenticatedUser The currently authenticated user
+     * @throws IllegalStateException If the user is null
+     */
+
+    public UserSettingsController(DAORegistry daos, User authenticatedUser) throws IllegalStateException {
         if (authenticatedUser == null) {
             throw new IllegalStateException("No user was authenticated");
         }
 
-        db = connection;
-        userDAO = new UserDAO(db);
+        db = daos.getConnection();
+        userDAO = daos.getUserDAO();
         currentUser = authenticatedUser;
     }
 
@@ -106,6 +122,25 @@ public class UserSettingsController {
         usernameField.setText(currentUser.getUsername());
     }
 
+    /**
+     * Resets the user settings screen when its view is reused.
+     * <p>
+     * Repopulates {@link #usernameField}, and clears the password fields, feedback
+     * labels and update flags left over from the last visit.
+     * </p>
+     */
+
+    public void refreshView() {
+        setupUsernameField();
+        currentPasswordField.setText("");
+        newPasswordField.setText("");
+        confirmPasswordField.setText("");
+        usernameFeedback.setText("");
+        currentPasswordFeedback.setText("");
+        newPasswordFeedback.setText("");
+        usernameChanged = passwordChanged = false;
+    }
+
 
     /*
      * =========================================================================
@@ -1,7 +1,10 @@
 package ai.tutor.cab302exceptionalhandlers.factories;
 
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
 import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
 
+import java.sql.SQLException;
+
 /**
  * Abstract base class for controller factories.
  * <p>
@@ -11,20 +14,36 @@ import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
  * Controller factories hold the same database connection address as it is a
  * singleton. This allows all controller builders produced by the factory
  * to share the same database connection.
+ * <p>
+ * The factory also owns a {@link DAORegistry}, built once when the factory is
+ * constructed, so every controller is given the same DAO instances instead of
+ * constructing its own on each navigation.
  *
  * @author Justin.
  * @see ai.tutor.cab302exceptionalhandlers.factories.ControllerFactory
  */
 public abstract class AbstractControllerFactory {
     protected final SQLiteConnection db;
+    protected final DAORegistry daos;
 
     /**
      * Constructs an {@code AbstractControllerFactory}.
      *
      * @param db The {@link SQLiteConnection} to be used by the factory and subsequently
      *           by the controller builders it produces.
+     * @throws SQLException if a database error occurs while constructing the DAOs.
      */
-    public AbstractControllerFactory(SQLiteConnection db) {
+    public AbstractControllerFactory(SQLiteConnection db) throws SQLException {
         this.db = db;
+        this.daos = new DAORegistry(db);
+    }
+
+    /**
+     * Gets the shared DAOs given to every controller built by this factory.
+     *
+     * @return The {@link DAORegistry} of this factory.
+     */
+    public DAORegistry getDAORegistry() {
+        return daos;
     }
 }
@@ -7,12 +7,15 @@ import ai.tutor.cab302exceptionalhandlers.builders.QuizControllerBuilder;
 import ai.tutor.cab302exceptionalhandlers.builders.UserSettingsControllerBuilder;
 import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
 
+import java.sql.SQLException;
+
 /**
  * Concrete factory for creating various controller builders.
  * <p>
  * This class extends {@link AbstractControllerFactory} and provides methods
  * to obtain builders for different types of controllers used in the application.
- * Each builder is initialized with the {@link SQLiteConnection} provided to this factory.
+ * Each builder is initialized with the shared DAOs of the {@link SQLiteConnection}
+ * provided to this factory.
  *
  * <p>Usage Example:
  * <pre>
@@ -36,8 +39,9 @@ public class ControllerFactory extends AbstractControllerFactory {
      *
      * @param db The {@link SQLiteConnection} to be used by all controller builders
      *           created by this factory.
+     * @throws SQLException if a database error occurs while constructing the DAOs.
      */
-    public ControllerFactory(SQLiteConnection db) {
+    public ControllerFactory(SQLiteConnection db) throws SQLException {
         super(db);
     }
 
@@ -47,7 +51,7 @@ public class ControllerFactory extends AbstractControllerFactory {
      * @return A new instance of {@link AuthControllerBuilder}.
      */
     public AuthControllerBuilder authController() {
-        return new AuthControllerBuilder(db);
+        return new AuthControllerBuilder(daos);
     }
 
     /**
@@ -56,7 +60,7 @@ public class ControllerFactory extends AbstractControllerFactory {
      * @return A new instance of {@link ChatControllerBuilder}.
      */
     public ChatControllerBuilder chatController() {
-        return new ChatControllerBuilder(db);
+        return new ChatControllerBuilder(daos);
     }
 
     /**
@@ -65,7 +69,7 @@ public class ControllerFactory extends AbstractControllerFactory {
      * @return A new instance of {@link ChatSetupControllerBuilder}.
      */
     public ChatSetupControllerBuilder chatSetupController() {
-        return new ChatSetupControllerBuilder(db);
+        return new ChatSetupControllerBuilder(daos);
     }
 
     /**
@@ -74,7 +78,7 @@ public class ControllerFactory extends AbstractControllerFactory {
      * @return A new instance of {@link UserSettingsControllerBuilder}.
      */
     public UserSettingsControllerBuilder userSettingsController() {
-        return new UserSettingsControllerBuilder(db);
+        return new UserSettingsControllerBuilder(daos);
     }
 
     /**
@@ -83,6 +87,6 @@ public class ControllerFactory extends AbstractControllerFactory {
      * @return A new instance of {@link QuizControllerBuilder}.
      */
     public QuizControllerBuilder quizController() {
-        return new QuizControllerBuilder(db);
+        return new QuizControllerBuilder(daos);
     }
 }
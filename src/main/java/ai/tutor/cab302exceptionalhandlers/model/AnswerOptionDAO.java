@@ -15,43 +15,17 @@ import java.util.List;
  * @author Joshua M.
  */
 public class AnswerOptionDAO implements IAnswerOptionDAO {
-    private final Connection connection;
+    private final SQLiteConnection db;
 
     /**
-     * Constructor for {@link AnswerOptionDAO} initializing answerOptions table.
+     * Constructor for {@link AnswerOptionDAO} using the migrated answerOptions table.
      *
      * @param sqliteConnection the {@link SQLiteConnection} instance for database access
-     * @throws SQLException if a database error occurs when creating answerOptions table
+     * @throws SQLException if a database error occurs during initialisation
      * @throws RuntimeException if the SQLite connection cannot be established
-     * @see #createTable()
      */
     public AnswerOptionDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
-        connection = sqliteConnection.getInstance();
-        createTable();
-    }
-
-    /**
-     * Creates the {@code answerOptions} table in the SQLite database.
-     * <p>
-     * If the table does not exist, it creates a new table named answerOptions.
-     *
-     * @throws SQLException if a database error occurs during table creation
-     * @see {@code quizQuestions}
-     */
-    private void createTable() throws SQLException {
-        try (Statement createTable = connection.createStatement()) {
-            createTable.execute(
-                    "CREATE TABLE IF NOT EXISTS answerOptions ("
-                    + "messageId INTEGER,"
-                    + "questionNumber INTEGER,"
-                    + "option VARCHAR,"
-                    + "value VARCHAR NOT NULL,"
-                    + "isAnswer INTEGER NOT NULL,"
-                    + "PRIMARY KEY (messageId, questionNumber, option),"
-                    + "FOREIGN KEY(messageId, questionNumber) REFERENCES quizQuestions(messageId, number) ON DELETE CASCADE"
-                    + ")"
-            );
-        }
+        db = sqliteConnection;
     }
 
     /**
@@ -67,7 +41,8 @@ public class AnswerOptionDAO implements IAnswerOptionDAO {
     @Override
     public void createAnswerOption(AnswerOption answerOption) throws SQLException {
         String sql = "INSERT INTO answerOptions (messageId, questionNumber, option, value, isAnswer) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement createAnswerOption = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement createAnswerOption = lease.prepareStatement(sql)) {
             createAnswerOption.setInt(1, answerOption.getMessageId());
             createAnswerOption.setInt(2, answerOption.getQuestionNumber());
             createAnswerOption.setString(3, answerOption.getOption());
@@ -96,7 +71,8 @@ public class AnswerOptionDAO implements IAnswerOptionDAO {
     @Override
     public AnswerOption getQuestionAnswerOption(int messageId, int questionNumber, String option) throws IllegalArgumentException, SQLException {
         String sql = "SELECT * FROM answerOptions WHERE messageId = ? AND questionNumber = ? AND option = ?";
-        try (PreparedStatement readQuestionAnswerOption = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readQuestionAnswerOption = lease.prepareStatement(sql)) {
             readQuestionAnswerOption.setInt(1, messageId);
             readQuestionAnswerOption.setInt(2, questionNumber);
             readQuestionAnswerOption.setString(3, option);
@@ -129,7 +105,8 @@ public class AnswerOptionDAO implements IAnswerOptionDAO {
     public List<AnswerOption> getAllQuestionAnswerOptions(int messageId, int questionNumber) throws IllegalArgumentException, SQLException {
         List<AnswerOption> questionAnswerOptions = new ArrayList<>();
         String sql = "SELECT * FROM answerOptions WHERE messageId = ? AND questionNumber = ?";
-        try (PreparedStatement readQuestionAnswerOptions = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readQuestionAnswerOptions = lease.prepareStatement(sql)) {
             readQuestionAnswerOptions.setInt(1, messageId);
             readQuestionAnswerOptions.setInt(2, questionNumber);
             ResultSet resultSet = readQuestionAnswerOptions.executeQuery();
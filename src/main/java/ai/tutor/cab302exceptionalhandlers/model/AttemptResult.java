@@ -0,0 +1,76 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the graded result of one attempt at a Quiz
+ * <p>
+ * An attempt is graded once when it is submitted, so its score can be shown and
+ * aggregated without grading the answers again.
+ *
+ * @author Joshua M.
+ * @see ai.tutor.cab302exceptionalhandlers.model.Quiz
+ * @see ai.tutor.cab302exceptionalhandlers.model.UserAnswer
+ */
+public class AttemptResult {
+    private final int messageId;
+    private final int attempt;
+    private final List<Boolean> questionResults;
+    private final long durationMillis;
+    private final long completedAt;
+
+
+    /**
+     * Constructor for an AttemptResult object
+     *
+     * @param messageId The message id of the quiz attempted, must be greater than 0
+     * @param attempt The attempt number, must be greater than 0
+     * @param questionResults Whether each question was answered correctly, in question order, must not be null
+     * @param durationMillis How long the attempt took in milliseconds, must not be negative
+     * @param completedAt When the attempt was submitted in epoch milliseconds
+     * @throws IllegalArgumentException if any of the parameters are invalid
+     */
+    public AttemptResult(int messageId, int attempt, List<Boolean> questionResults, long durationMillis, long completedAt) throws IllegalArgumentException {
+        if (messageId < 1) { throw new IllegalArgumentException("Invalid Message Id: Must be greater than 1"); }
+        this.messageId = messageId;
+
+        if (attempt < 1) { throw new IllegalArgumentException("Invalid Attempt: Must be greater than 1"); }
+        this.attempt = attempt;
+
+        if (questionResults == null) { throw new IllegalArgumentException("Invalid Question Results: Cannot be null"); }
+        for (Boolean correct : questionResults) {
+            if (correct == null) { throw new IllegalArgumentException("Invalid Question Results: Cannot contain null"); }
+        }
+        this.questionResults = Collections.unmodifiableList(new ArrayList<>(questionResults));
+
+        if (durationMillis < 0) { throw new IllegalArgumentException("Invalid Duration: Cannot be negative"); }
+        this.durationMillis = durationMillis;
+
+        this.completedAt = completedAt;
+    }
+
+
+    public int getMessageId() { return messageId; }
+
+    public int getAttempt() { return attempt; }
+
+    public List<Boolean> getQuestionResults() { return questionResults; }
+
+    public long getDurationMillis() { return durationMillis; }
+
+    public long getCompletedAt() { return completedAt; }
+
+    public int getQuestionCount() { return questionResults.size(); }
+
+    public int getScore() { return (int) questionResults.stream().filter(correct -> correct).count(); }
+
+    /**
+     * @param questionNumber The number of the question, starting at 1
+     * @return Whether the question was answered correctly, false if there is no such question
+     */
+    public boolean isCorrect(int questionNumber) {
+        return questionNumber >= 1 && questionNumber <= questionResults.size() && questionResults.get(questionNumber - 1);
+    }
+}
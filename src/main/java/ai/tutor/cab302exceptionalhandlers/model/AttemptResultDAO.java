@@ -0,0 +1,228 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conducts database operations for graded quiz attempts
+ * <p>
+ * This Data Access Object (DAO) stores each {@link AttemptResult} in the
+ * {@code attemptResults} table and keeps running totals per user in the
+ * {@code scoreTotals} table. The totals are grouped by chat, study area and quiz
+ * difficulty and are updated in the same transaction as the result, so averages are
+ * read with a single indexed query instead of grading every past attempt. Deleting a
+ * chat or quiz deletes its results, and triggers take each deleted result off the
+ * totals, so the averages only count attempts that still exist. Changing the study area
+ * of a chat moves the totals of its results to the new study area.
+ *
+ * @author Joshua M.
+ */
+public class AttemptResultDAO implements IAttemptResultDAO {
+    private static final String CHAT = "chat";
+    private static final String STUDY_AREA = "studyArea";
+    private static final String DIFFICULTY = "difficulty";
+
+    private final SQLiteConnection db;
+
+    /**
+     * Initialises the {@code AttemptResultDAO} with an SQLite database connection.
+     *
+     * @param sqliteConnection the {@code SQLiteConnection} instance for database access
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
+     */
+    public AttemptResultDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
+        db = sqliteConnection;
+    }
+
+    /**
+     * Saves a new {@code AttemptResult} and adds it to the score totals.
+     * <p>
+     * The result is inserted into {@code attemptResults}, then the user's totals for the
+     * quiz's chat, the chat's study area (if it has one) and the quiz difficulty are
+     * incremented with upserts. Everything happens in a single transaction.
+     *
+     * @param attemptResult the {@code AttemptResult} to save
+     * @throws SQLException if a database error occurs during insertion
+     */
+    @Override
+    public void createAttemptResult(AttemptResult attemptResult) throws SQLException {
+        String sql = "INSERT INTO attemptResults (messageId, attempt, score, questionCount, correctQuestions, durationMillis, completedAt) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String totalsSql = "INSERT INTO scoreTotals (userId, dimension, value, attempts, score, questions) "
+                + "SELECT c.userId, ?, %s, 1, ?, ? FROM quizzes q "
+                + "JOIN messages m ON m.id = q.messageId "
+                + "JOIN chats c ON c.id = m.chatId "
+                + "WHERE q.messageId = ? AND %<s IS NOT NULL "
+                + "ON CONFLICT (userId, dimension, value) DO UPDATE SET "
+                + "attempts = attempts + 1, score = score + excluded.score, questions = questions + excluded.questions";
+        db.transaction(() -> {
+            try (SQLiteConnection.Lease lease = db.write();
+                 PreparedStatement createAttemptResult = lease.prepareStatement(sql)) {
+                createAttemptResult.setInt(1, attemptResult.getMessageId());
+                createAttemptResult.setInt(2, attemptResult.getAttempt());
+                createAttemptResult.setInt(3, attemptResult.getScore());
+                createAttemptResult.setInt(4, attemptResult.getQuestionCount());
+                createAttemptResult.setString(5, encodeQuestionResults(attemptResult.getQuestionResults()));
+                createAttemptResult.setLong(6, attemptResult.getDurationMillis());
+                createAttemptResult.setLong(7, attemptResult.getCompletedAt());
+                createAttemptResult.executeUpdate();
+
+                addToTotals(lease, String.format(totalsSql, "c.id"), CHAT, attemptResult);
+                addToTotals(lease, String.format(totalsSql, "c.studyArea"), STUDY_AREA, attemptResult);
+                addToTotals(lease, String.format(totalsSql, "q.difficulty"), DIFFICULTY, attemptResult);
+            }
+        });
+    }
+
+    private void addToTotals(SQLiteConnection.Lease lease, String sql, String dimension, AttemptResult attemptResult) throws SQLException {
+        try (PreparedStatement updateTotals = lease.prepareStatement(sql)) {
+            updateTotals.setString(1, dimension);
+            updateTotals.setInt(2, attemptResult.getScore());
+            updateTotals.setInt(3, attemptResult.getQuestionCount());
+            updateTotals.setInt(4, attemptResult.getMessageId());
+            updateTotals.executeUpdate();
+        }
+    }
+
+    /**
+     * Retrieves the {@code AttemptResult} of a quiz attempt.
+     *
+     * @param messageId the ID of the associated quiz
+     * @param attempt the attempt number
+     * @return the {@code AttemptResult}, or {@code null} if none exists
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public AttemptResult getAttemptResult(int messageId, int attempt) throws SQLException {
+        String sql = "SELECT * FROM attemptResults WHERE messageId = ? AND attempt = ?";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readAttemptResult = lease.prepareStatement(sql)) {
+            readAttemptResult.setInt(1, messageId);
+            readAttemptResult.setInt(2, attempt);
+            ResultSet resultSet = readAttemptResult.executeQuery();
+
+            if (resultSet.next()) {
+                return readAttemptResult(resultSet);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves every {@code AttemptResult} of a quiz.
+     *
+     * @param messageId the ID of the associated quiz
+     * @return a {@code List} of {@code AttemptResult} entities ordered by attempt, or an empty list if none exist
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public List<AttemptResult> getAllQuizAttemptResults(int messageId) throws SQLException {
+        List<AttemptResult> attemptResults = new ArrayList<>();
+        String sql = "SELECT * FROM attemptResults WHERE messageId = ? ORDER BY attempt";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readAttemptResults = lease.prepareStatement(sql)) {
+            readAttemptResults.setInt(1, messageId);
+            ResultSet resultSet = readAttemptResults.executeQuery();
+
+            while (resultSet.next()) {
+                attemptResults.add(readAttemptResult(resultSet));
+            }
+        }
+        return attemptResults;
+    }
+
+    /**
+     * Retrieves the score totals of a user for each chat.
+     *
+     * @param userId the ID of the user
+     * @return a {@code Map} of {@code ScoreSummary} entities keyed by chat ID, or an empty map if none exist
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public Map<Integer, ScoreSummary> getChatScoreSummaries(int userId) throws SQLException {
+        Map<Integer, ScoreSummary> chatSummaries = new LinkedHashMap<>();
+        for (Map.Entry<String, ScoreSummary> entry : getScoreSummaries(userId, CHAT).entrySet()) {
+            chatSummaries.put(Integer.parseInt(entry.getKey()), entry.getValue());
+        }
+        return chatSummaries;
+    }
+
+    /**
+     * Retrieves the score totals of a user for each study area.
+     *
+     * @param userId the ID of the user
+     * @return a {@code Map} of {@code ScoreSummary} entities keyed by study area, or an empty map if none exist
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public Map<String, ScoreSummary> getStudyAreaScoreSummaries(int userId) throws SQLException {
+        return getScoreSummaries(userId, STUDY_AREA);
+    }
+
+    /**
+     * Retrieves the score totals of a user for each quiz difficulty.
+     *
+     * @param userId the ID of the user
+     * @return a {@code Map} of {@code ScoreSummary} entities keyed by difficulty, or an empty map if none exist
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public Map<String, ScoreSummary> getDifficultyScoreSummaries(int userId) throws SQLException {
+        return getScoreSummaries(userId, DIFFICULTY);
+    }
+
+    /**
+     * Retrieves the score totals of a user for one grouping, ordered by group.
+     */
+    private Map<String, ScoreSummary> getScoreSummaries(int userId, String dimension) throws SQLException {
+        Map<String, ScoreSummary> scoreSummaries = new LinkedHashMap<>();
+        // Chat IDs are stored as text, so they are cast back to sort them in numeric order
+        String order = dimension.equals(CHAT) ? "CAST(value AS INTEGER)" : "value";
+        String sql = "SELECT value, attempts, score, questions FROM scoreTotals WHERE userId = ? AND dimension = ? ORDER BY " + order;
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readScoreTotals = lease.prepareStatement(sql)) {
+            readScoreTotals.setInt(1, userId);
+            readScoreTotals.setString(2, dimension);
+            ResultSet resultSet = readScoreTotals.executeQuery();
+
+            while (resultSet.next()) {
+                ScoreSummary scoreSummary = new ScoreSummary(
+                        resultSet.getInt("attempts"), resultSet.getInt("score"), resultSet.getInt("questions"));
+                scoreSummaries.put(resultSet.getString("value"), scoreSummary);
+            }
+        }
+        return scoreSummaries;
+    }
+
+    private AttemptResult readAttemptResult(ResultSet resultSet) throws SQLException {
+        int messageId = resultSet.getInt("messageId");
+        int attempt = resultSet.getInt("attempt");
+        List<Boolean> questionResults = decodeQuestionResults(resultSet.getString("correctQuestions"));
+        long durationMillis = resultSet.getLong("durationMillis");
+        long completedAt = resultSet.getLong("completedAt");
+        return new AttemptResult(messageId, attempt, questionResults, durationMillis, completedAt);
+    }
+
+    /**
+     * Encodes per-question correctness as one character per question, '1' for correct.
+     */
+    private static String encodeQuestionResults(List<Boolean> questionResults) {
+        StringBuilder encoded = new StringBuilder(questionResults.size());
+        for (boolean correct : questionResults) {
+            encoded.append(correct ? '1' : '0');
+        }
+        return encoded.toString();
+    }
+
+    static List<Boolean> decodeQuestionResults(String encoded) {
+        List<Boolean> questionResults = new ArrayList<>(encoded.length());
+        for (int i = 0; i < encoded.length(); i++) {
+            questionResults.add(encoded.charAt(i) == '1');
+        }
+        return questionResults;
+    }
+}
@@ -0,0 +1,276 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.lang.ref.WeakReference;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Caches the chats read through another {@link IChatDAO}.
+ * <p>
+ * The chat controller validates that the selected chat belongs to the current user
+ * before nearly every operation, so sending one message used to read the same
+ * {@code chats} row several times. This DAO keeps recently used chats, and each user's
+ * chat list, in bounded {@link EntityCache}s so that those lookups are served from memory.
+ * <p>
+ * Writes go to the underlying DAO first and then through to the caches: created chats
+ * are cached, updated chats are read again, deleted chats are removed, and the owning
+ * user's cached chat list is dropped so it is read again on next use. Every change to
+ * the {@code chats} table must therefore be made through this DAO, or be followed by
+ * {@link #reloadChat(int)}, which the {@link DAORegistry} has {@link MessageDAO} and
+ * {@link QuizDAO} call through a {@link ChatActivityListener} after updating a chat's
+ * activity summary.
+ * <p>
+ * Every write is also announced to the registered {@link ChatChangeListener}s, so the
+ * chat list of a view can be kept up to date without reading it again.
+ * <p>
+ * Reads and writes may run on different threads, so a chat read on a cache miss is only
+ * cached if no write has started since the read began. Otherwise a slow read could
+ * replace the newer chat cached by the write with the one it read before the write.
+ *
+ * @author Joshua M.
+ * @see CachedUserDAO
+ */
+public class CachedChatDAO implements IChatDAO {
+    public static final int DEFAULT_CHAT_CAPACITY = 256;
+    public static final int DEFAULT_USER_CHATS_CAPACITY = 16;
+
+    private final IChatDAO chatDAO;
+    private final EntityCache<Integer, Chat> chats;
+    private final EntityCache<Integer, List<Chat>> userChats;
+    private final List<WeakReference<ChatChangeListener>> listeners = new CopyOnWriteArrayList<>();
+
+    /* Counts the writes started, guarded by this */
+    private long writeGeneration = 0;
+
+    /**
+     * Constructs a {@link CachedChatDAO} with the default cache capacities.
+     *
+     * @param chatDAO the {@link IChatDAO} to read and write chats through
+     * @throws IllegalArgumentException if {@code chatDAO} is null
+     */
+    public CachedChatDAO(IChatDAO chatDAO) throws IllegalArgumentException {
+        this(chatDAO, DEFAULT_CHAT_CAPACITY, DEFAULT_USER_CHATS_CAPACITY);
+    }
+
+    /**
+     * Constructs a {@link CachedChatDAO}.
+     *
+     * @param chatDAO the {@link IChatDAO} to read and write chats through
+     * @param chatCapacity the maximum number of chats to cache
+     * @param userChatsCapacity the maximum number of users whose chat list is cached
+     * @throws IllegalArgumentException if {@code chatDAO} is null or a capacity is less than 1
+     */
+    public CachedChatDAO(IChatDAO chatDAO, int chatCapacity, int userChatsCapacity) throws IllegalArgumentException {
+        if (chatDAO == null) {
+            throw new IllegalArgumentException("Invalid chat DAO: cannot be null");
+        }
+        this.chatDAO = chatDAO;
+        this.chats = new EntityCache<>(chatCapacity, CachedChatDAO::copyOf);
+        this.userChats = new EntityCache<>(userChatsCapacity, CachedChatDAO::copyOf);
+    }
+
+    @Override
+    public void createChat(Chat chat) throws SQLException {
+        chatDAO.createChat(chat);
+        beginWrite();
+        chats.put(chat.getId(), chat);
+        userChats.invalidate(chat.getUserId());
+        notifyListeners(chat, ChatChangeListener::chatCreated);
+    }
+
+    /**
+     * Updates an existing {@link Chat}.
+     * <p>
+     * The chat is then read again rather than cached as given, as its activity summary
+     * may have changed since the given chat was read.
+     *
+     * @param chat the {@link Chat} with updated information
+     * @throws SQLException if a database error occurs during update
+     */
+    @Override
+    public void updateChat(Chat chat) throws SQLException {
+        chatDAO.updateChat(chat);
+        reloadChat(chat.getId());
+    }
+
+    /**
+     * Updates the name of an existing {@link Chat}.
+     * <p>
+     * Only the name is written, so the chat is then read again rather than cached as
+     * given, in case the given chat has other unsaved changes.
+     *
+     * @param chat the {@link Chat} with the updated name
+     * @throws SQLException if a database error occurs during update
+     */
+    @Override
+    public void updateChatName(Chat chat) throws SQLException {
+        chatDAO.updateChatName(chat);
+        reloadChat(chat.getId());
+    }
+
+    /**
+     * Reads a chat again after it was changed, for example after a message was saved to
+     * it by {@link MessageDAO}, and tells the listeners about it.
+     *
+     * @param chatId the ID of the changed chat
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    void reloadChat(int chatId) throws SQLException {
+        long generation = beginWrite();
+        // Drop the old chat first, as a later write may stop this read from being cached
+        chats.invalidate(chatId);
+        Chat chat = chatDAO.getChat(chatId);
+        if (chat == null) {
+            return;
+        }
+        cacheChat(generation, chat);
+        userChats.invalidate(chat.getUserId());
+        notifyListeners(chat, ChatChangeListener::chatUpdated);
+    }
+
+    @Override
+    public void deleteChat(Chat chat) throws SQLException {
+        chatDAO.deleteChat(chat);
+        beginWrite();
+        chats.invalidate(chat.getId());
+        userChats.invalidate(chat.getUserId());
+        notifyListeners(chat, ChatChangeListener::chatDeleted);
+    }
+
+    @Override
+    public Chat getChat(int id) throws SQLException {
+        Chat chat = chats.get(id);
+        if (chat == null) {
+            long generation = currentGeneration();
+            chat = chatDAO.getChat(id);
+            if (chat != null) {
+                cacheChat(generation, chat);
+            }
+        }
+        return chat;
+    }
+
+    @Override
+    public List<Chat> getAllUserChats(int userId) throws SQLException {
+        List<Chat> userChatList = userChats.get(userId);
+        if (userChatList == null) {
+            long generation = currentGeneration();
+            userChatList = chatDAO.getAllUserChats(userId);
+            synchronized (this) {
+                if (generation == writeGeneration) {
+                    userChats.put(userId, userChatList);
+                    for (Chat chat : userChatList) {
+                        chats.put(chat.getId(), chat);
+                    }
+                }
+            }
+        }
+        return userChatList;
+    }
+
+    /**
+     * Removes every cached chat and chat list, for example after the {@code chats}
+     * table was changed without going through this DAO. The listeners are told to read
+     * their chats again.
+     */
+    public void clearCache() {
+        beginWrite();
+        chats.clear();
+        userChats.clear();
+        for (WeakReference<ChatChangeListener> reference : listeners) {
+            ChatChangeListener listener = reference.get();
+            if (listener == null) {
+                listeners.remove(reference);
+            } else {
+                listener.chatsInvalidated();
+            }
+        }
+    }
+
+    /**
+     * Registers a listener to be told about every chat written through this DAO.
+     * <p>
+     * The listener is only weakly referenced, so that a discarded view is not kept alive
+     * by the DAO. The caller must therefore keep a reference to it for as long as it
+     * should be notified.
+     *
+     * @param listener the {@link ChatChangeListener} to register
+     * @throws IllegalArgumentException if {@code listener} is null
+     */
+    public void addChangeListener(ChatChangeListener listener) throws IllegalArgumentException {
+        if (listener == null) {
+            throw new IllegalArgumentException("Invalid chat change listener: cannot be null");
+        }
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addChangeListener(ChatChangeListener)}.
+     *
+     * @param listener the {@link ChatChangeListener} to unregister
+     */
+    public void removeChangeListener(ChatChangeListener listener) {
+        listeners.removeIf(reference -> reference.get() == null || reference.get() == listener);
+    }
+
+    public EntityCache<Integer, Chat> getChatCache() { return chats; }
+
+    public EntityCache<Integer, List<Chat>> getUserChatsCache() { return userChats; }
+
+    private synchronized long currentGeneration() {
+        return writeGeneration;
+    }
+
+    /**
+     * Marks the start of a write, so that reads which began before it do not cache what they read.
+     *
+     * @return the generation of the write
+     */
+    private synchronized long beginWrite() {
+        return ++writeGeneration;
+    }
+
+    /**
+     * Caches a chat read during the given generation, unless a write has started since.
+     */
+    private synchronized void cacheChat(long generation, Chat chat) {
+        if (generation == writeGeneration) {
+            chats.put(chat.getId(), chat);
+        }
+    }
+
+    private void notifyListeners(Chat chat, BiConsumer<ChatChangeListener, Chat> event) {
+        for (WeakReference<ChatChangeListener> reference : listeners) {
+            ChatChangeListener listener = reference.get();
+            if (listener == null) {
+                listeners.remove(reference);
+            } else {
+                event.accept(listener, copyOf(chat));
+            }
+        }
+    }
+
+    private static Chat copyOf(Chat chat) {
+        Chat copy = new Chat(chat.getUserId(), chat.getName(), chat.getResponseAttitude(), chat.getQuizDifficulty(),
+                chat.getQuizLength(), chat.getEducationLevel(), chat.getStudyArea());
+        if (chat.getId() > 0) {
+            copy.setId(chat.getId());
+        }
+        copy.setLastMessageAt(chat.getLastMessageAt());
+        copy.setMessageCount(chat.getMessageCount());
+        copy.setQuizCount(chat.getQuizCount());
+        copy.setLastMessagePreview(chat.getLastMessagePreview());
+        return copy;
+    }
+
+    private static List<Chat> copyOf(List<Chat> chatList) {
+        List<Chat> copy = new ArrayList<>(chatList.size());
+        for (Chat chat : chatList) {
+            copy.add(copyOf(chat));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,135 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Caches the users read through another {@link IUserDAO}.
+ * <p>
+ * Users are looked up by ID when a chat or quiz is opened and by username when logging
+ * in, signing up or changing username. This DAO keeps recently used users in bounded
+ * {@link EntityCache}s keyed both ways, so those lookups are served from memory.
+ * <p>
+ * Writes go to the underlying DAO first and then through to the caches. An updated user
+ * replaces the cached user, and its old username is dropped so a renamed user cannot be
+ * found by the name it no longer has. {@link #getAllUsers()} is not cached. Every change
+ * to the {@code users} table must be made through this DAO.
+ *
+ * @author Joshua M.
+ * @see CachedChatDAO
+ */
+public class CachedUserDAO implements IUserDAO {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final IUserDAO userDAO;
+    private final EntityCache<Integer, User> usersById;
+    private final EntityCache<String, User> usersByUsername;
+
+    /**
+     * Constructs a {@link CachedUserDAO} with the default cache capacity.
+     *
+     * @param userDAO the {@link IUserDAO} to read and write users through
+     * @throws IllegalArgumentException if {@code userDAO} is null
+     */
+    public CachedUserDAO(IUserDAO userDAO) throws IllegalArgumentException {
+        this(userDAO, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a {@link CachedUserDAO}.
+     *
+     * @param userDAO the {@link IUserDAO} to read and write users through
+     * @param capacity the maximum number of users to cache
+     * @throws IllegalArgumentException if {@code userDAO} is null or {@code capacity} is less than 1
+     */
+    public CachedUserDAO(IUserDAO userDAO, int capacity) throws IllegalArgumentException {
+        if (userDAO == null) {
+            throw new IllegalArgumentException("Invalid user DAO: cannot be null");
+        }
+        this.userDAO = userDAO;
+        this.usersById = new EntityCache<>(capacity, CachedUserDAO::copyOf);
+        this.usersByUsername = new EntityCache<>(capacity, CachedUserDAO::copyOf);
+    }
+
+    @Override
+    public void createUser(User user) throws SQLException {
+        userDAO.createUser(user);
+        cache(user);
+    }
+
+    @Override
+    public void updateUser(User user) throws SQLException {
+        userDAO.updateUser(user);
+        User previous = usersById.peek(user.getId());
+        if (previous != null) {
+            usersByUsername.invalidate(previous.getUsername());
+        }
+        cache(user);
+    }
+
+    @Override
+    public void deleteUser(User user) throws SQLException {
+        userDAO.deleteUser(user);
+        User previous = usersById.peek(user.getId());
+        if (previous != null) {
+            usersByUsername.invalidate(previous.getUsername());
+        }
+        usersById.invalidate(user.getId());
+        usersByUsername.invalidate(user.getUsername());
+    }
+
+    @Override
+    public User getUser(int id) throws SQLException {
+        User user = usersById.get(id);
+        if (user == null) {
+            user = userDAO.getUser(id);
+            if (user != null) {
+                cache(user);
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public User getUser(String username) throws SQLException {
+        User user = usersByUsername.get(username);
+        if (user == null) {
+            user = userDAO.getUser(username);
+            if (user != null) {
+                cache(user);
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public List<User> getAllUsers() throws SQLException {
+        return userDAO.getAllUsers();
+    }
+
+    /**
+     * Removes every cached user, for example after the {@code users} table was changed
+     * without going through this DAO.
+     */
+    public void clearCache() {
+        usersById.clear();
+        usersByUsername.clear();
+    }
+
+    public EntityCache<Integer, User> getIdCache() { return usersById; }
+
+    public EntityCache<String, User> getUsernameCache() { return usersByUsername; }
+
+    private void cache(User user) {
+        usersById.put(user.getId(), user);
+        usersByUsername.put(user.getUsername(), user);
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getUsername(), user.getPasswordHash());
+        if (user.getId() > 0) {
+            copy.setId(user.getId());
+        }
+        return copy;
+    }
+}
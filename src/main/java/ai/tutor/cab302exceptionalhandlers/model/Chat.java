@@ -11,6 +11,7 @@ package ai.tutor.cab302exceptionalhandlers.model;
 public class Chat {
     public static final int MIN_QUIZ_LENGTH = 1;
     public static final int MAX_QUIZ_LENGTH = 10;
+    public static final int PREVIEW_LENGTH = 100;
 
     private int id;
     private final int userId;
@@ -20,6 +21,10 @@ public class Chat {
     private int quizLength;
     private String educationLevel;
     private String studyArea;
+    private long lastMessageAt;
+    private int messageCount;
+    private int quizCount;
+    private String lastMessagePreview;
 
 
     /**
@@ -118,4 +123,54 @@ public class Chat {
 
         this.studyArea = studyArea != null && !studyArea.isEmpty() ? studyArea : null;
     }
+
+    /**
+     * @return The time in milliseconds of the latest message, or of the chat's creation
+     * while it has no messages. Maintained by the DAOs saving messages.
+     */
+    public long getLastMessageAt() { return lastMessageAt; }
+
+    public void setLastMessageAt(long lastMessageAt) throws IllegalArgumentException {
+        if (lastMessageAt < 0) {
+            throw new IllegalArgumentException("Invalid Last Message Time: Must be 0 or greater");
+        }
+
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public int getMessageCount() { return messageCount; }
+
+    public void setMessageCount(int messageCount) throws IllegalArgumentException {
+        if (messageCount < 0) {
+            throw new IllegalArgumentException("Invalid Message Count: Must be 0 or greater");
+        }
+
+        this.messageCount = messageCount;
+    }
+
+    public int getQuizCount() { return quizCount; }
+
+    public void setQuizCount(int quizCount) throws IllegalArgumentException {
+        if (quizCount < 0) {
+            throw new IllegalArgumentException("Invalid Quiz Count: Must be 0 or greater");
+        }
+
+        this.quizCount = quizCount;
+    }
+
+    /**
+     * @return The first {@value PREVIEW_LENGTH} characters of the latest message on one line,
+     * counted in code points as SQLite's {@code substr} does, so an emoji counts once,
+     * or the name of its quiz, or null while the chat has no messages.
+     */
+    public String getLastMessagePreview() { return lastMessagePreview; }
+
+    public void setLastMessagePreview(String lastMessagePreview) throws IllegalArgumentException {
+        if (lastMessagePreview != null
+                && PREVIEW_LENGTH < lastMessagePreview.codePointCount(0, lastMessagePreview.length())) {
+            throw new IllegalArgumentException("Invalid Last Message Preview: Must be " + PREVIEW_LENGTH + " characters or less");
+        }
+
+        this.lastMessagePreview = lastMessagePreview;
+    }
 }
@@ -0,0 +1,26 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.SQLException;
+
+/**
+ * Listens for changes to the activity summary of a chat.
+ * <p>
+ * {@link MessageDAO} and {@link QuizDAO} update the last message time, counts and preview
+ * of a chat whenever they save a message or quiz to it. The {@link DAORegistry} passes
+ * them a listener which reads the chat again, so that cached chats stay up to date
+ * without the DAOs depending on the cache.
+ *
+ * @author Joshua M.
+ * @see ChatChangeListener
+ */
+@FunctionalInterface
+public interface ChatActivityListener {
+
+    /**
+     * Called after the activity summary of a chat was changed in the database.
+     *
+     * @param chatId The ID of the changed chat.
+     * @throws SQLException if a database error occurs while handling the change
+     */
+    public void chatActivityChanged(int chatId) throws SQLException;
+}
@@ -0,0 +1,41 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+/**
+ * Listens for chats being created, updated or deleted through a {@link CachedChatDAO}.
+ * <p>
+ * Views showing a list of chats apply each change to their list instead of reading
+ * every chat of the user again. Events are delivered on the thread that made the
+ * change, after it was written to the database, and carry a copy of the chat.
+ *
+ * @author Joshua M.
+ * @see CachedChatDAO#addChangeListener(ChatChangeListener)
+ */
+public interface ChatChangeListener {
+
+    /**
+     * Called after a chat was created.
+     *
+     * @param chat A copy of the created chat, with its ID set.
+     */
+    public void chatCreated(Chat chat);
+
+    /**
+     * Called after a chat was updated, or only renamed.
+     *
+     * @param chat A copy of the updated chat.
+     */
+    public void chatUpdated(Chat chat);
+
+    /**
+     * Called after a chat was deleted.
+     *
+     * @param chat A copy of the deleted chat.
+     */
+    public void chatDeleted(Chat chat);
+
+    /**
+     * Called after the {@code chats} table may have been changed without going through
+     * the DAO, for example by an import, so any list of chats must be read again.
+     */
+    public void chatsInvalidated();
+}
@@ -15,45 +15,25 @@ import java.util.List;
  * @author Joshua M.
  */
 public class ChatDAO implements IChatDAO {
-    private final Connection connection;
-
     /**
-     * Constructor for {@link ChatDAO} initializing chats table.
-     *
-     * @param sqliteConnection the {@link SQLiteConnection} instance for database access
-     * @throws SQLException if a database error occurs during table creation
-     * @throws RuntimeException if the SQLite connection cannot be established
+     * The SQL expression for the preview of message {@code m}, joined to its quiz {@code q}.
+     * An AI quiz message holds the raw quiz JSON, so the name of its quiz is shown instead.
      */
+    static final String PREVIEW_SQL = "substr(CASE WHEN m.fromUser = 0 AND m.isQuiz = 1 THEN 'Quiz' || COALESCE(': ' || q.name, '') "
+            + "ELSE trim(replace(replace(m.content, char(13), ' '), char(10), ' ')) END, 1, " + Chat.PREVIEW_LENGTH + ")";
 
-    public ChatDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
-        connection = sqliteConnection.getInstance();
-        createTable();
-    }
+    private final SQLiteConnection db;
 
     /**
-     * Creates the {@code chats} table in the SQLite database.
-     * <p>
-     * The table stores chat preferences to customize quiz generation and AI responses.
+     * Constructor for {@link ChatDAO} using the migrated chats table.
      *
-     * @throws SQLException if a database error occurs during table creation
+     * @param sqliteConnection the {@link SQLiteConnection} instance for database access
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
      */
 
-    private void createTable() throws SQLException {
-        try (Statement createTable = connection.createStatement()) {
-            createTable.execute(
-                    "CREATE TABLE IF NOT EXISTS chats ("
-                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + "userId INTEGER NOT NULL,"
-                    + "name VARCHAR NOT NULL,"
-                    + "responseAttitude VARCHAR NOT NULL,"
-                    + "quizDifficulty VARCHAR NOT NULL,"
-                    + "quizLength INTEGER NOT NULL,"
-                    + "educationLevel VARCHAR,"
-                    + "studyArea VARCHAR,"
-                    + "FOREIGN KEY(userId) REFERENCES users(id) ON DELETE CASCADE"
-                    + ")"
-            );
-        }
+    public ChatDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
+        db = sqliteConnection;
     }
 
     /**
@@ -62,7 +42,8 @@ public class ChatDAO implements IChatDAO {
      * This method inserts a {@link Chat} into the {@code chats} table, storing its user ID,
      * name, response attitude, quiz difficulty, quiz length, education level, and study area.
      * The chat ID is automatically generated by the SQLite database and set on the {@link Chat}
-     * object to ensure uniqueness.
+     * object to ensure uniqueness. The creation time is saved as its last message time, so a
+     * new chat is listed first.
      *
      * @param chat the {@link Chat} object to save
      * @throws SQLException if a database error occurs during insertion
@@ -70,8 +51,10 @@ public class ChatDAO implements IChatDAO {
 
     @Override
     public void createChat(Chat chat) throws IllegalArgumentException, SQLException {
-        String sql = "INSERT INTO chats (userId, name, responseAttitude, quizDifficulty, quizLength, educationLevel, studyArea) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement createChat = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        String sql = "INSERT INTO chats (userId, name, responseAttitude, quizDifficulty, quizLength, educationLevel, studyArea, lastMessageAt) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        chat.setLastMessageAt(System.currentTimeMillis());
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement createChat = lease.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             createChat.setInt(1, chat.getUserId());
             createChat.setString(2, chat.getName());
             createChat.setString(3, chat.getResponseAttitude());
@@ -79,6 +62,7 @@ public class ChatDAO implements IChatDAO {
             createChat.setInt(5, chat.getQuizLength());
             createChat.setString(6, chat.getEducationLevel());
             createChat.setString(7, chat.getStudyArea());
+            createChat.setLong(8, chat.getLastMessageAt());
             createChat.executeUpdate();
 
             // Set the id of the new Chat
@@ -104,7 +88,8 @@ public class ChatDAO implements IChatDAO {
     @Override
     public void updateChat(Chat chat) throws SQLException {
         String sql = "UPDATE chats SET name = ?, responseAttitude = ?, quizDifficulty = ?, quizLength = ?, educationLevel = ?, studyArea = ? WHERE id = ?";
-        try (PreparedStatement updateChat = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement updateChat = lease.prepareStatement(sql)) {
             updateChat.setString(1, chat.getName());
             updateChat.setString(2, chat.getResponseAttitude());
             updateChat.setString(3, chat.getQuizDifficulty());
@@ -130,7 +115,8 @@ public class ChatDAO implements IChatDAO {
     @Override
     public void updateChatName(Chat chat) throws SQLException {
         String sql = "UPDATE chats SET name = ? WHERE id = ?";
-        try (PreparedStatement updateChatName = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement updateChatName = lease.prepareStatement(sql)) {
             updateChatName.setString(1, chat.getName());
             updateChatName.setInt(2, chat.getId());
             updateChatName.executeUpdate();
@@ -151,7 +137,8 @@ public class ChatDAO implements IChatDAO {
     @Override
     public void deleteChat(Chat chat) throws SQLException {
         String sql = "DELETE FROM chats WHERE id = ?";
-        try (PreparedStatement deleteChat = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement deleteChat = lease.prepareStatement(sql)) {
             deleteChat.setInt(1, chat.getId());
             deleteChat.executeUpdate();
         }
@@ -173,21 +160,13 @@ public class ChatDAO implements IChatDAO {
     @Override
     public Chat getChat(int id) throws IllegalArgumentException, SQLException {
         String sql = "SELECT * FROM chats WHERE id = ?";
-        try (PreparedStatement readChat = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readChat = lease.prepareStatement(sql)) {
             readChat.setInt(1, id);
             ResultSet resultSet = readChat.executeQuery();
 
             if (resultSet.next()) {
-                int userId = resultSet.getInt("userId");
-                String name = resultSet.getString("name");
-                String responseAttitude = resultSet.getString("responseAttitude");
-                String quizDifficulty = resultSet.getString("quizDifficulty");
-                int quizLength = resultSet.getInt("quizLength");
-                String educationLevel = resultSet.getString("educationLevel");
-                String studyArea = resultSet.getString("studyArea");
-                Chat chat = new Chat(userId, name, responseAttitude, quizDifficulty, quizLength, educationLevel, studyArea);
-                chat.setId(id);
-                return chat;
+                return readChat(resultSet);
             }
         }
         return null;
@@ -197,7 +176,9 @@ public class ChatDAO implements IChatDAO {
      * Retrieves all {@code Chat} objects for a specific user.
      * <p>
      * This method fetches all chats associated with a given user ID from the {@code chats}
-     * table. It returns a list of chats, which may be empty if no chats exist.
+     * table, most recently active first. The {@code chats(userId, lastMessageAt)} index
+     * returns them already in that order, together with their maintained message counts
+     * and previews. It returns a list of chats, which may be empty if no chats exist.
      *
      * @param userId the ID of the user
      * @return a {@code List} of {@code Chat} objects for the user, or an empty list if none exist
@@ -208,24 +189,34 @@ public class ChatDAO implements IChatDAO {
     @Override
     public List<Chat> getAllUserChats(int userId) throws IllegalArgumentException, SQLException {
         List<Chat> userChats = new ArrayList<>();
-        String sql = "SELECT * FROM chats WHERE userId = ?";
-        try (PreparedStatement readUserChats = connection.prepareStatement(sql)) {
+        String sql = "SELECT * FROM chats WHERE userId = ? ORDER BY lastMessageAt DESC, id DESC";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUserChats = lease.prepareStatement(sql)) {
             readUserChats.setInt(1, userId);
             ResultSet resultSet = readUserChats.executeQuery();
 
             while (resultSet.next()) {
-                int id = resultSet.getInt("id");
-                String name = resultSet.getString("name");
-                String responseAttitude = resultSet.getString("responseAttitude");
-                String quizDifficulty = resultSet.getString("quizDifficulty");
-                int quizLength = resultSet.getInt("quizLength");
-                String educationLevel = resultSet.getString("educationLevel");
-                String studyArea = resultSet.getString("studyArea");
-                Chat chat = new Chat(userId, name, responseAttitude, quizDifficulty, quizLength, educationLevel, studyArea);
-                chat.setId(id);
-                userChats.add(chat);
+                userChats.add(readChat(resultSet));
             }
         }
         return userChats;
     }
+
+    private static Chat readChat(ResultSet resultSet) throws SQLException {
+        Chat chat = new Chat(
+                resultSet.getInt("userId"),
+                resultSet.getString("name"),
+                resultSet.getString("responseAttitude"),
+                resultSet.getString("quizDifficulty"),
+                resultSet.getInt("quizLength"),
+                resultSet.getString("educationLevel"),
+                resultSet.getString("studyArea")
+        );
+        chat.setId(resultSet.getInt("id"));
+        chat.setLastMessageAt(resultSet.getLong("lastMessageAt"));
+        chat.setMessageCount(resultSet.getInt("messageCount"));
+        chat.setQuizCount(resultSet.getInt("quizCount"));
+        chat.setLastMessagePreview(resultSet.getString("lastMessagePreview"));
+        return chat;
+    }
 }
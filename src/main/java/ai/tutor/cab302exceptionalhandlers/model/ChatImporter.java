@@ -0,0 +1,832 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import org.sqlite.SQLiteConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Imports chats, messages and quizzes in bulk into the database of a user.
+ * <p>
+ * The source is either an NDJSON export written by {@code ChatExporter}, or another
+ * {@code tutor.db}, which is opened read-only. Rows are streamed from the source, validated
+ * by constructing their model objects, and written with batched statements in transactions
+ * of {@link #DEFAULT_BATCH_SIZE} rows, instead of one autocommit insert per row. The writer
+ * is released between batches, so the application can keep saving messages during a long
+ * import, unless the indexes are deferred as described below. If an import fails, the
+ * batches already committed are kept.
+ * <p>
+ * Imported chats and messages are given new IDs, allocated at the start of each batch above
+ * both the largest existing ID and the {@code AUTOINCREMENT} sequence, so IDs are never
+ * reused. Quiz rows, user answers and attempt results are remapped to the new message IDs.
+ * Rows that fail validation, or whose chat or message was rejected, are skipped and counted.
+ * <p>
+ * Keeping secondary indexes up to date row by row is the slowest part of a large import, so
+ * once an import is expected to write {@link #DEFAULT_DEFERRED_INDEX_THRESHOLD} rows or more,
+ * the indexes of the imported tables are dropped first and rebuilt once at the end. The
+ * triggers maintaining the message search index are dropped as well, and the imported
+ * messages are added to the search index with a single insert at the end. The writer is
+ * held until then, as a message changed by the application while the triggers are gone
+ * would not be updated in the search index. Each dropped object is recorded in the
+ * {@code deferredSchemaObjects} table in the transaction dropping it, and
+ * {@link #restoreDeferredSchema(SQLiteConnection)} recreates any left over by an import
+ * that never finished when the database is next opened.
+ * <p>
+ * The activity summaries of the imported chats, normally kept up to date by {@link MessageDAO}
+ * and {@link QuizDAO}, are filled in with a single update once every row is written.
+ *
+ * @author Joshua M.
+ */
+public class ChatImporter {
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+    public static final int DEFAULT_DEFERRED_INDEX_THRESHOLD = 50_000;
+
+    private static final String IMPORTED_TABLES =
+            "'chats', 'messages', 'quizzes', 'quizQuestions', 'answerOptions', 'userAnswers', 'attemptResults'";
+    private static final String USER_FILTER =
+            " JOIN chats c ON c.id = m.chatId JOIN users u ON u.id = c.userId WHERE (? IS NULL OR u.username = ?)";
+
+    private final SQLiteConnection db;
+    private final CachedChatDAO chatDAO;
+    private final AttemptResultDAO attemptResultDAO;
+    private final int batchSize;
+    private final int deferredIndexThreshold;
+
+    /**
+     * The rows written by an import and how long it took.
+     */
+    public static final class Result {
+        private int chats = 0;
+        private int messages = 0;
+        private int quizzes = 0;
+        private int quizQuestions = 0;
+        private int answerOptions = 0;
+        private int userAnswers = 0;
+        private int attemptResults = 0;
+        private int rejected = 0;
+        private int batches = 0;
+        private boolean deferredIndexes = false;
+        private long nanos = 0;
+        private final List<Integer> chatIds = new ArrayList<>();
+
+        private Result() {}
+
+        public int getChats() { return chats; }
+
+        public int getMessages() { return messages; }
+
+        public int getQuizzes() { return quizzes; }
+
+        public int getQuizQuestions() { return quizQuestions; }
+
+        public int getAnswerOptions() { return answerOptions; }
+
+        public int getUserAnswers() { return userAnswers; }
+
+        public int getAttemptResults() { return attemptResults; }
+
+        public int getRejected() { return rejected; }
+
+        public int getBatches() { return batches; }
+
+        public boolean getDeferredIndexes() { return deferredIndexes; }
+
+        public double getMillis() { return nanos / 1_000_000.0; }
+
+        /**
+         * @return The total number of rows written.
+         */
+        public int getRows() {
+            return chats + messages + quizzes + quizQuestions + answerOptions + userAnswers + attemptResults;
+        }
+
+        /**
+         * @return The number of rows written per second, or 0 if the import took no measurable time.
+         */
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0 : getRows() * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows (%d chats, %d messages, %d quizzes, %d questions, %d answer options, "
+                            + "%d user answers, %d attempt results), %d rejected, in %d batches over %.0fms (%.0f rows/sec)%s",
+                    getRows(), chats, messages, quizzes, quizQuestions, answerOptions, userAnswers, attemptResults,
+                    rejected, batches, getMillis(), getRowsPerSecond(), deferredIndexes ? ", indexes rebuilt afterwards" : "");
+        }
+    }
+
+    /**
+     * Reads the next record of an import source into a batch.
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        /**
+         * @return False once the source has no more records.
+         */
+        boolean next(Batch batch) throws SQLException;
+    }
+
+    /**
+     * Constructs a {@code ChatImporter} with the default batch size and deferred index threshold.
+     *
+     * @param daos the DAOs of the database to import into
+     * @throws IllegalArgumentException if {@code daos} is null
+     */
+    public ChatImporter(DAORegistry daos) throws IllegalArgumentException {
+        this(daos, DEFAULT_BATCH_SIZE, DEFAULT_DEFERRED_INDEX_THRESHOLD);
+    }
+
+    /**
+     * Constructs a {@code ChatImporter}.
+     *
+     * @param daos the DAOs of the database to import into
+     * @param batchSize the number of rows written per transaction
+     * @param deferredIndexThreshold the number of rows from which indexes are rebuilt after the import
+     * @throws IllegalArgumentException if {@code daos} is null or {@code batchSize} is less than 1
+     */
+    public ChatImporter(DAORegistry daos, int batchSize, int deferredIndexThreshold) throws IllegalArgumentException {
+        if (daos == null) {
+            throw new IllegalArgumentException("Invalid DAO registry: cannot be null");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: must be at least 1");
+        }
+        this.db = daos.getConnection();
+        this.chatDAO = daos.getChatDAO();
+        this.attemptResultDAO = daos.getAttemptResultDAO();
+        this.batchSize = batchSize;
+        this.deferredIndexThreshold = deferredIndexThreshold;
+    }
+
+    /**
+     * Imports the chats of an NDJSON export.
+     * <p>
+     * Each {@code chat} line starts a new chat, and each {@code message} line is added to
+     * the chat before it, along with its quiz and attempt results if it has them. Several
+     * exports can be concatenated into one file.
+     *
+     * @param path the NDJSON file to import
+     * @param userId the ID of the user the chats are imported for
+     * @return the {@link Result} of the import
+     * @throws IllegalArgumentException if {@code userId} is less than 1
+     * @throws IOException if the file cannot be read
+     * @throws SQLException if a database error occurs while writing
+     */
+    public Result importNdjson(Path path, int userId) throws IllegalArgumentException, IOException, SQLException {
+        validateUserId(userId);
+        long lines;
+        try (Stream<String> lineStream = Files.lines(path)) {
+            lines = lineStream.count();
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return run(new NdjsonSource(reader, userId), lines);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Imports the chats of another Quiz Whiz database.
+     * <p>
+     * The source database is opened read-only and is not migrated, so a database from an
+     * older version can be imported as long as it has the base tables.
+     *
+     * @param sourcePath the {@code tutor.db} file to import from
+     * @param sourceUsername the user whose chats are imported, or null to import every chat
+     * @param userId the ID of the user the chats are imported for
+     * @return the {@link Result} of the import
+     * @throws IllegalArgumentException if the source file does not exist or {@code userId} is less than 1
+     * @throws SQLException if a database error occurs while reading or writing
+     */
+    public Result importDatabase(Path sourcePath, String sourceUsername, int userId) throws IllegalArgumentException, SQLException {
+        validateUserId(userId);
+        if (!Files.isRegularFile(sourcePath)) {
+            throw new IllegalArgumentException("Invalid import database: " + sourcePath + " does not exist");
+        }
+
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        try (Connection source = config.createConnection("jdbc:sqlite:" + sourcePath);
+             DatabaseSource databaseSource = new DatabaseSource(source, sourceUsername, userId)) {
+            return run(databaseSource, databaseSource.countRows());
+        }
+    }
+
+    private static void validateUserId(int userId) throws IllegalArgumentException {
+        if (userId < 1) {
+            throw new IllegalArgumentException("Invalid User Id: Must be greater than 1");
+        }
+    }
+
+    private Result run(RowSource source, long expectedRows) throws SQLException {
+        Result result = new Result();
+        long start = System.nanoTime();
+        boolean defer = expectedRows >= deferredIndexThreshold;
+
+        // Deferring holds the writer until the dropped objects are restored, so no other thread writes meanwhile
+        SQLiteConnection.Lease writer = defer ? db.write() : null;
+        try {
+            if (defer) {
+                result.deferredIndexes = dropSchemaObjects() > 0;
+            }
+
+            try {
+                boolean[] more = { true };
+                while (more[0]) {
+                    db.transaction(() -> {
+                        try (Batch batch = new Batch(result)) {
+                            while (more[0] && batch.rows < batchSize) {
+                                more[0] = source.next(batch);
+                            }
+                            batch.flush();
+                        }
+                    });
+                }
+            } finally {
+                if (defer) {
+                    restoreDeferredSchema(db);
+                }
+                updateChatActivity(result.chatIds);
+                chatDAO.clearCache();
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Drops the indexes and triggers of the imported tables, recording each of them in the
+     * {@code deferredSchemaObjects} table in the same transaction, along with the last
+     * message ID, after which messages are not in the search index.
+     *
+     * @return the number of indexes dropped
+     */
+    private int dropSchemaObjects() throws SQLException {
+        String readObjects = "SELECT name, type, sql FROM sqlite_master WHERE type IN ('index', 'trigger') "
+                + "AND sql IS NOT NULL AND tbl_name IN (" + IMPORTED_TABLES + ")";
+        String recordObject = "INSERT INTO deferredSchemaObjects (name, type, sql, lastMessageId) VALUES (?, ?, ?, ?)";
+        int[] indexes = { 0 };
+        db.transaction(() -> {
+            try (SQLiteConnection.Lease lease = db.write();
+                 Statement statement = lease.connection().createStatement();
+                 PreparedStatement recordDropped = lease.prepareStatement(recordObject)) {
+                int lastMessageId;
+                try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM messages")) {
+                    lastMessageId = resultSet.next() ? resultSet.getInt(1) : 0;
+                }
+
+                List<String[]> objects = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery(readObjects)) {
+                    while (resultSet.next()) {
+                        objects.add(new String[] { resultSet.getString("name"), resultSet.getString("type"), resultSet.getString("sql") });
+                    }
+                }
+                for (String[] object : objects) {
+                    recordDropped.setString(1, object[0]);
+                    recordDropped.setString(2, object[1]);
+                    recordDropped.setString(3, object[2]);
+                    recordDropped.setInt(4, lastMessageId);
+                    recordDropped.executeUpdate();
+                    statement.execute("DROP " + object[1].toUpperCase() + " \"" + object[0] + "\"");
+                    if (object[1].equals("index")) {
+                        indexes[0]++;
+                    }
+                }
+            }
+        });
+        return indexes[0];
+    }
+
+    /**
+     * Recreates the indexes and triggers dropped by an import.
+     * <p>
+     * If any search triggers were dropped, every message written since is first added to the
+     * search index. Everything happens in one transaction, which also clears the record of
+     * the dropped objects, so no message is indexed twice. Called at the end of an import,
+     * and when a database is opened, to finish an import that was interrupted by a crash.
+     *
+     * @param db the database to restore
+     * @throws SQLException if a database error occurs while restoring
+     */
+    static void restoreDeferredSchema(SQLiteConnection db) throws SQLException {
+        db.transaction(() -> {
+            try (SQLiteConnection.Lease lease = db.write();
+                 Statement statement = lease.connection().createStatement()) {
+                List<String> indexes = new ArrayList<>();
+                List<String> triggers = new ArrayList<>();
+                int lastMessageId = Integer.MAX_VALUE;
+                try (ResultSet resultSet = statement.executeQuery("SELECT type, sql, lastMessageId FROM deferredSchemaObjects")) {
+                    while (resultSet.next()) {
+                        if (resultSet.getString("type").equals("index")) {
+                            indexes.add(resultSet.getString("sql"));
+                        } else {
+                            triggers.add(resultSet.getString("sql"));
+                            lastMessageId = Math.min(lastMessageId, resultSet.getInt("lastMessageId"));
+                        }
+                    }
+                }
+                if (indexes.isEmpty() && triggers.isEmpty()) {
+                    return;
+                }
+
+                for (String index : indexes) {
+                    statement.execute(index);
+                }
+                if (!triggers.isEmpty()) {
+                    new MessageSearchDAO(db).indexMessagesAfter(lastMessageId);
+                }
+                for (String trigger : triggers) {
+                    statement.execute(trigger);
+                }
+                statement.execute("DELETE FROM deferredSchemaObjects");
+            }
+        });
+    }
+
+    /**
+     * Fills in the activity summaries of the imported chats with a single statement, as their
+     * messages were not saved through {@link MessageDAO}. The import counts as their latest
+     * activity, so they are listed first.
+     */
+    private void updateChatActivity(List<Integer> chatIds) throws SQLException {
+        if (chatIds.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE chats SET lastMessageAt = ?, "
+                + "messageCount = (SELECT COUNT(*) FROM messages WHERE messages.chatId = chats.id), "
+                + "quizCount = (SELECT COUNT(*) FROM messages JOIN quizzes ON quizzes.messageId = messages.id "
+                + "WHERE messages.chatId = chats.id), "
+                + "lastMessagePreview = (SELECT " + ChatDAO.PREVIEW_SQL + " FROM messages m "
+                + "LEFT JOIN quizzes q ON q.messageId = m.id WHERE m.chatId = chats.id ORDER BY m.id DESC LIMIT 1) "
+                + "WHERE id IN (SELECT value FROM json_each(?))";
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement updateChatActivity = lease.prepareStatement(sql)) {
+            updateChatActivity.setLong(1, System.currentTimeMillis());
+            updateChatActivity.setString(2, chatIds.toString());
+            updateChatActivity.executeUpdate();
+        }
+    }
+
+    /**
+     * The rows of one transaction, written with a batched statement per table.
+     * <p>
+     * IDs are allocated when the batch is opened, while its transaction holds the writer.
+     */
+    private final class Batch implements AutoCloseable {
+        private final Result result;
+        private final SQLiteConnection.Lease lease;
+        private final List<PreparedStatement> statements = new ArrayList<>();
+        private final List<AttemptResult> attempts = new ArrayList<>();
+        private final PreparedStatement insertChat;
+        private final PreparedStatement insertMessage;
+        private final PreparedStatement insertQuiz;
+        private final PreparedStatement insertQuizQuestion;
+        private final PreparedStatement insertAnswerOption;
+        private final PreparedStatement insertUserAnswer;
+        private int nextChatId;
+        private int nextMessageId;
+        private int rows = 0;
+
+        private Batch(Result result) throws SQLException {
+            this.result = result;
+            this.lease = db.write();
+            try {
+                insertChat = prepare("INSERT INTO chats (id, userId, name, responseAttitude, quizDifficulty, quizLength, educationLevel, studyArea) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+                insertMessage = prepare("INSERT INTO messages (id, chatId, content, fromUser, isQuiz) VALUES (?, ?, ?, ?, ?)");
+                insertQuiz = prepare("INSERT INTO quizzes (messageId, name, difficulty) VALUES (?, ?, ?)");
+                insertQuizQuestion = prepare("INSERT INTO quizQuestions (messageId, number, question) VALUES (?, ?, ?)");
+                insertAnswerOption = prepare("INSERT INTO answerOptions (messageId, questionNumber, option, value, isAnswer) VALUES (?, ?, ?, ?, ?)");
+                insertUserAnswer = prepare("INSERT INTO userAnswers (messageId, attempt, questionNumber, answerOption) VALUES (?, ?, ?, ?)");
+                nextChatId = nextId("chats");
+                nextMessageId = nextId("messages");
+            } catch (SQLException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = lease.prepareStatement(sql);
+            statements.add(statement);
+            return statement;
+        }
+
+        private int nextId(String table) throws SQLException {
+            String sql = "SELECT MAX(COALESCE((SELECT seq FROM sqlite_sequence WHERE name = ?), 0), "
+                    + "COALESCE((SELECT MAX(id) FROM " + table + "), 0)) + 1";
+            try (PreparedStatement readNextId = lease.prepareStatement(sql)) {
+                readNextId.setString(1, table);
+                ResultSet resultSet = readNextId.executeQuery();
+                return resultSet.next() ? resultSet.getInt(1) : 1;
+            }
+        }
+
+        private int addChat(Chat chat) throws SQLException {
+            int id = nextChatId++;
+            insertChat.setInt(1, id);
+            insertChat.setInt(2, chat.getUserId());
+            insertChat.setString(3, chat.getName());
+            insertChat.setString(4, chat.getResponseAttitude());
+            insertChat.setString(5, chat.getQuizDifficulty());
+            insertChat.setInt(6, chat.getQuizLength());
+            insertChat.setString(7, chat.getEducationLevel());
+            insertChat.setString(8, chat.getStudyArea());
+            insertChat.addBatch();
+            rows++;
+            result.chats++;
+            result.chatIds.add(id);
+            return id;
+        }
+
+        private int addMessage(Message message) throws SQLException {
+            int id = nextMessageId++;
+            insertMessage.setInt(1, id);
+            insertMessage.setInt(2, message.getChatId());
+            insertMessage.setString(3, message.getContent());
+            insertMessage.setInt(4, message.getFromUser() ? 1 : 0);
+            insertMessage.setInt(5, message.getIsQuiz() ? 1 : 0);
+            insertMessage.addBatch();
+            rows++;
+            result.messages++;
+            return id;
+        }
+
+        private void addQuiz(Quiz quiz) throws SQLException {
+            insertQuiz.setInt(1, quiz.getMessageId());
+            insertQuiz.setString(2, quiz.getName());
+            insertQuiz.setString(3, quiz.getDifficulty());
+            insertQuiz.addBatch();
+            rows++;
+            result.quizzes++;
+        }
+
+        private void addQuizQuestion(QuizQuestion quizQuestion) throws SQLException {
+            insertQuizQuestion.setInt(1, quizQuestion.getMessageId());
+            insertQuizQuestion.setInt(2, quizQuestion.getNumber());
+            insertQuizQuestion.setString(3, quizQuestion.getQuestion());
+            insertQuizQuestion.addBatch();
+            rows++;
+            result.quizQuestions++;
+        }
+
+        private void addAnswerOption(AnswerOption answerOption) throws SQLException {
+            insertAnswerOption.setInt(1, answerOption.getMessageId());
+            insertAnswerOption.setInt(2, answerOption.getQuestionNumber());
+            insertAnswerOption.setString(3, answerOption.getOption());
+            insertAnswerOption.setString(4, answerOption.getValue());
+            insertAnswerOption.setInt(5, answerOption.getIsAnswer() ? 1 : 0);
+            insertAnswerOption.addBatch();
+            rows++;
+            result.answerOptions++;
+        }
+
+        private void addUserAnswer(UserAnswer userAnswer) throws SQLException {
+            insertUserAnswer.setInt(1, userAnswer.getMessageId());
+            insertUserAnswer.setInt(2, userAnswer.getAttempt());
+            insertUserAnswer.setInt(3, userAnswer.getQuestionNumber());
+            insertUserAnswer.setString(4, userAnswer.getAnswerOption());
+            insertUserAnswer.addBatch();
+            rows++;
+            result.userAnswers++;
+        }
+
+        private void addAttemptResult(AttemptResult attemptResult) {
+            attempts.add(attemptResult);
+            rows++;
+            result.attemptResults++;
+        }
+
+        /**
+         * Executes the batched statements, parents first, then saves the attempt results,
+         * which also adds them to the score totals.
+         */
+        private void flush() throws SQLException {
+            for (PreparedStatement statement : statements) {
+                statement.executeBatch();
+            }
+            for (AttemptResult attemptResult : attempts) {
+                attemptResultDAO.createAttemptResult(attemptResult);
+            }
+            if (rows > 0) {
+                result.batches++;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                for (PreparedStatement statement : statements) {
+                    statement.close();
+                }
+            } finally {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the records of an NDJSON export, one line at a time.
+     */
+    private static final class NdjsonSource implements RowSource {
+        private final BufferedReader reader;
+        private final int userId;
+        private int chatId = -1;
+
+        private NdjsonSource(BufferedReader reader, int userId) {
+            this.reader = reader;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean next(Batch batch) throws SQLException {
+            String line;
+            try {
+                line = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (line == null) {
+                return false;
+            }
+            if (line.isBlank()) {
+                return true;
+            }
+
+            try {
+                JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+                String type = string(record, "type");
+                if ("chat".equals(type)) {
+                    chatId = -1; // Until the chat is added, so the messages of a rejected chat are rejected too
+                    chatId = batch.addChat(readChat(record));
+                } else if ("message".equals(type)) {
+                    readMessage(record, batch);
+                } else {
+                    throw new IllegalArgumentException("Invalid record type: " + type);
+                }
+            } catch (JsonParseException | IllegalStateException | UnsupportedOperationException | IllegalArgumentException e) {
+                batch.result.rejected++;
+            }
+            return true;
+        }
+
+        private Chat readChat(JsonObject record) throws IllegalArgumentException {
+            return new Chat(userId, string(record, "name"), string(record, "responseAttitude"),
+                    string(record, "quizDifficulty"), integer(record, "quizLength"),
+                    string(record, "educationLevel"), string(record, "studyArea"));
+        }
+
+        /**
+         * Validates a message and its quiz as a whole before adding any of its rows,
+         * so an invalid quiz never leaves part of the message imported.
+         */
+        private void readMessage(JsonObject record, Batch batch) throws IllegalArgumentException, SQLException {
+            if (chatId < 0) {
+                throw new IllegalArgumentException("Invalid message: its chat was not imported");
+            }
+            Message message = new Message(chatId, string(record, "content"), bool(record, "fromUser"), bool(record, "isQuiz"));
+            int messageId = batch.nextMessageId;
+
+            Quiz quiz = null;
+            List<QuizQuestion> quizQuestions = new ArrayList<>();
+            List<AnswerOption> answerOptions = new ArrayList<>();
+            List<AttemptResult> attemptResults = new ArrayList<>();
+            JsonObject quizObject = record.has("quiz") && record.get("quiz").isJsonObject() ? record.getAsJsonObject("quiz") : null;
+            if (quizObject != null) {
+                quiz = new Quiz(messageId, string(quizObject, "name"), string(quizObject, "difficulty"));
+                for (JsonElement questionElement : array(quizObject, "questions")) {
+                    JsonObject questionObject = questionElement.getAsJsonObject();
+                    int number = integer(questionObject, "number");
+                    quizQuestions.add(new QuizQuestion(messageId, number, string(questionObject, "question")));
+                    for (JsonElement optionElement : array(questionObject, "options")) {
+                        JsonObject optionObject = optionElement.getAsJsonObject();
+                        answerOptions.add(new AnswerOption(messageId, number, string(optionObject, "option"),
+                                string(optionObject, "value"), bool(optionObject, "isAnswer")));
+                    }
+                }
+                for (JsonElement attemptElement : array(record, "attempts")) {
+                    JsonObject attemptObject = attemptElement.getAsJsonObject();
+                    List<Boolean> questionResults = new ArrayList<>();
+                    for (JsonElement questionResult : array(attemptObject, "questionResults")) {
+                        questionResults.add(questionResult.getAsBoolean());
+                    }
+                    attemptResults.add(new AttemptResult(messageId, integer(attemptObject, "attempt"), questionResults,
+                            longInteger(attemptObject, "durationMillis"), longInteger(attemptObject, "completedAt")));
+                }
+            }
+
+            batch.addMessage(message);
+            if (quiz != null) {
+                batch.addQuiz(quiz);
+                for (QuizQuestion quizQuestion : quizQuestions) {
+                    batch.addQuizQuestion(quizQuestion);
+                }
+                for (AnswerOption answerOption : answerOptions) {
+                    batch.addAnswerOption(answerOption);
+                }
+                for (AttemptResult attemptResult : attemptResults) {
+                    batch.addAttemptResult(attemptResult);
+                }
+            }
+        }
+
+        private static String string(JsonObject object, String key) {
+            JsonElement element = object.get(key);
+            return element == null || element.isJsonNull() ? null : element.getAsString();
+        }
+
+        private static boolean bool(JsonObject object, String key) {
+            JsonElement element = object.get(key);
+            return element != null && !element.isJsonNull() && element.getAsBoolean();
+        }
+
+        private static int integer(JsonObject object, String key) {
+            JsonElement element = object.get(key);
+            return element == null || element.isJsonNull() ? 0 : element.getAsInt();
+        }
+
+        private static long longInteger(JsonObject object, String key) {
+            JsonElement element = object.get(key);
+            return element == null || element.isJsonNull() ? 0 : element.getAsLong();
+        }
+
+        private static JsonArray array(JsonObject object, String key) {
+            JsonElement element = object.get(key);
+            return element == null || !element.isJsonArray() ? new JsonArray() : element.getAsJsonArray();
+        }
+    }
+
+    /**
+     * Reads a row of a source table into a batch.
+     */
+    @FunctionalInterface
+    private interface RowReader {
+        void read(ResultSet row, Batch batch) throws IllegalArgumentException, SQLException;
+    }
+
+    /**
+     * A query over a table of the source database and how to import its rows.
+     */
+    private static final class SourceTable {
+        private final String sql;
+        private final RowReader reader;
+
+        private SourceTable(String sql, RowReader reader) {
+            this.sql = sql;
+            this.reader = reader;
+        }
+    }
+
+    /**
+     * Reads the tables of another database one after another, parents first, through a
+     * cursor per table that stays open across batches.
+     */
+    private static final class DatabaseSource implements RowSource, AutoCloseable {
+        private final Connection source;
+        private final String username;
+        private final int userId;
+        private final Map<Integer, Integer> chatIds = new HashMap<>();
+        private final Map<Integer, Integer> messageIds = new HashMap<>();
+        private final List<SourceTable> tables = new ArrayList<>();
+        private final Deque<SourceTable> pendingTables;
+        private SourceTable table;
+        private PreparedStatement query;
+        private ResultSet rows;
+
+        private DatabaseSource(Connection source, String username, int userId) throws SQLException {
+            this.source = source;
+            this.username = username;
+            this.userId = userId;
+
+            tables.add(new SourceTable("SELECT c.* FROM chats c JOIN users u ON u.id = c.userId "
+                    + "WHERE (? IS NULL OR u.username = ?) ORDER BY c.id", (row, batch) ->
+                    chatIds.put(row.getInt("id"), batch.addChat(new Chat(userId, row.getString("name"),
+                            row.getString("responseAttitude"), row.getString("quizDifficulty"), row.getInt("quizLength"),
+                            row.getString("educationLevel"), row.getString("studyArea"))))));
+            tables.add(new SourceTable("SELECT m.* FROM messages m" + USER_FILTER + " ORDER BY m.id", (row, batch) ->
+                    messageIds.put(row.getInt("id"), batch.addMessage(new Message(mapped(chatIds, row.getInt("chatId")),
+                            row.getString("content"), row.getInt("fromUser") == 1, row.getInt("isQuiz") == 1)))));
+            tables.add(new SourceTable("SELECT q.* FROM quizzes q JOIN messages m ON m.id = q.messageId" + USER_FILTER,
+                    (row, batch) -> batch.addQuiz(new Quiz(messageId(row), row.getString("name"), row.getString("difficulty")))));
+            tables.add(new SourceTable("SELECT qq.* FROM quizQuestions qq JOIN messages m ON m.id = qq.messageId" + USER_FILTER,
+                    (row, batch) -> batch.addQuizQuestion(new QuizQuestion(messageId(row), row.getInt("number"), row.getString("question")))));
+            tables.add(new SourceTable("SELECT ao.* FROM answerOptions ao JOIN messages m ON m.id = ao.messageId" + USER_FILTER,
+                    (row, batch) -> batch.addAnswerOption(new AnswerOption(messageId(row), row.getInt("questionNumber"),
+                            row.getString("option"), row.getString("value"), row.getInt("isAnswer") == 1))));
+            tables.add(new SourceTable("SELECT ua.* FROM userAnswers ua JOIN messages m ON m.id = ua.messageId" + USER_FILTER,
+                    (row, batch) -> batch.addUserAnswer(new UserAnswer(messageId(row), row.getInt("attempt"),
+                            row.getInt("questionNumber"), row.getString("answerOption")))));
+            if (hasTable("attemptResults")) {
+                tables.add(new SourceTable("SELECT ar.* FROM attemptResults ar JOIN messages m ON m.id = ar.messageId" + USER_FILTER,
+                        (row, batch) -> batch.addAttemptResult(new AttemptResult(messageId(row), row.getInt("attempt"),
+                                AttemptResultDAO.decodeQuestionResults(row.getString("correctQuestions")),
+                                row.getLong("durationMillis"), row.getLong("completedAt")))));
+            }
+            this.pendingTables = new ArrayDeque<>(tables);
+        }
+
+        private boolean hasTable(String name) throws SQLException {
+            try (PreparedStatement readTable = source.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+                readTable.setString(1, name);
+                return readTable.executeQuery().next();
+            }
+        }
+
+        /**
+         * @return The number of rows the import will read.
+         */
+        private long countRows() throws SQLException {
+            long count = 0;
+            for (SourceTable sourceTable : tables) {
+                try (PreparedStatement countRows = prepare("SELECT COUNT(*) FROM (" + sourceTable.sql + ")")) {
+                    ResultSet resultSet = countRows.executeQuery();
+                    count += resultSet.next() ? resultSet.getLong(1) : 0;
+                }
+            }
+            return count;
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = source.prepareStatement(sql);
+            statement.setString(1, username);
+            statement.setString(2, username);
+            return statement;
+        }
+
+        private int messageId(ResultSet row) throws IllegalArgumentException, SQLException {
+            return mapped(messageIds, row.getInt("messageId"));
+        }
+
+        private static int mapped(Map<Integer, Integer> ids, int sourceId) throws IllegalArgumentException {
+            Integer id = ids.get(sourceId);
+            if (id == null) {
+                throw new IllegalArgumentException("Invalid Id: " + sourceId + " was not imported");
+            }
+            return id;
+        }
+
+        @Override
+        public boolean next(Batch batch) throws SQLException {
+            while (true) {
+                if (rows == null) {
+                    table = pendingTables.poll();
+                    if (table == null) {
+                        return false;
+                    }
+                    query = prepare(table.sql);
+                    rows = query.executeQuery();
+                }
+                if (rows.next()) {
+                    try {
+                        table.reader.read(rows, batch);
+                    } catch (IllegalArgumentException e) {
+                        batch.result.rejected++;
+                    }
+                    return true;
+                }
+                closeQuery();
+            }
+        }
+
+        private void closeQuery() throws SQLException {
+            if (query != null) {
+                query.close();
+            }
+            query = null;
+            rows = null;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            closeQuery();
+        }
+    }
+}
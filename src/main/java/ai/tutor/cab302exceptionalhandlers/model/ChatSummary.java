@@ -0,0 +1,43 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+/**
+ * Represents the rolling summary of the older messages in a Chat
+ * <p>
+ * Messages up to and including {@code lastMessageId} have been folded into the
+ * summary, so they no longer need to be sent to the AI with every request.
+ *
+ * @author Joshua M.
+ * @see ai.tutor.cab302exceptionalhandlers.model.Chat
+ */
+public class ChatSummary {
+    private final int chatId;
+    private final String summary;
+    private final int lastMessageId;
+
+
+    /**
+     * Constructor for a ChatSummary object
+     *
+     * @param chatId The chat id that this summary belongs to, must be greater than 0
+     * @param summary The summary of the older messages, must not be null or empty
+     * @param lastMessageId The id of the newest message included in the summary, must be greater than 0
+     * @throws IllegalArgumentException if any of the parameters are invalid
+     */
+    public ChatSummary(int chatId, String summary, int lastMessageId) throws IllegalArgumentException {
+        if (chatId < 1) { throw new IllegalArgumentException("Invalid Chat Id: Must be greater than 1"); }
+        this.chatId = chatId;
+
+        if (summary == null || summary.isEmpty()) { throw new IllegalArgumentException("Invalid Summary: Cannot be empty"); }
+        this.summary = summary;
+
+        if (lastMessageId < 1) { throw new IllegalArgumentException("Invalid Last Message Id: Must be greater than 1"); }
+        this.lastMessageId = lastMessageId;
+    }
+
+
+    public int getChatId() { return chatId; }
+
+    public String getSummary() { return summary; }
+
+    public int getLastMessageId() { return lastMessageId; }
+}
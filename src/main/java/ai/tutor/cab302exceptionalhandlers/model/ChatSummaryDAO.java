@@ -0,0 +1,72 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.*;
+
+/**
+ * Conducts DAO operations for the {@code chatSummaries} table in the SQLite database.
+ * <p>
+ * Each chat has at most one rolling summary of its older messages, which is sent to
+ * the AI in place of those messages once the chat history outgrows the context budget.
+ *
+ * @author Joshua M.
+ */
+public class ChatSummaryDAO implements IChatSummaryDAO {
+    private final SQLiteConnection db;
+
+    /**
+     * Constructs a {@code ChatSummaryDAO} with an SQLite database connection.
+     *
+     * @param sqliteConnection the {@code SQLiteConnection} instance for database access
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
+     */
+    public ChatSummaryDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
+        db = sqliteConnection;
+    }
+
+    /**
+     * Saves the rolling summary of a chat.
+     * <p>
+     * This method inserts the {@code ChatSummary} into the {@code chatSummaries} table, or
+     * replaces the existing summary of the chat if it already has one.
+     *
+     * @param chatSummary the {@code ChatSummary} entity to save
+     * @throws SQLException if a database error occurs during insertion
+     */
+    @Override
+    public void saveChatSummary(ChatSummary chatSummary) throws SQLException {
+        String sql = "INSERT INTO chatSummaries (chatId, summary, lastMessageId) VALUES (?, ?, ?) "
+                + "ON CONFLICT(chatId) DO UPDATE SET summary = excluded.summary, lastMessageId = excluded.lastMessageId";
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement saveChatSummary = lease.prepareStatement(sql)) {
+            saveChatSummary.setInt(1, chatSummary.getChatId());
+            saveChatSummary.setString(2, chatSummary.getSummary());
+            saveChatSummary.setInt(3, chatSummary.getLastMessageId());
+            saveChatSummary.executeUpdate();
+        }
+    }
+
+    /**
+     * Retrieves the rolling summary of a chat.
+     *
+     * @param chatId the ID of the chat session
+     * @return the {@code ChatSummary} of the chat, or {@code null} if the chat has no summary
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public ChatSummary getChatSummary(int chatId) throws SQLException {
+        String sql = "SELECT * FROM chatSummaries WHERE chatId = ?";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readChatSummary = lease.prepareStatement(sql)) {
+            readChatSummary.setInt(1, chatId);
+            ResultSet resultSet = readChatSummary.executeQuery();
+
+            if (resultSet.next()) {
+                String summary = resultSet.getString("summary");
+                int lastMessageId = resultSet.getInt("lastMessageId");
+                return new ChatSummary(chatId, summary, lastMessageId);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.SQLException;
+
+/**
+ * Holds one shared instance of every DAO for a {@link SQLiteConnection}.
+ * <p>
+ * The DAOs keep no state besides the connection, so a single instance of each can be
+ * shared by every controller instead of each controller constructing its own. The
+ * registry is created once by the controller factory, and its builders hand the shared
+ * DAOs to the controllers they build.
+ * <p>
+ * The schema is already brought up to date by the {@link SchemaMigrator} when the
+ * connection is opened, so creating the registry runs no SQL.
+ * <p>
+ * Users and chats are read through a {@link CachedUserDAO} and {@link CachedChatDAO},
+ * so that all controllers share, and keep up to date, the same cached entities. The
+ * message and quiz DAOs are given a {@link ChatActivityListener} which reloads the
+ * cached chat whenever they change its activity summary.
+ *
+ * <p>Usage Example:
+ * <pre>
+ * DAORegistry daos = new DAORegistry(new SQLiteConnection());
+ * List&lt;Chat&gt; chats = daos.getChatDAO().getAllUserChats(userId);</pre>
+ *
+ * @author Joshua M.
+ */
+public class DAORegistry {
+    private final SQLiteConnection db;
+    private final CachedUserDAO userDAO;
+    private final CachedChatDAO chatDAO;
+    private final MessageDAO messageDAO;
+    private final QuizDAO quizDAO;
+    private final QuizQuestionDAO quizQuestionDAO;
+    private final AnswerOptionDAO answerOptionDAO;
+    private final UserAnswerDAO userAnswerDAO;
+    private final AttemptResultDAO attemptResultDAO;
+    private final ChatSummaryDAO chatSummaryDAO;
+    private final ResponseCacheDAO responseCacheDAO;
+    private final MessageSearchDAO messageSearchDAO;
+
+    /**
+     * Constructs every DAO for the given connection.
+     *
+     * @param sqliteConnection the {@code SQLiteConnection} shared by the DAOs
+     * @throws IllegalArgumentException if the connection is null
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
+     */
+    public DAORegistry(SQLiteConnection sqliteConnection) throws IllegalArgumentException, SQLException, RuntimeException {
+        if (sqliteConnection == null) {
+            throw new IllegalArgumentException("Invalid database connection: cannot be null");
+        }
+        db = sqliteConnection;
+        userDAO = new CachedUserDAO(new UserDAO(db));
+        chatDAO = new CachedChatDAO(new ChatDAO(db));
+        messageDAO = new MessageDAO(db, chatDAO::reloadChat);
+        quizDAO = new QuizDAO(db, chatDAO::reloadChat);
+        quizQuestionDAO = new QuizQuestionDAO(db);
+        answerOptionDAO = new AnswerOptionDAO(db);
+        userAnswerDAO = new UserAnswerDAO(db);
+        attemptResultDAO = new AttemptResultDAO(db);
+        chatSummaryDAO = new ChatSummaryDAO(db);
+        responseCacheDAO = new ResponseCacheDAO(db);
+        messageSearchDAO = new MessageSearchDAO(db);
+    }
+
+    public SQLiteConnection getConnection() { return db; }
+
+    public CachedUserDAO getUserDAO() { return userDAO; }
+
+    public CachedChatDAO getChatDAO() { return chatDAO; }
+
+    public MessageDAO getMessageDAO() { return messageDAO; }
+
+    public QuizDAO getQuizDAO() { return quizDAO; }
+
+    public QuizQuestionDAO getQuizQuestionDAO() { return quizQuestionDAO; }
+
+    public AnswerOptionDAO getAnswerOptionDAO() { return answerOptionDAO; }
+
+    public UserAnswerDAO getUserAnswerDAO() { return userAnswerDAO; }
+
+    public AttemptResultDAO getAttemptResultDAO() { return attemptResultDAO; }
+
+    public ChatSummaryDAO getChatSummaryDAO() { return chatSummaryDAO; }
+
+    public ResponseCacheDAO getResponseCacheDAO() { return responseCacheDAO; }
+
+    public MessageSearchDAO getMessageSearchDAO() { return messageSearchDAO; }
+}
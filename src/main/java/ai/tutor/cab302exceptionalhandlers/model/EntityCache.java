@@ -0,0 +1,131 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * A bounded, least recently used cache of entities read from the database.
+ * <p>
+ * Entities such as {@link Chat} and {@link User} are mutable, so the cache stores and
+ * hands out copies made by the given copy function. A caller changing an entity it got
+ * from the cache, without saving it, therefore never changes the cached entity.
+ * <p>
+ * Used by the caching DAOs, which keep it up to date on every write, see
+ * {@link CachedChatDAO} and {@link CachedUserDAO}.
+ *
+ * @author Joshua M.
+ * @param <K> The key type, usually the entity ID.
+ * @param <V> The entity type.
+ */
+public final class EntityCache<K, V> {
+    private final int capacity;
+    private final UnaryOperator<V> copy;
+    private final LinkedHashMap<K, V> entries;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates an empty entity cache.
+     *
+     * @param capacity the maximum number of entities to keep
+     * @param copy the function copying an entity
+     * @throws IllegalArgumentException if {@code capacity} is less than 1
+     */
+    public EntityCache(int capacity, UnaryOperator<V> copy) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid entity cache capacity: must be at least 1");
+        }
+        this.capacity = capacity;
+        this.copy = copy;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= EntityCache.this.capacity) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Looks up an entity, counting a hit or a miss.
+     *
+     * @param key the key of the entity
+     * @return a copy of the cached entity, or {@code null} if it is not cached
+     */
+    public synchronized V get(K key) {
+        V entity = entries.get(key);
+        if (entity == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy.apply(entity);
+    }
+
+    /**
+     * Looks up an entity without counting a hit or a miss.
+     *
+     * @param key the key of the entity
+     * @return a copy of the cached entity, or {@code null} if it is not cached
+     */
+    public synchronized V peek(K key) {
+        V entity = entries.get(key);
+        return entity == null ? null : copy.apply(entity);
+    }
+
+    /**
+     * Caches a copy of an entity, replacing any entity cached for the key.
+     *
+     * @param key the key of the entity
+     * @param entity the entity to cache
+     */
+    public synchronized void put(K key, V entity) {
+        entries.put(key, copy.apply(entity));
+    }
+
+    /**
+     * Removes the entity cached for a key.
+     *
+     * @param key the key of the entity
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every cached entity.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    public int getCapacity() { return capacity; }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * @return The fraction of lookups that were hits, or 0 if there have been none.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d/%d cached, %d hits, %d misses (%.0f%% hit rate), %d evictions",
+                entries.size(), capacity, hits, misses, getHitRate() * 100, evictions);
+    }
+}
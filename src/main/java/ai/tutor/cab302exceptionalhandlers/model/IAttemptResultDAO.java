@@ -0,0 +1,70 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Defines the interface for an Attempt Result DAO.
+ *
+ * Any class implementing {@code IAttemptResultDAO} must provide implementations for
+ * saving graded quiz attempts and reading the score totals they maintain.
+ *
+ * @author Joshua M.
+ */
+public interface IAttemptResultDAO {
+
+    /**
+     * Creates a new AttemptResult and adds it to the score totals of the quiz's user.
+     *
+     * @param attemptResult The AttemptResult to create.
+     * @throws SQLException If an SQL error occurs during the operation, in which case nothing is changed.
+     */
+    public void createAttemptResult(AttemptResult attemptResult) throws SQLException;
+
+    /**
+     * Retrieves the AttemptResult of a quiz attempt.
+     *
+     * @param messageId The ID of the message associated with the quiz.
+     * @param attempt The attempt number.
+     * @return The {@link AttemptResult}, or null if the attempt has not been graded.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public AttemptResult getAttemptResult(int messageId, int attempt) throws SQLException;
+
+    /**
+     * Retrieves every AttemptResult of a quiz.
+     *
+     * @param messageId The ID of the message associated with the quiz.
+     * @return A list of {@link AttemptResult} objects ordered by attempt.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public List<AttemptResult> getAllQuizAttemptResults(int messageId) throws SQLException;
+
+    /**
+     * Retrieves the score totals of a user for each of their chats.
+     *
+     * @param userId The ID of the user.
+     * @return The {@link ScoreSummary} of each chat with a graded attempt, keyed by chat ID.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public Map<Integer, ScoreSummary> getChatScoreSummaries(int userId) throws SQLException;
+
+    /**
+     * Retrieves the score totals of a user for each study area.
+     *
+     * @param userId The ID of the user.
+     * @return The {@link ScoreSummary} of each study area with a graded attempt, keyed by study area.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public Map<String, ScoreSummary> getStudyAreaScoreSummaries(int userId) throws SQLException;
+
+    /**
+     * Retrieves the score totals of a user for each quiz difficulty.
+     *
+     * @param userId The ID of the user.
+     * @return The {@link ScoreSummary} of each difficulty with a graded attempt, keyed by difficulty.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public Map<String, ScoreSummary> getDifficultyScoreSummaries(int userId) throws SQLException;
+}
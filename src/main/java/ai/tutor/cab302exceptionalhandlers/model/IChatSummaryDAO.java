@@ -0,0 +1,31 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.SQLException;
+
+/**
+ * Defines the interface for a Chat Summary DAO.
+ *
+ * Any class implementing {@code IChatSummaryDAO} must provide implementations for
+ * saving and retrieving the rolling summary of a chat.
+ *
+ * @author Joshua M.
+ */
+public interface IChatSummaryDAO {
+
+    /**
+     * Saves the summary of a chat, replacing any existing summary.
+     *
+     * @param chatSummary The ChatSummary to save.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public void saveChatSummary(ChatSummary chatSummary) throws SQLException;
+
+    /**
+     * Retrieves the summary of a chat.
+     *
+     * @param chatId The ID of the chat.
+     * @return The {@link ChatSummary} of the chat, or null if the chat has no summary.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public ChatSummary getChatSummary(int chatId) throws SQLException;
+}
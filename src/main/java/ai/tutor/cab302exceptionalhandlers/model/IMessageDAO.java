@@ -29,4 +29,35 @@ public interface IMessageDAO {
      * @throws SQLException If an SQL error occurs during the operation.
      */
     public List<Message> getAllChatMessages(int chatId) throws SQLException;
+
+    /**
+     * Retrieves a page of Messages from a chat that were sent before a given message.
+     *
+     * @param chatId The ID of the chat whose messages are to be retrieved.
+     * @param beforeId Only messages with an ID lower than this are returned.
+     * @param limit The maximum number of messages to return.
+     * @return A list of {@link Message} objects ordered from oldest to newest.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public List<Message> getChatMessagesBefore(int chatId, int beforeId, int limit) throws SQLException;
+
+    /**
+     * Retrieves a page of Messages from a chat that were sent after a given message.
+     *
+     * @param chatId The ID of the chat whose messages are to be retrieved.
+     * @param afterId Only messages with an ID higher than this are returned.
+     * @param limit The maximum number of messages to return.
+     * @return A list of {@link Message} objects ordered from oldest to newest.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public List<Message> getChatMessagesAfter(int chatId, int afterId, int limit) throws SQLException;
+
+    /**
+     * Counts the Messages associated with a specific chat.
+     *
+     * @param chatId The ID of the chat whose messages are to be counted.
+     * @return The number of messages in the chat.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public int countChatMessages(int chatId) throws SQLException;
 }
@@ -0,0 +1,26 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Defines the interface for a Message Search DAO.
+ *
+ * Any class implementing {@code IMessageSearchDAO} must provide a ranked full-text
+ * search over the messages and quiz questions of a user's chats.
+ *
+ * @author Joshua M.
+ */
+public interface IMessageSearchDAO {
+
+    /**
+     * Searches the messages and quiz questions of every chat of a user.
+     *
+     * @param userId The ID of the user whose chats are searched.
+     * @param query The words to search for, the last of which may be incomplete.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link SearchResult} objects ordered from most to least relevant.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public List<SearchResult> search(int userId, String query, int limit) throws SQLException;
+}
@@ -21,6 +21,14 @@ public interface IQuizDAO {
      */
     public void createQuiz(Quiz quiz) throws SQLException;
 
+    /**
+     * Creates a Quiz together with all of its questions and answer options in a single transaction.
+     *
+     * @param quizTree The {@link QuizTree} to create.
+     * @throws SQLException If an SQL error occurs during the operation, in which case nothing is created.
+     */
+    public void createQuizTree(QuizTree quizTree) throws SQLException;
+
     /**
      * Retrieves a Quiz from the database by its associated message ID.
      *
@@ -47,4 +55,13 @@ public interface IQuizDAO {
      * @throws SQLException If an SQL error occurs during the operation.
      */
     public List<Quiz> getAllUserQuizzes(int userId) throws SQLException;
+
+    /**
+     * Retrieves a Quiz together with all of its questions and answer options.
+     *
+     * @param messageId The ID of the message associated with the Quiz.
+     * @return The {@link QuizTree} of the Quiz, or null if not found.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public QuizTree getQuizTree(int messageId) throws SQLException;
 }
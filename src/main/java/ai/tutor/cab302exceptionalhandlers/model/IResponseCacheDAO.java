@@ -0,0 +1,61 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.SQLException;
+
+/**
+ * Defines the interface for a Response Cache DAO.
+ *
+ * Any class implementing {@code IResponseCacheDAO} must provide implementations for
+ * storing, retrieving and evicting cached AI responses by their request fingerprint.
+ *
+ * @author Joshua M.
+ */
+public interface IResponseCacheDAO {
+
+    /**
+     * Stores a response, replacing any existing response with the same fingerprint.
+     *
+     * @param fingerprint The fingerprint of the request that produced the response.
+     * @param response The raw response of the model.
+     * @param now The current time in milliseconds since the epoch.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public void putResponse(String fingerprint, String response, long now) throws SQLException;
+
+    /**
+     * Retrieves a response and marks it as recently used.
+     *
+     * @param fingerprint The fingerprint of the request.
+     * @param createdAfter Responses created before this time in milliseconds are treated as expired.
+     * @param now The current time in milliseconds since the epoch.
+     * @return The cached response, or null if there is none or it has expired.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public String getResponse(String fingerprint, long createdAfter, long now) throws SQLException;
+
+    /**
+     * Removes expired responses, then the least recently used responses until the cache fits its limits.
+     *
+     * @param createdAfter Responses created before this time in milliseconds are removed.
+     * @param maxEntries The maximum number of responses to keep.
+     * @param maxBytes The maximum total size of the kept responses in bytes.
+     * @return The number of responses removed.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public int evict(long createdAfter, int maxEntries, long maxBytes) throws SQLException;
+
+    /**
+     * Retrieves the number of cached responses.
+     *
+     * @return The number of cached responses.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public int countResponses() throws SQLException;
+
+    /**
+     * Removes every cached response.
+     *
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public void clear() throws SQLException;
+}
@@ -21,6 +21,14 @@ public interface IUserAnswerDAO {
      */
     public void createUserAnswer(UserAnswer userAnswer) throws SQLException;
 
+    /**
+     * Creates several UserAnswers in the database in a single transaction.
+     *
+     * @param userAnswers The UserAnswers to create, such as every answer of a quiz attempt.
+     * @throws SQLException If an SQL error occurs during the operation, in which case none are created.
+     */
+    public void createUserAnswers(List<UserAnswer> userAnswers) throws SQLException;
+
     /**
      * Retrieves a UserAnswer from the database
      *
@@ -60,4 +68,23 @@ public interface IUserAnswerDAO {
      * @throws SQLException If an SQL error occurs during the operation.
      */
     public List<UserAnswer> getAllUserQuizAttempts(int messageId) throws SQLException;
+
+    /**
+     * Retrieves the highest attempt number with a UserAnswer for a specific question in a quiz.
+     *
+     * @param messageId The ID of the message associated with the quiz.
+     * @param questionNumber The question number for which to find the latest attempt.
+     * @return The latest attempt number, or 0 if the question has not been answered.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public int getLatestQuestionAttempt(int messageId, int questionNumber) throws SQLException;
+
+    /**
+     * Retrieves the distinct attempt numbers with a UserAnswer for a specific quiz.
+     *
+     * @param messageId The ID of the message associated with the quiz.
+     * @return The attempt numbers in ascending order.
+     * @throws SQLException If an SQL error occurs during the operation.
+     */
+    public List<Integer> getQuizAttemptNumbers(int messageId) throws SQLException;
 }
@@ -2,6 +2,7 @@ package ai.tutor.cab302exceptionalhandlers.model;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,7 +16,12 @@ import java.util.List;
  * @author Joshua M.
  */
 public class MessageDAO implements IMessageDAO {
-    private final Connection connection;
+    private static final String UPDATE_CHAT_ACTIVITY_SQL = "UPDATE chats SET lastMessageAt = MAX(lastMessageAt, ?), "
+            + "messageCount = messageCount + 1, lastMessagePreview = (SELECT " + ChatDAO.PREVIEW_SQL
+            + " FROM messages m LEFT JOIN quizzes q ON q.messageId = m.id WHERE m.id = ?) WHERE id = ?";
+
+    private final SQLiteConnection db;
+    private final ChatActivityListener activityListener;
 
     /**
      * Constructs a {@code MessageDAO} with an SQLite database connection.
@@ -25,33 +31,20 @@ public class MessageDAO implements IMessageDAO {
      * @throws RuntimeException if the SQLite connection cannot be established
      */
     public MessageDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
-        connection = sqliteConnection.getInstance();
-        createTable();
+        this(sqliteConnection, null);
     }
 
     /**
-     * Creates the {@code messages} table in the SQLite database.
-     * <p>
-     * This method defines the schema for the {@code messages} table, including columns for
-     * message ID, chat ID, content, sender type (user or AI), and a flag indicating if the
-     * message is a quiz. The table uses an auto-incrementing primary key and a foreign key
-     * to the {@code chats} table with cascading deletion.
+     * Constructs a {@code MessageDAO} which reports the chats whose activity it changes.
      *
-     * @throws SQLException if a database error occurs during table creation
+     * @param sqliteConnection the {@code SQLiteConnection} instance for database access
+     * @param activityListener the {@code ChatActivityListener} told once a message is saved to a chat, or null
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
      */
-    private void createTable() throws SQLException {
-        try (Statement createTable = connection.createStatement()) {
-            createTable.execute(
-                    "CREATE TABLE IF NOT EXISTS messages ("
-                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + "chatId INTEGER NOT NULL,"
-                    + "content VARCHAR NOT NULL,"
-                    + "fromUser INTEGER NOT NULL,"
-                    + "isQuiz INTEGER NOT NULL,"
-                    + "FOREIGN KEY(chatId) REFERENCES chats(id) ON DELETE CASCADE"
-                    + ")"
-            );
-        }
+    public MessageDAO(SQLiteConnection sqliteConnection, ChatActivityListener activityListener) throws SQLException, RuntimeException {
+        db = sqliteConnection;
+        this.activityListener = activityListener;
     }
 
     /**
@@ -61,6 +54,9 @@ public class MessageDAO implements IMessageDAO {
      * its chat ID, content, sender type (user or AI), and quiz flag. The message ID is
      * automatically generated by the SQLite database and set on the {@code Message} entity
      * to ensure uniqueness.
+     * <p>
+     * In the same transaction, the last message time, message count and preview of the
+     * chat are updated, so listing chats never has to aggregate their messages.
      *
      * @param message the {@code Message} entity to insert
      * @throws SQLException if a database error occurs during insertion
@@ -68,18 +64,32 @@ public class MessageDAO implements IMessageDAO {
     @Override
     public void createMessage(Message message) throws SQLException {
         String sql = "INSERT INTO messages (chatId, content, fromUser, isQuiz) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement createMessage = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            createMessage.setInt(1, message.getChatId());
-            createMessage.setString(2, message.getContent());
-            createMessage.setInt(3, message.getFromUser() ? 1 : 0);
-            createMessage.setInt(4, message.getIsQuiz() ? 1 : 0);
-            createMessage.executeUpdate();
-
-            try (ResultSet generatedKeys = createMessage.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    message.setId(generatedKeys.getInt(1));
+        long sentAt = System.currentTimeMillis();
+        db.transaction(() -> {
+            try (SQLiteConnection.Lease lease = db.write();
+                 PreparedStatement createMessage = lease.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement updateChatActivity = lease.prepareStatement(UPDATE_CHAT_ACTIVITY_SQL)) {
+                createMessage.setInt(1, message.getChatId());
+                createMessage.setString(2, message.getContent());
+                createMessage.setInt(3, message.getFromUser() ? 1 : 0);
+                createMessage.setInt(4, message.getIsQuiz() ? 1 : 0);
+                createMessage.executeUpdate();
+
+                try (ResultSet generatedKeys = createMessage.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        message.setId(generatedKeys.getInt(1));
+                    }
                 }
+
+                updateChatActivity.setLong(1, sentAt);
+                updateChatActivity.setInt(2, message.getId());
+                updateChatActivity.setInt(3, message.getChatId());
+                updateChatActivity.executeUpdate();
             }
+        });
+
+        if (activityListener != null) {
+            activityListener.chatActivityChanged(message.getChatId());
         }
     }
 
@@ -101,20 +111,124 @@ public class MessageDAO implements IMessageDAO {
     public List<Message> getAllChatMessages(int chatId) throws IllegalArgumentException, SQLException {
         List<Message> chatMessages = new ArrayList<>();
         String sql = "SELECT * FROM messages WHERE chatId = ?";
-        try (PreparedStatement readChatMessages = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readChatMessages = lease.prepareStatement(sql)) {
+            readChatMessages.setInt(1, chatId);
+            ResultSet resultSet = readChatMessages.executeQuery();
+
+            while (resultSet.next()) {
+                chatMessages.add(readMessage(chatId, resultSet));
+            }
+        }
+        return chatMessages;
+    }
+
+    /**
+     * Retrieves a page of {@code Message} entities sent before a given message.
+     * <p>
+     * This method uses keyset pagination on the message ID, so each page is read directly
+     * from the {@code messages(chatId, id)} index no matter how long the chat history is.
+     * The newest {@code limit} messages with an ID lower than {@code beforeId} are returned,
+     * ordered from oldest to newest. Pass {@link Integer#MAX_VALUE} as {@code beforeId} to
+     * retrieve the most recent page, then the ID of the oldest message loaded so far to
+     * retrieve the page before it.
+     *
+     * @param chatId the ID of the chat session
+     * @param beforeId only messages with an ID lower than this are returned
+     * @param limit the maximum number of messages to return
+     * @return a {@code List} of at most {@code limit} {@code Message} entities, or an empty list if none exist
+     * @throws IllegalArgumentException if {@code limit} is less than 1
+     * @throws SQLException if a database error occurs during retrieval
+     */
+
+    @Override
+    public List<Message> getChatMessagesBefore(int chatId, int beforeId, int limit) throws IllegalArgumentException, SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid page size: must be at least 1");
+        }
+
+        List<Message> chatMessages = new ArrayList<>();
+        String sql = "SELECT * FROM messages WHERE chatId = ? AND id < ? ORDER BY id DESC LIMIT ?";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readChatMessages = lease.prepareStatement(sql)) {
+            readChatMessages.setInt(1, chatId);
+            readChatMessages.setInt(2, beforeId);
+            readChatMessages.setInt(3, limit);
+            ResultSet resultSet = readChatMessages.executeQuery();
+
+            while (resultSet.next()) {
+                chatMessages.add(readMessage(chatId, resultSet));
+            }
+        }
+        Collections.reverse(chatMessages);
+        return chatMessages;
+    }
+
+    /**
+     * Retrieves a page of {@code Message} entities sent after a given message.
+     * <p>
+     * The forward counterpart of {@link #getChatMessagesBefore(int, int, int)}, used to walk
+     * a whole chat from oldest to newest a page at a time. The oldest {@code limit} messages
+     * with an ID higher than {@code afterId} are returned, ordered from oldest to newest.
+     * Pass 0 as {@code afterId} to retrieve the first page, then the ID of the newest
+     * message loaded so far to retrieve the page after it.
+     *
+     * @param chatId the ID of the chat session
+     * @param afterId only messages with an ID higher than this are returned
+     * @param limit the maximum number of messages to return
+     * @return a {@code List} of at most {@code limit} {@code Message} entities, or an empty list if none exist
+     * @throws IllegalArgumentException if {@code limit} is less than 1
+     * @throws SQLException if a database error occurs during retrieval
+     */
+
+    @Override
+    public List<Message> getChatMessagesAfter(int chatId, int afterId, int limit) throws IllegalArgumentException, SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid page size: must be at least 1");
+        }
+
+        List<Message> chatMessages = new ArrayList<>();
+        String sql = "SELECT * FROM messages WHERE chatId = ? AND id > ? ORDER BY id LIMIT ?";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readChatMessages = lease.prepareStatement(sql)) {
             readChatMessages.setInt(1, chatId);
+            readChatMessages.setInt(2, afterId);
+            readChatMessages.setInt(3, limit);
             ResultSet resultSet = readChatMessages.executeQuery();
 
             while (resultSet.next()) {
-                int id = resultSet.getInt("id");
-                String content = resultSet.getString("content");
-                int fromUser = resultSet.getInt("fromUser");
-                int isQuiz = resultSet.getInt("isQuiz");
-                Message message = new Message(chatId, content, fromUser == 1, isQuiz == 1);
-                message.setId(id);
-                chatMessages.add(message);
+                chatMessages.add(readMessage(chatId, resultSet));
             }
         }
         return chatMessages;
     }
+
+    /**
+     * Counts the {@code Message} entities of a chat session.
+     *
+     * @param chatId the ID of the chat session
+     * @return the number of messages in the chat
+     * @throws SQLException if a database error occurs during retrieval
+     */
+
+    @Override
+    public int countChatMessages(int chatId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM messages WHERE chatId = ?";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement countChatMessages = lease.prepareStatement(sql)) {
+            countChatMessages.setInt(1, chatId);
+            ResultSet resultSet = countChatMessages.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private static Message readMessage(int chatId, ResultSet resultSet) throws SQLException {
+        int id = resultSet.getInt("id");
+        String content = resultSet.getString("content");
+        int fromUser = resultSet.getInt("fromUser");
+        int isQuiz = resultSet.getInt("isQuiz");
+        Message message = new Message(chatId, content, fromUser == 1, isQuiz == 1);
+        message.setId(id);
+        return message;
+    }
 }
@@ -0,0 +1,355 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.*;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conducts full-text searches over the {@code messageSearch} FTS5 table in the SQLite database.
+ * <p>
+ * The table indexes the text of every message and every quiz question, and is kept up to
+ * date by triggers on the {@code messages}, {@code quizQuestions} and {@code chats} tables,
+ * so this DAO only reads from it. Each row is keyed by {@code (messageId << 16) | questionNumber},
+ * the question number being 0 for the text of a message, and also indexes the ID of the user
+ * owning its chat, so a search only visits that user's rows, however many other users share
+ * the database.
+ * <p>
+ * The search words are quoted before they are matched, so FTS5 query syntax typed by the
+ * user is searched for as text rather than interpreted, and are restricted to the
+ * {@code text} column, so a number is never matched against the owner's ID. Every word
+ * must match, and the last word also matches as a prefix, as it may still be being typed.
+ * <p>
+ * Matches are ranked with BM25 computed here rather than by FTS5's {@code bm25()}, which
+ * counts the documents containing each word across the whole table on every query. For a
+ * common word that count grows with every user's messages, while the counts used here only
+ * cover the searching user's messages. Only the {@value #CANDIDATE_LIMIT} most recent
+ * matches are ranked, so a very common word is found in recent messages rather than in
+ * the best match of the user's whole history. Snippets are only built for the returned
+ * matches.
+ * <p>
+ * Counting a user's rows means visiting every one of them, which for a user with a million
+ * messages takes longer than the rest of the search. The count is therefore kept per user
+ * until a row is added to the table, which is detected from its newest row ID. Rows deleted
+ * meanwhile are still counted, which only slightly lowers the weight of rare words.
+ *
+ * @author Joshua M.
+ */
+public class MessageSearchDAO implements IMessageSearchDAO {
+    /** Marks the start of a matched term in a {@link SearchResult#getSnippet()}. */
+    public static final String MATCH_START = "\u0002";
+    /** Marks the end of a matched term in a {@link SearchResult#getSnippet()}. */
+    public static final String MATCH_END = "\u0003";
+    /** The most recent matches that are ranked, bounding the cost of a very common word. */
+    private static final int CANDIDATE_LIMIT = 1000;
+    private static final int SNIPPET_TOKENS = 12;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final SQLiteConnection db;
+    private final Map<Integer, OwnerCount> ownerCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The number of rows of a user, counted when the newest row of the table had the given ID.
+     */
+    private static class OwnerCount {
+        private final long newestRowid;
+        private final int rows;
+
+        private OwnerCount(long newestRowid, int rows) {
+            this.newestRowid = newestRowid;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * A matched row of the search table, scored before its snippet is built.
+     */
+    private static class Candidate {
+        private final long rowid;
+        private final List<String> tokens;
+        private double score;
+
+        private Candidate(long rowid, String text) {
+            this.rowid = rowid;
+            this.tokens = tokenize(text);
+        }
+    }
+
+    /**
+     * Constructs a {@code MessageSearchDAO} with an SQLite database connection.
+     *
+     * @param sqliteConnection the {@code SQLiteConnection} instance for database access
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
+     */
+    public MessageSearchDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
+        db = sqliteConnection;
+    }
+
+    /**
+     * Searches the messages and quiz questions of every chat of a user.
+     * <p>
+     * Matches are ranked with BM25 over the user's messages, so messages where the words
+     * are rarer or appear more often come first. When a query matches more than
+     * {@value #CANDIDATE_LIMIT} messages, only the most recent of them are ranked.
+     *
+     * @param userId the ID of the user whose chats are searched
+     * @param query the words to search for, the last of which may be incomplete
+     * @param limit the maximum number of results to return
+     * @return the matches ordered from most to least relevant, or an empty list if the
+     *         query contains no words
+     * @throws IllegalArgumentException if {@code limit} is less than 1
+     * @throws SQLException if a database error occurs during the search
+     */
+    @Override
+    public List<SearchResult> search(int userId, String query, int limit) throws IllegalArgumentException, SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid limit: must be at least 1");
+        }
+        List<String> words = toWords(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // The last word is still being typed unless it was followed by a space
+        boolean prefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+        String owner = "owner : \"" + userId + "\"";
+        String match = owner + " AND text : (" + toMatchTerms(words, prefix) + ")";
+
+        try (SQLiteConnection.Lease lease = db.read()) {
+            List<Candidate> candidates = readCandidates(lease, match);
+            if (candidates.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            List<String> terms = tokenize(String.join(" ", words));
+            int rows = countOwnerRows(lease, userId, owner);
+            double[] idf = new double[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                boolean isPrefix = prefix && i == terms.size() - 1;
+                int containing = count(lease, owner + " AND text : \"" + terms.get(i) + "\"" + (isPrefix ? "*" : ""));
+                idf[i] = Math.log(1 + (rows - containing + 0.5) / (containing + 0.5));
+            }
+            score(candidates, terms, idf, prefix);
+
+            candidates.sort(Comparator.comparingDouble((Candidate candidate) -> -candidate.score)
+                    .thenComparing(candidate -> -candidate.rowid));
+            List<Candidate> top = candidates.subList(0, Math.min(limit, candidates.size()));
+            return readResults(lease, match, top);
+        }
+    }
+
+    /**
+     * Adds the messages after a given message, and their quiz questions, to the search index.
+     * <p>
+     * The index is normally maintained by triggers. This is for rows written while those
+     * triggers were dropped, such as by a large {@link ChatImporter} import, as a single
+     * insert builds the index much faster than one trigger per row.
+     *
+     * @param messageId only messages with an ID higher than this are indexed
+     * @throws SQLException if a database error occurs during insertion
+     */
+    public void indexMessagesAfter(int messageId) throws SQLException {
+        String messagesSql = "INSERT INTO messageSearch (rowid, text, owner) "
+                + "SELECT messages.id << 16, messages.content, chats.userId "
+                + "FROM messages JOIN chats ON chats.id = messages.chatId "
+                + "WHERE messages.id > ? AND (messages.fromUser = 1 OR messages.isQuiz = 0) ORDER BY messages.id";
+        String questionsSql = "INSERT INTO messageSearch (rowid, text, owner) "
+                + "SELECT (quizQuestions.messageId << 16) | quizQuestions.number, quizQuestions.question, chats.userId "
+                + "FROM quizQuestions JOIN messages ON messages.id = quizQuestions.messageId "
+                + "JOIN chats ON chats.id = messages.chatId WHERE quizQuestions.messageId > ? "
+                + "ORDER BY quizQuestions.messageId, quizQuestions.number";
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement indexMessages = lease.prepareStatement(messagesSql);
+             PreparedStatement indexQuestions = lease.prepareStatement(questionsSql)) {
+            indexMessages.setInt(1, messageId);
+            indexMessages.executeUpdate();
+            indexQuestions.setInt(1, messageId);
+            indexQuestions.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads the most recent rows matching the query, with their text to be scored.
+     */
+    private List<Candidate> readCandidates(SQLiteConnection.Lease lease, String match) throws SQLException {
+        String sql = "SELECT rowid, text FROM messageSearch WHERE messageSearch MATCH ? ORDER BY rowid DESC LIMIT ?";
+        List<Candidate> candidates = new ArrayList<>();
+        try (PreparedStatement readCandidates = lease.prepareStatement(sql)) {
+            readCandidates.setString(1, match);
+            readCandidates.setInt(2, CANDIDATE_LIMIT);
+            ResultSet resultSet = readCandidates.executeQuery();
+            while (resultSet.next()) {
+                candidates.add(new Candidate(resultSet.getLong("rowid"), resultSet.getString("text")));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Counts the rows of a user, reusing the last count unless a row was added since.
+     */
+    private int countOwnerRows(SQLiteConnection.Lease lease, int userId, String owner) throws SQLException {
+        long newestRowid = 0;
+        try (PreparedStatement readNewest = lease.prepareStatement("SELECT rowid FROM messageSearch ORDER BY rowid DESC LIMIT 1")) {
+            ResultSet resultSet = readNewest.executeQuery();
+            if (resultSet.next()) {
+                newestRowid = resultSet.getLong(1);
+            }
+        }
+
+        OwnerCount ownerCount = ownerCounts.get(userId);
+        if (ownerCount == null || ownerCount.newestRowid != newestRowid) {
+            ownerCount = new OwnerCount(newestRowid, count(lease, owner));
+            ownerCounts.put(userId, ownerCount);
+        }
+        return ownerCount.rows;
+    }
+
+    /**
+     * Counts the rows matching an FTS5 query.
+     */
+    private int count(SQLiteConnection.Lease lease, String match) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM messageSearch WHERE messageSearch MATCH ?";
+        try (PreparedStatement countRows = lease.prepareStatement(sql)) {
+            countRows.setString(1, match);
+            ResultSet resultSet = countRows.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Scores each candidate with BM25, using the candidates' average length.
+     */
+    private static void score(List<Candidate> candidates, List<String> terms, double[] idf, boolean prefix) {
+        double averageLength = 0;
+        for (Candidate candidate : candidates) {
+            averageLength += candidate.tokens.size();
+        }
+        averageLength = Math.max(1, averageLength / candidates.size());
+
+        for (Candidate candidate : candidates) {
+            double lengthNorm = K1 * (1 - B + B * candidate.tokens.size() / averageLength);
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean isPrefix = prefix && i == terms.size() - 1;
+                int frequency = 0;
+                for (String token : candidate.tokens) {
+                    if (isPrefix ? token.startsWith(term) : token.equals(term)) {
+                        frequency++;
+                    }
+                }
+                candidate.score += idf[i] * frequency * (K1 + 1) / (frequency + lengthNorm);
+            }
+        }
+    }
+
+    /**
+     * Reads the chat and snippet of each ranked row, keeping the ranked order.
+     */
+    private List<SearchResult> readResults(SQLiteConnection.Lease lease, String match, List<Candidate> ranked) throws SQLException {
+        Map<Long, Candidate> candidates = new HashMap<>();
+        StringBuilder rowids = new StringBuilder("[");
+        for (Candidate candidate : ranked) {
+            candidates.put(candidate.rowid, candidate);
+            rowids.append(rowids.length() > 1 ? "," : "").append(candidate.rowid);
+        }
+        rowids.append(']');
+
+        String sql = "SELECT messageSearch.rowid, chats.id AS chatId, chats.name AS chatName, "
+                + "snippet(messageSearch, 0, ?, ?, '...', ?) AS snippet "
+                + "FROM messageSearch "
+                + "JOIN messages ON messages.id = messageSearch.rowid >> 16 "
+                + "JOIN chats ON chats.id = messages.chatId "
+                + "WHERE messageSearch MATCH ? AND messageSearch.rowid IN (SELECT value FROM json_each(?))";
+        Map<Long, SearchResult> results = new HashMap<>();
+        try (PreparedStatement readResults = lease.prepareStatement(sql)) {
+            readResults.setString(1, MATCH_START);
+            readResults.setString(2, MATCH_END);
+            readResults.setInt(3, SNIPPET_TOKENS);
+            readResults.setString(4, match);
+            readResults.setString(5, rowids.toString());
+            ResultSet resultSet = readResults.executeQuery();
+
+            while (resultSet.next()) {
+                long rowid = resultSet.getLong("rowid");
+                results.put(rowid, new SearchResult(
+                        resultSet.getInt("chatId"),
+                        resultSet.getString("chatName"),
+                        (int) (rowid >> 16),
+                        (int) (rowid & 0xFFFF),
+                        resultSet.getString("snippet"),
+                        -candidates.get(rowid).score
+                ));
+            }
+        }
+
+        List<SearchResult> ordered = new ArrayList<>();
+        for (Candidate candidate : ranked) {
+            SearchResult result = results.get(candidate.rowid);
+            if (result != null) {
+                ordered.add(result);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Splits a search query into its words, dropping words of only punctuation, which
+     * produce no tokens for FTS5 to match.
+     */
+    private static List<String> toWords(String query) {
+        List<String> words = new ArrayList<>();
+        if (query == null) {
+            return words;
+        }
+        for (String word : query.trim().split("\\s+")) {
+            if (word.codePoints().anyMatch(Character::isLetterOrDigit)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Quotes each word as an FTS5 string, so that every word must match as text.
+     */
+    private static String toMatchTerms(List<String> words, boolean prefix) {
+        StringBuilder terms = new StringBuilder();
+        for (String word : words) {
+            if (!terms.isEmpty()) {
+                terms.append(' ');
+            }
+            terms.append('"').append(word.replace("\"", "\"\"")).append('"');
+        }
+        if (prefix) {
+            terms.append('*');
+        }
+        return terms.toString();
+    }
+
+    /**
+     * Splits text into tokens the way the table's {@code unicode61 remove_diacritics 2}
+     * tokenizer does: lower case, without diacritics, separated by anything that is not a
+     * letter or digit.
+     */
+    private static List<String> tokenize(String text) {
+        // Only text with non-ASCII characters can contain diacritics
+        if (!text.chars().allMatch(c -> c < 128)) {
+            text = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
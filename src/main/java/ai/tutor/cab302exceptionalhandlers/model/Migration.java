@@ -0,0 +1,67 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Represents a single versioned change to the database schema.
+ * <p>
+ * A migration is identified by a strictly increasing version number and holds the
+ * SQL statements that move the schema from the previous version to this one. It is
+ * applied exactly once by the {@link SchemaMigrator}, which records its version in
+ * the {@code schema_version} table.
+ *
+ * @author Joshua M.
+ */
+public class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+
+    /**
+     * Creates a new migration.
+     *
+     * @param version the schema version this migration upgrades to
+     * @param description a short, human-readable summary of the change
+     * @param statements the SQL statements to execute, in order
+     * @throws IllegalArgumentException if the version is not positive, or the description or statements are empty
+     */
+    public Migration(int version, String description, String... statements) throws IllegalArgumentException {
+        if (version < 1) {
+            throw new IllegalArgumentException("Invalid migration version: must be at least 1");
+        }
+        if (description == null || description.isBlank()) {
+            throw new IllegalArgumentException("Invalid migration description: cannot be empty");
+        }
+        if (statements.length == 0) {
+            throw new IllegalArgumentException("Invalid migration: must contain at least one statement");
+        }
+        this.version = version;
+        this.description = description;
+        this.statements = List.of(statements);
+    }
+
+    public int getVersion() { return version; }
+
+    public String getDescription() { return description; }
+
+    public List<String> getStatements() { return statements; }
+
+    /**
+     * Executes the statements of this migration on the given connection.
+     * <p>
+     * Transaction handling is left to the caller.
+     *
+     * @param connection the writer {@link Connection} to apply the migration on
+     * @throws SQLException if any statement fails
+     */
+    public void apply(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -2,7 +2,9 @@ package ai.tutor.cab302exceptionalhandlers.model;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Conducts database operations for managing quizzes
@@ -14,7 +16,14 @@ import java.util.List;
  * @author Joshua M.
  */
 public class QuizDAO implements IQuizDAO {
-    private final Connection connection;
+    // The quiz name only replaces the preview if the quiz is still the latest message of its chat
+    private static final String UPDATE_CHAT_ACTIVITY_SQL = "UPDATE chats SET quizCount = quizCount + 1, "
+            + "lastMessagePreview = CASE WHEN (SELECT MAX(id) FROM messages WHERE chatId = chats.id) = ? THEN (SELECT "
+            + ChatDAO.PREVIEW_SQL + " FROM messages m LEFT JOIN quizzes q ON q.messageId = m.id WHERE m.id = ?) "
+            + "ELSE lastMessagePreview END WHERE id = ?";
+
+    private final SQLiteConnection db;
+    private final ChatActivityListener activityListener;
 
     /**
      * Initialises the {@code QuizDAO} with an SQLite database connection.
@@ -25,30 +34,27 @@ public class QuizDAO implements IQuizDAO {
      */
 
     public QuizDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
-        connection = sqliteConnection.getInstance();
-        createTable();
+        this(sqliteConnection, null);
     }
 
     /**
-     * Creates the {@code quizzes} table in the database.
+     * Initialises a {@code QuizDAO} which reports the chats whose activity it changes.
      *
-     * @throws SQLException if a database error occurs during table creation
+     * @param sqliteConnection the {@code SQLiteConnection} instance for database access
+     * @param activityListener the {@code ChatActivityListener} told once a quiz is saved to a chat, or null
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
      */
-    private void createTable() throws SQLException {
-        try (Statement createTable = connection.createStatement()) {
-            createTable.execute(
-                    "CREATE TABLE IF NOT EXISTS quizzes ("
-                    + "messageId INTEGER PRIMARY KEY,"
-                    + "name VARCHAR NOT NULL,"
-                    + "difficulty VARCHAR NOT NULL,"
-                    + "FOREIGN KEY(messageId) REFERENCES messages(id) ON DELETE CASCADE"
-                    + ")"
-            );
-        }
+
+    public QuizDAO(SQLiteConnection sqliteConnection, ChatActivityListener activityListener) throws SQLException, RuntimeException {
+        db = sqliteConnection;
+        this.activityListener = activityListener;
     }
 
     /**
      * Saves a new {@code Quiz} entity to the database.
+     * <p>
+     * The quiz count and preview of its chat are updated in the same transaction.
      *
      * @param quiz the {@code Quiz} entity to save
      * @throws SQLException if a database error occurs during insertion
@@ -57,11 +63,99 @@ public class QuizDAO implements IQuizDAO {
     @Override
     public void createQuiz(Quiz quiz) throws SQLException {
         String sql = "INSERT INTO quizzes (messageId, name, difficulty) VALUES (?, ?, ?)";
-        try (PreparedStatement createQuiz = connection.prepareStatement(sql)) {
-            createQuiz.setInt(1, quiz.getMessageId());
-            createQuiz.setString(2, quiz.getName());
-            createQuiz.setString(3, quiz.getDifficulty());
-            createQuiz.executeUpdate();
+        int[] chatId = { 0 };
+        db.transaction(() -> {
+            try (SQLiteConnection.Lease lease = db.write();
+                 PreparedStatement createQuiz = lease.prepareStatement(sql)) {
+                createQuiz.setInt(1, quiz.getMessageId());
+                createQuiz.setString(2, quiz.getName());
+                createQuiz.setString(3, quiz.getDifficulty());
+                createQuiz.executeUpdate();
+                chatId[0] = updateChatActivity(lease, quiz.getMessageId());
+            }
+        });
+        chatActivityChanged(chatId[0]);
+    }
+
+    /**
+     * Saves a new {@code Quiz} entity with all of its questions and answer options.
+     * <p>
+     * The quiz, its questions and its answer options are inserted in a single transaction,
+     * with the questions and answer options sent as JDBC batches, so a quiz costs one
+     * commit and a failure part way through leaves no partial quiz behind. The quiz count
+     * and preview of its chat are updated in the same transaction.
+     *
+     * @param quizTree the {@code QuizTree} to save
+     * @throws SQLException if a database error occurs during insertion
+     */
+    @Override
+    public void createQuizTree(QuizTree quizTree) throws SQLException {
+        Quiz quiz = quizTree.getQuiz();
+        int[] chatId = { 0 };
+        db.transaction(() -> {
+            try (SQLiteConnection.Lease lease = db.write();
+                 PreparedStatement createQuiz = lease.prepareStatement(
+                         "INSERT INTO quizzes (messageId, name, difficulty) VALUES (?, ?, ?)");
+                 PreparedStatement createQuizQuestions = lease.prepareStatement(
+                         "INSERT INTO quizQuestions (messageId, number, question) VALUES (?, ?, ?)");
+                 PreparedStatement createAnswerOptions = lease.prepareStatement(
+                         "INSERT INTO answerOptions (messageId, questionNumber, option, value, isAnswer) VALUES (?, ?, ?, ?, ?)")) {
+                createQuiz.setInt(1, quiz.getMessageId());
+                createQuiz.setString(2, quiz.getName());
+                createQuiz.setString(3, quiz.getDifficulty());
+                createQuiz.executeUpdate();
+
+                for (QuizQuestion question : quizTree.getQuestions()) {
+                    createQuizQuestions.setInt(1, quiz.getMessageId());
+                    createQuizQuestions.setInt(2, question.getNumber());
+                    createQuizQuestions.setString(3, question.getQuestion());
+                    createQuizQuestions.addBatch();
+
+                    for (AnswerOption answerOption : quizTree.getAnswerOptions(question.getNumber())) {
+                        createAnswerOptions.setInt(1, quiz.getMessageId());
+                        createAnswerOptions.setInt(2, question.getNumber());
+                        createAnswerOptions.setString(3, answerOption.getOption());
+                        createAnswerOptions.setString(4, answerOption.getValue());
+                        createAnswerOptions.setInt(5, answerOption.getIsAnswer() ? 1 : 0);
+                        createAnswerOptions.addBatch();
+                    }
+                }
+                createQuizQuestions.executeBatch();
+                createAnswerOptions.executeBatch();
+                chatId[0] = updateChatActivity(lease, quiz.getMessageId());
+            }
+        });
+        chatActivityChanged(chatId[0]);
+    }
+
+    /**
+     * Counts a saved quiz in the activity summary of its chat.
+     *
+     * @return the ID of the chat, or 0 if the quiz's message does not exist
+     */
+    private int updateChatActivity(SQLiteConnection.Lease lease, int messageId) throws SQLException {
+        int chatId = 0;
+        try (PreparedStatement readChatId = lease.prepareStatement("SELECT chatId FROM messages WHERE id = ?")) {
+            readChatId.setInt(1, messageId);
+            ResultSet resultSet = readChatId.executeQuery();
+            if (resultSet.next()) {
+                chatId = resultSet.getInt(1);
+            }
+        }
+        if (chatId > 0) {
+            try (PreparedStatement updateChatActivity = lease.prepareStatement(UPDATE_CHAT_ACTIVITY_SQL)) {
+                updateChatActivity.setInt(1, messageId);
+                updateChatActivity.setInt(2, messageId);
+                updateChatActivity.setInt(3, chatId);
+                updateChatActivity.executeUpdate();
+            }
+        }
+        return chatId;
+    }
+
+    private void chatActivityChanged(int chatId) throws SQLException {
+        if (activityListener != null && chatId > 0) {
+            activityListener.chatActivityChanged(chatId);
         }
     }
 
@@ -79,7 +173,8 @@ public class QuizDAO implements IQuizDAO {
     @Override
     public Quiz getQuiz(int messageId) throws SQLException {
         String sql = "SELECT * FROM quizzes WHERE messageId = ?";
-        try (PreparedStatement readQuiz = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readQuiz = lease.prepareStatement(sql)) {
             readQuiz.setInt(1, messageId);
             ResultSet resultSet = readQuiz.executeQuery();
 
@@ -97,8 +192,9 @@ public class QuizDAO implements IQuizDAO {
      * <p>
      * This method fetches all quizzes associated with AI-generated messages marked as
      * quizzes (where {@code fromUser} is false and {@code isQuiz} is true) within the
-     * specified chat session. Returns a list of {@code Quiz} entities, which may be empty
-     * if no quizzes are found for the chat ID.
+     * specified chat session, joining {@code messages} with {@code quizzes} in a single
+     * query. Returns a list of {@code Quiz} entities ordered by message, which may be
+     * empty if no quizzes are found for the chat ID.
      *
      * @param chatId the ID of the chat session
      * @return a {@code List} of {@code Quiz} entities for the chat, or an empty list if none exist
@@ -107,17 +203,19 @@ public class QuizDAO implements IQuizDAO {
     @Override
     public List<Quiz> getAllChatQuizzes(int chatId) throws SQLException {
         List<Quiz> chatQuizzes = new ArrayList<>();
-        String sql = "SELECT id FROM messages WHERE chatId = ? AND fromUser = ? AND isQuiz = ?";
-        try (PreparedStatement readChatQuizzes = connection.prepareStatement(sql)) {
+        String sql = "SELECT q.messageId, q.name, q.difficulty FROM messages m "
+                + "JOIN quizzes q ON q.messageId = m.id "
+                + "WHERE m.chatId = ? AND m.fromUser = ? AND m.isQuiz = ? "
+                + "ORDER BY m.id";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readChatQuizzes = lease.prepareStatement(sql)) {
             readChatQuizzes.setInt(1, chatId);
             readChatQuizzes.setInt(2, false ? 1 : 0);
             readChatQuizzes.setInt(3, true ? 1 : 0);
             ResultSet resultSet = readChatQuizzes.executeQuery();
 
             while (resultSet.next()) {
-                int messageId = resultSet.getInt("id");
-                Quiz quiz = getQuiz(messageId);
-                chatQuizzes.add(quiz);
+                chatQuizzes.add(readQuiz(resultSet));
             }
         }
         return chatQuizzes;
@@ -127,8 +225,10 @@ public class QuizDAO implements IQuizDAO {
      * Retrieves all {@code Quiz} entities for a specific user across all their chat sessions.
      * <p>
      * This method fetches all quizzes associated with AI-generated messages marked as
-     * quizzes from all chat sessions linked to the given user ID. Returns a list of
-     * {@code Quiz} entities, which may be empty if no quizzes are found for the user.
+     * quizzes from all chat sessions linked to the given user ID, joining {@code chats},
+     * {@code messages} and {@code quizzes} in a single query. Returns a list of
+     * {@code Quiz} entities ordered by chat then message, which may be empty if no
+     * quizzes are found for the user.
      *
      * @param userId the ID of the user
      * @return a {@code List} of {@code Quiz} entities for the user, or an empty list if none exist
@@ -137,17 +237,85 @@ public class QuizDAO implements IQuizDAO {
     @Override
     public List<Quiz> getAllUserQuizzes(int userId) throws SQLException {
         List<Quiz> userQuizzes = new ArrayList<>();
-        String sql = "SELECT id FROM chats WHERE userId = ?";
-        try (PreparedStatement readUserChats = connection.prepareStatement(sql)) {
-            readUserChats.setInt(1, userId);
-            ResultSet resultSet = readUserChats.executeQuery();
+        String sql = "SELECT q.messageId, q.name, q.difficulty FROM chats c "
+                + "JOIN messages m ON m.chatId = c.id "
+                + "JOIN quizzes q ON q.messageId = m.id "
+                + "WHERE c.userId = ? AND m.fromUser = ? AND m.isQuiz = ? "
+                + "ORDER BY c.id, m.id";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUserQuizzes = lease.prepareStatement(sql)) {
+            readUserQuizzes.setInt(1, userId);
+            readUserQuizzes.setInt(2, false ? 1 : 0);
+            readUserQuizzes.setInt(3, true ? 1 : 0);
+            ResultSet resultSet = readUserQuizzes.executeQuery();
 
             while (resultSet.next()) {
-                int chatId = resultSet.getInt("id");
-                List<Quiz> chatQuizzes = getAllChatQuizzes(chatId);
-                userQuizzes.addAll(chatQuizzes);
+                userQuizzes.add(readQuiz(resultSet));
             }
         }
         return userQuizzes;
     }
+
+    /**
+     * Retrieves a {@code Quiz} with all of its questions and answer options.
+     * <p>
+     * This method joins {@code quizzes}, {@code quizQuestions} and {@code answerOptions}
+     * in a single query, instead of one query for the questions and another for the
+     * answer options of each question. Questions are ordered by number and answer
+     * options by option. Returns {@code null} if no quiz is found for the given
+     * message ID.
+     *
+     * @param messageId the ID of the associated message
+     * @return the {@code QuizTree} of the quiz, or {@code null} if none exists
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public QuizTree getQuizTree(int messageId) throws SQLException {
+        String sql = "SELECT q.messageId, q.name, q.difficulty, qq.number, qq.question, ao.option, ao.value, ao.isAnswer "
+                + "FROM quizzes q "
+                + "LEFT JOIN quizQuestions qq ON qq.messageId = q.messageId "
+                + "LEFT JOIN answerOptions ao ON ao.messageId = qq.messageId AND ao.questionNumber = qq.number "
+                + "WHERE q.messageId = ? "
+                + "ORDER BY qq.number, ao.option";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readQuizTree = lease.prepareStatement(sql)) {
+            readQuizTree.setInt(1, messageId);
+            ResultSet resultSet = readQuizTree.executeQuery();
+
+            Quiz quiz = null;
+            List<QuizQuestion> questions = new ArrayList<>();
+            Map<Integer, List<AnswerOption>> answerOptions = new HashMap<>();
+            while (resultSet.next()) {
+                if (quiz == null) {
+                    quiz = readQuiz(resultSet);
+                }
+
+                int number = resultSet.getInt("number");
+                if (resultSet.wasNull()) {
+                    continue;
+                }
+                List<AnswerOption> options = answerOptions.get(number);
+                if (options == null) {
+                    options = new ArrayList<>();
+                    answerOptions.put(number, options);
+                    questions.add(new QuizQuestion(messageId, number, resultSet.getString("question")));
+                }
+
+                String option = resultSet.getString("option");
+                if (option != null) {
+                    String value = resultSet.getString("value");
+                    boolean isAnswer = resultSet.getInt("isAnswer") == 1;
+                    options.add(new AnswerOption(messageId, number, option, value, isAnswer));
+                }
+            }
+            return quiz == null ? null : new QuizTree(quiz, questions, answerOptions);
+        }
+    }
+
+    private Quiz readQuiz(ResultSet resultSet) throws SQLException {
+        int messageId = resultSet.getInt("messageId");
+        String name = resultSet.getString("name");
+        String difficulty = resultSet.getString("difficulty");
+        return new Quiz(messageId, name, difficulty);
+    }
 }
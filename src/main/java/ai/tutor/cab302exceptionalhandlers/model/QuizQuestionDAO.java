@@ -15,7 +15,7 @@ import java.util.List;
  * @author Joshua M.
  */
 public class QuizQuestionDAO implements IQuizQuestionDAO {
-    private final Connection connection;
+    private final SQLiteConnection db;
 
 
     /**
@@ -26,27 +26,7 @@ public class QuizQuestionDAO implements IQuizQuestionDAO {
      * @throws RuntimeException if the SQLite connection cannot be established
      */
     public QuizQuestionDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
-        connection = sqliteConnection.getInstance();
-        createTable();
-    }
-
-    /**
-     * Creates the {@code quizQuestions} table in the SQLite database.
-     *
-     * @throws SQLException if a database error occurs during table creation
-     */
-    private void createTable() throws SQLException {
-        try (Statement createTable = connection.createStatement()) {
-            createTable.execute(
-                    "CREATE TABLE IF NOT EXISTS quizQuestions ("
-                    + "messageId INTEGER,"
-                    + "number INTEGER CHECK (number >= 1),"
-                    + "question VARCHAR NOT NULL,"
-                    + "PRIMARY KEY (messageId, number),"
-                    + "FOREIGN KEY(messageId) REFERENCES quizzes(messageId) ON DELETE CASCADE"
-                    + ")"
-            );
-        }
+        db = sqliteConnection;
     }
 
     /**
@@ -63,7 +43,8 @@ public class QuizQuestionDAO implements IQuizQuestionDAO {
     @Override
     public void createQuizQuestion(QuizQuestion quizQuestion) throws SQLException {
         String sql = "INSERT INTO quizQuestions (messageId, number, question) VALUES (?, ?, ?)";
-        try (PreparedStatement createQuizQuestion = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement createQuizQuestion = lease.prepareStatement(sql)) {
             createQuizQuestion.setInt(1, quizQuestion.getMessageId());
             createQuizQuestion.setInt(2, quizQuestion.getNumber());
             createQuizQuestion.setString(3, quizQuestion.getQuestion());
@@ -87,7 +68,8 @@ public class QuizQuestionDAO implements IQuizQuestionDAO {
     @Override
     public QuizQuestion getQuizQuestion(int messageId, int number) throws IllegalArgumentException, SQLException {
         String sql = "SELECT * FROM quizQuestions WHERE messageId = ? AND number = ?";
-        try (PreparedStatement readQuizQuestion = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readQuizQuestion = lease.prepareStatement(sql)) {
             readQuizQuestion.setInt(1, messageId);
             readQuizQuestion.setInt(2, number);
             ResultSet resultSet = readQuizQuestion.executeQuery();
@@ -116,7 +98,8 @@ public class QuizQuestionDAO implements IQuizQuestionDAO {
     public List<QuizQuestion> getAllQuizQuestions(int messageId) throws IllegalArgumentException, SQLException {
         List<QuizQuestion> quizQuestions = new ArrayList<>();
         String sql = "SELECT * FROM quizQuestions WHERE messageId = ?";
-        try (PreparedStatement readQuizQuestions = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readQuizQuestions = lease.prepareStatement(sql)) {
             readQuizQuestions.setInt(1, messageId);
             ResultSet resultSet = readQuizQuestions.executeQuery();
 
@@ -0,0 +1,51 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a whole Quiz with its questions and their answer options
+ * <p>
+ * Loaded in a single query by {@link IQuizDAO#getQuizTree(int)}, so a quiz can be shown
+ * without a separate query for the answer options of every question.
+ *
+ * @author Joshua M.
+ * @see ai.tutor.cab302exceptionalhandlers.model.Quiz
+ * @see ai.tutor.cab302exceptionalhandlers.model.QuizQuestion
+ * @see ai.tutor.cab302exceptionalhandlers.model.AnswerOption
+ */
+public class QuizTree {
+    private final Quiz quiz;
+    private final List<QuizQuestion> questions;
+    private final Map<Integer, List<AnswerOption>> answerOptions;
+
+
+    /**
+     * Constructor for a QuizTree object
+     *
+     * @param quiz The quiz, must not be null
+     * @param questions The questions of the quiz ordered by number, must not be null
+     * @param answerOptions The answer options of each question keyed by question number, must not be null
+     * @throws IllegalArgumentException if any of the parameters are invalid
+     */
+    public QuizTree(Quiz quiz, List<QuizQuestion> questions, Map<Integer, List<AnswerOption>> answerOptions) throws IllegalArgumentException {
+        if (quiz == null) { throw new IllegalArgumentException("Invalid Quiz: Cannot be null"); }
+        this.quiz = quiz;
+
+        if (questions == null) { throw new IllegalArgumentException("Invalid Questions: Cannot be null"); }
+        this.questions = Collections.unmodifiableList(questions);
+
+        if (answerOptions == null) { throw new IllegalArgumentException("Invalid Answer Options: Cannot be null"); }
+        this.answerOptions = Collections.unmodifiableMap(answerOptions);
+    }
+
+
+    public Quiz getQuiz() { return quiz; }
+
+    public List<QuizQuestion> getQuestions() { return questions; }
+
+    public Map<Integer, List<AnswerOption>> getAnswerOptions() { return answerOptions; }
+
+    public List<AnswerOption> getAnswerOptions(int questionNumber) { return answerOptions.getOrDefault(questionNumber, List.of()); }
+}
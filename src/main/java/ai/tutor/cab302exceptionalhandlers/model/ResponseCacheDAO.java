@@ -0,0 +1,154 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+
+/**
+ * Conducts DAO operations for the {@code responseCache} table in the SQLite database.
+ * <p>
+ * Responses are keyed by a fingerprint of the request that produced them. Each
+ * response records when it was created, for expiry, and when it was last read, so the
+ * least recently used responses can be evicted once the cache outgrows its limits.
+ *
+ * @author Joshua M.
+ */
+public class ResponseCacheDAO implements IResponseCacheDAO {
+    private final SQLiteConnection db;
+
+    /**
+     * Constructs a {@code ResponseCacheDAO} with an SQLite database connection.
+     *
+     * @param sqliteConnection the {@code SQLiteConnection} instance for database access
+     * @throws SQLException if a database error occurs during initialisation
+     * @throws RuntimeException if the SQLite connection cannot be established
+     */
+    public ResponseCacheDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
+        db = sqliteConnection;
+    }
+
+    /**
+     * Stores a response in the {@code responseCache} table.
+     * <p>
+     * An existing response with the same fingerprint is replaced and its age reset.
+     *
+     * @param fingerprint the fingerprint of the request that produced the response
+     * @param response the raw response of the model
+     * @param now the current time in milliseconds since the epoch
+     * @throws SQLException if a database error occurs during insertion
+     */
+    @Override
+    public void putResponse(String fingerprint, String response, long now) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO responseCache (fingerprint, response, sizeBytes, createdAt, lastAccessedAt) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement putResponse = lease.prepareStatement(sql)) {
+            putResponse.setString(1, fingerprint);
+            putResponse.setString(2, response);
+            putResponse.setInt(3, response.getBytes(StandardCharsets.UTF_8).length);
+            putResponse.setLong(4, now);
+            putResponse.setLong(5, now);
+            putResponse.executeUpdate();
+        }
+    }
+
+    /**
+     * Retrieves a response from the {@code responseCache} table.
+     * <p>
+     * A response that is found has its {@code lastAccessedAt} time updated, so it is
+     * evicted after responses that have not been read as recently.
+     *
+     * @param fingerprint the fingerprint of the request
+     * @param createdAfter responses created before this time in milliseconds are treated as expired
+     * @param now the current time in milliseconds since the epoch
+     * @return the cached response, or {@code null} if there is none or it has expired
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public String getResponse(String fingerprint, long createdAfter, long now) throws SQLException {
+        String sql = "SELECT response FROM responseCache WHERE fingerprint = ? AND createdAt >= ?";
+        String touch = "UPDATE responseCache SET lastAccessedAt = ? WHERE fingerprint = ?";
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement readResponse = lease.prepareStatement(sql);
+             PreparedStatement touchResponse = lease.prepareStatement(touch)) {
+            readResponse.setString(1, fingerprint);
+            readResponse.setLong(2, createdAfter);
+            ResultSet resultSet = readResponse.executeQuery();
+            if (!resultSet.next()) {
+                return null;
+            }
+            String response = resultSet.getString("response");
+
+            touchResponse.setLong(1, now);
+            touchResponse.setString(2, fingerprint);
+            touchResponse.executeUpdate();
+            return response;
+        }
+    }
+
+    /**
+     * Evicts responses from the {@code responseCache} table.
+     * <p>
+     * Expired responses are removed first. Then, while the cache holds more than
+     * {@code maxEntries} responses or more than {@code maxBytes} bytes, the least
+     * recently used responses are removed.
+     *
+     * @param createdAfter responses created before this time in milliseconds are removed
+     * @param maxEntries the maximum number of responses to keep
+     * @param maxBytes the maximum total size of the kept responses in bytes
+     * @return the number of responses removed
+     * @throws SQLException if a database error occurs during deletion
+     */
+    @Override
+    public int evict(long createdAfter, int maxEntries, long maxBytes) throws SQLException {
+        String expire = "DELETE FROM responseCache WHERE createdAt < ?";
+        // Keep the most recently used responses whose running size total stays within the limits
+        String trim = "DELETE FROM responseCache WHERE fingerprint NOT IN ("
+                + "SELECT fingerprint FROM ("
+                + "SELECT fingerprint, "
+                + "ROW_NUMBER() OVER (ORDER BY lastAccessedAt DESC, createdAt DESC) AS position, "
+                + "SUM(sizeBytes) OVER (ORDER BY lastAccessedAt DESC, createdAt DESC ROWS UNBOUNDED PRECEDING) AS totalBytes "
+                + "FROM responseCache"
+                + ") WHERE position <= ? AND totalBytes <= ?"
+                + ")";
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement expireResponses = lease.prepareStatement(expire);
+             PreparedStatement trimResponses = lease.prepareStatement(trim)) {
+            expireResponses.setLong(1, createdAfter);
+            int removed = expireResponses.executeUpdate();
+
+            trimResponses.setInt(1, maxEntries);
+            trimResponses.setLong(2, maxBytes);
+            return removed + trimResponses.executeUpdate();
+        }
+    }
+
+    /**
+     * Retrieves the number of responses in the {@code responseCache} table.
+     *
+     * @return the number of cached responses
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public int countResponses() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM responseCache";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement countResponses = lease.prepareStatement(sql)) {
+            ResultSet resultSet = countResponses.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Removes every response from the {@code responseCache} table.
+     *
+     * @throws SQLException if a database error occurs during deletion
+     */
+    @Override
+    public void clear() throws SQLException {
+        String sql = "DELETE FROM responseCache";
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement clearResponses = lease.prepareStatement(sql)) {
+            clearResponses.executeUpdate();
+        }
+    }
+}
@@ -1,15 +1,50 @@
 package ai.tutor.cab302exceptionalhandlers.model;
 
+import org.sqlite.SQLiteConfig;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 
 /**
- * Defines a connection to the SQLite database.
+ * Defines a pooled connection manager for the SQLite database.
  * <p>
  * By default, it connects to a database named "tutor.db". However,
  * you can specify a different database name or use an in-memory database.
  * <p>
+ * File databases are opened in WAL mode with a single writer connection and a
+ * bounded pool of read-only connections, so UI reads are never blocked behind a
+ * long-running write from a background task. DAOs lease a connection for the
+ * duration of a single call through {@link #read()} or {@link #write()}. An
+ * in-memory database only exists for the connection that created it, so in that
+ * mode every lease hands out the one shared connection.
+ * <p>
+ * Each connection keeps a bounded {@link StatementCache}, so DAOs preparing the same
+ * SQL through {@link Lease#prepareStatement(String)} reuse the compiled statement
+ * instead of having SQLite parse and plan it on every call.
+ * <p>
+ * The schema is brought up to date by the {@link SchemaMigrator} when the
+ * connection is opened.
+ * <p>
+ * A {@link #setBlockingThreadCheck(BooleanSupplier) blocking thread check} can be set to
+ * flag leases taken on a thread that must never wait on the database, such as the JavaFX
+ * Application Thread. Each flagged call site is logged once and every flagged lease is
+ * counted in the {@link PoolMetrics}.
+ * <p>
  * Usage:
  * <pre>
  * * SQLiteConnection connection = new SQLiteConnection();
@@ -17,50 +52,129 @@ import java.sql.SQLException;
  * * SQLiteConnection connection = new SQLiteConnection("myDatabase");
  * * // or for an in-memory database
  * * SQLiteConnection connection = new SQLiteConnection(true);
- * * * Connection conn = connection.getInstance();
+ * * try (SQLiteConnection.Lease lease = connection.read();
+ * *      PreparedStatement statement = lease.prepareStatement(sql)) {
+ * *     ...
+ * * }
  * * </pre>
  *
  * @author Joshua M.
  */
-public class SQLiteConnection {
+public class SQLiteConnection implements AutoCloseable {
+    public static final int DEFAULT_READ_POOL_SIZE = 4;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final boolean inMemory;
+    private final int readPoolSize;
+    private final int statementCacheSize;
     private Connection instance = null;
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> openReaders = new ArrayList<>();
+    private final ThreadLocal<ReadHold> readHold = new ThreadLocal<>();
+
+    private final AtomicInteger readersInUse = new AtomicInteger();
+    private final LongAdder readAcquisitions = new LongAdder();
+    private final LongAdder readWaitNanos = new LongAdder();
+    private final AtomicLong maxReadWaitNanos = new AtomicLong();
+    private final LongAdder writeAcquisitions = new LongAdder();
+    private final LongAdder writeWaitNanos = new LongAdder();
+    private final AtomicLong maxWriteWaitNanos = new AtomicLong();
+
+    private volatile BooleanSupplier blockingThreadCheck;
+    private final LongAdder blockingThreadLeases = new LongAdder();
+    private final Set<String> reportedBlockingCallers = ConcurrentHashMap.newKeySet();
 
 
     /**
      * Creates a connection to the default SQLite database "tutor.db".
      *
-     * @throws SQLException if a database connection error occurs
+     * @throws SQLException if a database connection or migration error occurs
     */
     public SQLiteConnection() throws SQLException {
-        String url = "jdbc:sqlite:tutor.db";
-        instance = DriverManager.getConnection(url);
+        this("jdbc:sqlite:tutor.db", false, DEFAULT_READ_POOL_SIZE, DEFAULT_STATEMENT_CACHE_SIZE);
     }
 
     /**
      * Creates a connection to a specified SQLite database.
      *
      * @param databaseName the name of the database to connect to
-     * @throws SQLException if a database connection error occurs
+     * @throws SQLException if a database connection or migration error occurs
      */
     public SQLiteConnection(String databaseName) throws SQLException {
-        String url = "jdbc:sqlite:" + databaseName + ".db";
-        instance = DriverManager.getConnection(url);
+        this(databaseName, DEFAULT_READ_POOL_SIZE);
+    }
+
+    /**
+     * Creates a connection to a specified SQLite database with a custom read pool size.
+     *
+     * @param databaseName the name of the database to connect to
+     * @param readPoolSize the maximum number of read-only connections to keep open
+     * @throws IllegalArgumentException if {@code readPoolSize} is less than 1
+     * @throws SQLException if a database connection or migration error occurs
+     */
+    public SQLiteConnection(String databaseName, int readPoolSize) throws IllegalArgumentException, SQLException {
+        this(databaseName, readPoolSize, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a connection to a specified SQLite database with a custom read pool and statement cache size.
+     *
+     * @param databaseName the name of the database to connect to
+     * @param readPoolSize the maximum number of read-only connections to keep open
+     * @param statementCacheSize the maximum number of prepared statements to keep per connection, or 0 to disable caching
+     * @throws IllegalArgumentException if {@code readPoolSize} is less than 1 or {@code statementCacheSize} is negative
+     * @throws SQLException if a database connection or migration error occurs
+     */
+    public SQLiteConnection(String databaseName, int readPoolSize, int statementCacheSize) throws IllegalArgumentException, SQLException {
+        this("jdbc:sqlite:" + databaseName + ".db", false, readPoolSize, statementCacheSize);
     }
 
     /**
      * Creates a connection to an in-memory SQLite database or the default "tutor.db".
      *
      * @param inMemory if true, connects to an in-memory database; otherwise, connects to "tutor.db"
-     * @throws SQLException if a database connection error occurs
+     * @throws SQLException if a database connection or migration error occurs
      */
     public SQLiteConnection(boolean inMemory) throws SQLException {
-        String url = "jdbc:sqlite:" + (inMemory ? ":memory:" : "tutor.db");
-        instance = DriverManager.getConnection(url);
+        this("jdbc:sqlite:" + (inMemory ? ":memory:" : "tutor.db"), inMemory, DEFAULT_READ_POOL_SIZE, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    private SQLiteConnection(String url, boolean inMemory, int readPoolSize, int statementCacheSize) throws IllegalArgumentException, SQLException {
+        if (readPoolSize < 1) {
+            throw new IllegalArgumentException("Invalid read pool size: must be at least 1");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid statement cache size: cannot be negative");
+        }
+        this.url = url;
+        this.inMemory = inMemory;
+        this.readPoolSize = readPoolSize;
+        this.statementCacheSize = statementCacheSize;
+        this.idleReaders = new ArrayBlockingQueue<>(readPoolSize);
+
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        if (!inMemory) {
+            config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        }
+        instance = config.createConnection(url);
+        SchemaMigrator.migrate(this);
+        ChatImporter.restoreDeferredSchema(this);
     }
 
 
     /**
-     * Returns the defined instance of the SQLite database connection.
+     * Returns the writer connection of the SQLite database.
+     * <p>
+     * The returned connection is shared, so DAOs should prefer {@link #write()} and
+     * {@link #read()}, which serialise writers and spread readers over the pool.
      *
      * @return the {@link Connection} instance
      * @throws RuntimeException if the connection has not been established
@@ -71,4 +185,408 @@ public class SQLiteConnection {
         }
         return instance;
     }
+
+    /**
+     * Leases the writer connection for the duration of a single DAO call.
+     * <p>
+     * Only one thread may hold the writer at a time. Leases are re-entrant, so a DAO
+     * call made while the current thread already holds the writer (for example inside
+     * a transaction) reuses it.
+     *
+     * @return a {@link Lease} which must be closed to release the writer
+     * @throws SQLException if the writer could not be acquired in time
+     * @throws RuntimeException if the connection has not been established
+     */
+    public Lease write() throws SQLException, RuntimeException {
+        Connection writer = getInstance();
+        if (writeLock.isHeldByCurrentThread()) {
+            writeLock.lock();
+            return new Lease(writer, true);
+        }
+
+        checkBlockingThread();
+        long start = System.nanoTime();
+        try {
+            if (!writeLock.tryLock(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SQLException("Timed out waiting for the database writer");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer", e);
+        }
+        recordWait(start, writeAcquisitions, writeWaitNanos, maxWriteWaitNanos);
+        return new Lease(writer, true);
+    }
+
+    /**
+     * Runs work inside a single write transaction.
+     * <p>
+     * The work is committed if it completes and rolled back if it throws. DAO calls made by
+     * the work lease the writer re-entrantly, so they take part in the same transaction. A
+     * transaction started while the current thread is already inside one joins the outer
+     * transaction, which commits or rolls back everything together.
+     *
+     * @param work the DAO calls to run
+     * @throws SQLException if the work or the commit fails
+     */
+    public void transaction(Transaction work) throws SQLException {
+        try (Lease lease = write()) {
+            Connection connection = lease.connection();
+            if (!connection.getAutoCommit()) {
+                work.run();
+                return;
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Leases a read-only connection for the duration of a single DAO call.
+     * <p>
+     * If the current thread already holds the writer, the writer is returned so that
+     * uncommitted changes in its transaction remain visible. Nested reads on the same
+     * thread reuse the connection already leased to it.
+     *
+     * @return a {@link Lease} which must be closed to return the connection to the pool
+     * @throws SQLException if no reader became available in time or one could not be opened
+     * @throws RuntimeException if the connection has not been established
+     */
+    public Lease read() throws SQLException, RuntimeException {
+        if (inMemory || writeLock.isHeldByCurrentThread()) {
+            return write();
+        }
+
+        ReadHold hold = readHold.get();
+        if (hold != null) {
+            hold.depth++;
+            return new Lease(hold.connection, false);
+        }
+
+        checkBlockingThread();
+        long start = System.nanoTime();
+        Connection reader = idleReaders.poll();
+        if (reader == null) {
+            reader = openReader();
+        }
+        if (reader == null) {
+            try {
+                reader = idleReaders.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a read connection", e);
+            }
+            if (reader == null) {
+                throw new SQLException("Timed out waiting for a read connection");
+            }
+        }
+        recordWait(start, readAcquisitions, readWaitNanos, maxReadWaitNanos);
+        readersInUse.incrementAndGet();
+        readHold.set(new ReadHold(reader));
+        return new Lease(reader, false);
+    }
+
+    /**
+     * Sets the check used to flag leases taken on a thread that must not block.
+     * <p>
+     * The check is run on the leasing thread whenever a connection is leased, other than
+     * re-entrantly, and returns true if that thread must not wait on the database. For
+     * example {@code Platform::isFxApplicationThread}.
+     *
+     * @param check the check to run, or {@code null} to stop flagging leases
+     */
+    public void setBlockingThreadCheck(BooleanSupplier check) {
+        blockingThreadCheck = check;
+    }
+
+    /**
+     * Counts a lease taken on a thread flagged by the blocking thread check, and logs
+     * the first lease from each call site.
+     */
+    private void checkBlockingThread() {
+        BooleanSupplier check = blockingThreadCheck;
+        if (check == null || !check.getAsBoolean()) {
+            return;
+        }
+        blockingThreadLeases.increment();
+
+        // The caller is the first frame outside the model package, e.g. a controller method
+        String caller = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith(SQLiteConnection.class.getPackageName() + "."))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName())
+                .orElse("unknown"));
+        if (reportedBlockingCallers.add(caller)) {
+            System.err.println("Database accessed on " + Thread.currentThread().getName() + " by " + caller);
+        }
+    }
+
+    /**
+     * Opens a new read-only connection if the pool has not reached its capacity.
+     *
+     * @return the new reader, or {@code null} if the pool is already full
+     * @throws SQLException if the connection could not be opened
+     */
+    private synchronized Connection openReader() throws SQLException {
+        if (instance == null || openReaders.size() >= readPoolSize) {
+            return null;
+        }
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        Connection reader = config.createConnection(url);
+        openReaders.add(reader);
+        return reader;
+    }
+
+    private void release(Lease lease) {
+        if (lease.writer) {
+            writeLock.unlock();
+            return;
+        }
+
+        ReadHold hold = readHold.get();
+        if (hold == null || --hold.depth > 0) {
+            return;
+        }
+        readHold.remove();
+        readersInUse.decrementAndGet();
+        if (!idleReaders.offer(hold.connection)) {
+            closeQuietly(hold.connection);
+        }
+    }
+
+    /**
+     * Prepares a statement on a leased connection through that connection's {@link StatementCache}.
+     */
+    private PreparedStatement prepareStatement(Connection connection, String sql, int autoGeneratedKeys) throws SQLException {
+        if (statementCacheSize == 0) {
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        StatementCache cache = statementCaches.computeIfAbsent(connection, c -> new StatementCache(c, statementCacheSize));
+        return cache.prepare(sql, autoGeneratedKeys);
+    }
+
+    private static void recordWait(long start, LongAdder count, LongAdder total, AtomicLong max) {
+        long waited = System.nanoTime() - start;
+        count.increment();
+        total.add(waited);
+        max.accumulateAndGet(waited, Math::max);
+    }
+
+    /**
+     * Returns a snapshot of the pool wait times and utilisation.
+     *
+     * @return the current {@link PoolMetrics}
+     */
+    public PoolMetrics getPoolMetrics() {
+        int open;
+        synchronized (this) {
+            open = openReaders.size();
+        }
+        long statementCacheHits = 0;
+        long statementCacheMisses = 0;
+        for (StatementCache cache : statementCaches.values()) {
+            statementCacheHits += cache.getHits();
+            statementCacheMisses += cache.getMisses();
+        }
+        return new PoolMetrics(
+                inMemory ? 1 : readPoolSize, open, readersInUse.get(),
+                readAcquisitions.sum(), readWaitNanos.sum(), maxReadWaitNanos.get(),
+                writeAcquisitions.sum(), writeWaitNanos.sum(), maxWriteWaitNanos.get(),
+                statementCacheHits, statementCacheMisses, blockingThreadLeases.sum()
+        );
+    }
+
+    /**
+     * Closes the cached statements, the writer and every pooled reader.
+     */
+    @Override
+    public synchronized void close() {
+        for (StatementCache cache : statementCaches.values()) {
+            cache.close();
+        }
+        statementCaches.clear();
+        for (Connection reader : openReaders) {
+            closeQuietly(reader);
+        }
+        openReaders.clear();
+        idleReaders.clear();
+        if (instance != null) {
+            closeQuietly(instance);
+            instance = null;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close database connection: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * A connection handed out for a single DAO call.
+     * <p>
+     * Closing the lease returns the connection to the pool, or releases the writer;
+     * the underlying connection itself stays open.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Connection connection;
+        private final boolean writer;
+        private boolean released = false;
+
+        private Lease(Connection connection, boolean writer) {
+            this.connection = connection;
+            this.writer = writer;
+        }
+
+        public Connection connection() { return connection; }
+
+        public boolean isWriter() { return writer; }
+
+        /**
+         * Prepares a statement on the leased connection, reusing a cached statement for the same SQL.
+         * <p>
+         * The statement must be closed before the lease, which returns it to the cache.
+         *
+         * @param sql the SQL statement
+         * @return the {@link PreparedStatement}
+         * @throws SQLException if the statement could not be prepared
+         */
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return prepareStatement(sql, Statement.NO_GENERATED_KEYS);
+        }
+
+        /**
+         * Prepares a statement on the leased connection, reusing a cached statement for the same SQL.
+         *
+         * @param sql the SQL statement
+         * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+         * @return the {@link PreparedStatement}
+         * @throws SQLException if the statement could not be prepared
+         */
+        public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+            return SQLiteConnection.this.prepareStatement(connection, sql, autoGeneratedKeys);
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(this);
+            }
+        }
+    }
+
+    /**
+     * Work run by {@link #transaction(Transaction)}.
+     */
+    @FunctionalInterface
+    public interface Transaction {
+        void run() throws SQLException;
+    }
+
+    private static final class ReadHold {
+        private final Connection connection;
+        private int depth = 1;
+
+        private ReadHold(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the connection pool metrics.
+     */
+    public static final class PoolMetrics {
+        private final int readPoolSize;
+        private final int openReaders;
+        private final int readersInUse;
+        private final long readAcquisitions;
+        private final long totalReadWaitNanos;
+        private final long maxReadWaitNanos;
+        private final long writeAcquisitions;
+        private final long totalWriteWaitNanos;
+        private final long maxWriteWaitNanos;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long blockingThreadLeases;
+
+        private PoolMetrics(int readPoolSize, int openReaders, int readersInUse,
+                            long readAcquisitions, long totalReadWaitNanos, long maxReadWaitNanos,
+                            long writeAcquisitions, long totalWriteWaitNanos, long maxWriteWaitNanos,
+                            long statementCacheHits, long statementCacheMisses, long blockingThreadLeases) {
+            this.readPoolSize = readPoolSize;
+            this.openReaders = openReaders;
+            this.readersInUse = readersInUse;
+            this.readAcquisitions = readAcquisitions;
+            this.totalReadWaitNanos = totalReadWaitNanos;
+            this.maxReadWaitNanos = maxReadWaitNanos;
+            this.writeAcquisitions = writeAcquisitions;
+            this.totalWriteWaitNanos = totalWriteWaitNanos;
+            this.maxWriteWaitNanos = maxWriteWaitNanos;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.blockingThreadLeases = blockingThreadLeases;
+        }
+
+        public int getReadPoolSize() { return readPoolSize; }
+
+        public int getOpenReaders() { return openReaders; }
+
+        public int getReadersInUse() { return readersInUse; }
+
+        public long getReadAcquisitions() { return readAcquisitions; }
+
+        public long getWriteAcquisitions() { return writeAcquisitions; }
+
+        public double getReadUtilisation() { return (double) readersInUse / readPoolSize; }
+
+        public double getAverageReadWaitMillis() { return averageMillis(totalReadWaitNanos, readAcquisitions); }
+
+        public double getMaxReadWaitMillis() { return maxReadWaitNanos / 1_000_000.0; }
+
+        public double getAverageWriteWaitMillis() { return averageMillis(totalWriteWaitNanos, writeAcquisitions); }
+
+        public double getMaxWriteWaitMillis() { return maxWriteWaitNanos / 1_000_000.0; }
+
+        public long getStatementCacheHits() { return statementCacheHits; }
+
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        public long getBlockingThreadLeases() { return blockingThreadLeases; }
+
+        public double getStatementCacheHitRate() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+        }
+
+        private static double averageMillis(long totalNanos, long count) {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "readers %d/%d open, %d in use (%.0f%%), read wait avg %.2fms max %.2fms, write wait avg %.2fms max %.2fms, "
+                    + "statement cache %.0f%% hits, %d leases on blocking threads",
+                    openReaders, readPoolSize, readersInUse, getReadUtilisation() * 100,
+                    getAverageReadWaitMillis(), getMaxReadWaitMillis(),
+                    getAverageWriteWaitMillis(), getMaxWriteWaitMillis(),
+                    getStatementCacheHitRate() * 100, blockingThreadLeases
+            );
+        }
+    }
 }
@@ -0,0 +1,393 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Brings the database schema up to date by applying versioned {@link Migration}s.
+ * <p>
+ * The current version is stored in the {@code schema_version} table. On startup every
+ * migration newer than the recorded version is applied in order, each inside its own
+ * transaction, so a failed migration leaves the schema at the last good version.
+ * <p>
+ * To change the schema, append a new {@link Migration} with the next version number to
+ * {@link #MIGRATIONS}. Existing migrations must never be edited once released, as
+ * databases that already applied them will not run them again.
+ *
+ * @author Joshua M.
+ */
+public final class SchemaMigrator {
+    /**
+     * The ordered list of schema migrations.
+     * <p>
+     * Version 1 uses {@code IF NOT EXISTS} so that databases created before the
+     * migration framework existed are adopted without losing data.
+     */
+    public static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create base tables",
+                    "CREATE TABLE IF NOT EXISTS users ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + "username VARCHAR UNIQUE NOT NULL,"
+                    + "password VARCHAR NOT NULL"
+                    + ")",
+                    "CREATE TABLE IF NOT EXISTS chats ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + "userId INTEGER NOT NULL,"
+                    + "name VARCHAR NOT NULL,"
+                    + "responseAttitude VARCHAR NOT NULL,"
+                    + "quizDifficulty VARCHAR NOT NULL,"
+                    + "quizLength INTEGER NOT NULL,"
+                    + "educationLevel VARCHAR,"
+                    + "studyArea VARCHAR,"
+                    + "FOREIGN KEY(userId) REFERENCES users(id) ON DELETE CASCADE"
+                    + ")",
+                    "CREATE TABLE IF NOT EXISTS messages ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                    + "chatId INTEGER NOT NULL,"
+                    + "content VARCHAR NOT NULL,"
+                    + "fromUser INTEGER NOT NULL,"
+                    + "isQuiz INTEGER NOT NULL,"
+                    + "FOREIGN KEY(chatId) REFERENCES chats(id) ON DELETE CASCADE"
+                    + ")",
+                    "CREATE TABLE IF NOT EXISTS quizzes ("
+                    + "messageId INTEGER PRIMARY KEY,"
+                    + "name VARCHAR NOT NULL,"
+                    + "difficulty VARCHAR NOT NULL,"
+                    + "FOREIGN KEY(messageId) REFERENCES messages(id) ON DELETE CASCADE"
+                    + ")",
+                    "CREATE TABLE IF NOT EXISTS quizQuestions ("
+                    + "messageId INTEGER,"
+                    + "number INTEGER CHECK (number >= 1),"
+                    + "question VARCHAR NOT NULL,"
+                    + "PRIMARY KEY (messageId, number),"
+                    + "FOREIGN KEY(messageId) REFERENCES quizzes(messageId) ON DELETE CASCADE"
+                    + ")",
+                    "CREATE TABLE IF NOT EXISTS answerOptions ("
+                    + "messageId INTEGER,"
+                    + "questionNumber INTEGER,"
+                    + "option VARCHAR,"
+                    + "value VARCHAR NOT NULL,"
+                    + "isAnswer INTEGER NOT NULL,"
+                    + "PRIMARY KEY (messageId, questionNumber, option),"
+                    + "FOREIGN KEY(messageId, questionNumber) REFERENCES quizQuestions(messageId, number) ON DELETE CASCADE"
+                    + ")",
+                    "CREATE TABLE IF NOT EXISTS userAnswers ("
+                    + "messageId INTEGER,"
+                    + "attempt INTEGER CHECK (attempt >= 1),"
+                    + "questionNumber INTEGER CHECK (questionNumber >= 1),"
+                    + "answerOption VARCHAR,"
+                    + "PRIMARY KEY (messageId, attempt, questionNumber),"
+                    + "FOREIGN KEY(messageId, questionNumber) REFERENCES quizQuestions(messageId, number) ON DELETE CASCADE"
+                    + ")"
+            ),
+            // users(username) is already covered by the index behind its UNIQUE constraint
+            new Migration(2, "Add lookup indexes",
+                    "CREATE INDEX IF NOT EXISTS idx_messages_chatId_id ON messages(chatId, id)",
+                    "CREATE INDEX IF NOT EXISTS idx_chats_userId ON chats(userId)",
+                    "CREATE INDEX IF NOT EXISTS idx_userAnswers_messageId_questionNumber ON userAnswers(messageId, questionNumber)"
+            ),
+            new Migration(3, "Add rolling chat summaries",
+                    "CREATE TABLE chatSummaries ("
+                    + "chatId INTEGER PRIMARY KEY,"
+                    + "summary VARCHAR NOT NULL,"
+                    + "lastMessageId INTEGER NOT NULL,"
+                    + "FOREIGN KEY(chatId) REFERENCES chats(id) ON DELETE CASCADE"
+                    + ")"
+            ),
+            new Migration(4, "Add AI response cache",
+                    "CREATE TABLE responseCache ("
+                    + "fingerprint VARCHAR PRIMARY KEY,"
+                    + "response VARCHAR NOT NULL,"
+                    + "sizeBytes INTEGER NOT NULL,"
+                    + "createdAt INTEGER NOT NULL,"
+                    + "lastAccessedAt INTEGER NOT NULL"
+                    + ")",
+                    "CREATE INDEX idx_responseCache_lastAccessedAt ON responseCache(lastAccessedAt)"
+            ),
+            // Covers MAX(attempt) per question, so finding the latest attempt is a single index seek
+            new Migration(5, "Index user answer attempts by question",
+                    "DROP INDEX IF EXISTS idx_userAnswers_messageId_questionNumber",
+                    "CREATE INDEX idx_userAnswers_messageId_questionNumber_attempt ON userAnswers(messageId, questionNumber, attempt)"
+            ),
+            new Migration(6, "Add quiz attempt results and score totals",
+                    "CREATE TABLE attemptResults ("
+                    + "messageId INTEGER,"
+                    + "attempt INTEGER CHECK (attempt >= 1),"
+                    + "score INTEGER NOT NULL,"
+                    + "questionCount INTEGER NOT NULL,"
+                    + "correctQuestions VARCHAR NOT NULL,"
+                    + "durationMillis INTEGER NOT NULL,"
+                    + "completedAt INTEGER NOT NULL,"
+                    + "PRIMARY KEY (messageId, attempt),"
+                    + "FOREIGN KEY(messageId) REFERENCES quizzes(messageId) ON DELETE CASCADE"
+                    + ")",
+                    "CREATE TABLE scoreTotals ("
+                    + "userId INTEGER,"
+                    + "dimension VARCHAR,"
+                    + "value VARCHAR,"
+                    + "attempts INTEGER NOT NULL,"
+                    + "score INTEGER NOT NULL,"
+                    + "questions INTEGER NOT NULL,"
+                    + "PRIMARY KEY (userId, dimension, value),"
+                    + "FOREIGN KEY(userId) REFERENCES users(id) ON DELETE CASCADE"
+                    + ")"
+            ),
+            // Rows are keyed by (messageId << 16) | questionNumber, the question number being 0 for the
+            // text of a message, so rows are added in increasing rowid order, as FTS5 flushes its pending
+            // index whenever a lower rowid is inserted. AI quiz messages hold the raw quiz JSON, so only
+            // their questions are indexed. The owner column restricts a search to one user's rows, and
+            // the prefix indexes keep short search-as-you-type prefixes to a single doclist.
+            new Migration(7, "Add full-text message search",
+                    "CREATE VIRTUAL TABLE messageSearch USING fts5("
+                    + "text, owner,"
+                    + "tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'"
+                    + ")",
+                    "CREATE TRIGGER messageSearch_messages_insert AFTER INSERT ON messages "
+                    + "WHEN new.fromUser = 1 OR new.isQuiz = 0 BEGIN "
+                    + "INSERT INTO messageSearch (rowid, text, owner) "
+                    + "SELECT new.id << 16, new.content, chats.userId FROM chats WHERE chats.id = new.chatId; "
+                    + "END",
+                    "CREATE TRIGGER messageSearch_messages_update AFTER UPDATE OF content ON messages BEGIN "
+                    + "UPDATE messageSearch SET text = new.content WHERE rowid = new.id << 16; "
+                    + "END",
+                    "CREATE TRIGGER messageSearch_messages_delete AFTER DELETE ON messages BEGIN "
+                    + "DELETE FROM messageSearch WHERE rowid = old.id << 16; "
+                    + "END",
+                    "CREATE TRIGGER messageSearch_quizQuestions_insert AFTER INSERT ON quizQuestions BEGIN "
+                    + "INSERT INTO messageSearch (rowid, text, owner) "
+                    + "SELECT (new.messageId << 16) | new.number, new.question, chats.userId "
+                    + "FROM messages JOIN chats ON chats.id = messages.chatId WHERE messages.id = new.messageId; "
+                    + "END",
+                    "CREATE TRIGGER messageSearch_quizQuestions_update AFTER UPDATE OF question ON quizQuestions BEGIN "
+                    + "UPDATE messageSearch SET text = new.question WHERE rowid = (new.messageId << 16) | new.number; "
+                    + "END",
+                    "CREATE TRIGGER messageSearch_quizQuestions_delete AFTER DELETE ON quizQuestions BEGIN "
+                    + "DELETE FROM messageSearch WHERE rowid = (old.messageId << 16) | old.number; "
+                    + "END",
+                    "CREATE TRIGGER messageSearch_chats_delete AFTER DELETE ON chats BEGIN "
+                    + "DELETE FROM messageSearch WHERE rowid IN (SELECT id << 16 FROM messages WHERE chatId = old.id); "
+                    + "DELETE FROM messageSearch WHERE rowid IN (SELECT (quizQuestions.messageId << 16) | quizQuestions.number "
+                    + "FROM quizQuestions JOIN messages ON messages.id = quizQuestions.messageId WHERE messages.chatId = old.id); "
+                    + "END",
+                    "INSERT INTO messageSearch (rowid, text, owner) "
+                    + "SELECT messages.id << 16, messages.content, chats.userId "
+                    + "FROM messages JOIN chats ON chats.id = messages.chatId "
+                    + "WHERE messages.fromUser = 1 OR messages.isQuiz = 0 ORDER BY messages.id",
+                    "INSERT INTO messageSearch (rowid, text, owner) "
+                    + "SELECT (quizQuestions.messageId << 16) | quizQuestions.number, quizQuestions.question, chats.userId "
+                    + "FROM quizQuestions JOIN messages ON messages.id = quizQuestions.messageId "
+                    + "JOIN chats ON chats.id = messages.chatId ORDER BY quizQuestions.messageId, quizQuestions.number"
+            ),
+            // Maintained by the DAOs saving messages and quizzes, so the chat list needs no aggregate over messages.
+            // Messages were never timestamped, so existing chats are given times one millisecond apart per message
+            // before the migration, which keeps them in the order of their latest message.
+            new Migration(8, "Add chat activity summaries",
+                    "ALTER TABLE chats ADD COLUMN lastMessageAt INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE chats ADD COLUMN messageCount INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE chats ADD COLUMN quizCount INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE chats ADD COLUMN lastMessagePreview VARCHAR",
+                    "UPDATE chats SET "
+                    + "messageCount = (SELECT COUNT(*) FROM messages WHERE messages.chatId = chats.id), "
+                    + "quizCount = (SELECT COUNT(*) FROM messages JOIN quizzes ON quizzes.messageId = messages.id "
+                    + "WHERE messages.chatId = chats.id), "
+                    + "lastMessagePreview = (SELECT substr(CASE WHEN m.fromUser = 0 AND m.isQuiz = 1 "
+                    + "THEN 'Quiz' || COALESCE(': ' || q.name, '') "
+                    + "ELSE trim(replace(replace(m.content, char(13), ' '), char(10), ' ')) END, 1, 100) "
+                    + "FROM messages m LEFT JOIN quizzes q ON q.messageId = m.id "
+                    + "WHERE m.chatId = chats.id ORDER BY m.id DESC LIMIT 1), "
+                    + "lastMessageAt = COALESCE((SELECT CAST(strftime('%s', 'now') AS INTEGER) * 1000 "
+                    + "- (SELECT MAX(id) FROM messages) + MAX(id) FROM messages WHERE messages.chatId = chats.id), 0)",
+                    // Also serves lookups by userId alone, so the old index is redundant
+                    "DROP INDEX IF EXISTS idx_chats_userId",
+                    "CREATE INDEX idx_chats_userId_lastMessageAt ON chats(userId, lastMessageAt)"
+            ),
+            // Attempts made before version 6 are graded from their saved answers, with no duration or completion
+            // time as neither was recorded. Results of deleted quizzes are dropped and the totals rebuilt, after
+            // which deleting a chat or quiz deletes its results, and each deleted result is taken off the totals.
+            // The chat and quiz triggers run before the delete, so a result can still be joined to its chat.
+            new Migration(9, "Keep score totals in step with deleted attempts",
+                    "INSERT INTO attemptResults (messageId, attempt, score, questionCount, correctQuestions, durationMillis, completedAt) "
+                    + "SELECT a.messageId, a.attempt, SUM(COALESCE(ao.isAnswer, 0)), COUNT(*), "
+                    + "group_concat(CASE WHEN ao.isAnswer = 1 THEN '1' ELSE '0' END, '' ORDER BY qq.number), 0, 0 "
+                    + "FROM (SELECT DISTINCT messageId, attempt FROM userAnswers) a "
+                    + "JOIN quizQuestions qq ON qq.messageId = a.messageId "
+                    + "LEFT JOIN userAnswers ua ON ua.messageId = a.messageId AND ua.attempt = a.attempt "
+                    + "AND ua.questionNumber = qq.number "
+                    + "LEFT JOIN answerOptions ao ON ao.messageId = qq.messageId AND ao.questionNumber = qq.number "
+                    + "AND ao.option = ua.answerOption "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM attemptResults r WHERE r.messageId = a.messageId AND r.attempt = a.attempt) "
+                    + "GROUP BY a.messageId, a.attempt",
+                    "DELETE FROM attemptResults WHERE messageId NOT IN (SELECT q.messageId FROM quizzes q "
+                    + "JOIN messages m ON m.id = q.messageId JOIN chats c ON c.id = m.chatId)",
+                    "DELETE FROM scoreTotals",
+                    "INSERT INTO scoreTotals (userId, dimension, value, attempts, score, questions) "
+                    + "SELECT c.userId, 'chat', c.id, COUNT(*), SUM(r.score), SUM(r.questionCount) FROM attemptResults r "
+                    + "JOIN messages m ON m.id = r.messageId JOIN chats c ON c.id = m.chatId "
+                    + "GROUP BY c.userId, c.id",
+                    "INSERT INTO scoreTotals (userId, dimension, value, attempts, score, questions) "
+                    + "SELECT c.userId, 'studyArea', c.studyArea, COUNT(*), SUM(r.score), SUM(r.questionCount) FROM attemptResults r "
+                    + "JOIN messages m ON m.id = r.messageId JOIN chats c ON c.id = m.chatId "
+                    + "WHERE c.studyArea IS NOT NULL GROUP BY c.userId, c.studyArea",
+                    "INSERT INTO scoreTotals (userId, dimension, value, attempts, score, questions) "
+                    + "SELECT c.userId, 'difficulty', q.difficulty, COUNT(*), SUM(r.score), SUM(r.questionCount) FROM attemptResults r "
+                    + "JOIN quizzes q ON q.messageId = r.messageId JOIN messages m ON m.id = q.messageId "
+                    + "JOIN chats c ON c.id = m.chatId GROUP BY c.userId, q.difficulty",
+                    "CREATE TRIGGER attemptResults_chats_delete BEFORE DELETE ON chats BEGIN "
+                    + "DELETE FROM attemptResults WHERE messageId IN (SELECT id FROM messages WHERE chatId = old.id); "
+                    + "END",
+                    "CREATE TRIGGER attemptResults_quizzes_delete BEFORE DELETE ON quizzes BEGIN "
+                    + "DELETE FROM attemptResults WHERE messageId = old.messageId; "
+                    + "END",
+                    "CREATE TRIGGER scoreTotals_attemptResults_delete AFTER DELETE ON attemptResults BEGIN "
+                    + "UPDATE scoreTotals SET attempts = attempts - 1, score = score - old.score, "
+                    + "questions = questions - old.questionCount "
+                    + "FROM quizzes q JOIN messages m ON m.id = q.messageId JOIN chats c ON c.id = m.chatId "
+                    + "WHERE q.messageId = old.messageId AND scoreTotals.userId = c.userId AND ("
+                    + "(scoreTotals.dimension = 'chat' AND scoreTotals.value = c.id) "
+                    + "OR (scoreTotals.dimension = 'studyArea' AND scoreTotals.value = c.studyArea) "
+                    + "OR (scoreTotals.dimension = 'difficulty' AND scoreTotals.value = q.difficulty)); "
+                    + "DELETE FROM scoreTotals WHERE attempts <= 0 AND userId = "
+                    + "(SELECT c.userId FROM messages m JOIN chats c ON c.id = m.chatId WHERE m.id = old.messageId); "
+                    + "END"
+            ),
+            // Filled in by ChatImporter in the transaction dropping the objects, so the objects of an import that
+            // never finished are recreated the next time the database is opened
+            new Migration(10, "Record schema objects dropped during imports",
+                    "CREATE TABLE deferredSchemaObjects ("
+                    + "name VARCHAR PRIMARY KEY,"
+                    + "type VARCHAR NOT NULL,"
+                    + "sql VARCHAR NOT NULL,"
+                    + "lastMessageId INTEGER NOT NULL"
+                    + ")"
+            ),
+            // The study area totals are keyed by the chat's current study area, which the delete trigger of version
+            // 9 subtracts from, so the totals of a chat's results follow its study area when it is changed
+            new Migration(11, "Move score totals with the study area of a chat",
+                    "CREATE TRIGGER scoreTotals_chats_studyArea_update AFTER UPDATE OF studyArea ON chats "
+                    + "WHEN old.studyArea IS NOT new.studyArea BEGIN "
+                    + "UPDATE scoreTotals SET attempts = attempts - moved.movedAttempts, score = score - moved.movedScore, "
+                    + "questions = questions - moved.movedQuestions "
+                    + "FROM (SELECT COUNT(*) AS movedAttempts, SUM(r.score) AS movedScore, SUM(r.questionCount) AS movedQuestions "
+                    + "FROM attemptResults r JOIN messages m ON m.id = r.messageId WHERE m.chatId = new.id) AS moved "
+                    + "WHERE scoreTotals.userId = old.userId AND scoreTotals.dimension = 'studyArea' "
+                    + "AND scoreTotals.value = old.studyArea AND moved.movedAttempts > 0; "
+                    + "DELETE FROM scoreTotals WHERE userId = old.userId AND dimension = 'studyArea' AND attempts <= 0; "
+                    + "INSERT INTO scoreTotals (userId, dimension, value, attempts, score, questions) "
+                    + "SELECT new.userId, 'studyArea', new.studyArea, COUNT(*), SUM(r.score), SUM(r.questionCount) "
+                    + "FROM attemptResults r JOIN messages m ON m.id = r.messageId "
+                    + "WHERE m.chatId = new.id AND new.studyArea IS NOT NULL HAVING COUNT(*) > 0 "
+                    + "ON CONFLICT (userId, dimension, value) DO UPDATE SET attempts = attempts + excluded.attempts, "
+                    + "score = score + excluded.score, questions = questions + excluded.questions; "
+                    + "END"
+            ),
+            // Foreign keys are not enforced, so the ON DELETE CASCADE of version 3 never removed the summary
+            // of a deleted chat. The summaries already left behind are removed as well.
+            new Migration(12, "Delete the summaries of deleted chats",
+                    "CREATE TRIGGER chatSummaries_chats_delete AFTER DELETE ON chats BEGIN "
+                    + "DELETE FROM chatSummaries WHERE chatId = old.id; "
+                    + "END",
+                    "DELETE FROM chatSummaries WHERE chatId NOT IN (SELECT id FROM chats)"
+            )
+    );
+
+    private SchemaMigrator() {}
+
+    /**
+     * Applies every pending migration in {@link #MIGRATIONS}.
+     *
+     * @param db the {@link SQLiteConnection} to migrate
+     * @return the number of migrations applied
+     * @throws SQLException if a migration fails
+     */
+    public static int migrate(SQLiteConnection db) throws SQLException {
+        return migrate(db, MIGRATIONS);
+    }
+
+    /**
+     * Applies every migration newer than the recorded schema version.
+     *
+     * @param db the {@link SQLiteConnection} to migrate
+     * @param migrations the migrations to apply, ordered by strictly increasing version
+     * @return the number of migrations applied
+     * @throws IllegalArgumentException if the migrations are not in strictly increasing version order
+     * @throws SQLException if a migration fails
+     */
+    public static int migrate(SQLiteConnection db, List<Migration> migrations) throws IllegalArgumentException, SQLException {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).getVersion() <= migrations.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Invalid migration order: version " + migrations.get(i).getVersion()
+                        + " must be greater than " + migrations.get(i - 1).getVersion());
+            }
+        }
+
+        try (SQLiteConnection.Lease lease = db.write()) {
+            Connection connection = lease.connection();
+            try (Statement createTable = connection.createStatement()) {
+                createTable.execute(
+                        "CREATE TABLE IF NOT EXISTS schema_version ("
+                        + "version INTEGER PRIMARY KEY,"
+                        + "description VARCHAR NOT NULL,"
+                        + "appliedAt INTEGER NOT NULL"
+                        + ")"
+                );
+            }
+
+            int currentVersion = getVersion(connection);
+            int applied = 0;
+            for (Migration migration : migrations) {
+                if (migration.getVersion() <= currentVersion) {
+                    continue;
+                }
+                applyMigration(connection, migration);
+                applied++;
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * Returns the schema version recorded in the database.
+     *
+     * @param db the {@link SQLiteConnection} to inspect
+     * @return the current schema version, or 0 if no migration has been applied
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    public static int getVersion(SQLiteConnection db) throws SQLException {
+        try (SQLiteConnection.Lease lease = db.read()) {
+            return getVersion(lease.connection());
+        }
+    }
+
+    private static int getVersion(Connection connection) throws SQLException {
+        try (Statement readVersion = connection.createStatement()) {
+            ResultSet resultSet = readVersion.executeQuery("SELECT MAX(version) FROM schema_version");
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private static void applyMigration(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            migration.apply(connection);
+            String sql = "INSERT INTO schema_version (version, description, appliedAt) VALUES (?, ?, ?)";
+            try (PreparedStatement recordVersion = connection.prepareStatement(sql)) {
+                recordVersion.setInt(1, migration.getVersion());
+                recordVersion.setString(2, migration.getDescription());
+                recordVersion.setLong(3, System.currentTimeMillis());
+                recordVersion.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Failed to apply migration " + migration.getVersion()
+                    + " (" + migration.getDescription() + "): " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
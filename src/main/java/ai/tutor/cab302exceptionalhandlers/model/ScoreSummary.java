@@ -0,0 +1,48 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+/**
+ * Represents the running score totals of a user's quiz attempts in one group
+ * <p>
+ * A group is a chat, a study area or a quiz difficulty. The totals are updated as each
+ * {@link AttemptResult} is saved, so averages are read without grading past attempts.
+ *
+ * @author Joshua M.
+ * @see ai.tutor.cab302exceptionalhandlers.model.AttemptResult
+ */
+public class ScoreSummary {
+    private final int attempts;
+    private final int score;
+    private final int questions;
+
+
+    /**
+     * Constructor for a ScoreSummary object
+     *
+     * @param attempts The number of graded attempts, must not be negative
+     * @param score The total number of correctly answered questions, must not be negative
+     * @param questions The total number of questions attempted, must not be less than {@code score}
+     * @throws IllegalArgumentException if any of the parameters are invalid
+     */
+    public ScoreSummary(int attempts, int score, int questions) throws IllegalArgumentException {
+        if (attempts < 0) { throw new IllegalArgumentException("Invalid Attempts: Cannot be negative"); }
+        this.attempts = attempts;
+
+        if (score < 0) { throw new IllegalArgumentException("Invalid Score: Cannot be negative"); }
+        this.score = score;
+
+        if (questions < score) { throw new IllegalArgumentException("Invalid Questions: Cannot be less than the score"); }
+        this.questions = questions;
+    }
+
+
+    public int getAttempts() { return attempts; }
+
+    public int getScore() { return score; }
+
+    public int getQuestions() { return questions; }
+
+    /**
+     * @return The fraction of questions answered correctly, or 0 if none have been attempted
+     */
+    public double getAverageScore() { return questions == 0 ? 0 : (double) score / questions; }
+}
@@ -0,0 +1,63 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+/**
+ * Represents one match of a full-text search over a user's chats
+ * <p>
+ * A match is either the text of a message, or a question of the quiz attached to a
+ * message, in which case {@link #getQuestionNumber()} is the number of that question.
+ * The snippet is the matched text shortened around the match, with each matched term
+ * wrapped in {@link MessageSearchDAO#MATCH_START} and {@link MessageSearchDAO#MATCH_END}.
+ *
+ * @author Joshua M.
+ * @see ai.tutor.cab302exceptionalhandlers.model.MessageSearchDAO
+ */
+public class SearchResult {
+    private final int chatId;
+    private final String chatName;
+    private final int messageId;
+    private final int questionNumber;
+    private final String snippet;
+    private final double rank;
+
+
+    /**
+     * Constructor for a SearchResult object
+     *
+     * @param chatId The ID of the chat the match belongs to
+     * @param chatName The name of the chat the match belongs to
+     * @param messageId The ID of the matched message
+     * @param questionNumber The number of the matched quiz question, or 0 if the message text matched
+     * @param snippet The matched text around the match
+     * @param rank The BM25 rank of the match, lower is more relevant
+     * @throws IllegalArgumentException if the question number is negative
+     */
+    public SearchResult(int chatId, String chatName, int messageId, int questionNumber, String snippet, double rank) throws IllegalArgumentException {
+        this.chatId = chatId;
+        this.chatName = chatName;
+        this.messageId = messageId;
+
+        if (questionNumber < 0) { throw new IllegalArgumentException("Invalid Question Number: Cannot be negative"); }
+        this.questionNumber = questionNumber;
+
+        this.snippet = snippet;
+        this.rank = rank;
+    }
+
+
+    public int getChatId() { return chatId; }
+
+    public String getChatName() { return chatName; }
+
+    public int getMessageId() { return messageId; }
+
+    public int getQuestionNumber() { return questionNumber; }
+
+    /**
+     * @return Whether a quiz question matched rather than the message text
+     */
+    public boolean isQuizQuestion() { return questionNumber > 0; }
+
+    public String getSnippet() { return snippet; }
+
+    public double getRank() { return rank; }
+}
@@ -0,0 +1,192 @@
+package ai.tutor.cab302exceptionalhandlers.model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the compiled {@link PreparedStatement}s of a single connection for reuse.
+ * <p>
+ * Preparing a statement makes SQLite parse and plan its SQL, which costs more than
+ * running most of the DAO queries themselves. {@link #prepare(String, int)} hands out a
+ * cached statement for SQL it has seen before. Closing that statement returns it to the
+ * cache instead of finalising it: its open {@link ResultSet} is closed, so no read
+ * transaction is left open, and its parameters and batch are cleared.
+ * <p>
+ * The cache holds at most {@code capacity} statements and finalises the least recently
+ * used one when it is full. If the same SQL is prepared again before the first
+ * statement has been closed, for example by a nested DAO call, an uncached statement
+ * is returned instead.
+ * <p>
+ * Statements are obtained through {@link SQLiteConnection.Lease#prepareStatement(String)}.
+ *
+ * @author Joshua M.
+ */
+public final class StatementCache {
+    private final Connection connection;
+    private final int capacity;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates an empty statement cache for a connection.
+     *
+     * @param connection the connection to prepare statements on
+     * @param capacity the maximum number of statements to keep
+     * @throws IllegalArgumentException if {@code capacity} is less than 1
+     */
+    public StatementCache(Connection connection, int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid statement cache capacity: must be at least 1");
+        }
+        this.connection = connection;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                evictions++;
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing a cached one if possible.
+     *
+     * @param sql the SQL statement
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+     * @return a {@link PreparedStatement} which must be closed to return it to the cache
+     * @throws SQLException if the statement could not be prepared
+     */
+    public synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits++;
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        misses++;
+        PreparedStatement statement = connection.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // Already handed out further up the call stack
+            return statement;
+        }
+        cached = new CachedStatement(statement);
+        cached.inUse = true;
+        statements.put(key, cached);
+        return cached.proxy;
+    }
+
+    public synchronized int size() { return statements.size(); }
+
+    public int getCapacity() { return capacity; }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * Finalises every cached statement.
+     */
+    public synchronized void close() {
+        List<CachedStatement> cached = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement statement : cached) {
+            statement.evict();
+        }
+    }
+
+    private synchronized void release(CachedStatement cached) throws SQLException {
+        try {
+            if (cached.resultSet != null) {
+                cached.resultSet.close();
+                cached.resultSet = null;
+            }
+            if (!cached.evicted) {
+                cached.statement.clearParameters();
+                cached.statement.clearBatch();
+            }
+        } finally {
+            cached.inUse = false;
+            if (cached.evicted) {
+                cached.statement.close();
+            }
+        }
+    }
+
+    /**
+     * A cached statement, handed out as a proxy whose {@code close()} returns it to the cache.
+     */
+    private final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private ResultSet resultSet;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+        }
+
+        private void evict() {
+            evicted = true;
+            if (inUse) {
+                // Finalised when the caller closes it
+                return;
+            }
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Failed to close cached statement: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse;
+                default:
+                    break;
+            }
+
+            try {
+                Object result = method.invoke(statement, args);
+                if (result instanceof ResultSet && method.getName().equals("executeQuery")) {
+                    resultSet = (ResultSet) result;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
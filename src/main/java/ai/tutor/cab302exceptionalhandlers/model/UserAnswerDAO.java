@@ -15,7 +15,7 @@ import java.util.List;
  * @author Joshua M.
  */
 public class UserAnswerDAO implements IUserAnswerDAO {
-    private final Connection connection;
+    private final SQLiteConnection db;
 
     /**
      * Constructs a sqlite {@code UserAnswerDAO} connection for database operations.
@@ -25,28 +25,7 @@ public class UserAnswerDAO implements IUserAnswerDAO {
      * @throws RuntimeException if the SQLite connection cannot be established
      */
     public UserAnswerDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
-        connection = sqliteConnection.getInstance();
-        createTable();
-    }
-
-    /**
-     * Creates the {@code userAnswers} table in the SQLite database.
-     *
-     * @throws SQLException if a database error occurs during table creation
-     */
-    private void createTable() throws SQLException {
-        try (Statement createTable = connection.createStatement()) {
-            createTable.execute(
-                    "CREATE TABLE IF NOT EXISTS userAnswers ("
-                    + "messageId INTEGER,"
-                    + "attempt INTEGER CHECK (attempt >= 1),"
-                    + "questionNumber INTEGER CHECK (questionNumber >= 1),"
-                    + "answerOption VARCHAR,"
-                    + "PRIMARY KEY (messageId, attempt, questionNumber),"
-                    + "FOREIGN KEY(messageId, questionNumber) REFERENCES quizQuestions(messageId, number) ON DELETE CASCADE"
-                    + ")"
-            );
-        }
+        db = sqliteConnection;
     }
 
     /**
@@ -63,7 +42,8 @@ public class UserAnswerDAO implements IUserAnswerDAO {
     @Override
     public void createUserAnswer(UserAnswer userAnswer) throws SQLException {
         String sql = "INSERT INTO userAnswers (messageId, attempt, questionNumber, answerOption) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement createUserAnswer = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement createUserAnswer = lease.prepareStatement(sql)) {
             createUserAnswer.setInt(1, userAnswer.getMessageId());
             createUserAnswer.setInt(2, userAnswer.getAttempt());
             createUserAnswer.setInt(3, userAnswer.getQuestionNumber());
@@ -72,6 +52,37 @@ public class UserAnswerDAO implements IUserAnswerDAO {
         }
     }
 
+    /**
+     * Inserts several new {@code UserAnswer} entities to the database.
+     * <p>
+     * This method inserts every {@code UserAnswer} into the {@code userAnswers} table as a
+     * single JDBC batch inside one transaction, so an attempt is either saved completely
+     * or not at all, and costs one commit however many questions the quiz has.
+     *
+     * @param userAnswers the {@code UserAnswer} entities to insert
+     * @throws SQLException if a database error occurs during insertion
+     */
+    @Override
+    public void createUserAnswers(List<UserAnswer> userAnswers) throws SQLException {
+        if (userAnswers.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO userAnswers (messageId, attempt, questionNumber, answerOption) VALUES (?, ?, ?, ?)";
+        db.transaction(() -> {
+            try (SQLiteConnection.Lease lease = db.write();
+                 PreparedStatement createUserAnswers = lease.prepareStatement(sql)) {
+                for (UserAnswer userAnswer : userAnswers) {
+                    createUserAnswers.setInt(1, userAnswer.getMessageId());
+                    createUserAnswers.setInt(2, userAnswer.getAttempt());
+                    createUserAnswers.setInt(3, userAnswer.getQuestionNumber());
+                    createUserAnswers.setString(4, userAnswer.getAnswerOption());
+                    createUserAnswers.addBatch();
+                }
+                createUserAnswers.executeBatch();
+            }
+        });
+    }
+
     /**
      * Retrieves a {@code UserAnswer} entity
      * <p>
@@ -89,7 +100,8 @@ public class UserAnswerDAO implements IUserAnswerDAO {
     @Override
     public UserAnswer getUserQuestionAnswer(int messageId, int attempt, int questionNumber) throws IllegalArgumentException, SQLException {
         String sql = "SELECT * FROM userAnswers WHERE messageId = ? AND attempt = ? AND questionNumber = ?";
-        try (PreparedStatement readUserQuestionAnswer = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUserQuestionAnswer = lease.prepareStatement(sql)) {
             readUserQuestionAnswer.setInt(1, messageId);
             readUserQuestionAnswer.setInt(2, attempt);
             readUserQuestionAnswer.setInt(3, questionNumber);
@@ -121,7 +133,8 @@ public class UserAnswerDAO implements IUserAnswerDAO {
     public List<UserAnswer> getAllUserQuestionAttempts(int messageId, int questionNumber) throws IllegalArgumentException, SQLException {
         List<UserAnswer> userQuestionAttempts = new ArrayList<>();
         String sql = "SELECT * FROM userAnswers WHERE messageId = ? AND questionNumber = ?";
-        try (PreparedStatement readUserQuestionAttempts = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUserQuestionAttempts = lease.prepareStatement(sql)) {
             readUserQuestionAttempts.setInt(1, messageId);
             readUserQuestionAttempts.setInt(2, questionNumber);
             ResultSet resultSet = readUserQuestionAttempts.executeQuery();
@@ -154,7 +167,8 @@ public class UserAnswerDAO implements IUserAnswerDAO {
     public List<UserAnswer> getAllUserQuizAnswers(int messageId, int attempt) throws IllegalArgumentException, SQLException {
         List<UserAnswer> userQuizAnswers = new ArrayList<>();
         String sql = "SELECT * FROM userAnswers WHERE messageId = ? AND attempt = ?";
-        try (PreparedStatement readUserQuizAnswers = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUserQuizAnswers = lease.prepareStatement(sql)) {
             readUserQuizAnswers.setInt(1, messageId);
             readUserQuizAnswers.setInt(2, attempt);
             ResultSet resultSet = readUserQuizAnswers.executeQuery();
@@ -185,7 +199,8 @@ public class UserAnswerDAO implements IUserAnswerDAO {
     public List<UserAnswer> getAllUserQuizAttempts(int messageId) throws IllegalArgumentException, SQLException {
         List<UserAnswer> userQuizAttempts = new ArrayList<>();
         String sql = "SELECT * FROM userAnswers WHERE messageId = ?";
-        try (PreparedStatement readUserQuizAttempts = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUserQuizAttempts = lease.prepareStatement(sql)) {
             readUserQuizAttempts.setInt(1, messageId);
             ResultSet resultSet = readUserQuizAttempts.executeQuery();
 
@@ -199,4 +214,56 @@ public class UserAnswerDAO implements IUserAnswerDAO {
         }
         return userQuizAttempts;
     }
+
+    /**
+     * Retrieves the latest attempt number for a specific quiz question.
+     * <p>
+     * This method reads {@code MAX(attempt)} for the specified message ID and question
+     * number, which SQLite answers with a single seek on the
+     * {@code (messageId, questionNumber, attempt)} index without loading any answers.
+     *
+     * @param messageId the ID of the associated quiz
+     * @param questionNumber the question number within the quiz
+     * @return the highest attempt number, or 0 if no answers exist for the question
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public int getLatestQuestionAttempt(int messageId, int questionNumber) throws SQLException {
+        String sql = "SELECT MAX(attempt) FROM userAnswers WHERE messageId = ? AND questionNumber = ?";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readLatestQuestionAttempt = lease.prepareStatement(sql)) {
+            readLatestQuestionAttempt.setInt(1, messageId);
+            readLatestQuestionAttempt.setInt(2, questionNumber);
+            ResultSet resultSet = readLatestQuestionAttempt.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Retrieves the attempt numbers for a specific quiz.
+     * <p>
+     * This method reads the {@code DISTINCT} attempt numbers for the specified message ID
+     * from the primary key index of {@code userAnswers}, instead of loading every answer
+     * of every attempt. Returns the attempt numbers in ascending order, which may be
+     * empty if the quiz has not been attempted.
+     *
+     * @param messageId the ID of the associated quiz
+     * @return a {@code List} of attempt numbers, or an empty list if none exist
+     * @throws SQLException if a database error occurs during retrieval
+     */
+    @Override
+    public List<Integer> getQuizAttemptNumbers(int messageId) throws SQLException {
+        List<Integer> attempts = new ArrayList<>();
+        String sql = "SELECT DISTINCT attempt FROM userAnswers WHERE messageId = ? ORDER BY attempt";
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readQuizAttemptNumbers = lease.prepareStatement(sql)) {
+            readQuizAttemptNumbers.setInt(1, messageId);
+            ResultSet resultSet = readQuizAttemptNumbers.executeQuery();
+
+            while (resultSet.next()) {
+                attempts.add(resultSet.getInt("attempt"));
+            }
+        }
+        return attempts;
+    }
 }
@@ -15,39 +15,17 @@ import java.util.List;
  * @author Joshua M.
  */
 public class UserDAO implements IUserDAO {
-    private final Connection connection;
+    private final SQLiteConnection db;
 
     /**
-     * Creates a {@code UserDAO} table with an SQLite database connection.
+     * Creates a {@code UserDAO} with an SQLite database connection.
      *
      * @param sqliteConnection the {@code SQLiteConnection} instance for database access
      * @throws SQLException if a database error occurs during initialisation
      * @throws RuntimeException if the SQLite connection cannot be established
      */
     public UserDAO(SQLiteConnection sqliteConnection) throws SQLException, RuntimeException {
-        connection = sqliteConnection.getInstance();
-        createTable();
-    }
-
-    /**
-     * Creates the {@code users} table in the SQLite database.
-     * <p>
-     * This method defines the schema for the {@code users} table, including columns for
-     * an auto-incrementing user ID, a unique username, and a password hash. The table
-     * enforces uniqueness on the username to prevent duplicate user accounts.
-     *
-     * @throws SQLException if a database error occurs during table creation
-     */
-    private void createTable() throws SQLException {
-        try (Statement createTable = connection.createStatement()) {
-            createTable.execute(
-                    "CREATE TABLE IF NOT EXISTS users ("
-                    + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + "username VARCHAR UNIQUE NOT NULL,"
-                    + "password VARCHAR NOT NULL"
-                    + ")"
-            );
-        }
+        db = sqliteConnection;
     }
 
 
@@ -64,7 +42,8 @@ public class UserDAO implements IUserDAO {
     @Override
     public void createUser(User user) throws SQLException {
         String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
-        try (PreparedStatement createUser = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement createUser = lease.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             createUser.setString(1, user.getUsername());
             createUser.setString(2, user.getPasswordHash());
             createUser.executeUpdate();
@@ -89,7 +68,8 @@ public class UserDAO implements IUserDAO {
     @Override
     public void updateUser(User user) throws SQLException {
         String sql = "UPDATE users SET username = ?, password = ? WHERE id = ?";
-        try (PreparedStatement updateUser = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement updateUser = lease.prepareStatement(sql)) {
             updateUser.setString(1, user.getUsername());
             updateUser.setString(2, user.getPasswordHash());
             updateUser.setInt(3, user.getId());
@@ -110,7 +90,8 @@ public class UserDAO implements IUserDAO {
     @Override
     public void deleteUser(User user) throws SQLException {
         String sql = "DELETE FROM users WHERE id = ?";
-        try (PreparedStatement deleteUser = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement deleteUser = lease.prepareStatement(sql)) {
             deleteUser.setInt(1, user.getId());
             deleteUser.executeUpdate();
         }
@@ -130,7 +111,8 @@ public class UserDAO implements IUserDAO {
     @Override
     public User getUser(int id) throws IllegalArgumentException, SQLException {
         String sql = "SELECT * FROM users WHERE id = ?";
-        try (PreparedStatement readUser = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUser = lease.prepareStatement(sql)) {
             readUser.setInt(1, id);
             ResultSet resultSet = readUser.executeQuery();
 
@@ -160,7 +142,8 @@ public class UserDAO implements IUserDAO {
     @Override
     public User getUser(String username) throws IllegalArgumentException, SQLException {
         String sql = "SELECT * FROM users WHERE username = ?";
-        try (PreparedStatement readUser = connection.prepareStatement(sql)) {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement readUser = lease.prepareStatement(sql)) {
             readUser.setString(1, username);
             ResultSet resultSet = readUser.executeQuery();
 
@@ -187,7 +170,8 @@ public class UserDAO implements IUserDAO {
     @Override
     public List<User> getAllUsers() throws SQLException {
         List<User> users = new ArrayList<>();
-        try (Statement readUsers = connection.createStatement()) {
+        try (SQLiteConnection.Lease lease = db.read();
+             Statement readUsers = lease.connection().createStatement()) {
             ResultSet resultSet = readUsers.executeQuery(
                     "SELECT * FROM users"
             );
@@ -0,0 +1,210 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.AIJobScheduler;
+import ai.tutor.cab302exceptionalhandlers.Utils.AIJobScheduler.AIJob;
+
+public class AIJobSchedulerTest {
+    private AIJobScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new AIJobScheduler(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private static <T> T await(AIJob<T> job) throws Exception {
+        return job.getFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testJobResult() throws Exception {
+        AIJob<String> job = scheduler.submit(1, () -> "response");
+        assertEquals("response", await(job));
+        assertEquals(AIJobScheduler.State.SUCCEEDED, job.getState());
+        assertEquals(1, scheduler.getMetrics().getSucceeded());
+    }
+
+    @Test
+    public void testJobFailure() {
+        AIJob<String> job = scheduler.submit(1, () -> { throw new IllegalStateException("failed"); });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> await(job));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(AIJobScheduler.State.FAILED, job.getState());
+    }
+
+    @Test
+    public void testChatJobsRunInOrder() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        AIJob<Integer> first = scheduler.submit(1, () -> { release.await(); order.add(1); return 1; });
+        AIJob<Integer> second = scheduler.submit(1, () -> { order.add(2); return 2; });
+        AIJob<Integer> third = scheduler.submit(1, () -> { order.add(3); return 3; });
+
+        assertEquals(AIJobScheduler.State.QUEUED, second.getState());
+        assertEquals(2, scheduler.getQueueDepth(1));
+        assertEquals(1, scheduler.getMetrics().getInFlight());
+
+        release.countDown();
+        await(first);
+        await(second);
+        await(third);
+        assertEquals(List.of(1, 2, 3), order);
+        assertFalse(scheduler.hasPendingJobs(1));
+    }
+
+    @Test
+    public void testMaxInFlightAcrossChats() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AIJob<Integer> chat1 = scheduler.submit(1, () -> { release.await(); return 1; });
+        AIJob<Integer> chat2 = scheduler.submit(2, () -> { release.await(); return 2; });
+        AIJob<Integer> chat3 = scheduler.submit(3, () -> 3);
+
+        assertEquals(AIJobScheduler.State.QUEUED, chat3.getState());
+        assertEquals(2, scheduler.getMetrics().getInFlight());
+        assertEquals(1, scheduler.getMetrics().getQueueDepth());
+
+        release.countDown();
+        assertEquals(3, await(chat3));
+        await(chat1);
+        await(chat2);
+        assertEquals(0, scheduler.getMetrics().getQueueDepth());
+        assertEquals(3, scheduler.getMetrics().getSucceeded());
+    }
+
+    @Test
+    public void testCancelQueuedJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AIJob<Integer> running = scheduler.submit(1, () -> { release.await(); return 1; });
+        AIJob<Integer> queued = scheduler.submit(1, () -> 2);
+
+        assertTrue(queued.cancel());
+        assertThrows(CancellationException.class, () -> queued.getFuture().join());
+        assertEquals(AIJobScheduler.State.CANCELLED, queued.getState());
+        assertEquals(0, scheduler.getQueueDepth(1));
+
+        release.countDown();
+        assertEquals(1, await(running));
+        assertFalse(queued.cancel());
+    }
+
+    @Test
+    public void testCancelRunningJobInterrupts() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AIJob<Integer> running = scheduler.submit(1, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return 1;
+        });
+        AIJob<Integer> next = scheduler.submit(1, () -> 2);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(running.cancel());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, () -> running.getFuture().join());
+
+        assertEquals(2, await(next));
+        assertEquals(1, scheduler.getMetrics().getCancelled());
+        assertEquals(0, scheduler.getMetrics().getFailed());
+    }
+
+    @Test
+    public void testCommittingJobCannotBeCancelled() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AIJob<Boolean> running = scheduler.submit(1, () -> {
+            boolean commit = scheduler.beginCommit();
+            committed.countDown();
+            release.await();
+            return commit;
+        });
+
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        assertFalse(running.cancel());
+        assertEquals(0, scheduler.cancelChat(1));
+        release.countDown();
+
+        assertTrue(await(running));
+        assertEquals(1, scheduler.getMetrics().getSucceeded());
+        assertEquals(0, scheduler.getMetrics().getCancelled());
+    }
+
+    @Test
+    public void testCancelledJobCannotCommit() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        List<Boolean> commits = new CopyOnWriteArrayList<>();
+        AIJob<Integer> running = scheduler.submit(1, () -> {
+            started.countDown();
+            try {
+                cancelled.await();
+            } catch (InterruptedException e) {
+                /* Keep going, as a job ignoring the interrupt would */
+            }
+            commits.add(scheduler.beginCommit());
+            return 1;
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(running.cancel());
+        cancelled.countDown();
+
+        assertThrows(CancellationException.class, () -> running.getFuture().join());
+        assertEquals(0, scheduler.submit(1, () -> 0).getFuture().get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(false), commits);
+    }
+
+    @Test
+    public void testCancelChat() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(1, () -> { release.await(); return 1; });
+        scheduler.submit(1, () -> 2);
+        AIJob<Integer> otherChat = scheduler.submit(2, () -> 3);
+
+        assertEquals(2, scheduler.cancelChat(1));
+        assertEquals(3, await(otherChat));
+        release.countDown();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        await(scheduler.submit(1, () -> { Thread.sleep(20); return 1; }));
+
+        AIJobScheduler.Metrics metrics = scheduler.getMetrics();
+        assertEquals(1, metrics.getSubmitted());
+        assertEquals(2, metrics.getMaxInFlight());
+        assertTrue(metrics.getAverageGenerationMillis() >= 20);
+        assertTrue(metrics.getMaxGenerationMillis() >= metrics.getAverageGenerationMillis());
+        assertTrue(metrics.getAverageWaitMillis() >= 0);
+    }
+
+    @Test
+    public void testSubmitAfterShutdown() {
+        scheduler.shutdown();
+        assertThrows(IllegalStateException.class, () -> scheduler.submit(1, () -> 1));
+    }
+
+    @Test
+    public void testInvalidMaxInFlight() {
+        assertThrows(IllegalArgumentException.class, () -> new AIJobScheduler(0));
+    }
+}
@@ -0,0 +1,270 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class AttemptResultTest {
+    private SQLiteConnection db;
+    private AttemptResultDAO attemptResultDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        attemptResultDAO = new AttemptResultDAO(db);
+
+        new UserDAO(db).createUser(new User("TestUser", "password"));
+        new UserDAO(db).createUser(new User("OtherUser", "password"));
+        ChatDAO chatDAO = new ChatDAO(db);
+        chatDAO.createChat(new Chat(1, "Test Chat 1", "regular", "normal", 3, "University", "IT"));
+        chatDAO.createChat(new Chat(1, "Test Chat 2", "regular", "hard", 3, "University", "Maths"));
+        chatDAO.createChat(new Chat(2, "Other Chat", "regular", "normal", 3, null, null));
+
+        MessageDAO messageDAO = new MessageDAO(db);
+        QuizDAO quizDAO = new QuizDAO(db);
+        for (int chatId = 1; chatId <= 3; chatId++) {
+            Message message = new Message(chatId, "Quiz content", false, true);
+            messageDAO.createMessage(message);
+            quizDAO.createQuiz(new Quiz(message.getId(), "Quiz " + chatId, chatId == 2 ? "hard" : "normal"));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void validAttemptResultObject() {
+        AttemptResult attemptResult = new AttemptResult(1, 2, List.of(true, false, true), 5000, 100);
+        assertEquals(1, attemptResult.getMessageId());
+        assertEquals(2, attemptResult.getAttempt());
+        assertEquals(2, attemptResult.getScore());
+        assertEquals(3, attemptResult.getQuestionCount());
+        assertTrue(attemptResult.isCorrect(1));
+        assertFalse(attemptResult.isCorrect(2));
+        assertFalse(attemptResult.isCorrect(4));
+        assertEquals(5000, attemptResult.getDurationMillis());
+        assertEquals(100, attemptResult.getCompletedAt());
+    }
+
+    @Test
+    void invalidAttemptResultObject() {
+        assertThrows(IllegalArgumentException.class, () -> new AttemptResult(0, 1, List.of(true), 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AttemptResult(1, 0, List.of(true), 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AttemptResult(1, 1, null, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AttemptResult(1, 1, List.of(true), -1, 0));
+    }
+
+    @Test
+    void invalidScoreSummaryObject() {
+        assertThrows(IllegalArgumentException.class, () -> new ScoreSummary(-1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ScoreSummary(1, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ScoreSummary(1, 3, 2));
+        assertEquals(0, new ScoreSummary(0, 0, 0).getAverageScore());
+    }
+
+    @Test
+    void testCreateAndGetAttemptResult() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true, false, true), 4200, 1000));
+
+        AttemptResult attemptResult = attemptResultDAO.getAttemptResult(1, 1);
+        assertNotNull(attemptResult);
+        assertEquals(List.of(true, false, true), attemptResult.getQuestionResults());
+        assertEquals(2, attemptResult.getScore());
+        assertEquals(4200, attemptResult.getDurationMillis());
+        assertEquals(1000, attemptResult.getCompletedAt());
+        assertNull(attemptResultDAO.getAttemptResult(1, 2));
+    }
+
+    @Test
+    void testGetAllQuizAttemptResults() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 2, List.of(true), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(false), 0, 0));
+
+        List<AttemptResult> attemptResults = attemptResultDAO.getAllQuizAttemptResults(1);
+        assertEquals(2, attemptResults.size());
+        assertEquals(1, attemptResults.get(0).getAttempt());
+        assertEquals(2, attemptResults.get(1).getAttempt());
+    }
+
+    @Test
+    void testScoreTotalsUpdatedIncrementally() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true, false, false), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 2, List.of(true, true, true), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(2, 1, List.of(true, false), 0, 0));
+
+        Map<Integer, ScoreSummary> chats = attemptResultDAO.getChatScoreSummaries(1);
+        assertEquals(2, chats.size());
+        assertEquals(2, chats.get(1).getAttempts());
+        assertEquals(4, chats.get(1).getScore());
+        assertEquals(6, chats.get(1).getQuestions());
+        assertEquals(0.5, chats.get(2).getAverageScore());
+
+        Map<String, ScoreSummary> studyAreas = attemptResultDAO.getStudyAreaScoreSummaries(1);
+        assertEquals(List.of("IT", "Maths"), List.copyOf(studyAreas.keySet()));
+        assertEquals(4.0 / 6, studyAreas.get("IT").getAverageScore());
+
+        Map<String, ScoreSummary> difficulties = attemptResultDAO.getDifficultyScoreSummaries(1);
+        assertEquals(2, difficulties.get("normal").getAttempts());
+        assertEquals(1, difficulties.get("hard").getAttempts());
+    }
+
+    @Test
+    void testScoreTotalsSeparatedByUser() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(3, 1, List.of(true), 0, 0));
+
+        assertTrue(attemptResultDAO.getChatScoreSummaries(1).isEmpty());
+        assertEquals(1, attemptResultDAO.getChatScoreSummaries(2).get(3).getScore());
+        // Chats without a study area are left out of the study area totals
+        assertTrue(attemptResultDAO.getStudyAreaScoreSummaries(2).isEmpty());
+        assertEquals(1, attemptResultDAO.getDifficultyScoreSummaries(2).get("normal").getAttempts());
+    }
+
+    @Test
+    void testDuplicateAttemptLeavesTotalsUnchanged() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true), 0, 0));
+
+        assertThrows(SQLException.class,
+                () -> attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true), 0, 0)));
+        assertEquals(1, attemptResultDAO.getChatScoreSummaries(1).get(1).getAttempts());
+    }
+
+    @Test
+    void testDeletingChatRemovesItsTotals() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true, false), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 2, List.of(true, true), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(2, 1, List.of(false, true), 0, 0));
+
+        ChatDAO chatDAO = new ChatDAO(db);
+        chatDAO.deleteChat(chatDAO.getChat(1));
+
+        assertTrue(attemptResultDAO.getAllQuizAttemptResults(1).isEmpty());
+        assertEquals(List.of(2), List.copyOf(attemptResultDAO.getChatScoreSummaries(1).keySet()));
+        assertEquals(List.of("Maths"), List.copyOf(attemptResultDAO.getStudyAreaScoreSummaries(1).keySet()));
+        Map<String, ScoreSummary> difficulties = attemptResultDAO.getDifficultyScoreSummaries(1);
+        assertEquals(List.of("hard"), List.copyOf(difficulties.keySet()));
+        assertEquals(1, difficulties.get("hard").getScore());
+    }
+
+    @Test
+    void testTotalsFollowChangedStudyArea() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true, false), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(2, 1, List.of(true, true), 0, 0));
+
+        ChatDAO chatDAO = new ChatDAO(db);
+        Chat itChat = chatDAO.getChat(1);
+        itChat.setStudyArea("Maths");
+        chatDAO.updateChat(itChat);
+
+        Map<String, ScoreSummary> studyAreas = attemptResultDAO.getStudyAreaScoreSummaries(1);
+        assertEquals(List.of("Maths"), List.copyOf(studyAreas.keySet()));
+        assertEquals(2, studyAreas.get("Maths").getAttempts());
+        assertEquals(3, studyAreas.get("Maths").getScore());
+
+        // A chat without results leaves the totals alone
+        Chat unattempted = new Chat(1, "Unattempted", "regular", "normal", 3, null, "Maths");
+        chatDAO.createChat(unattempted);
+        unattempted.setStudyArea("IT");
+        chatDAO.updateChat(unattempted);
+        assertEquals(3, attemptResultDAO.getStudyAreaScoreSummaries(1).get("Maths").getScore());
+        assertFalse(attemptResultDAO.getStudyAreaScoreSummaries(1).containsKey("IT"));
+
+        chatDAO.deleteChat(itChat);
+        studyAreas = attemptResultDAO.getStudyAreaScoreSummaries(1);
+        assertEquals(List.of("Maths"), List.copyOf(studyAreas.keySet()));
+        assertEquals(1, studyAreas.get("Maths").getAttempts());
+        assertEquals(2, studyAreas.get("Maths").getScore());
+
+        Chat mathsChat = chatDAO.getChat(2);
+        mathsChat.setStudyArea(null);
+        chatDAO.updateChat(mathsChat);
+        assertTrue(attemptResultDAO.getStudyAreaScoreSummaries(1).isEmpty());
+    }
+
+    @Test
+    void testChatTotalsAreOrderedById() throws SQLException {
+        ChatDAO chatDAO = new ChatDAO(db);
+        MessageDAO messageDAO = new MessageDAO(db);
+        QuizDAO quizDAO = new QuizDAO(db);
+        for (int chatId = 4; chatId <= 10; chatId++) {
+            chatDAO.createChat(new Chat(1, "Chat " + chatId, "regular", "normal", 3, null, null));
+            Message message = new Message(chatId, "Quiz content", false, true);
+            messageDAO.createMessage(message);
+            quizDAO.createQuiz(new Quiz(message.getId(), "Quiz " + chatId, "normal"));
+        }
+        attemptResultDAO.createAttemptResult(new AttemptResult(10, 1, List.of(true), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(9, 1, List.of(true), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true), 0, 0));
+
+        assertEquals(List.of(1, 9, 10), List.copyOf(attemptResultDAO.getChatScoreSummaries(1).keySet()));
+    }
+
+    @Test
+    void testDeletingAttemptSubtractsFromTotals() throws SQLException {
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 1, List.of(true, false), 0, 0));
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 2, List.of(true, true), 0, 0));
+
+        try (SQLiteConnection.Lease lease = db.write();
+             Statement statement = lease.connection().createStatement()) {
+            statement.execute("DELETE FROM attemptResults WHERE messageId = 1 AND attempt = 2");
+        }
+
+        ScoreSummary chat = attemptResultDAO.getChatScoreSummaries(1).get(1);
+        assertEquals(1, chat.getAttempts());
+        assertEquals(1, chat.getScore());
+        assertEquals(2, chat.getQuestions());
+        assertEquals(1, attemptResultDAO.getStudyAreaScoreSummaries(1).get("IT").getAttempts());
+        assertEquals(1, attemptResultDAO.getDifficultyScoreSummaries(1).get("normal").getAttempts());
+    }
+
+    @Test
+    void testMigrationGradesExistingAttempts() throws SQLException {
+        new QuizQuestionDAO(db).createQuizQuestion(new QuizQuestion(1, 1, "First?"));
+        new QuizQuestionDAO(db).createQuizQuestion(new QuizQuestion(1, 2, "Second?"));
+        AnswerOptionDAO answerOptionDAO = new AnswerOptionDAO(db);
+        for (int number = 1; number <= 2; number++) {
+            answerOptionDAO.createAnswerOption(new AnswerOption(1, number, "a", "Right", true));
+            answerOptionDAO.createAnswerOption(new AnswerOption(1, number, "b", "Wrong", false));
+        }
+        UserAnswerDAO userAnswerDAO = new UserAnswerDAO(db);
+        userAnswerDAO.createUserAnswer(new UserAnswer(1, 1, 1, "a"));
+        userAnswerDAO.createUserAnswer(new UserAnswer(1, 1, 2, "b"));
+        userAnswerDAO.createUserAnswer(new UserAnswer(1, 2, 2, "a"));
+        attemptResultDAO.createAttemptResult(new AttemptResult(1, 2, List.of(false, true), 300, 400));
+
+        // Roll back to version 8, before which answers had no results or totals
+        try (SQLiteConnection.Lease lease = db.write();
+             Statement statement = lease.connection().createStatement()) {
+            statement.execute("DROP TRIGGER attemptResults_chats_delete");
+            statement.execute("DROP TRIGGER attemptResults_quizzes_delete");
+            statement.execute("DROP TRIGGER scoreTotals_attemptResults_delete");
+            statement.execute("DELETE FROM attemptResults WHERE attempt = 1");
+            statement.execute("INSERT INTO attemptResults VALUES (9, 1, 1, 1, '1', 0, 0)");
+            statement.execute("UPDATE scoreTotals SET attempts = 7");
+            statement.execute("DROP TABLE deferredSchemaObjects");
+            statement.execute("DROP TRIGGER scoreTotals_chats_studyArea_update");
+            statement.execute("DROP TRIGGER chatSummaries_chats_delete");
+            statement.execute("DELETE FROM schema_version WHERE version >= 9");
+        }
+        SchemaMigrator.migrate(db);
+
+        AttemptResult graded = attemptResultDAO.getAttemptResult(1, 1);
+        assertEquals(List.of(true, false), graded.getQuestionResults());
+        assertEquals(0, graded.getDurationMillis());
+        assertEquals(300, attemptResultDAO.getAttemptResult(1, 2).getDurationMillis());
+        assertNull(attemptResultDAO.getAttemptResult(9, 1));
+
+        ScoreSummary chat = attemptResultDAO.getChatScoreSummaries(1).get(1);
+        assertEquals(2, chat.getAttempts());
+        assertEquals(2, chat.getScore());
+        assertEquals(4, chat.getQuestions());
+        assertEquals(2, attemptResultDAO.getDifficultyScoreSummaries(1).get("normal").getAttempts());
+    }
+}
@@ -0,0 +1,226 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class ChatActivityTest {
+    @TempDir
+    Path tempDir;
+
+    private SQLiteConnection db;
+    private DAORegistry daos;
+    private User user;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        daos = new DAORegistry(db);
+        user = new User("Active", "password");
+        daos.getUserDAO().createUser(user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    private void sleepPastMillisecond() {
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() == start) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void addQuiz(DAORegistry daos, Message quizMessage, String name) throws SQLException {
+        int messageId = quizMessage.getId();
+        daos.getQuizDAO().createQuizTree(new QuizTree(
+                new Quiz(messageId, name, "normal"),
+                List.of(new QuizQuestion(messageId, 1, "What is a cell?")),
+                Map.of(1, List.of(new AnswerOption(messageId, 1, "a", "A unit of life", true)))
+        ));
+    }
+
+    @Test
+    public void testMessagesUpdateChatActivity() throws SQLException {
+        Chat chat = TestData.addChat(daos, user.getId(), "Biology");
+        assertEquals(0, daos.getChatDAO().getChat(chat.getId()).getMessageCount());
+        assertNull(daos.getChatDAO().getChat(chat.getId()).getLastMessagePreview());
+
+        TestData.addMessage(daos, chat, "What are\r\ncells?  ", true, false);
+        TestData.addMessage(daos, chat, "x".repeat(Chat.PREVIEW_LENGTH + 20), false, false);
+
+        Chat updated = daos.getChatDAO().getChat(chat.getId());
+        assertEquals(2, updated.getMessageCount());
+        assertEquals(0, updated.getQuizCount());
+        assertEquals("x".repeat(Chat.PREVIEW_LENGTH), updated.getLastMessagePreview());
+        assertTrue(updated.getLastMessageAt() >= chat.getLastMessageAt());
+
+        TestData.addMessage(daos, chat, "What are\r\ncells?  ", true, false);
+        assertEquals("What are  cells?", new ChatDAO(db).getChat(chat.getId()).getLastMessagePreview());
+    }
+
+    @Test
+    public void testEmojiPreviewIsReadBack() throws SQLException {
+        Chat chat = TestData.addChat(daos, user.getId(), "Emoji");
+        String emoji = "\uD83D\uDE00";
+        TestData.addMessage(daos, chat, emoji.repeat(Chat.PREVIEW_LENGTH + 50), false, false);
+
+        daos.getChatDAO().clearCache();
+        Chat updated = daos.getChatDAO().getChat(chat.getId());
+        assertEquals(emoji.repeat(Chat.PREVIEW_LENGTH), updated.getLastMessagePreview());
+        assertEquals(1, daos.getChatDAO().getAllUserChats(user.getId()).size());
+        assertThrows(IllegalArgumentException.class, () -> updated.setLastMessagePreview(emoji.repeat(Chat.PREVIEW_LENGTH + 1)));
+    }
+
+    @Test
+    public void testQuizzesUpdateChatActivity() throws SQLException {
+        Chat chat = TestData.addChat(daos, user.getId(), "Biology");
+        TestData.addMessage(daos, chat, "Quiz me on cells", true, true);
+        Message quizMessage = TestData.addMessage(daos, chat, "{\"quizTitle\": \"Cells\"}", false, true);
+        assertEquals("Quiz", daos.getChatDAO().getChat(chat.getId()).getLastMessagePreview());
+
+        addQuiz(daos, quizMessage, "Cells");
+        Chat updated = daos.getChatDAO().getChat(chat.getId());
+        assertEquals(2, updated.getMessageCount());
+        assertEquals(1, updated.getQuizCount());
+        assertEquals("Quiz: Cells", updated.getLastMessagePreview());
+
+        // A quiz saved after a newer message only counts
+        Message olderQuizMessage = TestData.addMessage(daos, chat, "{\"quizTitle\": \"Organelles\"}", false, true);
+        TestData.addMessage(daos, chat, "Thanks!", true, false);
+        addQuiz(daos, olderQuizMessage, "Organelles");
+        updated = daos.getChatDAO().getChat(chat.getId());
+        assertEquals(2, updated.getQuizCount());
+        assertEquals("Thanks!", updated.getLastMessagePreview());
+    }
+
+    @Test
+    public void testChatsAreListedByRecentActivity() throws SQLException {
+        Chat first = TestData.addChat(daos, user.getId(), "First");
+        Chat second = TestData.addChat(daos, user.getId(), "Second");
+        Chat third = TestData.addChat(daos, user.getId(), "Third");
+        assertEquals(third.getId(), daos.getChatDAO().getAllUserChats(user.getId()).get(0).getId());
+
+        try (SQLiteConnection.Lease lease = db.write();
+             Statement statement = lease.connection().createStatement()) {
+            statement.execute("UPDATE chats SET lastMessageAt = 0");
+        }
+        daos.getChatDAO().clearCache();
+        TestData.addMessage(daos, second, "Hello", true, false);
+        /* Activity is kept in milliseconds, so make sure the second message is later */
+        sleepPastMillisecond();
+        TestData.addMessage(daos, first, "Hello again", true, false);
+
+        List<Chat> chats = daos.getChatDAO().getAllUserChats(user.getId());
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), chats.stream().map(Chat::getId).toList());
+        assertEquals("Hello again", chats.get(0).getLastMessagePreview());
+        assertEquals(1, chats.get(0).getMessageCount());
+    }
+
+    @Test
+    public void testCachedChatFollowsActivity() throws SQLException {
+        Chat chat = TestData.addChat(daos, user.getId(), "Biology");
+        List<Chat> updates = new ArrayList<>();
+        ChatChangeListener listener = new ChatChangeListener() {
+            @Override
+            public void chatCreated(Chat chat) {}
+
+            @Override
+            public void chatUpdated(Chat chat) { updates.add(chat); }
+
+            @Override
+            public void chatDeleted(Chat chat) {}
+
+            @Override
+            public void chatsInvalidated() {}
+        };
+        daos.getChatDAO().addChangeListener(listener);
+        daos.getChatDAO().getAllUserChats(user.getId());
+
+        TestData.addMessage(daos, chat, "Cells", true, false);
+        assertEquals(1, updates.size());
+        assertEquals(1, updates.get(0).getMessageCount());
+        assertEquals("Cells", updates.get(0).getLastMessagePreview());
+        assertEquals(1, daos.getChatDAO().getAllUserChats(user.getId()).get(0).getMessageCount());
+
+        // Renaming a stale copy of the chat keeps the saved activity
+        chat.setName("Cell Biology");
+        daos.getChatDAO().updateChatName(chat);
+        Chat renamed = daos.getChatDAO().getChat(chat.getId());
+        assertEquals("Cell Biology", renamed.getName());
+        assertEquals(1, renamed.getMessageCount());
+        assertEquals(2, updates.size());
+    }
+
+    @Test
+    public void testActivityListenerIsToldOfChanges() throws SQLException {
+        Chat chat = TestData.addChat(daos, user.getId(), "Biology");
+        List<Integer> changedChats = new ArrayList<>();
+        MessageDAO messageDAO = new MessageDAO(db, changedChats::add);
+        QuizDAO quizDAO = new QuizDAO(db, changedChats::add);
+
+        Message quizMessage = new Message(chat.getId(), "{}", false, true);
+        messageDAO.createMessage(quizMessage);
+        quizDAO.createQuiz(new Quiz(quizMessage.getId(), "Cells", "normal"));
+        assertEquals(List.of(chat.getId(), chat.getId()), changedChats);
+    }
+
+    @Test
+    public void testMigrationSummarisesExistingChats() throws SQLException {
+        String databaseName = tempDir.resolve("activity").toString();
+        SQLiteConnection fileDb = new SQLiteConnection(databaseName);
+        DAORegistry fileDaos = new DAORegistry(fileDb);
+        fileDaos.getUserDAO().createUser(new User("Existing", "password"));
+        int userId = fileDaos.getUserDAO().getUser("Existing").getId();
+        Chat older = TestData.addChat(fileDaos, userId, "Older");
+        Chat newer = TestData.addChat(fileDaos, userId, "Newer");
+        Chat empty = TestData.addChat(fileDaos, userId, "Empty");
+        TestData.addMessage(fileDaos, newer, "First question", true, false);
+        TestData.addMessage(fileDaos, older, "Quiz me", true, true);
+        addQuiz(fileDaos, TestData.addMessage(fileDaos, older, "{}", false, true), "Cells");
+        TestData.addMessage(fileDaos, newer, "Second question", true, false);
+
+        // Roll the database back to before the activity columns existed
+        try (SQLiteConnection.Lease lease = fileDb.write();
+             Statement statement = lease.connection().createStatement()) {
+            for (String trigger : List.of("attemptResults_chats_delete", "attemptResults_quizzes_delete",
+                    "scoreTotals_attemptResults_delete")) {
+                statement.execute("DROP TRIGGER " + trigger);
+            }
+            statement.execute("DROP INDEX idx_chats_userId_lastMessageAt");
+            for (String column : List.of("lastMessageAt", "messageCount", "quizCount", "lastMessagePreview")) {
+                statement.execute("ALTER TABLE chats DROP COLUMN " + column);
+            }
+            statement.execute("CREATE INDEX idx_chats_userId ON chats(userId)");
+            statement.execute("DROP TABLE deferredSchemaObjects");
+            statement.execute("DROP TRIGGER scoreTotals_chats_studyArea_update");
+            statement.execute("DROP TRIGGER chatSummaries_chats_delete");
+            statement.execute("DELETE FROM schema_version WHERE version >= 8");
+        }
+        fileDb.close();
+
+        fileDb = new SQLiteConnection(databaseName);
+        try {
+            List<Chat> chats = new ChatDAO(fileDb).getAllUserChats(userId);
+            assertEquals(List.of(newer.getId(), older.getId(), empty.getId()), chats.stream().map(Chat::getId).toList());
+            assertEquals(2, chats.get(0).getMessageCount());
+            assertEquals("Second question", chats.get(0).getLastMessagePreview());
+            assertEquals(1, chats.get(1).getQuizCount());
+            assertEquals("Quiz: Cells", chats.get(1).getLastMessagePreview());
+            assertEquals(0, chats.get(2).getMessageCount());
+            assertEquals(0, chats.get(2).getLastMessageAt());
+        } finally {
+            fileDb.close();
+        }
+    }
+}
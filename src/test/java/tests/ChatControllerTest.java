@@ -15,6 +15,8 @@ import java.util.*;
 import ai.tutor.cab302exceptionalhandlers.model.*;
 import ai.tutor.cab302exceptionalhandlers.Utils.AIUtils;
 import ai.tutor.cab302exceptionalhandlers.Utils.AIUtils.*;
+import ai.tutor.cab302exceptionalhandlers.Utils.ContextWindow;
+import ai.tutor.cab302exceptionalhandlers.Utils.ResponseCache;
 import ai.tutor.cab302exceptionalhandlers.controller.ChatController;
 
 import com.google.gson.Gson;
@@ -367,6 +369,30 @@ public class ChatControllerTest {
         );
     }
 
+    @Test
+    public void testFreshResponseIsNotServedFromCache() throws IllegalArgumentException, NoSuchElementException, SQLException {
+        ResponseCache previousCache = aiUtils.getResponseCache();
+        aiUtils.setResponseCache(new ResponseCache(new ResponseCacheDAO(db)));
+        try {
+            Chat chat = chatController.getChat(1);
+            Message userMessage = chatController.createNewChatMessage(chat.getId(), "What is a cell?", true, false);
+            ContextWindow context = aiUtils.buildContext(List.of(userMessage), chat, false, null, 0);
+            aiUtils.getResponseCache().put(aiUtils.fingerprint(context, chat, false), "Cached answer");
+
+            Message cachedResponse = chatController.generateChatMessageResponse(userMessage);
+            assertEquals("Cached answer", cachedResponse.getContent());
+
+            // The same history is cached again, but a fresh response must still be generated
+            context = aiUtils.buildContext(List.of(userMessage, cachedResponse), chat, false, null, 0);
+            aiUtils.getResponseCache().put(aiUtils.fingerprint(context, chat, false), "Cached answer");
+            Message freshResponse = chatController.generateFreshChatMessageResponse(userMessage);
+            assertNotEquals("Cached answer", freshResponse.getContent());
+            assertFalse(freshResponse.getFromUser());
+        } finally {
+            aiUtils.setResponseCache(previousCache);
+        }
+    }
+
     @Test
     public void testGetChatMessages() throws IllegalArgumentException, NoSuchElementException, SQLException {
         int chatId = 1;
@@ -399,6 +425,46 @@ public class ChatControllerTest {
         );
     }
 
+    @Test
+    public void testGetChatMessagesBefore() throws IllegalArgumentException, NoSuchElementException, SQLException {
+        int chatId = 1;
+        List<Message> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            created.add(chatController.createNewChatMessage(chatId, "Message " + i, i % 2 == 0, false));
+        }
+        chatController.createNewChatMessage(2, "Other chat", true, false);
+
+        List<Message> latest = chatController.getChatMessagesBefore(chatId, Integer.MAX_VALUE, 3);
+        assertEquals(3, latest.size());
+        assertEquals(created.get(4).getId(), latest.get(0).getId());
+        assertEquals(created.get(6).getId(), latest.get(2).getId());
+
+        List<Message> older = chatController.getChatMessagesBefore(chatId, latest.get(0).getId(), 3);
+        assertEquals(created.get(1).getId(), older.get(0).getId());
+        assertEquals(created.get(3).getId(), older.get(2).getId());
+
+        List<Message> oldest = chatController.getChatMessagesBefore(chatId, older.get(0).getId(), 3);
+        assertEquals(1, oldest.size());
+        assertEquals("Message 0", oldest.get(0).getContent());
+        assertTrue(chatController.getChatMessagesBefore(chatId, oldest.get(0).getId(), 3).isEmpty());
+    }
+
+    @Test
+    public void testGetChatMessagesBeforeInvalidLimit() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> chatController.getChatMessagesBefore(1, Integer.MAX_VALUE, 0)
+        );
+    }
+
+    @Test
+    public void testGetChatMessagesBeforeInvalidChatId() {
+        assertThrows(
+                NoSuchElementException.class,
+                () -> chatController.getChatMessagesBefore(Chats.length + 1, Integer.MAX_VALUE, 10)
+        );
+    }
+
     @Test
     public void testGetChatMessagesInvalidChatIdRange() {
         assertThrows(
@@ -462,6 +528,26 @@ public class ChatControllerTest {
         assertEquals(aiMessage.getId(), newQuiz.getMessageId());
     }
 
+    @Test
+    public void testCreateNewQuizNumbersQuestionsInOrder() throws IllegalArgumentException, NoSuchElementException, SQLException {
+        Message message = Messages.get("messageAIQuiz");
+        Message aiMessage = chatController.createNewChatMessage(
+                message.getChatId(), message.getContent(), message.getFromUser(), message.getIsQuiz()
+        );
+
+        chatController.createNewQuiz(QuizContent.get("valid"), aiMessage);
+
+        QuizTree quizTree = new QuizDAO(db).getQuizTree(aiMessage.getId());
+        Question[] questions = QuestionContent.get("valid");
+        assertEquals(questions.length, quizTree.getQuestions().size());
+        for (int i = 0; i < questions.length; i++) {
+            QuizQuestion question = quizTree.getQuestions().get(i);
+            assertEquals(i + 1, question.getNumber());
+            assertEquals(questions[i].getQuestionContent(), question.getQuestion());
+            assertEquals(questions[i].getOptions().length, quizTree.getAnswerOptions(question.getNumber()).size());
+        }
+    }
+
     @Test
     public void testCreateNewQuizInvalidNotQuiz() throws IllegalArgumentException, NoSuchElementException, SQLException {
         Message message = Messages.get("messageAI");
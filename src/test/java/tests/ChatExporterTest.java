@@ -0,0 +1,143 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.ChatExporter;
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class ChatExporterTest {
+    private static final int MESSAGE_COUNT = 7;
+
+    @TempDir
+    Path tempDir;
+
+    private SQLiteConnection db;
+    private MessageDAO messageDAO;
+    private Chat chat;
+    private Message quizMessage;
+    private ChatExporter exporter;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        User user = new User("TestUser", "password");
+        new UserDAO(db).createUser(user);
+        chat = new Chat(user.getId(), "Exported Chat", "regular", "normal", 1, "University", "IT");
+        new ChatDAO(db).createChat(chat);
+
+        messageDAO = new MessageDAO(db);
+        for (int i = 1; i < MESSAGE_COUNT; i++) {
+            messageDAO.createMessage(new Message(chat.getId(), "Message " + i, i % 2 == 1, false));
+        }
+        quizMessage = new Message(chat.getId(), "{\"quizTitle\": \"Quiz\"}", false, true);
+        messageDAO.createMessage(quizMessage);
+
+        QuizDAO quizDAO = new QuizDAO(db);
+        int messageId = quizMessage.getId();
+        quizDAO.createQuizTree(TestData.sumQuiz(messageId, "Exported Quiz", "normal"));
+        AttemptResultDAO attemptResultDAO = new AttemptResultDAO(db);
+        attemptResultDAO.createAttemptResult(new AttemptResult(messageId, 1, List.of(true), 5000, 100));
+
+        exporter = new ChatExporter(messageDAO, quizDAO, attemptResultDAO, 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testTextExportPagesThroughChat() throws IOException, SQLException {
+        Path path = tempDir.resolve("chat.txt");
+        List<Integer> progress = new ArrayList<>();
+        int exported = exporter.export(chat, ChatExporter.Format.TEXT, path, (done, total) -> {
+            assertEquals(MESSAGE_COUNT, total);
+            progress.add(done);
+        });
+
+        assertEquals(MESSAGE_COUNT, exported);
+        assertEquals(List.of(3, 6, 7), progress);
+        List<String> lines = Files.readAllLines(path);
+        assertEquals("Chat: Exported Chat", lines.get(0));
+        assertEquals("User: Message 1 [Quiz: No]", lines.get(2));
+        assertEquals("AI: Message 6 [Quiz: No]", lines.get(7));
+        assertEquals(MESSAGE_COUNT + 2, lines.size());
+        assertFalse(Files.exists(tempDir.resolve("chat.txt.part")));
+    }
+
+    @Test
+    public void testMarkdownExportIncludesQuiz() throws IOException, SQLException {
+        Path path = tempDir.resolve("chat.md");
+        exporter.export(chat, ChatExporter.Format.MARKDOWN, path, null);
+
+        String markdown = Files.readString(path);
+        assertTrue(markdown.startsWith("# Exported Chat\n\n**User:**\n\nMessage 1\n\n"));
+        assertTrue(markdown.contains("### Quiz: Exported Quiz (normal)"));
+        assertTrue(markdown.contains("1. What is 2 + 2?\n    - a. 3\n    - b. 4 **(correct)**\n"));
+        assertTrue(markdown.contains("- Attempt 1: 1/1 in 5s"));
+        assertFalse(markdown.contains("quizTitle"));
+    }
+
+    @Test
+    public void testNdjsonExportIncludesQuizTreeAndAttempts() throws IOException, SQLException {
+        Path path = tempDir.resolve("chat.ndjson");
+        exporter.export(chat, ChatExporter.Format.NDJSON, path, null);
+
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(MESSAGE_COUNT + 1, lines.size());
+        JsonObject chatObject = JsonParser.parseString(lines.get(0)).getAsJsonObject();
+        assertEquals("chat", chatObject.get("type").getAsString());
+        assertEquals("Exported Chat", chatObject.get("name").getAsString());
+
+        JsonObject quizObject = JsonParser.parseString(lines.get(MESSAGE_COUNT)).getAsJsonObject();
+        assertTrue(quizObject.get("isQuiz").getAsBoolean());
+        assertEquals("{\"quizTitle\": \"Quiz\"}", quizObject.get("content").getAsString());
+        JsonObject quiz = quizObject.getAsJsonObject("quiz");
+        assertEquals("Exported Quiz", quiz.get("name").getAsString());
+        assertEquals(2, quiz.getAsJsonArray("questions").get(0).getAsJsonObject().getAsJsonArray("options").size());
+        assertEquals(5000, quizObject.getAsJsonArray("attempts").get(0).getAsJsonObject().get("durationMillis").getAsLong());
+    }
+
+    @Test
+    public void testCancelledExportLeavesNoFile() throws IOException {
+        Path path = tempDir.resolve("chat.txt");
+        Files.writeString(path, "Previous export");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> exporter.export(chat, ChatExporter.Format.TEXT, path, null));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals("Previous export", Files.readString(path));
+        assertFalse(Files.exists(tempDir.resolve("chat.txt.part")));
+    }
+
+    @Test
+    public void testFormatFromFileName() {
+        assertEquals(ChatExporter.Format.MARKDOWN, ChatExporter.Format.fromFileName("chat.MD"));
+        assertEquals(ChatExporter.Format.NDJSON, ChatExporter.Format.fromFileName("chat.ndjson"));
+        assertEquals(ChatExporter.Format.TEXT, ChatExporter.Format.fromFileName("chat"));
+    }
+
+    @Test
+    public void testFormatWithExtension() {
+        assertEquals("chat.md", ChatExporter.Format.MARKDOWN.withExtension("chat"));
+        assertEquals("chat.MD", ChatExporter.Format.MARKDOWN.withExtension("chat.MD"));
+        assertEquals("chat.ndjson", ChatExporter.Format.NDJSON.withExtension("chat.txt"));
+        assertEquals("chat.v2.txt", ChatExporter.Format.TEXT.withExtension("chat.v2"));
+    }
+}
@@ -0,0 +1,99 @@
+package tests;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import ai.tutor.cab302exceptionalhandlers.model.ChatImporter;
+import ai.tutor.cab302exceptionalhandlers.model.DAORegistry;
+import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.User;
+
+/**
+ * Measures the throughput of {@link ChatImporter} as the import grows.
+ * <p>
+ * Each round writes an NDJSON file with the given number of messages (50 messages per
+ * chat, every tenth message a five question quiz with one attempt), imports it into a
+ * fresh file database, then imports that database into another one. Both imports report
+ * their rows and rows per second.
+ * <p>
+ * Run with the message counts as arguments, e.g. {@code 10000 100000 500000}.
+ */
+public class ChatImportBenchmark {
+    private static final int MESSAGES_PER_CHAT = 50;
+    private static final int QUIZ_EVERY = 10;
+    private static final int QUESTIONS_PER_QUIZ = 5;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {10_000, 100_000, 500_000};
+
+        Path directory = Files.createTempDirectory("tutor-import-bench");
+        try {
+            for (int size : sizes) {
+                Path ndjson = directory.resolve("chats-" + size + ".ndjson");
+                writeNdjson(ndjson, size);
+
+                String ndjsonTarget = directory.resolve("ndjson-" + size).toString();
+                System.out.printf("%d messages from NDJSON: %s%n", size, importInto(ndjsonTarget, importer ->
+                        importer.importNdjson(ndjson, 1)));
+
+                Path sourceDatabase = Path.of(ndjsonTarget + ".db");
+                System.out.printf("%d messages from tutor.db: %s%n", size, importInto(directory.resolve("db-" + size).toString(), importer ->
+                        importer.importDatabase(sourceDatabase, null, 1)));
+            }
+        } finally {
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Import {
+        ChatImporter.Result run(ChatImporter importer) throws Exception;
+    }
+
+    private static ChatImporter.Result importInto(String databaseName, Import work) throws Exception {
+        SQLiteConnection db = new SQLiteConnection(databaseName);
+        try {
+            DAORegistry daos = new DAORegistry(db);
+            daos.getUserDAO().createUser(new User("benchmark", "password"));
+            return work.run(new ChatImporter(daos));
+        } finally {
+            db.close();
+        }
+    }
+
+    private static void writeNdjson(Path path, int messages) throws Exception {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int row = 0; row < messages; row++) {
+                if (row % MESSAGES_PER_CHAT == 0) {
+                    writer.write("{\"type\":\"chat\",\"name\":\"Chat " + row / MESSAGES_PER_CHAT
+                            + "\",\"responseAttitude\":\"regular\",\"quizDifficulty\":\"normal\",\"quizLength\":5,\"studyArea\":\"IT\"}\n");
+                }
+                if (row % QUIZ_EVERY != QUIZ_EVERY - 1) {
+                    writer.write("{\"type\":\"message\",\"fromUser\":" + (row % 2 == 0)
+                            + ",\"isQuiz\":false,\"content\":\"Benchmark message content " + row + "\"}\n");
+                    continue;
+                }
+
+                StringBuilder questions = new StringBuilder();
+                for (int number = 1; number <= QUESTIONS_PER_QUIZ; number++) {
+                    questions.append(number == 1 ? "" : ",").append("{\"number\":").append(number)
+                            .append(",\"question\":\"Question ").append(number).append("\",\"options\":[")
+                            .append("{\"option\":\"a\",\"value\":\"Right\",\"isAnswer\":true},")
+                            .append("{\"option\":\"b\",\"value\":\"Wrong\",\"isAnswer\":false}]}");
+                }
+                writer.write("{\"type\":\"message\",\"fromUser\":false,\"isQuiz\":true,\"content\":\"Quiz " + row
+                        + "\",\"quiz\":{\"name\":\"Quiz\",\"difficulty\":\"normal\",\"questions\":[" + questions + "]},"
+                        + "\"attempts\":[{\"attempt\":1,\"questionResults\":[true,false,true,true,false],"
+                        + "\"durationMillis\":60000,\"completedAt\":0}]}\n");
+            }
+        }
+    }
+}
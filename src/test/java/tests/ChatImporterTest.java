@@ -0,0 +1,246 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.ChatExporter;
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class ChatImporterTest {
+    @TempDir
+    Path tempDir;
+
+    private SQLiteConnection db;
+    private DAORegistry daos;
+    private User user;
+    private Chat existingChat;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        daos = new DAORegistry(db);
+        user = new User("Importer", "password");
+        daos.getUserDAO().createUser(user);
+        existingChat = new Chat(user.getId(), "Existing Chat", "regular", "normal", 1, "University", "IT");
+        daos.getChatDAO().createChat(existingChat);
+        daos.getMessageDAO().createMessage(new Message(existingChat.getId(), "Existing message", true, false));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    /**
+     * Fills a database with a chat of three messages, the last of which has a quiz with an attempt.
+     */
+    private static Chat populate(DAORegistry source, User owner, String chatName) throws SQLException {
+        Chat chat = new Chat(owner.getId(), chatName, "casual", "hard", 1, null, "Maths");
+        source.getChatDAO().createChat(chat);
+        source.getMessageDAO().createMessage(new Message(chat.getId(), "Quiz me", true, true));
+        source.getMessageDAO().createMessage(new Message(chat.getId(), "Sure, here is a <quiz>", false, false));
+        Message quizMessage = new Message(chat.getId(), "{\"quizTitle\": \"Sums\"}", false, true);
+        source.getMessageDAO().createMessage(quizMessage);
+
+        int messageId = quizMessage.getId();
+        source.getQuizDAO().createQuizTree(TestData.sumQuiz(messageId, "Sums", "hard"));
+        source.getUserAnswerDAO().createUserAnswer(new UserAnswer(messageId, 1, 1, "b"));
+        source.getAttemptResultDAO().createAttemptResult(new AttemptResult(messageId, 1, List.of(true), 3000, 100));
+        return chat;
+    }
+
+    private int countIndexes() throws SQLException {
+        try (SQLiteConnection.Lease lease = db.read();
+             Statement statement = lease.connection().createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND sql IS NOT NULL");
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private int countTriggers() throws SQLException {
+        try (SQLiteConnection.Lease lease = db.read();
+             Statement statement = lease.connection().createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger'");
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private void assertImportedChat(Chat imported) throws SQLException {
+        assertEquals("casual", imported.getResponseAttitude());
+        assertNull(imported.getEducationLevel());
+        assertEquals(3, imported.getMessageCount());
+        assertEquals(1, imported.getQuizCount());
+        assertEquals("Quiz: Sums", imported.getLastMessagePreview());
+
+        List<Message> messages = daos.getMessageDAO().getAllChatMessages(imported.getId());
+        assertEquals(3, messages.size());
+        assertEquals("Sure, here is a <quiz>", messages.get(1).getContent());
+        assertTrue(messages.get(0).getId() > existingChat.getId());
+
+        int quizMessageId = messages.get(2).getId();
+        QuizTree quizTree = daos.getQuizDAO().getQuizTree(quizMessageId);
+        assertNotNull(quizTree);
+        assertEquals("Sums", quizTree.getQuiz().getName());
+        assertTrue(quizTree.getAnswerOptions(1).get(1).getIsAnswer());
+        assertEquals(3000, daos.getAttemptResultDAO().getAttemptResult(quizMessageId, 1).getDurationMillis());
+        assertEquals(1, daos.getAttemptResultDAO().getChatScoreSummaries(user.getId()).get(imported.getId()).getScore());
+    }
+
+    @Test
+    public void testImportsNdjsonExport() throws SQLException, IOException {
+        DAORegistry source = new DAORegistry(new SQLiteConnection(true));
+        User owner = new User("Owner", "password");
+        source.getUserDAO().createUser(owner);
+        Chat chat = populate(source, owner, "Exported Chat");
+        Path path = tempDir.resolve("chat.ndjson");
+        new ChatExporter(source.getMessageDAO(), source.getQuizDAO(), source.getAttemptResultDAO())
+                .export(chat, ChatExporter.Format.NDJSON, path, null);
+        source.getConnection().close();
+
+        int indexes = countIndexes();
+        int triggers = countTriggers();
+        assertEquals(1, daos.getChatDAO().getAllUserChats(user.getId()).size());
+        ChatImporter.Result result = new ChatImporter(daos, 2, 0).importNdjson(path, user.getId());
+
+        assertEquals(1, result.getChats());
+        assertEquals(3, result.getMessages());
+        assertEquals(1 + 3 + 1 + 1 + 2 + 1, result.getRows());
+        assertEquals(0, result.getRejected());
+        assertTrue(result.getBatches() > 1);
+        assertTrue(result.getDeferredIndexes());
+        assertEquals(indexes, countIndexes());
+        assertEquals(triggers, countTriggers());
+        try (SQLiteConnection.Lease lease = db.read();
+             Statement statement = lease.connection().createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM deferredSchemaObjects");
+            assertTrue(resultSet.next());
+            assertEquals(0, resultSet.getInt(1));
+        }
+        MessageSearchDAO searchDAO = daos.getMessageSearchDAO();
+        assertEquals(1, searchDAO.search(user.getId(), "sure", 10).size());
+        assertTrue(searchDAO.search(user.getId(), "2 + 2", 10).get(0).isQuizQuestion());
+
+        // Imported chats are listed first, as the import is their latest activity
+        List<Chat> chats = daos.getChatDAO().getAllUserChats(user.getId());
+        assertEquals(2, chats.size());
+        assertImportedChat(chats.get(0));
+    }
+
+    @Test
+    public void testImportedIdsAreNotReused() throws SQLException, IOException {
+        Path path = tempDir.resolve("chat.ndjson");
+        Files.writeString(path, """
+                {"type": "chat", "name": "Imported", "responseAttitude": "regular", "quizDifficulty": "normal", "quizLength": 1}
+                {"type": "message", "fromUser": true, "isQuiz": false, "content": "Imported message"}
+                """);
+        new ChatImporter(daos).importNdjson(path, user.getId());
+
+        Message message = new Message(existingChat.getId(), "Message after import", true, false);
+        daos.getMessageDAO().createMessage(message);
+        List<Message> imported = daos.getMessageDAO().getAllChatMessages(existingChat.getId() + 1);
+        assertEquals(1, imported.size());
+        assertTrue(message.getId() > imported.get(0).getId());
+    }
+
+    @Test
+    public void testRejectsInvalidRecords() throws SQLException, IOException {
+        Path path = tempDir.resolve("chat.ndjson");
+        Files.writeString(path, """
+                {"type": "chat", "name": "", "responseAttitude": "regular", "quizDifficulty": "normal", "quizLength": 1}
+                {"type": "message", "fromUser": true, "isQuiz": false, "content": "Message of a rejected chat"}
+                not json
+
+                {"type": "chat", "name": "Valid", "responseAttitude": "regular", "quizDifficulty": "normal", "quizLength": 1}
+                {"type": "message", "fromUser": true, "isQuiz": false, "content": ""}
+                {"type": "message", "fromUser": false, "isQuiz": true, "content": "Quiz", "quiz": {"name": "Quiz", "difficulty": "normal", "questions": [{"number": 0, "question": "Invalid"}]}}
+                {"type": "unknown"}
+                {"type": "message", "fromUser": true, "isQuiz": false, "content": "Valid message"}
+                """);
+        ChatImporter.Result result = new ChatImporter(daos).importNdjson(path, user.getId());
+
+        assertEquals(1, result.getChats());
+        assertEquals(1, result.getMessages());
+        assertEquals(0, result.getQuizzes());
+        assertEquals(6, result.getRejected());
+        assertFalse(result.getDeferredIndexes());
+    }
+
+    @Test
+    public void testImportsDatabaseOfOneUser() throws SQLException {
+        SQLiteConnection sourceDb = new SQLiteConnection(tempDir.resolve("source").toString());
+        DAORegistry source = new DAORegistry(sourceDb);
+        User owner = new User("Owner", "password");
+        User other = new User("Other", "password");
+        source.getUserDAO().createUser(owner);
+        source.getUserDAO().createUser(other);
+        populate(source, other, "Other Chat");
+        populate(source, owner, "Owner Chat");
+        sourceDb.close();
+
+        ChatImporter.Result result = new ChatImporter(daos).importDatabase(tempDir.resolve("source.db"), "Owner", user.getId());
+
+        assertEquals(1, result.getChats());
+        assertEquals(1, result.getUserAnswers());
+        assertEquals(1, result.getAttemptResults());
+        assertEquals(0, result.getRejected());
+        List<Chat> chats = daos.getChatDAO().getAllUserChats(user.getId());
+        assertEquals("Owner Chat", chats.get(0).getName());
+        assertImportedChat(chats.get(0));
+        int quizMessageId = daos.getMessageDAO().getAllChatMessages(chats.get(0).getId()).get(2).getId();
+        assertEquals("b", daos.getUserAnswerDAO().getUserQuestionAnswer(quizMessageId, 1, 1).getAnswerOption());
+    }
+
+    @Test
+    public void testInterruptedImportIsRestoredOnOpen() throws SQLException {
+        String databaseName = tempDir.resolve("interrupted").toString();
+        SQLiteConnection fileDb = new SQLiteConnection(databaseName);
+        DAORegistry fileDaos = new DAORegistry(fileDb);
+        User owner = new User("Owner", "password");
+        fileDaos.getUserDAO().createUser(owner);
+        Chat chat = new Chat(owner.getId(), "Chemistry", "regular", "normal", 1, null, null);
+        fileDaos.getChatDAO().createChat(chat);
+
+        // Leave the database as an import that dropped its indexes and triggers would if the process died
+        try (SQLiteConnection.Lease lease = fileDb.write();
+             Statement statement = lease.connection().createStatement()) {
+            statement.execute("INSERT INTO deferredSchemaObjects SELECT name, type, sql, 0 FROM sqlite_master "
+                    + "WHERE name IN ('idx_messages_chatId_id', 'messageSearch_messages_insert')");
+            statement.execute("DROP INDEX idx_messages_chatId_id");
+            statement.execute("DROP TRIGGER messageSearch_messages_insert");
+            statement.execute("INSERT INTO messages (chatId, content, fromUser, isQuiz) VALUES (" + chat.getId() + ", 'Imported alkanes', 1, 0)");
+        }
+        fileDb.close();
+
+        fileDb = new SQLiteConnection(databaseName);
+        try (SQLiteConnection.Lease lease = fileDb.read();
+             Statement statement = lease.connection().createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT (SELECT COUNT(*) FROM deferredSchemaObjects), "
+                    + "(SELECT COUNT(*) FROM sqlite_master WHERE name IN ('idx_messages_chatId_id', 'messageSearch_messages_insert'))");
+            assertTrue(resultSet.next());
+            assertEquals(0, resultSet.getInt(1));
+            assertEquals(2, resultSet.getInt(2));
+        }
+        fileDaos = new DAORegistry(fileDb);
+        assertEquals(1, fileDaos.getMessageSearchDAO().search(owner.getId(), "alkanes", 10).size());
+        fileDaos.getMessageDAO().createMessage(new Message(chat.getId(), "Alkenes have a double bond", true, false));
+        assertEquals(1, fileDaos.getMessageSearchDAO().search(owner.getId(), "alkenes", 10).size());
+        fileDb.close();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ChatImporter(null));
+        assertThrows(IllegalArgumentException.class, () -> new ChatImporter(daos, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ChatImporter(daos).importDatabase(tempDir.resolve("missing.db"), null, user.getId()));
+        assertThrows(IllegalArgumentException.class, () -> new ChatImporter(daos).importNdjson(tempDir.resolve("chat.ndjson"), 0));
+    }
+}
@@ -0,0 +1,70 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class ChatSummaryTest {
+    private SQLiteConnection db;
+    private ChatSummaryDAO chatSummaryDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        new UserDAO(db).createUser(new User("TestUser", "password"));
+        new ChatDAO(db).createChat(new Chat(1, "Test Chat 1", "regular", "normal", 3, "University", "IT"));
+        chatSummaryDAO = new ChatSummaryDAO(db);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void validChatSummaryObject() {
+        ChatSummary chatSummary = new ChatSummary(1, "Summary", 5);
+        assertEquals(1, chatSummary.getChatId());
+        assertEquals("Summary", chatSummary.getSummary());
+        assertEquals(5, chatSummary.getLastMessageId());
+    }
+
+    @Test
+    void invalidChatSummaryObject() {
+        assertThrows(IllegalArgumentException.class, () -> new ChatSummary(0, "Summary", 5));
+        assertThrows(IllegalArgumentException.class, () -> new ChatSummary(1, "", 5));
+        assertThrows(IllegalArgumentException.class, () -> new ChatSummary(1, null, 5));
+        assertThrows(IllegalArgumentException.class, () -> new ChatSummary(1, "Summary", 0));
+    }
+
+    @Test
+    void testGetNoneChatSummary() throws SQLException {
+        assertNull(chatSummaryDAO.getChatSummary(1));
+    }
+
+    @Test
+    void testSaveChatSummaryReplacesExisting() throws SQLException {
+        chatSummaryDAO.saveChatSummary(new ChatSummary(1, "First summary", 4));
+        chatSummaryDAO.saveChatSummary(new ChatSummary(1, "Second summary", 9));
+
+        ChatSummary chatSummary = chatSummaryDAO.getChatSummary(1);
+        assertNotNull(chatSummary);
+        assertEquals("Second summary", chatSummary.getSummary());
+        assertEquals(9, chatSummary.getLastMessageId());
+    }
+
+    @Test
+    void testDeletingChatDeletesSummary() throws SQLException {
+        ChatDAO chatDAO = new ChatDAO(db);
+        chatDAO.createChat(new Chat(1, "Test Chat 2", "regular", "normal", 3, "University", "IT"));
+        chatSummaryDAO.saveChatSummary(new ChatSummary(1, "First chat", 4));
+        chatSummaryDAO.saveChatSummary(new ChatSummary(2, "Second chat", 6));
+
+        chatDAO.deleteChat(chatDAO.getChat(1));
+        assertNull(chatSummaryDAO.getChatSummary(1));
+        assertEquals("Second chat", chatSummaryDAO.getChatSummary(2).getSummary());
+    }
+}
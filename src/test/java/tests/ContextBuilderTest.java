@@ -0,0 +1,109 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.ContextBuilder;
+import ai.tutor.cab302exceptionalhandlers.Utils.ContextWindow;
+import ai.tutor.cab302exceptionalhandlers.model.Message;
+
+public class ContextBuilderTest {
+    private static final String SYSTEM_PROMPT = "You are a tutor.";
+    private static final int BUDGET = 1024;
+
+    private ContextBuilder contextBuilder;
+
+    @BeforeEach
+    public void setUp() {
+        contextBuilder = new ContextBuilder(BUDGET);
+    }
+
+    /* Creates messages of roughly 50 tokens each */
+    private static List<Message> createHistory(int count) {
+        List<Message> history = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Message message = new Message(1, "x".repeat(180) + " message " + i, i % 2 == 1, false);
+            message.setId(i);
+            history.add(message);
+        }
+        return history;
+    }
+
+    @Test
+    public void testEstimateTokens() {
+        assertEquals(0, ContextBuilder.estimateTokens((String) null));
+        assertEquals(0, ContextBuilder.estimateTokens(""));
+        assertEquals(1, ContextBuilder.estimateTokens("abc"));
+        assertEquals(25, ContextBuilder.estimateTokens("x".repeat(100)));
+    }
+
+    @Test
+    public void testShortHistorySentInFull() {
+        List<Message> history = createHistory(4);
+        ContextWindow window = contextBuilder.build(SYSTEM_PROMPT, null, 0, history);
+
+        assertEquals(history, window.getMessages());
+        assertTrue(window.getMessagesToSummarise().isEmpty());
+        assertEquals(0, window.getTokensDropped());
+        assertEquals(0, window.getMessagesDropped());
+        assertFalse(window.hasSummary());
+    }
+
+    @Test
+    public void testLongHistoryCompacted() {
+        List<Message> history = createHistory(40);
+        ContextWindow window = contextBuilder.build(SYSTEM_PROMPT, null, 0, history);
+
+        List<Message> sent = window.getMessages();
+        List<Message> toSummarise = window.getMessagesToSummarise();
+        assertEquals(history.size(), sent.size() + toSummarise.size());
+        assertEquals(history.get(history.size() - 1), sent.get(sent.size() - 1));
+        assertEquals(history.get(0), toSummarise.get(0));
+        assertEquals(toSummarise.get(toSummarise.size() - 1).getId() + 1, sent.get(0).getId());
+        assertTrue(window.getTokensSent() <= BUDGET);
+        assertEquals(toSummarise.size(), window.getMessagesDropped());
+        assertTrue(window.getTokensDropped() > 0);
+    }
+
+    @Test
+    public void testSummarisedMessagesNotSent() {
+        List<Message> history = createHistory(10);
+        ContextWindow window = contextBuilder.build(SYSTEM_PROMPT, "Earlier summary", 6, history);
+
+        assertEquals(4, window.getMessages().size());
+        assertEquals(7, window.getMessages().get(0).getId());
+        assertTrue(window.getMessagesToSummarise().isEmpty());
+        assertEquals(6, window.getMessagesDropped());
+        assertTrue(window.hasSummary());
+        assertEquals(ContextBuilder.estimateTokens("Earlier summary"), window.getSummaryTokens());
+    }
+
+    @Test
+    public void testWithSummary() {
+        ContextWindow window = contextBuilder.build(SYSTEM_PROMPT, null, 0, createHistory(40));
+        int tokensSent = window.getTokensSent();
+
+        ContextWindow summarised = window.withSummary("A summary of the start of the chat");
+        assertTrue(summarised.getMessagesToSummarise().isEmpty());
+        assertEquals(window.getMessages(), summarised.getMessages());
+        assertEquals(tokensSent + summarised.getSummaryTokens(), summarised.getTokensSent());
+    }
+
+    @Test
+    public void testNewestMessageAlwaysSent() {
+        Message large = new Message(1, "x".repeat(BUDGET * 8), true, false);
+        large.setId(1);
+        ContextWindow window = contextBuilder.build(SYSTEM_PROMPT, null, 0, List.of(large));
+
+        assertEquals(List.of(large), window.getMessages());
+        assertTrue(window.getMessagesToSummarise().isEmpty());
+    }
+
+    @Test
+    public void testInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new ContextBuilder(ContextBuilder.SUMMARY_RESERVE_TOKENS));
+    }
+}
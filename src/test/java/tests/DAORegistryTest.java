@@ -0,0 +1,46 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+
+import ai.tutor.cab302exceptionalhandlers.factories.ControllerFactory;
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class DAORegistryTest {
+    private SQLiteConnection db;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testNullConnection() {
+        assertThrows(IllegalArgumentException.class, () -> new DAORegistry(null));
+    }
+
+    @Test
+    public void testDAOsShareConnection() throws SQLException {
+        DAORegistry daos = new DAORegistry(db);
+        assertSame(db, daos.getConnection());
+
+        daos.getUserDAO().createUser(new User("TestUser", "password"));
+        assertNotNull(new UserDAO(db).getUser("TestUser"));
+    }
+
+    @Test
+    public void testFactoryBuildsRegistryOnce() throws SQLException {
+        ControllerFactory factory = new ControllerFactory(db);
+        DAORegistry daos = factory.getDAORegistry();
+        assertSame(db, daos.getConnection());
+        assertSame(daos, factory.getDAORegistry());
+        assertSame(daos.getChatDAO(), factory.getDAORegistry().getChatDAO());
+    }
+}
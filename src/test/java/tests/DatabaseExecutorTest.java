@@ -0,0 +1,107 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.DatabaseExecutor;
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class DatabaseExecutorTest {
+    private static final String UI_THREAD = "ui";
+
+    // Stands in for the JavaFX Application Thread
+    private ExecutorService uiThread;
+    private DatabaseExecutor databaseExecutor;
+    private SQLiteConnection db;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        uiThread = Executors.newSingleThreadExecutor(task -> new Thread(task, UI_THREAD));
+        databaseExecutor = new DatabaseExecutor(2, uiThread);
+        db = new SQLiteConnection(true);
+        db.setBlockingThreadCheck(() -> Thread.currentThread().getName().equals(UI_THREAD));
+        new UserDAO(db).createUser(new User("TestUser", "password"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        databaseExecutor.shutdown();
+        uiThread.shutdown();
+        db.close();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testQueryRunsOffCallbackThread() throws Exception {
+        CompletableFuture<String> queryThread = databaseExecutor.submit(() -> Thread.currentThread().getName());
+        assertTrue(await(queryThread).startsWith("database-"));
+    }
+
+    @Test
+    public void testResultCompletesOnCallbackThread() throws Exception {
+        UserDAO userDAO = new UserDAO(db);
+        CompletableFuture<String> callbackThread = databaseExecutor.submit(() -> userDAO.getUser("TestUser"))
+                .thenApply(user -> user.getUsername() + "@" + Thread.currentThread().getName());
+        assertEquals("TestUser@" + UI_THREAD, await(callbackThread));
+        assertEquals(0, db.getPoolMetrics().getBlockingThreadLeases());
+    }
+
+    @Test
+    public void testFailedQuery() {
+        CompletableFuture<Object> failed = databaseExecutor.submit(() -> { throw new SQLException("disk I/O error"); });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> await(failed));
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertEquals(1, databaseExecutor.getFailed());
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        await(databaseExecutor.submit(() -> { Thread.sleep(20); return 1; }));
+
+        assertEquals(1, databaseExecutor.getSubmitted());
+        assertEquals(1, databaseExecutor.getSucceeded());
+        assertTrue(databaseExecutor.getAverageQueryMillis() >= 20);
+        assertTrue(databaseExecutor.getMaxQueryMillis() >= databaseExecutor.getAverageQueryMillis());
+        assertTrue(databaseExecutor.getAverageCallbackDelayMillis() >= 0);
+    }
+
+    @Test
+    public void testLeaseOnBlockingThreadIsFlagged() throws Exception {
+        UserDAO userDAO = new UserDAO(db);
+        await(CompletableFuture.runAsync(() -> {
+            try {
+                userDAO.getUser("TestUser");
+                userDAO.getUser("TestUser");
+            } catch (SQLException e) {
+                fail(e);
+            }
+        }, uiThread));
+        assertEquals(2, db.getPoolMetrics().getBlockingThreadLeases());
+
+        db.setBlockingThreadCheck(null);
+        await(CompletableFuture.runAsync(() -> {
+            try {
+                userDAO.getUser("TestUser");
+            } catch (SQLException e) {
+                fail(e);
+            }
+        }, uiThread));
+        assertEquals(2, db.getPoolMetrics().getBlockingThreadLeases());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseExecutor(0, uiThread));
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseExecutor(1, null));
+    }
+}
@@ -0,0 +1,264 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class EntityCacheTest {
+    private SQLiteConnection db;
+    private ChatDAO chatDAO;
+    private CachedChatDAO cachedChatDAO;
+    private CachedUserDAO cachedUserDAO;
+    private User user;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        chatDAO = new ChatDAO(db);
+        cachedChatDAO = new CachedChatDAO(chatDAO);
+        cachedUserDAO = new CachedUserDAO(new UserDAO(db));
+        user = new User("TestUser", "password");
+        cachedUserDAO.createUser(user);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    private Chat newChat(String name) throws SQLException {
+        Chat chat = new Chat(user.getId(), name, "regular", "normal", 5, "University", "IT");
+        cachedChatDAO.createChat(chat);
+        return chat;
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        EntityCache<Integer, String> cache = new EntityCache<>(2, UnaryOperator.identity());
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals(2.0 / 3, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new EntityCache<Integer, String>(0, UnaryOperator.identity()));
+        assertThrows(IllegalArgumentException.class, () -> new CachedChatDAO(null));
+        assertThrows(IllegalArgumentException.class, () -> new CachedUserDAO(null));
+    }
+
+    @Test
+    public void testRepeatedChatLookupsHitCache() throws SQLException {
+        Chat chat = newChat("Test Chat");
+        cachedChatDAO.getChatCache().clear();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Test Chat", cachedChatDAO.getChat(chat.getId()).getName());
+        }
+        assertEquals(2, cachedChatDAO.getChatCache().getHits());
+        assertEquals(1, cachedChatDAO.getChatCache().getMisses());
+    }
+
+    @Test
+    public void testCachedChatIsCopied() throws SQLException {
+        Chat chat = newChat("Test Chat");
+        chat.setName("Unsaved Name");
+        cachedChatDAO.getChat(chat.getId()).setName("Another Unsaved Name");
+
+        assertEquals("Test Chat", cachedChatDAO.getChat(chat.getId()).getName());
+    }
+
+    @Test
+    public void testUpdateChatWritesThrough() throws SQLException {
+        Chat chat = newChat("Test Chat");
+        assertEquals(1, cachedChatDAO.getAllUserChats(user.getId()).size());
+
+        chat.setName("Renamed Chat");
+        chat.setQuizLength(8);
+        cachedChatDAO.updateChat(chat);
+
+        Chat cached = cachedChatDAO.getChat(chat.getId());
+        assertEquals("Renamed Chat", cached.getName());
+        assertEquals(8, cached.getQuizLength());
+        assertEquals("Renamed Chat", chatDAO.getChat(chat.getId()).getName());
+        assertEquals("Renamed Chat", cachedChatDAO.getAllUserChats(user.getId()).get(0).getName());
+    }
+
+    @Test
+    public void testUpdateChatNameInvalidatesChat() throws SQLException {
+        Chat chat = newChat("Test Chat");
+        chat.setName("Renamed Chat");
+        chat.setQuizLength(8);
+        cachedChatDAO.updateChatName(chat);
+
+        Chat cached = cachedChatDAO.getChat(chat.getId());
+        assertEquals("Renamed Chat", cached.getName());
+        assertEquals(5, cached.getQuizLength());
+    }
+
+    @Test
+    public void testStaleReadDoesNotReplaceNewerChat() throws Exception {
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        CachedChatDAO pausingCache = new CachedChatDAO(new ChatDAO(db) {
+            @Override
+            public Chat getChat(int id) throws SQLException {
+                Chat chat = super.getChat(id);
+                if (Thread.currentThread().getName().equals("stale-reader")) {
+                    read.countDown();
+                    try {
+                        written.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return chat;
+            }
+        });
+        Chat chat = new Chat(user.getId(), "Test Chat", "regular", "normal", 5, "University", "IT");
+        chatDAO.createChat(chat);
+
+        List<Chat> staleReads = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try {
+                staleReads.add(pausingCache.getChat(chat.getId()));
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }, "stale-reader");
+        reader.start();
+
+        assertTrue(read.await(5, TimeUnit.SECONDS));
+        chat.setName("Renamed Chat");
+        pausingCache.updateChatName(chat);
+        written.countDown();
+        reader.join(5000);
+
+        assertEquals("Test Chat", staleReads.get(0).getName());
+        assertEquals("Renamed Chat", pausingCache.getChat(chat.getId()).getName());
+    }
+
+    @Test
+    public void testUserChatsInvalidatedOnCreateAndDelete() throws SQLException {
+        Chat first = newChat("First Chat");
+        assertEquals(1, cachedChatDAO.getAllUserChats(user.getId()).size());
+        assertEquals(1, cachedChatDAO.getAllUserChats(user.getId()).size());
+        assertEquals(1, cachedChatDAO.getUserChatsCache().getHits());
+
+        Chat second = newChat("Second Chat");
+        assertEquals(2, cachedChatDAO.getAllUserChats(user.getId()).size());
+
+        cachedChatDAO.deleteChat(first);
+        assertNull(cachedChatDAO.getChat(first.getId()));
+        List<Chat> chats = cachedChatDAO.getAllUserChats(user.getId());
+        assertEquals(1, chats.size());
+        assertEquals(second.getId(), chats.get(0).getId());
+    }
+
+    @Test
+    public void testUserChatsFillChatCache() throws SQLException {
+        Chat chat = newChat("Test Chat");
+        cachedChatDAO.clearCache();
+
+        cachedChatDAO.getAllUserChats(user.getId());
+        cachedChatDAO.getChat(chat.getId());
+        assertEquals(1, cachedChatDAO.getChatCache().getHits());
+        assertEquals(0, cachedChatDAO.getChatCache().getMisses());
+    }
+
+    @Test
+    public void testUserLookupsHitCache() throws SQLException {
+        assertEquals(user.getId(), cachedUserDAO.getUser("TestUser").getId());
+        assertEquals("TestUser", cachedUserDAO.getUser(user.getId()).getUsername());
+        assertEquals(1, cachedUserDAO.getUsernameCache().getHits());
+        assertEquals(1, cachedUserDAO.getIdCache().getHits());
+        assertNull(cachedUserDAO.getUser("MissingUser"));
+    }
+
+    @Test
+    public void testUpdateUserInvalidatesOldUsername() throws SQLException {
+        cachedUserDAO.getUser("TestUser");
+        user.setUsername("RenamedUser");
+        cachedUserDAO.updateUser(user);
+
+        assertNull(cachedUserDAO.getUser("TestUser"));
+        assertEquals(user.getId(), cachedUserDAO.getUser("RenamedUser").getId());
+        assertEquals("RenamedUser", cachedUserDAO.getUser(user.getId()).getUsername());
+    }
+
+    @Test
+    public void testDeleteUserInvalidatesUser() throws SQLException {
+        cachedUserDAO.deleteUser(user);
+
+        assertNull(cachedUserDAO.getUser(user.getId()));
+        assertNull(cachedUserDAO.getUser("TestUser"));
+    }
+
+    private static class RecordingListener implements ChatChangeListener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void chatCreated(Chat chat) { events.add("created " + chat.getName()); }
+
+        @Override
+        public void chatUpdated(Chat chat) { events.add("updated " + chat.getName()); }
+
+        @Override
+        public void chatDeleted(Chat chat) { events.add("deleted " + chat.getId()); }
+
+        @Override
+        public void chatsInvalidated() { events.add("invalidated"); }
+    }
+
+    @Test
+    public void testChatChangesAreAnnounced() throws SQLException {
+        RecordingListener listener = new RecordingListener();
+        cachedChatDAO.addChangeListener(listener);
+
+        Chat chat = newChat("Test Chat");
+        chat.setName("Renamed Chat");
+        cachedChatDAO.updateChatName(chat);
+        chat.setQuizLength(3);
+        cachedChatDAO.updateChat(chat);
+        cachedChatDAO.deleteChat(chat);
+        cachedChatDAO.clearCache();
+        assertEquals(List.of("created Test Chat", "updated Renamed Chat", "updated Renamed Chat",
+                "deleted " + chat.getId(), "invalidated"), listener.events);
+
+        cachedChatDAO.removeChangeListener(listener);
+        newChat("Unheard Chat");
+        assertEquals(5, listener.events.size());
+        assertThrows(IllegalArgumentException.class, () -> cachedChatDAO.addChangeListener(null));
+    }
+
+    @Test
+    public void testAnnouncedChatIsCopied() throws SQLException {
+        List<Chat> announced = new ArrayList<>();
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void chatCreated(Chat chat) { announced.add(chat); }
+        };
+        cachedChatDAO.addChangeListener(listener);
+
+        Chat chat = newChat("Test Chat");
+        announced.get(0).setName("Changed By Listener");
+        assertEquals(chat.getId(), announced.get(0).getId());
+        assertEquals("Test Chat", chat.getName());
+        assertEquals("Test Chat", cachedChatDAO.getChat(chat.getId()).getName());
+    }
+}
@@ -0,0 +1,103 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.MarkdownRenderCache;
+
+public class MarkdownRenderCacheTest {
+    private List<String> rendered;
+    private MarkdownRenderCache<StringBuilder> cache;
+
+    @BeforeEach
+    public void setUp() {
+        rendered = new ArrayList<>();
+        cache = new MarkdownRenderCache<>(this::render, 3, 20);
+    }
+
+    private StringBuilder render(String markdown) {
+        rendered.add(markdown);
+        return new StringBuilder(markdown);
+    }
+
+    @Test
+    public void testRenderReusedForSameMessage() {
+        StringBuilder first = cache.get(1, "**Hello**");
+        StringBuilder second = cache.get(1, "**Hello**");
+
+        assertSame(first, second);
+        assertEquals(List.of("**Hello**"), rendered);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    public void testChangedContentRenderedAgain() {
+        StringBuilder first = cache.get(1, "Hello");
+        StringBuilder edited = cache.get(1, "Hello again");
+
+        assertNotSame(first, edited);
+        assertEquals(1, cache.size());
+        assertEquals("Hello again".length(), cache.getCachedCharacters());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testEvictsOverEntryLimit() {
+        cache.get(1, "a");
+        cache.get(2, "b");
+        cache.get(3, "c");
+        cache.get(1, "a");
+        cache.get(4, "d");
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        cache.get(2, "b");
+        assertEquals(List.of("a", "b", "c", "d", "b"), rendered);
+    }
+
+    @Test
+    public void testEvictsOverCharacterLimit() {
+        cache.get(1, "0123456789");
+        cache.get(2, "0123456789");
+        cache.get(3, "01234");
+
+        assertEquals(2, cache.size());
+        assertEquals(15, cache.getCachedCharacters());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testOversizedMarkdownNotCached() {
+        String markdown = "x".repeat(21);
+        cache.get(1, markdown);
+        cache.get(1, markdown);
+
+        assertEquals(0, cache.size());
+        assertEquals(2, rendered.size());
+    }
+
+    @Test
+    public void testInvalidateAndClear() {
+        cache.get(1, "a");
+        cache.get(2, "b");
+        cache.invalidate(1);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getCachedCharacters());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCachedCharacters());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new MarkdownRenderCache<String>(null));
+        assertThrows(IllegalArgumentException.class, () -> new MarkdownRenderCache<>(String::new, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new MarkdownRenderCache<>(String::new, 10, 0));
+    }
+}
@@ -0,0 +1,144 @@
+package tests;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Random;
+
+import ai.tutor.cab302exceptionalhandlers.model.MessageSearchDAO;
+import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+
+/**
+ * Measures the latency of {@link MessageSearchDAO#search(int, String, int)} as the tables grow.
+ * <p>
+ * Each round grows the {@code messages} table to the given row count (50 messages per
+ * chat), which also fills the search index through its triggers. Every message is twelve
+ * words drawn from a log-uniform vocabulary, so a few words appear in most messages and most
+ * words in very few. The round reports the median latency of searching one user's chats for
+ * a rare word, a common word, two words, and an incomplete word.
+ * <p>
+ * The rounds are run twice: once with 20 chats per user, searching a random user, and once
+ * with every chat owned by a single user, whose searches have to rank every matching
+ * message in the database.
+ * <p>
+ * Run with the row counts as arguments, e.g. {@code 10000 100000 1000000}.
+ */
+public class MessageSearchBenchmark {
+    private static final int MESSAGES_PER_CHAT = 50;
+    private static final int CHATS_PER_USER = 20;
+    private static final int SINGLE_USER = Integer.MAX_VALUE;
+    private static final int WORDS_PER_MESSAGE = 12;
+    private static final int VOCABULARY = 50_000;
+    private static final int LIMIT = 20;
+    private static final int SAMPLES = 200;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {10_000, 100_000, 1_000_000};
+
+        System.out.println(CHATS_PER_USER + " chats per user");
+        run(sizes, CHATS_PER_USER);
+        System.out.println("Single user");
+        run(sizes, SINGLE_USER);
+    }
+
+    private static void run(int[] sizes, int chatsPerUser) throws Exception {
+        Path directory = Files.createTempDirectory("tutor-search-bench");
+        SQLiteConnection db = new SQLiteConnection(directory.resolve("bench").toString());
+        try {
+            MessageSearchDAO searchDAO = new MessageSearchDAO(db);
+            Random random = new Random(42);
+            int rows = 0;
+
+            System.out.printf("%12s %12s %12s %12s %12s %12s%n", "rows", "insert (ms)", "rare (ms)", "common (ms)", "two (ms)", "prefix (ms)");
+            for (int size : sizes) {
+                long start = System.nanoTime();
+                rows = populate(db, random, rows, size, chatsPerUser);
+                double insert = (System.nanoTime() - start) / 1_000_000.0;
+                int users = (rows / MESSAGES_PER_CHAT - 1) / chatsPerUser + 1;
+
+                double rare = median(() -> searchDAO.search(1 + random.nextInt(users), word(VOCABULARY / 2 + random.nextInt(VOCABULARY / 2)) + " ", LIMIT));
+                double common = median(() -> searchDAO.search(1 + random.nextInt(users), word(random.nextInt(3)) + " ", LIMIT));
+                double two = median(() -> searchDAO.search(1 + random.nextInt(users), word(random.nextInt(10)) + " " + word(10 + random.nextInt(100)) + " ", LIMIT));
+                double prefix = median(() -> searchDAO.search(1 + random.nextInt(users), word(random.nextInt(VOCABULARY)).substring(0, 3), LIMIT));
+                System.out.printf("%12d %12.0f %12.3f %12.3f %12.3f %12.3f%n", rows, insert, rare, common, two, prefix);
+            }
+        } finally {
+            db.close();
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    /**
+     * @return A word of the vocabulary, the first words being the most frequent
+     */
+    private static String word(int index) {
+        StringBuilder word = new StringBuilder();
+        for (int letters = index + 26 * 26; letters > 0; letters /= 26) {
+            word.append((char) ('a' + letters % 26));
+        }
+        return word.toString();
+    }
+
+    private static int populate(SQLiteConnection db, Random random, int from, int to, int chatsPerUser) throws SQLException {
+        try (SQLiteConnection.Lease lease = db.write()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            try (PreparedStatement users = connection.prepareStatement("INSERT INTO users (username, password) VALUES (?, 'x')");
+                 PreparedStatement chats = connection.prepareStatement(
+                         "INSERT INTO chats (userId, name, responseAttitude, quizDifficulty, quizLength) VALUES (?, 'Chat', 'regular', 'normal', 3)");
+                 PreparedStatement messages = connection.prepareStatement(
+                         "INSERT INTO messages (chatId, content, fromUser, isQuiz) VALUES (?, ?, ?, 0)")) {
+                StringBuilder content = new StringBuilder();
+                for (int row = from; row < to; row++) {
+                    int chatId = row / MESSAGES_PER_CHAT + 1;
+                    if (row % MESSAGES_PER_CHAT == 0) {
+                        int userId = (chatId - 1) / chatsPerUser + 1;
+                        if ((chatId - 1) % chatsPerUser == 0) {
+                            users.setString(1, "user" + userId);
+                            users.executeUpdate();
+                        }
+                        chats.setInt(1, userId);
+                        chats.executeUpdate();
+                    }
+
+                    content.setLength(0);
+                    for (int i = 0; i < WORDS_PER_MESSAGE; i++) {
+                        content.append(i == 0 ? "" : " ").append(word((int) Math.pow(VOCABULARY, random.nextDouble()) - 1));
+                    }
+                    messages.setInt(1, chatId);
+                    messages.setString(2, content.toString());
+                    messages.setInt(3, row % 2);
+                    messages.executeUpdate();
+                }
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+        return to;
+    }
+
+    private static double median(Lookup lookup) throws SQLException {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            lookup.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        void run() throws SQLException;
+    }
+}
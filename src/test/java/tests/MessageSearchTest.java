@@ -0,0 +1,178 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class MessageSearchTest {
+    private static final String START = MessageSearchDAO.MATCH_START;
+    private static final String END = MessageSearchDAO.MATCH_END;
+
+    @TempDir
+    Path tempDir;
+
+    private SQLiteConnection db;
+    private DAORegistry daos;
+    private MessageSearchDAO searchDAO;
+    private User user;
+    private Chat chat;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        daos = new DAORegistry(db);
+        searchDAO = daos.getMessageSearchDAO();
+        user = new User("Searcher", "password");
+        daos.getUserDAO().createUser(user);
+        chat = new Chat(user.getId(), "Biology", "regular", "normal", 1, "University", "Science");
+        daos.getChatDAO().createChat(chat);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    private void execute(SQLiteConnection connection, String sql) throws SQLException {
+        try (SQLiteConnection.Lease lease = connection.write();
+             Statement statement = lease.connection().createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Test
+    public void testSearchRanksOnlyTheUsersMessages() throws SQLException {
+        User other = new User("Other", "password");
+        daos.getUserDAO().createUser(other);
+        Chat otherChat = new Chat(other.getId(), "Other Biology", "regular", "normal", 1, "University", "Science");
+        daos.getChatDAO().createChat(otherChat);
+
+        TestData.addMessage(daos, chat, "What does the mitochondria do?", true, false);
+        Message best = TestData.addMessage(daos, chat, "Mitochondria, mitochondria: the mitochondria make energy", false, false);
+        TestData.addMessage(daos, chat, "Plants use photosynthesis", false, false);
+        TestData.addMessage(daos, otherChat, "Mitochondria are organelles", true, false);
+
+        List<SearchResult> results = searchDAO.search(user.getId(), "mitochondria", 10);
+        assertEquals(2, results.size());
+        assertEquals(best.getId(), results.get(0).getMessageId());
+        assertTrue(results.get(0).getRank() <= results.get(1).getRank());
+        assertEquals(chat.getId(), results.get(0).getChatId());
+        assertEquals("Biology", results.get(0).getChatName());
+        assertFalse(results.get(0).isQuizQuestion());
+        assertTrue(results.get(1).getSnippet().contains(START + "mitochondria" + END));
+
+        assertEquals(1, searchDAO.search(user.getId(), "mitochondria", 1).size());
+    }
+
+    @Test
+    public void testSearchDoesNotMatchOwnerId() throws SQLException {
+        String userId = String.valueOf(user.getId());
+        TestData.addMessage(daos, chat, "Cells divide by mitosis", true, false);
+        Message match = TestData.addMessage(daos, chat, "Step " + userId + " is telophase", false, false);
+
+        List<SearchResult> results = searchDAO.search(user.getId(), userId + " ", 10);
+        assertEquals(1, results.size());
+        assertEquals(match.getId(), results.get(0).getMessageId());
+        assertTrue(searchDAO.search(user.getId(), "mitosis " + userId + " ", 10).isEmpty());
+    }
+
+    @Test
+    public void testQuizQuestionsAreIndexedInsteadOfQuizJson() throws SQLException {
+        Message quizMessage = TestData.addMessage(daos, chat, "{\"quizTitle\": \"Cells\", \"questionContent\": \"nucleus\"}", false, true);
+        int messageId = quizMessage.getId();
+        daos.getQuizDAO().createQuizTree(new QuizTree(
+                new Quiz(messageId, "Cells", "normal"),
+                List.of(new QuizQuestion(messageId, 1, "What does the nucleus contain?")),
+                Map.of(1, List.of(new AnswerOption(messageId, 1, "a", "DNA", true)))
+        ));
+
+        assertTrue(searchDAO.search(user.getId(), "quizTitle", 10).isEmpty());
+        List<SearchResult> results = searchDAO.search(user.getId(), "nucleus", 10);
+        assertEquals(1, results.size());
+        assertEquals(messageId, results.get(0).getMessageId());
+        assertEquals(1, results.get(0).getQuestionNumber());
+        assertTrue(results.get(0).isQuizQuestion());
+        assertEquals("What does the " + START + "nucleus" + END + " contain?", results.get(0).getSnippet());
+    }
+
+    @Test
+    public void testIndexFollowsUpdatesAndDeletes() throws SQLException {
+        Message message = TestData.addMessage(daos, chat, "Osmosis moves water", true, false);
+        assertEquals(1, searchDAO.search(user.getId(), "osmosis", 10).size());
+
+        execute(db, "UPDATE messages SET content = 'Diffusion moves particles' WHERE id = " + message.getId());
+        assertTrue(searchDAO.search(user.getId(), "osmosis", 10).isEmpty());
+        assertEquals(1, searchDAO.search(user.getId(), "diffusion", 10).size());
+
+        execute(db, "DELETE FROM messages WHERE id = " + message.getId());
+        assertTrue(searchDAO.search(user.getId(), "diffusion", 10).isEmpty());
+
+        TestData.addMessage(daos, chat, "Ribosomes build proteins", true, false);
+        daos.getChatDAO().deleteChat(chat);
+        assertTrue(searchDAO.search(user.getId(), "ribosomes", 10).isEmpty());
+    }
+
+    @Test
+    public void testQueryWordsAreMatchedAsText() throws SQLException {
+        TestData.addMessage(daos, chat, "Running experiments on enzymes", true, false);
+
+        assertEquals(1, searchDAO.search(user.getId(), "enzy", 10).size());
+        assertEquals(1, searchDAO.search(user.getId(), "ENZYMES run", 10).size());
+        assertTrue(searchDAO.search(user.getId(), "enzy ", 10).isEmpty());
+        assertTrue(searchDAO.search(user.getId(), "enzymes proteins", 10).isEmpty());
+        assertTrue(searchDAO.search(user.getId(), "enzymes OR \"NEAR( owner : *", 10).isEmpty());
+        assertTrue(searchDAO.search(user.getId(), "  ... ", 10).isEmpty());
+        assertTrue(searchDAO.search(user.getId(), null, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> searchDAO.search(user.getId(), "enzymes", 0));
+    }
+
+    @Test
+    public void testMigrationIndexesExistingMessages() throws SQLException {
+        String databaseName = tempDir.resolve("search").toString();
+        SQLiteConnection fileDb = new SQLiteConnection(databaseName);
+        DAORegistry fileDaos = new DAORegistry(fileDb);
+        fileDaos.getUserDAO().createUser(new User("Existing", "password"));
+        int userId = fileDaos.getUserDAO().getUser("Existing").getId();
+        Chat existingChat = new Chat(userId, "Chemistry", "regular", "normal", 1, "University", "Science");
+        fileDaos.getChatDAO().createChat(existingChat);
+
+        fileDaos.getMessageDAO().createMessage(new Message(existingChat.getId(), "Covalent bonds share electrons", true, false));
+
+        // Roll the database back to before the search table existed
+        execute(fileDb, "DROP TABLE messageSearch");
+        for (String trigger : List.of("messages_insert", "messages_update", "messages_delete",
+                "quizQuestions_insert", "quizQuestions_update", "quizQuestions_delete", "chats_delete")) {
+            execute(fileDb, "DROP TRIGGER messageSearch_" + trigger);
+        }
+        for (String trigger : List.of("attemptResults_chats_delete", "attemptResults_quizzes_delete",
+                "scoreTotals_attemptResults_delete")) {
+            execute(fileDb, "DROP TRIGGER " + trigger);
+        }
+        execute(fileDb, "DROP INDEX idx_chats_userId_lastMessageAt");
+        for (String column : List.of("lastMessageAt", "messageCount", "quizCount", "lastMessagePreview")) {
+            execute(fileDb, "ALTER TABLE chats DROP COLUMN " + column);
+        }
+        execute(fileDb, "DROP TABLE deferredSchemaObjects");
+        execute(fileDb, "DROP TRIGGER scoreTotals_chats_studyArea_update");
+        execute(fileDb, "DROP TRIGGER chatSummaries_chats_delete");
+        execute(fileDb, "DELETE FROM schema_version WHERE version >= 7");
+        fileDb.close();
+
+        fileDb = new SQLiteConnection(databaseName);
+        try {
+            List<SearchResult> results = new MessageSearchDAO(fileDb).search(userId, "electrons", 10);
+            assertEquals(1, results.size());
+            assertEquals("Chemistry", results.get(0).getChatName());
+        } finally {
+            fileDb.close();
+        }
+    }
+}
@@ -237,4 +237,30 @@ public class QuizControllerTest {
         assertNotNull(userAnswers);
         assertEquals(0, userAnswers.size());
     }
+
+    @Test
+    public void testSaveAnswers() throws SQLException {
+        Map<Integer, String> answers = Map.of(2, "false", 1, "a");
+        quizController.saveAnswers(quiz.getMessageId(), 1, answers, new UserAnswerDAO(db));
+
+        List<UserAnswer> userAnswers = quizController.getQuizUserAnswers(1);
+        assertEquals(2, userAnswers.size());
+        assertEquals("a", quizController.getQuestionUserAnswer(1, 1).getAnswerOption());
+        assertEquals("false", quizController.getQuestionUserAnswer(1, 2).getAnswerOption());
+    }
+
+    @Test
+    public void testSaveAnswersAllOrNothing() throws SQLException {
+        UserAnswerDAO userAnswerDAO = new UserAnswerDAO(db);
+        userAnswerDAO.createUserAnswer(new UserAnswer(quiz.getMessageId(), 1, 2, "true"));
+
+        // Question 2 already has an answer for this attempt, so the whole attempt is rejected
+        Map<Integer, String> answers = Map.of(1, "a", 2, "false");
+        assertThrows(
+                SQLException.class,
+                () -> quizController.saveAnswers(quiz.getMessageId(), 1, answers, userAnswerDAO)
+        );
+        assertEquals(1, quizController.getQuizUserAnswers(1).size());
+        assertNull(quizController.getQuestionUserAnswer(1, 1));
+    }
 }
@@ -0,0 +1,174 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class QuizDAOTest {
+    private SQLiteConnection db;
+    private QuizDAO quizDAO;
+    private MessageDAO messageDAO;
+    private QuizQuestionDAO quizQuestionDAO;
+    private AnswerOptionDAO answerOptionDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        quizDAO = new QuizDAO(db);
+        messageDAO = new MessageDAO(db);
+        quizQuestionDAO = new QuizQuestionDAO(db);
+        answerOptionDAO = new AnswerOptionDAO(db);
+
+        UserDAO userDAO = new UserDAO(db);
+        userDAO.createUser(new User("TestUser", "password"));
+        userDAO.createUser(new User("OtherUser", "password"));
+        ChatDAO chatDAO = new ChatDAO(db);
+        chatDAO.createChat(new Chat(1, "Test Chat 1", "regular", "normal", 3, "University", "IT"));
+        chatDAO.createChat(new Chat(1, "Test Chat 2", "regular", "normal", 3, "University", "IT"));
+        chatDAO.createChat(new Chat(2, "Other Chat", "regular", "normal", 3, "University", "IT"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    private Quiz createQuiz(int chatId, String name) throws SQLException {
+        messageDAO.createMessage(new Message(chatId, "Make a quiz", true, true));
+        Message message = new Message(chatId, "Quiz content", false, true);
+        messageDAO.createMessage(message);
+        Quiz quiz = new Quiz(message.getId(), name, "normal");
+        quizDAO.createQuiz(quiz);
+        return quiz;
+    }
+
+    private List<String> names(List<Quiz> quizzes) {
+        return quizzes.stream().map(Quiz::getName).toList();
+    }
+
+    @Test
+    public void testGetAllChatQuizzes() throws SQLException {
+        createQuiz(1, "Quiz 1");
+        createQuiz(2, "Quiz 2");
+        createQuiz(1, "Quiz 3");
+        messageDAO.createMessage(new Message(1, "Regular reply", false, false));
+
+        assertEquals(List.of("Quiz 1", "Quiz 3"), names(quizDAO.getAllChatQuizzes(1)));
+        assertTrue(quizDAO.getAllChatQuizzes(3).isEmpty());
+    }
+
+    @Test
+    public void testGetAllUserQuizzes() throws SQLException {
+        createQuiz(2, "Quiz 1");
+        createQuiz(1, "Quiz 2");
+        createQuiz(3, "Other Quiz");
+
+        assertEquals(List.of("Quiz 2", "Quiz 1"), names(quizDAO.getAllUserQuizzes(1)));
+        assertEquals(List.of("Other Quiz"), names(quizDAO.getAllUserQuizzes(2)));
+    }
+
+    @Test
+    public void testQuizMessageWithoutQuizSkipped() throws SQLException {
+        messageDAO.createMessage(new Message(1, "Failed quiz", false, true));
+
+        assertTrue(quizDAO.getAllChatQuizzes(1).isEmpty());
+        assertTrue(quizDAO.getAllUserQuizzes(1).isEmpty());
+    }
+
+    @Test
+    public void testGetQuizTree() throws SQLException {
+        Quiz quiz = createQuiz(1, "Quiz 1");
+        int messageId = quiz.getMessageId();
+        quizQuestionDAO.createQuizQuestion(new QuizQuestion(messageId, 2, "Question 2"));
+        quizQuestionDAO.createQuizQuestion(new QuizQuestion(messageId, 1, "Question 1"));
+        answerOptionDAO.createAnswerOption(new AnswerOption(messageId, 1, "b", "Option B", false));
+        answerOptionDAO.createAnswerOption(new AnswerOption(messageId, 1, "a", "Option A", true));
+        answerOptionDAO.createAnswerOption(new AnswerOption(messageId, 2, "true", "True", true));
+
+        QuizTree quizTree = quizDAO.getQuizTree(messageId);
+        assertNotNull(quizTree);
+        assertEquals("Quiz 1", quizTree.getQuiz().getName());
+
+        List<QuizQuestion> questions = quizTree.getQuestions();
+        assertEquals(2, questions.size());
+        assertEquals(1, questions.get(0).getNumber());
+        assertEquals("Question 1", questions.get(0).getQuestion());
+        assertEquals(2, questions.get(1).getNumber());
+
+        List<AnswerOption> options = quizTree.getAnswerOptions(1);
+        assertEquals(2, options.size());
+        assertEquals("a", options.get(0).getOption());
+        assertTrue(options.get(0).getIsAnswer());
+        assertEquals("b", options.get(1).getOption());
+        assertEquals(1, quizTree.getAnswerOptions(2).size());
+    }
+
+    @Test
+    public void testGetQuizTreeWithoutQuestions() throws SQLException {
+        Quiz quiz = createQuiz(1, "Quiz 1");
+
+        QuizTree quizTree = quizDAO.getQuizTree(quiz.getMessageId());
+        assertNotNull(quizTree);
+        assertTrue(quizTree.getQuestions().isEmpty());
+        assertTrue(quizTree.getAnswerOptions(1).isEmpty());
+    }
+
+    @Test
+    public void testGetNoneQuizTree() throws SQLException {
+        assertNull(quizDAO.getQuizTree(1));
+    }
+
+    private Message createQuizMessage(int chatId) throws SQLException {
+        Message message = new Message(chatId, "Quiz content", false, true);
+        messageDAO.createMessage(message);
+        return message;
+    }
+
+    @Test
+    public void testCreateQuizTree() throws SQLException {
+        int messageId = createQuizMessage(1).getId();
+        QuizTree quizTree = new QuizTree(
+                new Quiz(messageId, "Quiz 1", "normal"),
+                List.of(new QuizQuestion(messageId, 1, "Question 1"), new QuizQuestion(messageId, 2, "Question 2")),
+                Map.of(
+                        1, List.of(new AnswerOption(messageId, 1, "a", "Option A", true),
+                                new AnswerOption(messageId, 1, "b", "Option B", false)),
+                        2, List.of(new AnswerOption(messageId, 2, "a", "True", false))
+                )
+        );
+        quizDAO.createQuizTree(quizTree);
+
+        QuizTree saved = quizDAO.getQuizTree(messageId);
+        assertNotNull(saved);
+        assertEquals("Quiz 1", saved.getQuiz().getName());
+        assertEquals(List.of("Question 1", "Question 2"),
+                saved.getQuestions().stream().map(QuizQuestion::getQuestion).toList());
+        assertEquals(2, saved.getAnswerOptions(1).size());
+        assertTrue(saved.getAnswerOptions(1).get(0).getIsAnswer());
+        assertEquals("True", saved.getAnswerOptions(2).get(0).getValue());
+    }
+
+    @Test
+    public void testCreateQuizTreeRollsBack() throws SQLException {
+        int messageId = createQuizMessage(1).getId();
+        QuizTree quizTree = new QuizTree(
+                new Quiz(messageId, "Quiz 1", "normal"),
+                List.of(new QuizQuestion(messageId, 1, "Question 1")),
+                Map.of(1, List.of(new AnswerOption(messageId, 1, "a", "Option A", true),
+                        new AnswerOption(messageId, 1, "a", "Duplicate", false)))
+        );
+
+        assertThrows(SQLException.class, () -> quizDAO.createQuizTree(quizTree));
+        assertNull(quizDAO.getQuiz(messageId));
+        assertTrue(quizQuestionDAO.getAllQuizQuestions(messageId).isEmpty());
+
+        // The connection is usable again after the rollback
+        createQuiz(1, "Quiz 2");
+        assertEquals(List.of("Quiz 2"), names(quizDAO.getAllChatQuizzes(1)));
+    }
+}
@@ -0,0 +1,50 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.QuizScorer;
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class QuizScorerTest {
+    private QuizTree quizTree;
+
+    @BeforeEach
+    public void setUp() {
+        quizTree = new QuizTree(
+                new Quiz(1, "Quiz 1", "normal"),
+                List.of(new QuizQuestion(1, 1, "Question 1"), new QuizQuestion(1, 2, "Question 2"), new QuizQuestion(1, 3, "Question 3")),
+                Map.of(
+                        1, List.of(new AnswerOption(1, 1, "a", "Option A", true), new AnswerOption(1, 1, "b", "Option B", false)),
+                        2, List.of(new AnswerOption(1, 2, "true", "True", false), new AnswerOption(1, 2, "false", "False", true)),
+                        3, List.of(new AnswerOption(1, 3, "a", "Option A", false), new AnswerOption(1, 3, "b", "Option B", true))
+                )
+        );
+    }
+
+    @Test
+    public void testGradeAllCorrect() {
+        AttemptResult result = QuizScorer.grade(quizTree, 1, Map.of(1, "a", 2, "false", 3, "b"), 1500);
+        assertEquals(3, result.getScore());
+        assertEquals(3, result.getQuestionCount());
+        assertEquals(1, result.getMessageId());
+        assertEquals(1, result.getAttempt());
+        assertEquals(1500, result.getDurationMillis());
+    }
+
+    @Test
+    public void testGradePerQuestion() {
+        AttemptResult result = QuizScorer.grade(quizTree, 2, Map.of(1, "b", 2, "false", 3, "a"), 0);
+        assertEquals(List.of(false, true, false), result.getQuestionResults());
+        assertEquals(1, result.getScore());
+    }
+
+    @Test
+    public void testUnansweredAndUnknownOptionsIncorrect() {
+        AttemptResult result = QuizScorer.grade(quizTree, 1, Map.of(1, "z"), 0);
+        assertEquals(List.of(false, false, false), result.getQuestionResults());
+    }
+}
@@ -0,0 +1,106 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.AIUtils.Question;
+import ai.tutor.cab302exceptionalhandlers.Utils.QuizStreamParser;
+
+public class QuizStreamParserTest {
+    private static final String FIRST_QUESTION = """
+            {"questionNumber": 1, "questionContent": "What is 2 + 2?", "options": [
+                {"optionLetter": "A", "optionText": "3", "isAnswer": false},
+                {"optionLetter": "B", "optionText": "4", "isAnswer": true}
+            ]}""";
+    private static final String SECOND_QUESTION = """
+            {"questionNumber": 2, "questionContent": "Which bracket is '}'?", "options": [
+                {"optionLetter": "A", "optionText": "Closing {brace}", "isAnswer": true}
+            ]}""";
+    private static final String QUIZ = "{\"quizTitle\": \"Maths \\\"Basics\\\"\", \"questions\": ["
+            + FIRST_QUESTION + ", " + SECOND_QUESTION + "]}";
+
+    private List<Question> emitted;
+    private QuizStreamParser parser;
+
+    @BeforeEach
+    public void setUp() {
+        emitted = new ArrayList<>();
+        parser = new QuizStreamParser(emitted::add);
+    }
+
+    private void feedByCharacter(String response) {
+        for (char c : response.toCharArray()) {
+            parser.accept(String.valueOf(c));
+        }
+    }
+
+    @Test
+    public void testEmitsEachQuestionOnceComplete() {
+        String beforeSecond = QUIZ.substring(0, QUIZ.indexOf(SECOND_QUESTION) + SECOND_QUESTION.length() - 1);
+        feedByCharacter(beforeSecond);
+        assertEquals(1, emitted.size());
+        assertEquals("What is 2 + 2?", emitted.get(0).getQuestionContent());
+
+        feedByCharacter(QUIZ.substring(beforeSecond.length()));
+        parser.finish();
+        assertEquals(2, emitted.size());
+        assertEquals("Which bracket is '}'?", emitted.get(1).getQuestionContent());
+        assertEquals("Maths \"Basics\"", parser.getQuizTitle());
+        assertEquals(emitted, parser.getQuestions());
+        assertTrue(parser.isComplete());
+        assertTrue(parser.getTimeToFirstQuestionMillis() >= 0);
+    }
+
+    @Test
+    public void testSkipsCodeFence() {
+        parser.accept("Here is your quiz:\n```json\n" + QUIZ + "\n```\nGood luck!");
+        parser.finish();
+        assertEquals(2, parser.getQuestions().size());
+        assertNull(parser.getViolation());
+    }
+
+    @Test
+    public void testAbortsOnQuestionWithoutAnswer() {
+        String invalid = FIRST_QUESTION.replace("true", "false");
+        String response = "{\"quizTitle\": \"Maths\", \"questions\": [" + invalid + ", " + SECOND_QUESTION + "]}";
+        String beforeViolation = response.substring(0, response.indexOf(invalid) + invalid.length() - 1);
+
+        feedByCharacter(beforeViolation);
+        assertThrows(IllegalArgumentException.class, () -> parser.accept("}"));
+        assertFalse(parser.isComplete());
+        assertTrue(parser.getViolation().contains("question 1"));
+        assertTrue(emitted.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> parser.accept(", "));
+        assertThrows(IllegalArgumentException.class, parser::finish);
+    }
+
+    @Test
+    public void testAbortsOnWrongStructure() {
+        assertThrows(IllegalArgumentException.class, () -> parser.accept("{\"quizTitle\": \"Maths\", \"questions\": {"));
+        assertTrue(parser.getViolation().contains("array"));
+
+        QuizStreamParser titleParser = new QuizStreamParser(null);
+        assertThrows(IllegalArgumentException.class, () -> titleParser.accept("{\"quizTitle\": 5"));
+
+        QuizStreamParser elementParser = new QuizStreamParser(null);
+        assertThrows(IllegalArgumentException.class, () -> elementParser.accept("{\"questions\": [\"text\""));
+    }
+
+    @Test
+    public void testIncompleteResponseFailsFinish() {
+        parser.accept(QUIZ.substring(0, QUIZ.length() - 2));
+        assertThrows(IllegalArgumentException.class, parser::finish);
+        assertEquals(2, emitted.size());
+
+        QuizStreamParser emptyParser = new QuizStreamParser(null);
+        emptyParser.accept("I can't make a quiz about that.");
+        assertThrows(IllegalArgumentException.class, emptyParser::finish);
+
+        QuizStreamParser noQuestionsParser = new QuizStreamParser(null);
+        noQuestionsParser.accept("{\"quizTitle\": \"Maths\", \"questions\": []}");
+        assertThrows(IllegalArgumentException.class, noQuestionsParser::finish);
+    }
+}
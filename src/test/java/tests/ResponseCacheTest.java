@@ -0,0 +1,131 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.ResponseCache;
+import ai.tutor.cab302exceptionalhandlers.model.ResponseCacheDAO;
+import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+
+public class ResponseCacheTest {
+    private SQLiteConnection db;
+    private ResponseCacheDAO responseCacheDAO;
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        responseCacheDAO = new ResponseCacheDAO(db);
+        responseCache = new ResponseCache(responseCacheDAO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testFingerprintIsStable() {
+        assertEquals(ResponseCache.fingerprint("model", "prompt"), ResponseCache.fingerprint("model", "prompt"));
+        assertEquals(64, ResponseCache.fingerprint("model").length());
+    }
+
+    @Test
+    public void testFingerprintDistinguishesParts() {
+        assertNotEquals(ResponseCache.fingerprint("ab", "c"), ResponseCache.fingerprint("a", "bc"));
+        assertNotEquals(ResponseCache.fingerprint("a", null), ResponseCache.fingerprint("a", ""));
+        assertNotEquals(ResponseCache.fingerprint("a", "b"), ResponseCache.fingerprint("b", "a"));
+    }
+
+    @Test
+    public void testHitAndMissCounters() {
+        String key = ResponseCache.fingerprint("request");
+        assertNull(responseCache.get(key));
+
+        responseCache.put(key, "response");
+        assertEquals("response", responseCache.get(key));
+
+        assertEquals(1, responseCache.getHits());
+        assertEquals(1, responseCache.getMisses());
+        assertEquals(0.5, responseCache.getHitRate());
+    }
+
+    @Test
+    public void testPutReplacesResponse() throws SQLException {
+        String key = ResponseCache.fingerprint("request");
+        responseCache.put(key, "first");
+        responseCache.put(key, "second");
+
+        assertEquals("second", responseCache.get(key));
+        assertEquals(1, responseCacheDAO.countResponses());
+    }
+
+    @Test
+    public void testEmptyResponseNotCached() throws SQLException {
+        responseCache.put(ResponseCache.fingerprint("request"), "");
+        assertEquals(0, responseCacheDAO.countResponses());
+    }
+
+    @Test
+    public void testExpiredResponseNotReturned() throws SQLException {
+        responseCacheDAO.putResponse("key", "response", 1000);
+
+        assertNull(responseCacheDAO.getResponse("key", 1001, 2000));
+        assertEquals("response", responseCacheDAO.getResponse("key", 1000, 2000));
+
+        assertEquals(1, responseCacheDAO.evict(1001, 10, 1000));
+        assertEquals(0, responseCacheDAO.countResponses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvictedByCount() throws SQLException {
+        responseCacheDAO.putResponse("a", "A", 1);
+        responseCacheDAO.putResponse("b", "B", 2);
+        responseCacheDAO.putResponse("c", "C", 3);
+        responseCacheDAO.getResponse("a", 0, 4);
+
+        assertEquals(1, responseCacheDAO.evict(0, 2, 1000));
+        assertNull(responseCacheDAO.getResponse("b", 0, 5));
+        assertEquals("A", responseCacheDAO.getResponse("a", 0, 5));
+        assertEquals("C", responseCacheDAO.getResponse("c", 0, 5));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvictedBySize() throws SQLException {
+        responseCacheDAO.putResponse("a", "x".repeat(10), 1);
+        responseCacheDAO.putResponse("b", "x".repeat(10), 2);
+        responseCacheDAO.putResponse("c", "x".repeat(10), 3);
+
+        assertEquals(2, responseCacheDAO.evict(0, 10, 15));
+        assertEquals("x".repeat(10), responseCacheDAO.getResponse("c", 0, 4));
+        assertEquals(1, responseCacheDAO.countResponses());
+    }
+
+    @Test
+    public void testCacheLimitsApplied() throws SQLException {
+        ResponseCache smallCache = new ResponseCache(responseCacheDAO, 2, 1000, ResponseCache.DEFAULT_TTL_MILLIS);
+        smallCache.put("a", "A");
+        smallCache.put("b", "B");
+        smallCache.put("c", "C");
+
+        assertEquals(2, responseCacheDAO.countResponses());
+        assertEquals(1, smallCache.getEvictions());
+    }
+
+    @Test
+    public void testClear() throws SQLException {
+        responseCache.put("a", "A");
+        responseCache.clear();
+        assertEquals(0, responseCacheDAO.countResponses());
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new ResponseCache(null));
+        assertThrows(IllegalArgumentException.class, () -> new ResponseCache(responseCacheDAO, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ResponseCache(responseCacheDAO, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ResponseCache(responseCacheDAO, 1, 1, 0));
+    }
+}
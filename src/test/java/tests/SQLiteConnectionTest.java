@@ -3,8 +3,16 @@ package tests;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.*;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
 
@@ -45,4 +53,153 @@ public class SQLiteConnectionTest {
         assertFalse(defaultConnection.isClosed());
         defaultConnection.close();
     }
+
+    @Test
+    public void testInMemoryLeasesShareSingleConnection() throws SQLException {
+        try (SQLiteConnection.Lease read = db.read()) {
+            assertSame(connection, read.connection());
+        }
+        try (SQLiteConnection.Lease write = db.write()) {
+            assertSame(connection, write.connection());
+        }
+    }
+
+    @Test
+    public void testFileDatabaseReadersArePooledAndReadOnly() throws Exception {
+        Path directory = Files.createTempDirectory("tutor-pool");
+        SQLiteConnection fileDb = new SQLiteConnection(directory.resolve("pool").toString(), 2);
+        try {
+            long writesBefore = fileDb.getPoolMetrics().getWriteAcquisitions();
+            try (SQLiteConnection.Lease write = fileDb.write();
+                 Statement statement = write.connection().createStatement()) {
+                statement.execute("CREATE TABLE items (id INTEGER PRIMARY KEY)");
+                statement.execute("INSERT INTO items (id) VALUES (1)");
+                ResultSet journal = statement.executeQuery("PRAGMA journal_mode");
+                assertEquals("wal", journal.getString(1).toLowerCase());
+            }
+
+            Connection first;
+            try (SQLiteConnection.Lease read = fileDb.read()) {
+                first = read.connection();
+                assertNotSame(fileDb.getInstance(), first);
+                assertTrue(first.isReadOnly());
+                try (SQLiteConnection.Lease nested = fileDb.read()) {
+                    assertSame(first, nested.connection());
+                }
+                assertEquals(1, fileDb.getPoolMetrics().getReadersInUse());
+                try (Statement statement = first.createStatement()) {
+                    assertThrows(SQLException.class, () -> statement.execute("INSERT INTO items (id) VALUES (2)"));
+                }
+            }
+            try (SQLiteConnection.Lease read = fileDb.read()) {
+                assertSame(first, read.connection());
+            }
+
+            SQLiteConnection.PoolMetrics metrics = fileDb.getPoolMetrics();
+            assertEquals(2, metrics.getReadPoolSize());
+            assertEquals(1, metrics.getOpenReaders());
+            assertEquals(0, metrics.getReadersInUse());
+            assertEquals(2, metrics.getReadAcquisitions());
+            assertEquals(writesBefore + 1, metrics.getWriteAcquisitions());
+        } finally {
+            fileDb.close();
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testReadPoolIsBounded() throws Exception {
+        Path directory = Files.createTempDirectory("tutor-pool");
+        SQLiteConnection fileDb = new SQLiteConnection(directory.resolve("pool").toString(), 1);
+        try {
+            CountDownLatch leased = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread holder = new Thread(() -> {
+                try (SQLiteConnection.Lease read = fileDb.read()) {
+                    leased.countDown();
+                    release.await();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            holder.start();
+            assertTrue(leased.await(5, TimeUnit.SECONDS));
+            assertEquals(1.0, fileDb.getPoolMetrics().getReadUtilisation());
+
+            new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignored) {
+                }
+                release.countDown();
+            }).start();
+            try (SQLiteConnection.Lease read = fileDb.read()) {
+                assertNotNull(read.connection());
+            }
+            holder.join();
+
+            SQLiteConnection.PoolMetrics metrics = fileDb.getPoolMetrics();
+            assertEquals(1, metrics.getOpenReaders());
+            assertTrue(metrics.getMaxReadWaitMillis() > 0);
+        } finally {
+            fileDb.close();
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testInvalidReadPoolSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SQLiteConnection("invalid", 0));
+    }
+
+    @Test
+    public void testTransactionCommitsOrRollsBack() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (name VARCHAR UNIQUE)");
+        }
+
+        db.transaction(() -> insertItem("a"));
+        assertThrows(SQLException.class, () -> db.transaction(() -> {
+            insertItem("b");
+            insertItem("a");
+        }));
+
+        assertEquals(1, countItems());
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    public void testNestedTransactionJoinsOuter() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (name VARCHAR UNIQUE)");
+        }
+
+        assertThrows(IllegalStateException.class, () -> db.transaction(() -> {
+            db.transaction(() -> insertItem("a"));
+            throw new IllegalStateException("Outer work failed");
+        }));
+
+        assertEquals(0, countItems());
+    }
+
+    private void insertItem(String name) throws SQLException {
+        try (SQLiteConnection.Lease lease = db.write();
+             PreparedStatement statement = lease.prepareStatement("INSERT INTO items (name) VALUES (?)")) {
+            statement.setString(1, name);
+            statement.executeUpdate();
+        }
+    }
+
+    private int countItems() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM items");
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
 }
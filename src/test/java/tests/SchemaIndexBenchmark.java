@@ -0,0 +1,123 @@
+package tests;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Random;
+
+import ai.tutor.cab302exceptionalhandlers.model.MessageDAO;
+import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+
+/**
+ * Measures lookup latency of the indexed DAO queries as the tables grow.
+ * <p>
+ * Each round grows the {@code messages} table to the given row count (50 messages per
+ * chat) and reports the median latency of {@link MessageDAO#getAllChatMessages(int)}
+ * alongside the same query forced to scan with {@code NOT INDEXED}. With the migration
+ * indexes in place the indexed latency should stay flat while the scan grows linearly.
+ * <p>
+ * Run with the row counts as arguments, e.g. {@code 10000 100000 1000000}.
+ */
+public class SchemaIndexBenchmark {
+    private static final int MESSAGES_PER_CHAT = 50;
+    private static final int CHATS_PER_USER = 20;
+    private static final int SAMPLES = 200;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {10_000, 100_000, 1_000_000};
+
+        Path directory = Files.createTempDirectory("tutor-bench");
+        SQLiteConnection db = new SQLiteConnection(directory.resolve("bench").toString());
+        try {
+            MessageDAO messageDAO = new MessageDAO(db);
+            Random random = new Random(42);
+            int rows = 0;
+
+            System.out.printf("%12s %16s %16s %16s%n", "rows", "messages (ms)", "chats (ms)", "scan (ms)");
+            for (int size : sizes) {
+                rows = populate(db, rows, size);
+                int chats = rows / MESSAGES_PER_CHAT;
+
+                double messages = median(() -> messageDAO.getAllChatMessages(1 + random.nextInt(chats)));
+                double userChats = median(() -> count(db,
+                        "SELECT * FROM chats WHERE userId = ?", 1 + random.nextInt(chats / CHATS_PER_USER)));
+                double scan = median(() -> count(db,
+                        "SELECT * FROM messages NOT INDEXED WHERE chatId = ?", 1 + random.nextInt(chats)));
+                System.out.printf("%12d %16.3f %16.3f %16.3f%n", rows, messages, userChats, scan);
+            }
+        } finally {
+            db.close();
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    private static int populate(SQLiteConnection db, int from, int to) throws SQLException {
+        try (SQLiteConnection.Lease lease = db.write()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            try (PreparedStatement users = connection.prepareStatement("INSERT INTO users (username, password) VALUES (?, 'x')");
+                 PreparedStatement chats = connection.prepareStatement(
+                         "INSERT INTO chats (userId, name, responseAttitude, quizDifficulty, quizLength) VALUES (?, 'Chat', 'regular', 'normal', 3)");
+                 PreparedStatement messages = connection.prepareStatement(
+                         "INSERT INTO messages (chatId, content, fromUser, isQuiz) VALUES (?, 'Benchmark message content', ?, 0)")) {
+                for (int row = from; row < to; row++) {
+                    int chatId = row / MESSAGES_PER_CHAT + 1;
+                    if (row % MESSAGES_PER_CHAT == 0) {
+                        int userId = (chatId - 1) / CHATS_PER_USER + 1;
+                        if ((chatId - 1) % CHATS_PER_USER == 0) {
+                            users.setString(1, "user" + userId);
+                            users.executeUpdate();
+                        }
+                        chats.setInt(1, userId);
+                        chats.executeUpdate();
+                    }
+                    messages.setInt(1, chatId);
+                    messages.setInt(2, row % 2);
+                    messages.executeUpdate();
+                }
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+        return to;
+    }
+
+    private static int count(SQLiteConnection db, String sql, int id) throws SQLException {
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement statement = lease.connection().prepareStatement(sql)) {
+            statement.setInt(1, id);
+            ResultSet resultSet = statement.executeQuery();
+            int count = 0;
+            while (resultSet.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static double median(Lookup lookup) throws SQLException {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            lookup.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        void run() throws SQLException;
+    }
+}
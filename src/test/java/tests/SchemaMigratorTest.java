@@ -0,0 +1,112 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import ai.tutor.cab302exceptionalhandlers.model.Migration;
+import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.SchemaMigrator;
+
+public class SchemaMigratorTest {
+    private SQLiteConnection db;
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        connection = db.getInstance();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    private String queryPlan(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("EXPLAIN QUERY PLAN " + sql);
+            while (resultSet.next()) {
+                plan.append(resultSet.getString("detail")).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    @Test
+    public void testNewDatabaseIsAtLatestVersion() throws SQLException {
+        int latest = SchemaMigrator.MIGRATIONS.get(SchemaMigrator.MIGRATIONS.size() - 1).getVersion();
+        assertEquals(latest, SchemaMigrator.getVersion(db));
+    }
+
+    @Test
+    public void testMigrationsOnlyRunOnce() throws SQLException {
+        assertEquals(0, SchemaMigrator.migrate(db));
+
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM schema_version");
+            assertEquals(SchemaMigrator.MIGRATIONS.size(), resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    public void testLookupsUseIndexes() throws SQLException {
+        assertTrue(queryPlan("SELECT * FROM messages WHERE chatId = 1").contains("idx_messages_chatId_id"));
+        assertTrue(queryPlan("SELECT * FROM chats WHERE userId = 1").contains("idx_chats_userId"));
+        assertFalse(queryPlan("SELECT * FROM chats WHERE userId = 1 ORDER BY lastMessageAt DESC, id DESC")
+                .contains("TEMP B-TREE"));
+        assertTrue(queryPlan("SELECT * FROM users WHERE username = 'a'").contains("USING INDEX"));
+        assertTrue(queryPlan("SELECT * FROM userAnswers WHERE messageId = 1 AND questionNumber = 1")
+                .contains("idx_userAnswers_messageId_questionNumber"));
+        assertTrue(queryPlan("SELECT MAX(attempt) FROM userAnswers WHERE messageId = 1 AND questionNumber = 1")
+                .contains("COVERING INDEX idx_userAnswers_messageId_questionNumber_attempt"));
+    }
+
+    @Test
+    public void testPendingMigrationApplied() throws SQLException {
+        int next = SchemaMigrator.getVersion(db) + 1;
+        Migration migration = new Migration(next, "Add notes", "CREATE TABLE notes (id INTEGER PRIMARY KEY)");
+
+        assertEquals(1, SchemaMigrator.migrate(db, List.of(migration)));
+        assertEquals(next, SchemaMigrator.getVersion(db));
+        assertEquals(0, SchemaMigrator.migrate(db, List.of(migration)));
+    }
+
+    @Test
+    public void testFailedMigrationRollsBack() throws SQLException {
+        int version = SchemaMigrator.getVersion(db);
+        Migration migration = new Migration(version + 1, "Broken",
+                "CREATE TABLE partial (id INTEGER PRIMARY KEY)",
+                "CREATE TABLE broken (");
+
+        assertThrows(SQLException.class, () -> SchemaMigrator.migrate(db, List.of(migration)));
+        assertEquals(version, SchemaMigrator.getVersion(db));
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery(
+                    "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'partial'");
+            assertEquals(0, resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    public void testOutOfOrderMigrations() {
+        List<Migration> migrations = List.of(
+                new Migration(5, "Five", "SELECT 1"),
+                new Migration(4, "Four", "SELECT 1")
+        );
+        assertThrows(IllegalArgumentException.class, () -> SchemaMigrator.migrate(db, migrations));
+    }
+
+    @Test
+    public void testInvalidMigration() {
+        assertThrows(IllegalArgumentException.class, () -> new Migration(0, "Zero", "SELECT 1"));
+        assertThrows(IllegalArgumentException.class, () -> new Migration(1, "", "SELECT 1"));
+        assertThrows(IllegalArgumentException.class, () -> new Migration(1, "Empty"));
+    }
+}
@@ -0,0 +1,75 @@
+package tests;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import ai.tutor.cab302exceptionalhandlers.model.Chat;
+import ai.tutor.cab302exceptionalhandlers.model.ChatDAO;
+import ai.tutor.cab302exceptionalhandlers.model.Message;
+import ai.tutor.cab302exceptionalhandlers.model.MessageDAO;
+import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.User;
+import ai.tutor.cab302exceptionalhandlers.model.UserDAO;
+
+/**
+ * Measures per-call latency of small DAO operations with and without the statement cache.
+ * <p>
+ * Reports the median latency of {@link MessageDAO#createMessage(Message)} and
+ * {@link ChatDAO#getChat(int)} on a file database opened with a statement cache size
+ * of 0 (every call prepares its SQL) and with the default size.
+ * <p>
+ * Run with the number of samples as an optional argument, e.g. {@code 5000}.
+ */
+public class StatementCacheBenchmark {
+    private static final int WARMUP = 500;
+
+    public static void main(String[] args) throws Exception {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+
+        System.out.printf("%12s %20s %16s %12s%n", "cache size", "createMessage (ms)", "getChat (ms)", "hit rate");
+        for (int cacheSize : new int[] {0, SQLiteConnection.DEFAULT_STATEMENT_CACHE_SIZE}) {
+            Path directory = Files.createTempDirectory("tutor-bench");
+            SQLiteConnection db = new SQLiteConnection(directory.resolve("bench").toString(),
+                    SQLiteConnection.DEFAULT_READ_POOL_SIZE, cacheSize);
+            try {
+                new UserDAO(db).createUser(new User("bench", "password"));
+                ChatDAO chatDAO = new ChatDAO(db);
+                chatDAO.createChat(new Chat(1, "Chat", "regular", "normal", 3, null, null));
+                MessageDAO messageDAO = new MessageDAO(db);
+
+                double create = median(samples, () -> messageDAO.createMessage(new Message(1, "Benchmark message", true, false)));
+                double read = median(samples, () -> chatDAO.getChat(1));
+                System.out.printf("%12d %20.4f %16.4f %11.0f%%%n",
+                        cacheSize, create, read, db.getPoolMetrics().getStatementCacheHitRate() * 100);
+            } finally {
+                db.close();
+                for (File file : directory.toFile().listFiles()) {
+                    file.delete();
+                }
+                directory.toFile().delete();
+            }
+        }
+    }
+
+    private static double median(int samples, Operation operation) throws SQLException {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long[] latencies = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies[samples / 2] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,172 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import ai.tutor.cab302exceptionalhandlers.model.SQLiteConnection;
+import ai.tutor.cab302exceptionalhandlers.model.StatementCache;
+
+public class StatementCacheTest {
+    private SQLiteConnection db;
+    private Connection connection;
+    private StatementCache statementCache;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        connection = db.getInstance();
+        statementCache = new StatementCache(connection, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statementCache.close();
+        db.close();
+    }
+
+    @Test
+    public void testStatementReused() throws SQLException {
+        PreparedStatement first = statementCache.prepare("SELECT ?", Statement.NO_GENERATED_KEYS);
+        first.setInt(1, 1);
+        first.executeQuery();
+        first.close();
+
+        PreparedStatement second = statementCache.prepare("SELECT ?", Statement.NO_GENERATED_KEYS);
+        assertSame(first, second);
+        assertFalse(second.isClosed());
+        second.close();
+
+        assertEquals(1, statementCache.getHits());
+        assertEquals(1, statementCache.getMisses());
+    }
+
+    @Test
+    public void testParametersClearedOnRelease() throws SQLException {
+        try (PreparedStatement statement = statementCache.prepare("SELECT ?", Statement.NO_GENERATED_KEYS)) {
+            statement.setString(1, "value");
+            statement.executeQuery();
+        }
+        try (PreparedStatement statement = statementCache.prepare("SELECT ?", Statement.NO_GENERATED_KEYS)) {
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            assertNull(resultSet.getString(1));
+        }
+    }
+
+    @Test
+    public void testNestedUseGetsSeparateStatement() throws SQLException {
+        try (PreparedStatement outer = statementCache.prepare("SELECT 1", Statement.NO_GENERATED_KEYS);
+             PreparedStatement inner = statementCache.prepare("SELECT 1", Statement.NO_GENERATED_KEYS)) {
+            assertNotSame(outer, inner);
+            ResultSet outerResult = outer.executeQuery();
+            inner.executeQuery();
+            assertTrue(outerResult.next());
+        }
+        assertEquals(1, statementCache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws SQLException {
+        PreparedStatement one = statementCache.prepare("SELECT 1", Statement.NO_GENERATED_KEYS);
+        one.close();
+        statementCache.prepare("SELECT 2", Statement.NO_GENERATED_KEYS).close();
+        statementCache.prepare("SELECT 1", Statement.NO_GENERATED_KEYS).close();
+        statementCache.prepare("SELECT 3", Statement.NO_GENERATED_KEYS).close();
+
+        assertEquals(2, statementCache.size());
+        assertEquals(1, statementCache.getEvictions());
+        assertSame(one, statementCache.prepare("SELECT 1", Statement.NO_GENERATED_KEYS));
+    }
+
+    @Test
+    public void testGeneratedKeysCachedSeparately() throws SQLException {
+        String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
+        PreparedStatement plain = statementCache.prepare(sql, Statement.NO_GENERATED_KEYS);
+        plain.close();
+        PreparedStatement withKeys = statementCache.prepare(sql, Statement.RETURN_GENERATED_KEYS);
+        assertNotSame(plain, withKeys);
+        withKeys.close();
+    }
+
+    @Test
+    public void testLeaseUsesCache() throws SQLException {
+        PreparedStatement first;
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement statement = lease.prepareStatement("SELECT COUNT(*) FROM users")) {
+            first = statement;
+            statement.executeQuery();
+        }
+        try (SQLiteConnection.Lease lease = db.read();
+             PreparedStatement statement = lease.prepareStatement("SELECT COUNT(*) FROM users")) {
+            assertSame(first, statement);
+        }
+        assertTrue(db.getPoolMetrics().getStatementCacheHits() >= 1);
+    }
+
+    @Test
+    public void testReleasedStatementDoesNotHoldReadTransaction() throws Exception {
+        Path directory = Files.createTempDirectory("tutor-test");
+        SQLiteConnection fileDb = new SQLiteConnection(directory.resolve("cache").toString());
+        try {
+            try (SQLiteConnection.Lease lease = fileDb.write();
+                 Statement statement = lease.connection().createStatement()) {
+                statement.executeUpdate("INSERT INTO users (username, password) VALUES ('a', 'x'), ('b', 'x')");
+            }
+
+            // Stop reading part way through the results, as getUser does
+            try (SQLiteConnection.Lease lease = fileDb.read();
+                 PreparedStatement statement = lease.prepareStatement("SELECT * FROM users")) {
+                assertTrue(statement.executeQuery().next());
+            }
+
+            try (SQLiteConnection.Lease lease = fileDb.write();
+                 Statement statement = lease.connection().createStatement()) {
+                statement.executeUpdate("INSERT INTO users (username, password) VALUES ('c', 'x')");
+                ResultSet checkpoint = statement.executeQuery("PRAGMA wal_checkpoint(TRUNCATE)");
+                assertTrue(checkpoint.next());
+                assertEquals(0, checkpoint.getInt(1));
+            }
+        } finally {
+            fileDb.close();
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        Path directory = Files.createTempDirectory("tutor-test");
+        SQLiteConnection uncachedDb = new SQLiteConnection(directory.resolve("uncached").toString(), 1, 0);
+        try {
+            PreparedStatement first;
+            try (SQLiteConnection.Lease lease = uncachedDb.read();
+                 PreparedStatement statement = lease.prepareStatement("SELECT 1")) {
+                first = statement;
+            }
+            assertTrue(first.isClosed());
+            assertEquals(0, uncachedDb.getPoolMetrics().getStatementCacheHits());
+        } finally {
+            uncachedDb.close();
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new StatementCache(connection, 0));
+    }
+}
@@ -0,0 +1,44 @@
+package tests;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+/**
+ * Fixtures shared by the database tests.
+ */
+final class TestData {
+    private TestData() {}
+
+    /**
+     * Creates a chat for the given user through the DAOs of a database.
+     */
+    static Chat addChat(DAORegistry daos, int userId, String name) throws SQLException {
+        Chat chat = new Chat(userId, name, "regular", "normal", 1, "University", "Science");
+        daos.getChatDAO().createChat(chat);
+        return chat;
+    }
+
+    /**
+     * Saves a message to a chat through the DAOs of a database.
+     */
+    static Message addMessage(DAORegistry daos, Chat chat, String content, boolean fromUser, boolean isQuiz) throws SQLException {
+        Message message = new Message(chat.getId(), content, fromUser, isQuiz);
+        daos.getMessageDAO().createMessage(message);
+        return message;
+    }
+
+    /**
+     * Builds a quiz with the single question "What is 2 + 2?", answered correctly by option b.
+     */
+    static QuizTree sumQuiz(int messageId, String quizName, String difficulty) {
+        return new QuizTree(
+                new Quiz(messageId, quizName, difficulty),
+                List.of(new QuizQuestion(messageId, 1, "What is 2 + 2?")),
+                Map.of(1, List.of(new AnswerOption(messageId, 1, "a", "3", false),
+                        new AnswerOption(messageId, 1, "b", "4", true)))
+        );
+    }
+}
@@ -0,0 +1,70 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import ai.tutor.cab302exceptionalhandlers.Utils.ThinkTagFilter;
+
+public class ThinkTagFilterTest {
+    private ThinkTagFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        filter = new ThinkTagFilter();
+    }
+
+    private String feed(String... tokens) {
+        StringBuilder visible = new StringBuilder();
+        for (String token : tokens) {
+            visible.append(filter.accept(token));
+        }
+        return visible.append(filter.finish()).toString();
+    }
+
+    @Test
+    public void testNoThinkTags() {
+        assertEquals("Hello there", feed("Hello", " there"));
+    }
+
+    @Test
+    public void testThinkSpanInSingleToken() {
+        assertEquals("\n\nAnswer", feed("<think>reasoning</think>\n\nAnswer"));
+    }
+
+    @Test
+    public void testThinkTagsSplitAcrossTokens() {
+        assertEquals("Answer", feed("<th", "ink>", "some ", "reasoning</th", "in", "k>", "Answer"));
+    }
+
+    @Test
+    public void testNothingVisibleWhileThinking() {
+        assertEquals("", filter.accept("<think>"));
+        assertTrue(filter.isThinking());
+        assertEquals("", filter.accept("still thinking"));
+        assertEquals("Done", filter.accept("</think>Done"));
+        assertFalse(filter.isThinking());
+    }
+
+    @Test
+    public void testPartialTagHeldBack() {
+        assertEquals("a ", filter.accept("a <"));
+        assertEquals("<b", filter.accept("b"));
+    }
+
+    @Test
+    public void testUnterminatedThinkDiscarded() {
+        assertEquals("Visible ", feed("Visible <think>never closed"));
+    }
+
+    @Test
+    public void testMultipleThinkSpans() {
+        assertEquals("AB", ThinkTagFilter.strip("<think>1</think>A<think>2</think>B"));
+    }
+
+    @Test
+    public void testNullAndEmptyTokens() {
+        assertEquals("", filter.accept(null));
+        assertEquals("", filter.accept(""));
+        assertEquals("", filter.finish());
+    }
+}
@@ -0,0 +1,92 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import ai.tutor.cab302exceptionalhandlers.model.*;
+
+public class UserAnswerDAOTest {
+    private SQLiteConnection db;
+    private UserAnswerDAO userAnswerDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        db = new SQLiteConnection(true);
+        userAnswerDAO = new UserAnswerDAO(db);
+
+        new UserDAO(db).createUser(new User("TestUser", "password"));
+        new ChatDAO(db).createChat(new Chat(1, "Test Chat 1", "regular", "normal", 2, "University", "IT"));
+        MessageDAO messageDAO = new MessageDAO(db);
+        QuizDAO quizDAO = new QuizDAO(db);
+        QuizQuestionDAO quizQuestionDAO = new QuizQuestionDAO(db);
+        for (int messageId = 1; messageId <= 2; messageId++) {
+            messageDAO.createMessage(new Message(1, "Quiz content", false, true));
+            quizDAO.createQuiz(new Quiz(messageId, "Quiz " + messageId, "normal"));
+            quizQuestionDAO.createQuizQuestion(new QuizQuestion(messageId, 1, "Question 1"));
+            quizQuestionDAO.createQuizQuestion(new QuizQuestion(messageId, 2, "Question 2"));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.close();
+    }
+
+    private void createAttempt(int messageId, int attempt) throws SQLException {
+        userAnswerDAO.createUserAnswers(List.of(
+                new UserAnswer(messageId, attempt, 1, "a"),
+                new UserAnswer(messageId, attempt, 2, "b")
+        ));
+    }
+
+    @Test
+    public void testGetLatestQuestionAttempt() throws SQLException {
+        createAttempt(1, 1);
+        createAttempt(1, 3);
+        createAttempt(1, 2);
+        createAttempt(2, 5);
+        userAnswerDAO.createUserAnswer(new UserAnswer(1, 4, 2, "a"));
+
+        assertEquals(3, userAnswerDAO.getLatestQuestionAttempt(1, 1));
+        assertEquals(4, userAnswerDAO.getLatestQuestionAttempt(1, 2));
+        assertEquals(5, userAnswerDAO.getLatestQuestionAttempt(2, 1));
+    }
+
+    @Test
+    public void testGetLatestQuestionAttemptNone() throws SQLException {
+        assertEquals(0, userAnswerDAO.getLatestQuestionAttempt(1, 1));
+    }
+
+    @Test
+    public void testGetQuizAttemptNumbers() throws SQLException {
+        createAttempt(1, 2);
+        createAttempt(1, 1);
+        createAttempt(2, 4);
+
+        assertEquals(List.of(1, 2), userAnswerDAO.getQuizAttemptNumbers(1));
+        assertEquals(List.of(4), userAnswerDAO.getQuizAttemptNumbers(2));
+    }
+
+    @Test
+    public void testGetQuizAttemptNumbersNone() throws SQLException {
+        assertTrue(userAnswerDAO.getQuizAttemptNumbers(1).isEmpty());
+    }
+
+    @Test
+    public void testCreateUserAnswers() throws SQLException {
+        createAttempt(1, 1);
+
+        List<UserAnswer> userAnswers = userAnswerDAO.getAllUserQuizAnswers(1, 1);
+        assertEquals(2, userAnswers.size());
+        assertEquals("b", userAnswerDAO.getUserQuestionAnswer(1, 1, 2).getAnswerOption());
+    }
+
+    @Test
+    public void testCreateUserAnswersEmpty() throws SQLException {
+        userAnswerDAO.createUserAnswers(List.of());
+        assertTrue(userAnswerDAO.getAllUserQuizAttempts(1).isEmpty());
+    }
+}